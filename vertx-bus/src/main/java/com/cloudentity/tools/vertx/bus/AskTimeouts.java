@@ -0,0 +1,330 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Closeable;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryContext;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.json.JsonObject;
+import io.vertx.micrometer.backends.BackendRegistries;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks send-timeouts of {@link VertxBus#ask} calls with a hashed timing wheel per event loop,
+ * instead of scheduling one Vertx timer per request.
+ *
+ * Each event-loop context has a wheel of `wheelSize` buckets advanced every `tickMs` by a single periodic timer.
+ * Outstanding asks are put in the bucket where their timeout falls and are failed in batches with {@link ReplyFailure#TIMEOUT}
+ * when the wheel reaches it. Timeouts are rounded up to `tickMs`. The periodic timer is cancelled when there are no outstanding asks.
+ *
+ * Asks made outside of event-loop context (e.g. from worker) are not tracked, Vertx timer is used instead.
+ *
+ * Enable it with {@link AskTimeouts#enable(Vertx, long, int)}, it's disabled when Vertx is closed.
+ * If Vertx metrics are enabled, then following meters are registered:
+ *
+ * - `vertx.bus.ask.active` - gauge of outstanding asks tracked by the wheel
+ * - `vertx.bus.ask.expired` - counter of asks failed by the wheel with timeout
+ */
+public class AskTimeouts {
+  private static volatile Map<EventBus, AskTimeouts> enabled = new IdentityHashMap<>();
+  private static final JsonObject NO_SEND_TIMEOUT = new JsonObject().put("timeout", -1L);
+
+  private final EventBus bus;
+  private final long tickMs;
+  private final int wheelSize;
+  private final String contextKey = "vertx-bus.ask-timeouts." + UUID.randomUUID();
+  private final ThreadLocal<PendingAsk> sending = new ThreadLocal<>();
+  private final Handler<DeliveryContext<Object>> replyAddressInterceptor = this::captureReplyAddress;
+
+  private final LongAdder active = new LongAdder();
+  private final LongAdder expired = new LongAdder();
+  private final Closeable closeHook;
+  private MeterRegistry registry;
+  private List<Meter> meters;
+
+  private AskTimeouts(Vertx vertx, long tickMs, int wheelSize) {
+    this.bus = vertx.eventBus();
+    this.tickMs = tickMs;
+    this.wheelSize = wheelSize;
+    this.closeHook = completion -> {
+      disable(vertx);
+      completion.handle(Future.succeededFuture());
+    };
+  }
+
+  /**
+   * Enables timeout wheel for asks sent on event bus of given Vertx, until it is closed.
+   * Returns false if it was already enabled.
+   */
+  public static synchronized boolean enable(Vertx vertx, long tickMs, int wheelSize) {
+    if (tickMs <= 0 || wheelSize <= 0) {
+      throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+    }
+    EventBus bus = vertx.eventBus();
+    if (enabled.containsKey(bus)) {
+      return false;
+    }
+
+    AskTimeouts timeouts = new AskTimeouts(vertx, tickMs, wheelSize);
+    bus.addOutboundInterceptor(timeouts.replyAddressInterceptor);
+    ((VertxInternal) vertx).addCloseHook(timeouts.closeHook);
+
+    MeterRegistry registry = BackendRegistries.getDefaultNow();
+    if (registry != null) {
+      timeouts.registerMeters(registry);
+    }
+
+    Map<EventBus, AskTimeouts> copy = new IdentityHashMap<>(enabled);
+    copy.put(bus, timeouts);
+    enabled = copy;
+    return true;
+  }
+
+  public static boolean enable(Vertx vertx) {
+    return enable(vertx, 100, 512);
+  }
+
+  public static synchronized void disable(Vertx vertx) {
+    Map<EventBus, AskTimeouts> copy = new IdentityHashMap<>(enabled);
+    AskTimeouts timeouts = copy.remove(vertx.eventBus());
+    if (timeouts != null) {
+      timeouts.bus.removeOutboundInterceptor(timeouts.replyAddressInterceptor);
+      ((VertxInternal) vertx).removeCloseHook(timeouts.closeHook);
+      timeouts.removeMeters();
+      enabled = copy;
+    }
+  }
+
+  private void registerMeters(MeterRegistry registry) {
+    this.registry = registry;
+    this.meters = Arrays.asList(
+      Gauge.builder("vertx.bus.ask.active", this, AskTimeouts::activeAsks).register(registry),
+      FunctionCounter.builder("vertx.bus.ask.expired", this, AskTimeouts::expiredAsks).register(registry)
+    );
+  }
+
+  private void removeMeters() {
+    if (registry != null) {
+      meters.forEach(registry::remove);
+    }
+  }
+
+  /**
+   * Returns AskTimeouts enabled for given event bus or null.
+   */
+  public static AskTimeouts get(EventBus bus) {
+    Map<EventBus, AskTimeouts> current = enabled;
+    return current.isEmpty() ? null : current.get(bus);
+  }
+
+  /**
+   * Number of outstanding asks tracked by the wheel.
+   */
+  public long activeAsks() {
+    return active.sum();
+  }
+
+  /**
+   * Number of asks failed by the wheel with timeout.
+   */
+  public long expiredAsks() {
+    return expired.sum();
+  }
+
+  /**
+   * Returns true if ask from given context can be tracked by the wheel.
+   */
+  public static boolean canTrack(Context ctx, DeliveryOptions opts) {
+    return ctx != null && ctx.isEventLoopContext() && opts.getSendTimeout() > 0;
+  }
+
+  /**
+   * Sends the message without Vertx reply timer and tracks its timeout on the wheel of current context.
+   * Must be called on event-loop context, see {@link AskTimeouts#canTrack(Context, DeliveryOptions)}.
+   */
+  public void send(Context ctx, String addr, Object body, DeliveryOptions opts, Handler<AsyncResult<Message<BusPayload>>> replyHandler) {
+    long timeout = opts.getSendTimeout();
+    PendingAsk pending = new PendingAsk(addr, timeout, replyHandler);
+
+    sending.set(pending);
+    try {
+      bus.<BusPayload>send(addr, body, withoutSendTimeout(opts), pending::handleReply);
+    } finally {
+      sending.set(null);
+    }
+
+    if (!pending.done) {
+      wheel(ctx).add(pending, timeout);
+    }
+  }
+
+  /**
+   * Returns copy of options with send-timeout -1, so Vertx does not schedule reply timer.
+   * DeliveryOptions.setSendTimeout does not accept -1, so it's set via JSON.
+   */
+  private static DeliveryOptions withoutSendTimeout(DeliveryOptions opts) {
+    return new DeliveryOptions(NO_SEND_TIMEOUT)
+      .setCodecName(opts.getCodecName())
+      .setHeaders(opts.getHeaders())
+      .setLocalOnly(opts.isLocalOnly());
+  }
+
+  private void captureReplyAddress(DeliveryContext<Object> ctx) {
+    PendingAsk pending = sending.get();
+    if (pending != null && pending.replyAddress == null) {
+      pending.replyAddress = ctx.message().replyAddress();
+    }
+    ctx.next();
+  }
+
+  private Wheel wheel(Context ctx) {
+    Wheel wheel = ctx.get(contextKey);
+    if (wheel == null) {
+      wheel = new Wheel(ctx);
+      ctx.put(contextKey, wheel);
+    }
+    return wheel;
+  }
+
+  private class PendingAsk {
+    final String addr;
+    final long timeout;
+    final Handler<AsyncResult<Message<BusPayload>>> replyHandler;
+    String replyAddress;
+    boolean done;
+    boolean expired;
+
+    Wheel wheel;
+    int bucket;
+    int remainingRounds;
+    PendingAsk prev, next;
+
+    PendingAsk(String addr, long timeout, Handler<AsyncResult<Message<BusPayload>>> replyHandler) {
+      this.addr = addr;
+      this.timeout = timeout;
+      this.replyHandler = replyHandler;
+    }
+
+    void handleReply(AsyncResult<Message<BusPayload>> reply) {
+      if (!done) {
+        done = true;
+        if (wheel != null) wheel.remove(this);
+        replyHandler.handle(reply);
+      } else if (expired && replyAddress != null) {
+        // timeout failure sent to reply address by the wheel
+        replyHandler.handle(reply);
+      }
+    }
+
+    void expire() {
+      done = true;
+      expired = true;
+      ReplyException ex = new ReplyException(ReplyFailure.TIMEOUT, "Timed out after waiting " + timeout + "(ms) for a reply. address: " + addr);
+      if (replyAddress != null) {
+        // delivering message to reply address unregisters Vertx reply handler
+        bus.send(replyAddress, BusPayload.failed(ex));
+      } else {
+        replyHandler.handle(Future.failedFuture(ex));
+      }
+    }
+  }
+
+  /**
+   * Timing wheel of single event-loop context. Accessed only from the context thread.
+   */
+  private class Wheel {
+    final Context ctx;
+    final PendingAsk[] buckets = new PendingAsk[wheelSize];
+    int cursor;
+    int size;
+    long timerId = -1;
+
+    Wheel(Context ctx) {
+      this.ctx = ctx;
+    }
+
+    void add(PendingAsk pending, long timeout) {
+      long ticks = Math.max(1, (timeout + tickMs - 1) / tickMs);
+      int bucket = (int) ((cursor + ticks) % wheelSize);
+      pending.remainingRounds = (int) ((ticks - 1) / wheelSize);
+      pending.wheel = this;
+      pending.bucket = bucket;
+      pending.next = buckets[bucket];
+      if (buckets[bucket] != null) buckets[bucket].prev = pending;
+      buckets[bucket] = pending;
+
+      size++;
+      active.increment();
+      if (timerId == -1) {
+        timerId = ctx.owner().setPeriodic(tickMs, t -> tick());
+      }
+    }
+
+    void remove(PendingAsk pending) {
+      if (pending.prev != null) pending.prev.next = pending.next;
+      else buckets[pending.bucket] = pending.next;
+      if (pending.next != null) pending.next.prev = pending.prev;
+      pending.prev = pending.next = null;
+      pending.wheel = null;
+
+      size--;
+      active.decrement();
+    }
+
+    void tick() {
+      cursor = (cursor + 1) % wheelSize;
+
+      PendingAsk expiredHead = null;
+      PendingAsk pending = buckets[cursor];
+      while (pending != null) {
+        PendingAsk next = pending.next;
+        if (pending.remainingRounds > 0) {
+          pending.remainingRounds--;
+        } else {
+          if (pending.prev != null) pending.prev.next = next;
+          else buckets[cursor] = next;
+          if (next != null) next.prev = pending.prev;
+
+          pending.prev = null;
+          pending.wheel = null;
+          pending.next = expiredHead;
+          expiredHead = pending;
+          size--;
+          active.decrement();
+        }
+        pending = next;
+      }
+
+      while (expiredHead != null) {
+        PendingAsk next = expiredHead.next;
+        expiredHead.next = null;
+        expired.increment();
+        expiredHead.expire();
+        expiredHead = next;
+      }
+
+      if (size == 0) {
+        ctx.owner().cancelTimer(timerId);
+        timerId = -1;
+      }
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.cloudentity.tools.vertx.bus;
+
+/**
+ * Observes messages exchanged with {@link VertxBus} ask/consume methods.
+ *
+ * Interceptors are loaded once, see {@link BusInterceptors}. When there is none, VertxBus does not call interceptors at all.
+ * Implementations are called on event-loop threads and must not block.
+ */
+public interface BusInterceptor {
+  default void askStarted(String addr, Object request) {}
+
+  default void askCompleted(String addr, Object request, Object response) {}
+
+  default void askFailed(String addr, Object request, Throwable cause) {}
+
+  default void consumeStarted(String addr, Object request) {}
+
+  default void consumeCompleted(String addr, Object request, Object response) {}
+
+  default void consumeFailed(String addr, Object request, Throwable cause) {}
+}
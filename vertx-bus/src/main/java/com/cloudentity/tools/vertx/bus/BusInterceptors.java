@@ -0,0 +1,76 @@
+package com.cloudentity.tools.vertx.bus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Holds {@link BusInterceptor} used by {@link VertxBus}.
+ *
+ * Interceptors are loaded once, when the class is initialized: implementations provided with ServiceLoader
+ * (META-INF/services/com.cloudentity.tools.vertx.bus.BusInterceptor) and {@link LoggingBusInterceptor} unless it's disabled.
+ * The result is kept in static final field, so when there are no interceptors JIT removes the interceptor calls from VertxBus.
+ */
+public final class BusInterceptors {
+  static final BusInterceptor INTERCEPTOR = load();
+
+  private BusInterceptors() {
+  }
+
+  /**
+   * Returns active interceptor or null if there is none.
+   */
+  public static BusInterceptor get() {
+    return INTERCEPTOR;
+  }
+
+  private static BusInterceptor load() {
+    List<BusInterceptor> interceptors = new ArrayList<>();
+    ServiceLoader.load(BusInterceptor.class).forEach(interceptors::add);
+    if (LoggingBusInterceptor.isEnabled()) {
+      interceptors.add(new LoggingBusInterceptor());
+    }
+
+    if (interceptors.isEmpty()) return null;
+    else if (interceptors.size() == 1) return interceptors.get(0);
+    else return new Composite(interceptors.toArray(new BusInterceptor[0]));
+  }
+
+  private static class Composite implements BusInterceptor {
+    private final BusInterceptor[] interceptors;
+
+    Composite(BusInterceptor[] interceptors) {
+      this.interceptors = interceptors;
+    }
+
+    @Override
+    public void askStarted(String addr, Object request) {
+      for (BusInterceptor i : interceptors) i.askStarted(addr, request);
+    }
+
+    @Override
+    public void askCompleted(String addr, Object request, Object response) {
+      for (BusInterceptor i : interceptors) i.askCompleted(addr, request, response);
+    }
+
+    @Override
+    public void askFailed(String addr, Object request, Throwable cause) {
+      for (BusInterceptor i : interceptors) i.askFailed(addr, request, cause);
+    }
+
+    @Override
+    public void consumeStarted(String addr, Object request) {
+      for (BusInterceptor i : interceptors) i.consumeStarted(addr, request);
+    }
+
+    @Override
+    public void consumeCompleted(String addr, Object request, Object response) {
+      for (BusInterceptor i : interceptors) i.consumeCompleted(addr, request, response);
+    }
+
+    @Override
+    public void consumeFailed(String addr, Object request, Throwable cause) {
+      for (BusInterceptor i : interceptors) i.consumeFailed(addr, request, cause);
+    }
+  }
+}
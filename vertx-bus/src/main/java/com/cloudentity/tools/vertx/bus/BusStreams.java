@@ -0,0 +1,419 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.impl.NoStackTraceThrowable;
+import io.vertx.core.streams.ReadStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Streaming of responses over event bus with credit-based flow control, see {@link VertxBus#askStream} and {@link VertxBus#consumeStream}.
+ *
+ * Protocol:
+ * - client registers consumer at per-call data address and, when it is registered (also in the cluster), asks the producer with data address in `vertx-bus.stream-address` header
+ * - producer pauses the response ReadStream, replies with its control address when it is registered and sends elements to data address only when it has credits
+ * - client sends credits (positive Integer) to control address as elements are consumed, so at most `window` elements are in transit or buffered
+ * - producer sends end marker (header `vertx-bus.stream` = `end`) or failure (BusPayload.failed) when the stream ends or fails
+ * - client sends -1 to control address when it stops consuming before the end, then producer closes the stream
+ * - producer closes the stream if it has no credits and receives none for `VERTX_BUS_STREAM_IDLE_TIMEOUT` ms (60s by default)
+ */
+class BusStreams {
+  static final String STREAM_ADDRESS_HEADER = "vertx-bus.stream-address";
+  static final String STREAM_HEADER = "vertx-bus.stream";
+  static final String STREAM_END = "end";
+  static final int CANCEL = -1;
+
+  private static final Logger log = LoggerFactory.getLogger(BusStreams.class);
+  private static volatile long idleTimeout = readIdleTimeout();
+
+  /**
+   * Producer idle timeout in ms, `VERTX_BUS_STREAM_IDLE_TIMEOUT` system or environment variable, 60000 by default.
+   */
+  private static long readIdleTimeout() {
+    String value = System.getenv("VERTX_BUS_STREAM_IDLE_TIMEOUT") != null ? System.getenv("VERTX_BUS_STREAM_IDLE_TIMEOUT") : System.getProperty("VERTX_BUS_STREAM_IDLE_TIMEOUT");
+    return value != null ? Long.parseLong(value) : 60000;
+  }
+
+  static void setIdleTimeout(long idleTimeout) {
+    BusStreams.idleTimeout = idleTimeout;
+  }
+
+  static <T> ReadStream<T> ask(EventBus bus, String addr, DeliveryOptions opts, Class<T> elementClazz, int window, Object request) {
+    if (window <= 0) {
+      throw new IllegalArgumentException("window must be positive");
+    }
+    Receiver<T> receiver = new Receiver<>(bus, addr, elementClazz, window, opts.getSendTimeout());
+    receiver.start(opts, request);
+    return receiver;
+  }
+
+  static <A, B> void consume(EventBus bus, String addr, Class<A> requestClazz, Function<A, ReadStream<B>> handler) {
+    bus.<BusPayload>consumer(addr, msg -> {
+      Object request = msg.body().value;
+      String dataAddr = msg.headers().get(STREAM_ADDRESS_HEADER);
+      if (dataAddr == null) {
+        msg.fail(400, String.format("Consuming stream failed on address=%s, request=%s. Missing %s header, use VertxBus.askStream", addr, request, STREAM_ADDRESS_HEADER));
+      } else if (!requestClazz.isInstance(request)) {
+        msg.fail(400, String.format("Consuming stream failed on address=%s, request=%s. Could not convert request body to %s", addr, request, requestClazz.getName()));
+      } else {
+        try {
+          ReadStream<B> stream = handler.apply(requestClazz.cast(request));
+          send(bus, addr, dataAddr, stream, msg);
+        } catch (Throwable ex) {
+          msg.reply(BusPayload.failed(ex));
+        }
+      }
+    });
+  }
+
+  /**
+   * Sends elements of the stream to data address as credits arrive at control address.
+   * Replies to `msg` with control address when its consumer is registered.
+   */
+  private static <B> void send(EventBus bus, String addr, String dataAddr, ReadStream<B> stream, Message<BusPayload> msg) {
+    Producer<B> producer = new Producer<>(bus, addr, dataAddr, stream);
+    producer.start();
+    producer.control.completionHandler(registered -> {
+      if (registered.succeeded()) {
+        msg.reply(new BusPayload(producer.controlAddr));
+      } else {
+        producer.cancel();
+        msg.reply(BusPayload.failed(registered.cause()));
+      }
+    });
+  }
+
+  /**
+   * Producer side of the stream. Accessed only from the context of the stream consumer.
+   *
+   * If the producer has no credits and does not receive any for idle timeout (e.g. the client has gone),
+   * then it stops as if the stream was cancelled.
+   */
+  private static class Producer<B> {
+    private final EventBus bus;
+    private final String addr;
+    private final String dataAddr;
+    private final ReadStream<B> stream;
+    private final String controlAddr;
+    private final MessageConsumer<BusPayload> control;
+    private final Context ctx = Vertx.currentContext();
+
+    private long credits;
+    private boolean stopped;
+    private long timerId = -1;
+
+    Producer(EventBus bus, String addr, String dataAddr, ReadStream<B> stream) {
+      this.bus = bus;
+      this.addr = addr;
+      this.dataAddr = dataAddr;
+      this.stream = stream;
+      this.controlAddr = addr + ".stream-control." + UUID.randomUUID();
+      this.control = bus.consumer(controlAddr);
+    }
+
+    void start() {
+      stream.pause();
+      stream.handler(element -> {
+        credits--;
+        bus.send(dataAddr, new BusPayload(element));
+      });
+      stream.exceptionHandler(ex -> {
+        stop();
+        bus.send(dataAddr, BusPayload.failed(ex));
+      });
+      stream.endHandler(x -> {
+        stop();
+        bus.send(dataAddr, new BusPayload(null), new DeliveryOptions().addHeader(STREAM_HEADER, STREAM_END));
+      });
+
+      control.handler(msg -> {
+        int granted = ((Number) msg.body().value).intValue();
+        if (granted > 0) {
+          credits += granted;
+          restartTimer();
+          stream.fetch(granted);
+        } else {
+          cancel();
+        }
+      });
+      restartTimer();
+    }
+
+    private void restartTimer() {
+      long timeout = idleTimeout;
+      if (ctx == null || timeout <= 0 || stopped) return;
+      if (timerId != -1) ctx.owner().cancelTimer(timerId);
+      timerId = ctx.owner().setTimer(timeout, t -> {
+        timerId = -1;
+        if (stopped) {
+          return;
+        } else if (credits > 0) {
+          restartTimer();
+        } else {
+          log.warn("Streaming on address={} stopped, no credits received for {}ms", addr, timeout);
+          cancel();
+        }
+      });
+    }
+
+    private void stop() {
+      stopped = true;
+      control.unregister();
+      if (timerId != -1) {
+        ctx.owner().cancelTimer(timerId);
+        timerId = -1;
+      }
+    }
+
+    /**
+     * Stops sending and closes the source stream.
+     */
+    private void cancel() {
+      if (stopped) return;
+      stop();
+      stream.handler(null);
+      stream.exceptionHandler(null);
+      stream.endHandler(null);
+      closeSource(stream);
+    }
+  }
+
+  /**
+   * Closes stream that holds resources, e.g. AsyncFile or MessageConsumer. Other streams are released by setting null handler.
+   */
+  private static void closeSource(ReadStream<?> stream) {
+    try {
+      if (stream instanceof AsyncFile) {
+        ((AsyncFile) stream).close();
+      } else if (stream instanceof MessageConsumer) {
+        ((MessageConsumer<?>) stream).unregister();
+      } else if (stream instanceof AutoCloseable) {
+        ((AutoCloseable) stream).close();
+      }
+    } catch (Exception ex) {
+      log.warn("Could not close stream", ex);
+    }
+  }
+
+  /**
+   * Client side of the stream. Accessed only from the context of the caller.
+   */
+  private static class Receiver<T> implements ReadStream<T> {
+    private final EventBus bus;
+    private final String addr;
+    private final Class<T> elementClazz;
+    private final int window;
+    private final long timeout;
+    private final Context ctx = Vertx.currentContext();
+    private final ArrayDeque<T> buffer = new ArrayDeque<>();
+
+    private MessageConsumer<BusPayload> consumer;
+    private String controlAddr;
+    private Handler<T> handler;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+    private Throwable failure; // kept until exceptionHandler is set, e.g. when asking failed immediately
+
+    private long demand = Long.MAX_VALUE;
+    private int consumed;    // elements delivered to handler since last credits were sent
+    private int outstanding; // credits sent, but elements not received yet
+    private boolean ended;
+    private boolean closed;
+    private boolean draining;
+    private long timerId = -1;
+
+    Receiver(EventBus bus, String addr, Class<T> elementClazz, int window, long timeout) {
+      this.bus = bus;
+      this.addr = addr;
+      this.elementClazz = elementClazz;
+      this.window = window;
+      this.timeout = timeout;
+    }
+
+    void start(DeliveryOptions opts, Object request) {
+      String dataAddr = addr + ".stream." + UUID.randomUUID();
+      consumer = bus.consumer(dataAddr, this::handleMessage);
+      consumer.completionHandler(registered -> {
+        if (closed) {
+          return;
+        } else if (registered.failed()) {
+          fail(registered.cause());
+        } else {
+          ask(opts, request, dataAddr);
+        }
+      });
+    }
+
+    private void ask(DeliveryOptions opts, Object request, String dataAddr) {
+      // DeliveryOptions copy-constructor shares headers, so they are copied explicitly
+      DeliveryOptions streamOpts = new DeliveryOptions().setSendTimeout(opts.getSendTimeout()).setLocalOnly(opts.isLocalOnly());
+      if (opts.getHeaders() != null) {
+        opts.getHeaders().forEach(h -> streamOpts.addHeader(h.getKey(), h.getValue()));
+      }
+      streamOpts.addHeader(STREAM_ADDRESS_HEADER, dataAddr);
+
+      VertxBus.ask(bus, addr, streamOpts, String.class, request).setHandler(result -> {
+        if (closed) {
+          if (result.succeeded()) bus.send(result.result(), new BusPayload(CANCEL));
+        } else if (result.succeeded()) {
+          controlAddr = result.result();
+          grant(window);
+        } else {
+          fail(result.cause());
+        }
+      });
+    }
+
+    private void handleMessage(Message<BusPayload> msg) {
+      if (closed) return;
+
+      BusPayload payload = msg.body();
+      if (payload.isFailed()) {
+        fail(payload.ex);
+      } else if (STREAM_END.equals(msg.headers().get(STREAM_HEADER))) {
+        ended = true;
+        drain();
+      } else if (!elementClazz.isInstance(payload.value)) {
+        cancel();
+        fail(new NoStackTraceThrowable(String.format("Streaming failed on address=%s. %s can't be cast to %s", addr, payload.value == null ? null : payload.value.getClass(), elementClazz)));
+      } else {
+        outstanding--;
+        buffer.add(elementClazz.cast(payload.value));
+        restartTimer();
+        drain();
+      }
+    }
+
+    private void drain() {
+      if (draining) return;
+      draining = true;
+      try {
+        while (handler != null && demand > 0 && !buffer.isEmpty() && !closed) {
+          if (demand != Long.MAX_VALUE) demand--;
+          T element = buffer.poll();
+          consumed++;
+          handler.handle(element);
+        }
+      } finally {
+        draining = false;
+      }
+
+      if (closed) {
+        return;
+      } else if (ended && buffer.isEmpty()) {
+        close();
+        if (endHandler != null) endHandler.handle(null);
+      } else if (!ended && controlAddr != null && consumed >= Math.max(1, window / 2)) {
+        grant(consumed);
+      }
+    }
+
+    private void grant(int credits) {
+      consumed = 0;
+      outstanding += credits;
+      bus.send(controlAddr, new BusPayload(credits));
+      restartTimer();
+    }
+
+    private void restartTimer() {
+      if (ctx == null || timeout <= 0) return;
+      if (timerId != -1) ctx.owner().cancelTimer(timerId);
+      timerId = ctx.owner().setTimer(timeout, t -> {
+        timerId = -1;
+        if (!closed && !ended && outstanding > 0) {
+          cancel();
+          fail(new ReplyException(ReplyFailure.TIMEOUT, "Timed out after waiting " + timeout + "(ms) for stream element. address: " + addr));
+        }
+      });
+    }
+
+    private void cancel() {
+      if (controlAddr != null && !closed) {
+        bus.send(controlAddr, new BusPayload(CANCEL));
+      }
+    }
+
+    private void fail(Throwable ex) {
+      if (closed) return;
+      close();
+      if (exceptionHandler != null) exceptionHandler.handle(ex);
+      else failure = ex;
+    }
+
+    private void close() {
+      closed = true;
+      buffer.clear();
+      if (timerId != -1) {
+        ctx.owner().cancelTimer(timerId);
+        timerId = -1;
+      }
+      consumer.unregister();
+    }
+
+    @Override
+    public ReadStream<T> exceptionHandler(Handler<Throwable> handler) {
+      this.exceptionHandler = handler;
+      if (handler != null && failure != null) {
+        Throwable ex = failure;
+        failure = null;
+        handler.handle(ex);
+      }
+      return this;
+    }
+
+    /**
+     * Setting null handler cancels the stream.
+     */
+    @Override
+    public ReadStream<T> handler(Handler<T> handler) {
+      this.handler = handler;
+      if (handler == null) {
+        cancel();
+        if (!closed) close();
+      } else {
+        drain();
+      }
+      return this;
+    }
+
+    @Override
+    public ReadStream<T> pause() {
+      demand = 0;
+      return this;
+    }
+
+    @Override
+    public ReadStream<T> resume() {
+      return fetch(Long.MAX_VALUE);
+    }
+
+    @Override
+    public ReadStream<T> fetch(long amount) {
+      if (amount < 0) {
+        throw new IllegalArgumentException("amount must be non-negative");
+      }
+      demand = Long.MAX_VALUE - demand < amount ? Long.MAX_VALUE : demand + amount;
+      drain();
+      return this;
+    }
+
+    @Override
+    public ReadStream<T> endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      return this;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package com.cloudentity.tools.vertx.bus;
 
-import com.cloudentity.tools.vertx.json.JsonExtractor;
+import com.cloudentity.tools.vertx.json.CopyOnWriteJson;
+import com.cloudentity.tools.vertx.json.JsonPath;
 import com.cloudentity.tools.vertx.conf.ConfService;
 import com.cloudentity.tools.vertx.conf.ConfVerticle;
 import com.cloudentity.tools.vertx.tracing.TracingManager;
@@ -138,19 +139,22 @@ public abstract class ComponentVerticle extends AbstractVerticle {
     return conf = c;
   }
 
+  /**
+   * Consumes changes of this verticle's configuration only, ConfVerticle publishes them when the configuration at `configPath` changed.
+   */
   private void registerSelfConfChangeConsumer() {
-    registerConfChangeConsumer(change -> {
-      if (configPath() != null) {
-        Optional<JsonObject> newConf = JsonExtractor.resolve(change.getNewConfiguration(), configPath());
-        if (newConf.isPresent() && !newConf.get().equals(conf)) {
+    if (configPath() != null) {
+      VertxBus.consumePublished(vertx.eventBus(), ConfVerticle.configChangeAddress(configPath()), ConfigChange.class, change -> {
+        JsonObject newConf = CopyOnWriteJson.copyOnWrite(change.getNewConfiguration()); // own view, published one is shared by all consumers
+        if (!CopyOnWriteJson.sameContent(newConf, conf) && !newConf.equals(conf)) {
           log.debug("Updating configuration. Old={}, new={}", conf, newConf);
-          ConfigChanged configChanged = new ConfigChanged(Optional.ofNullable(conf), newConf.get());
-          conf = newConf.get();
+          ConfigChanged configChanged = new ConfigChanged(Optional.ofNullable(conf), newConf);
+          conf = newConf;
 
           notifyConfChangeListeners(configChanged);
         }
-      }
-    });
+      });
+    }
   }
 
   private void notifyConfChangeListeners(ConfigChanged configChanged) {
@@ -267,27 +271,27 @@ public abstract class ComponentVerticle extends AbstractVerticle {
   }
 
   public <T> T createClient(Class<T> clazz) {
-    return VertxEndpointClient.makeWithTracing(vertx, tracing, clazz);
+    return VertxEndpointClient.makeCachedWithTracing(vertx, tracing, clazz, Optional.empty());
   }
 
   public <T> T createClient(Class<T> clazz, Optional<String> addressPrefixOpt) {
-    return VertxEndpointClient.makeWithTracing(vertx, tracing, clazz, addressPrefixOpt);
+    return VertxEndpointClient.makeCachedWithTracing(vertx, tracing, clazz, addressPrefixOpt);
   }
 
   public <T> T createClient(Class<T> clazz, String addressPrefix) {
-    return VertxEndpointClient.makeWithTracing(vertx, tracing, clazz, Optional.ofNullable(addressPrefix));
+    return VertxEndpointClient.makeCachedWithTracing(vertx, tracing, clazz, Optional.ofNullable(addressPrefix));
   }
 
   public <T> T createClient(Class<T> clazz, DeliveryOptions opts) {
-    return VertxEndpointClient.makeWithTracing(vertx, tracing, clazz, Optional.empty(), opts);
+    return VertxEndpointClient.makeCachedWithTracing(vertx, tracing, clazz, Optional.empty(), opts);
   }
 
   public <T> T createClient(Class<T> clazz, Optional<String> addressPrefixOpt, DeliveryOptions opts) {
-    return VertxEndpointClient.makeWithTracing(vertx, tracing, clazz, addressPrefixOpt, opts);
+    return VertxEndpointClient.makeCachedWithTracing(vertx, tracing, clazz, addressPrefixOpt, opts);
   }
 
   public <T> T createClient(Class<T> clazz, String addressPrefix, DeliveryOptions opts) {
-    return VertxEndpointClient.makeWithTracing(vertx, tracing, clazz, Optional.ofNullable(addressPrefix), opts);
+    return VertxEndpointClient.makeCachedWithTracing(vertx, tracing, clazz, Optional.ofNullable(addressPrefix), opts);
   }
 
   public static class ConfigChanged {
@@ -307,10 +311,16 @@ public abstract class ComponentVerticle extends AbstractVerticle {
     /**
      * Returns true if attribute value at given path is different in previous and new configuration.
      * If previous config was not set then always return true.
+     *
+     * Configuration from ConfVerticle shares unchanged JsonObjects and JsonArrays with previous configuration,
+     * so they are compared by reference unless they were modified, see {@link CopyOnWriteJson#sameContent(Object, Object)}.
      */
     public boolean hasChanged(String path) {
       if (_previousConfig.isPresent()) {
-        return !JsonExtractor.resolveValue(_previousConfig.get(), path).equals(JsonExtractor.resolveValue(_newConfig, path));
+        JsonPath compiled = JsonPath.compile(path);
+        Optional<Object> previousValue = compiled.resolveValue(_previousConfig.get());
+        Optional<Object> newValue = compiled.resolveValue(_newConfig);
+        return !CopyOnWriteJson.sameContent(previousValue.orElse(null), newValue.orElse(null)) && !previousValue.equals(newValue);
       } else return true;
     }
 
@@ -0,0 +1,258 @@
+package com.cloudentity.tools.vertx.bus;
+
+import com.cloudentity.tools.vertx.tracing.TracingContext;
+import com.cloudentity.tools.vertx.tracing.TracingManager;
+import com.cloudentity.tools.vertx.tracing.TracingVerticle;
+import io.vertx.config.ConfigChange;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Compact binary format of {@link BusPayload}, {@link ServiceRequest}, {@link ServiceResponse} and their values.
+ *
+ * Each value is prefixed with a type tag. Strings, buffers and collections are prefixed with their length.
+ * Supported values: null, String, Integer, Long, Double, Float, Boolean, byte[], Buffer, JsonObject, JsonArray, List, Optional and {@link SharedPayload}.
+ * {@link TracingContext} is sent as its span context entries and read back as {@link TracingContext#remote} context
+ * of the receiving node's TracingManager (see {@link TracingVerticle#sharedTracing()}), so spans started by the receiver are children of the sent span.
+ * ConfigChange is sent as its previous and new configuration, JsonObject is not JSON-mappable with `Json.mapper`.
+ * Other objects are mapped to JSON with `io.vertx.core.json.Json.mapper` and read back as instance of the same class,
+ * so they need to be JSON-mappable and registered in {@link WireTypes} on the receiving node. Values of unregistered classes are rejected.
+ *
+ * Exceptions are sent as class name and message. {@link ReplyException} is read back with its failure type and code,
+ * other exceptions are read back as ReplyException with RECIPIENT_FAILURE type.
+ */
+public class DefaultWireSerializer implements WireSerializer {
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte INT = 2;
+  private static final byte LONG = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte FLOAT = 5;
+  private static final byte BOOLEAN = 6;
+  private static final byte BYTES = 7;
+  private static final byte BUFFER = 8;
+  private static final byte JSON_OBJECT = 9;
+  private static final byte JSON_ARRAY = 10;
+  private static final byte LIST = 11;
+  private static final byte OPTIONAL = 12;
+  private static final byte SHARED_PAYLOAD = 13;
+  private static final byte BUS_PAYLOAD = 14;
+  private static final byte SERVICE_REQUEST = 15;
+  private static final byte SERVICE_RESPONSE = 16;
+  private static final byte EXCEPTION = 17;
+  private static final byte POJO = 18;
+  private static final byte TRACING_CONTEXT = 19;
+  private static final byte CONFIG_CHANGE = 20;
+
+  private final Supplier<TracingManager> tracing;
+
+  public DefaultWireSerializer() {
+    this(TracingVerticle::sharedTracing);
+  }
+
+  /**
+   * @param tracing TracingManager used to read TracingContext
+   */
+  public DefaultWireSerializer(Supplier<TracingManager> tracing) {
+    this.tracing = tracing;
+  }
+
+  @Override
+  public void encode(Buffer buffer, Object value) {
+    if (value == null) {
+      buffer.appendByte(NULL);
+    } else if (value instanceof String) {
+      buffer.appendByte(STRING);
+      appendString(buffer, (String) value);
+    } else if (value instanceof Integer) {
+      buffer.appendByte(INT).appendInt((Integer) value);
+    } else if (value instanceof Long) {
+      buffer.appendByte(LONG).appendLong((Long) value);
+    } else if (value instanceof Double) {
+      buffer.appendByte(DOUBLE).appendDouble((Double) value);
+    } else if (value instanceof Float) {
+      buffer.appendByte(FLOAT).appendFloat((Float) value);
+    } else if (value instanceof Boolean) {
+      buffer.appendByte(BOOLEAN).appendByte((Boolean) value ? (byte) 1 : (byte) 0);
+    } else if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      buffer.appendByte(BYTES).appendInt(bytes.length).appendBytes(bytes);
+    } else if (value instanceof Buffer) {
+      Buffer b = (Buffer) value;
+      buffer.appendByte(BUFFER).appendInt(b.length()).appendBuffer(b);
+    } else if (value instanceof JsonObject) {
+      buffer.appendByte(JSON_OBJECT);
+      appendString(buffer, ((JsonObject) value).encode());
+    } else if (value instanceof JsonArray) {
+      buffer.appendByte(JSON_ARRAY);
+      appendString(buffer, ((JsonArray) value).encode());
+    } else if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      buffer.appendByte(LIST).appendInt(list.size());
+      list.forEach(v -> encode(buffer, v));
+    } else if (value instanceof Optional) {
+      buffer.appendByte(OPTIONAL);
+      encode(buffer, ((Optional<?>) value).orElse(null));
+    } else if (value instanceof SharedPayload) {
+      buffer.appendByte(SHARED_PAYLOAD);
+      encode(buffer, ((SharedPayload<?>) value).value());
+    } else if (value instanceof BusPayload) {
+      BusPayload payload = (BusPayload) value;
+      buffer.appendByte(BUS_PAYLOAD);
+      encode(buffer, payload.value);
+      encode(buffer, payload.ex);
+    } else if (value instanceof ServiceRequest) {
+      buffer.appendByte(SERVICE_REQUEST);
+      encode(buffer, ((ServiceRequest) value).values);
+    } else if (value instanceof ServiceResponse) {
+      buffer.appendByte(SERVICE_RESPONSE);
+      encode(buffer, ((ServiceResponse) value).value);
+    } else if (value instanceof Throwable) {
+      appendException(buffer, (Throwable) value);
+    } else if (value instanceof TracingContext) {
+      String[] entries = ((TracingContext) value).getSpanContextMap().entries();
+      buffer.appendByte(TRACING_CONTEXT).appendInt(entries.length / 2);
+      for (String entry : entries) {
+        appendString(buffer, entry);
+      }
+    } else if (value instanceof ConfigChange) {
+      ConfigChange change = (ConfigChange) value;
+      buffer.appendByte(CONFIG_CHANGE);
+      encode(buffer, change.getPreviousConfiguration());
+      encode(buffer, change.getNewConfiguration());
+    } else {
+      buffer.appendByte(POJO);
+      appendString(buffer, value.getClass().getName());
+      appendString(buffer, Json.encode(value));
+    }
+  }
+
+  @Override
+  public Object decode(Buffer buffer, int pos, int length) {
+    Reader reader = new Reader(buffer, pos, tracing);
+    Object value = reader.read();
+    if (reader.pos != pos + length) {
+      throw new IllegalStateException("Invalid wire message, read " + (reader.pos - pos) + " bytes of " + length);
+    }
+    return value;
+  }
+
+  private static void appendString(Buffer buffer, String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    buffer.appendInt(bytes.length).appendBytes(bytes);
+  }
+
+  private static void appendException(Buffer buffer, Throwable ex) {
+    buffer.appendByte(EXCEPTION);
+    appendString(buffer, ex.getClass().getName());
+    appendString(buffer, String.valueOf(ex.getMessage()));
+    if (ex instanceof ReplyException) {
+      ReplyException rex = (ReplyException) ex;
+      buffer.appendInt(rex.failureType().toInt()).appendInt(rex.failureCode());
+    } else {
+      buffer.appendInt(ReplyFailure.RECIPIENT_FAILURE.toInt()).appendInt(-1);
+    }
+  }
+
+  private static class Reader {
+    final Buffer buffer;
+    final Supplier<TracingManager> tracing;
+    int pos;
+
+    Reader(Buffer buffer, int pos, Supplier<TracingManager> tracing) {
+      this.buffer = buffer;
+      this.pos = pos;
+      this.tracing = tracing;
+    }
+
+    Object read() {
+      byte tag = buffer.getByte(pos++);
+      switch (tag) {
+        case NULL: return null;
+        case STRING: return readString();
+        case INT: return readInt();
+        case LONG: { long v = buffer.getLong(pos); pos += 8; return v; }
+        case DOUBLE: { double v = buffer.getDouble(pos); pos += 8; return v; }
+        case FLOAT: { float v = buffer.getFloat(pos); pos += 4; return v; }
+        case BOOLEAN: return buffer.getByte(pos++) != 0;
+        case BYTES: { int n = readInt(); byte[] v = buffer.getBytes(pos, pos + n); pos += n; return v; }
+        case BUFFER: { int n = readInt(); Buffer v = buffer.getBuffer(pos, pos + n); pos += n; return v; }
+        case JSON_OBJECT: return new JsonObject(readString());
+        case JSON_ARRAY: return new JsonArray(readString());
+        case LIST: {
+          int n = readInt();
+          List<Object> list = new ArrayList<>(n);
+          for (int i = 0; i < n; i++) list.add(read());
+          return list;
+        }
+        case OPTIONAL: return Optional.ofNullable(read());
+        case SHARED_PAYLOAD: return readSharedPayload(read());
+        case BUS_PAYLOAD: {
+          Object value = read();
+          return new BusPayload(value, (Throwable) read());
+        }
+        case SERVICE_REQUEST: return new ServiceRequest((List<Object>) read());
+        case SERVICE_RESPONSE: return new ServiceResponse(read());
+        case EXCEPTION: {
+          String className = readString();
+          String message = readString();
+          ReplyFailure failure = ReplyFailure.fromInt(readInt());
+          int code = readInt();
+          return ReplyException.class.getName().equals(className) ? new ReplyException(failure, code, message) : new ReplyException(failure, code, className + ": " + message);
+        }
+        case POJO: {
+          String className = readString();
+          String json = readString();
+          Class<?> clazz = WireTypes.get(className);
+          if (clazz == null) {
+            throw new IllegalStateException("Could not decode wire message value, class " + className + " is not registered in WireTypes");
+          }
+          return Json.decodeValue(json, clazz);
+        }
+        case TRACING_CONTEXT: {
+          int n = readInt();
+          Map<String, String> context = new HashMap<>(n * 2);
+          for (int i = 0; i < n; i++) context.put(readString(), readString());
+          return TracingContext.remote(tracing.get(), context);
+        }
+        case CONFIG_CHANGE: {
+          JsonObject previous = (JsonObject) read();
+          return new ConfigChange(previous, (JsonObject) read());
+        }
+        default:
+          throw new IllegalStateException("Invalid wire message, unknown type tag " + tag);
+      }
+    }
+
+    private int readInt() {
+      int v = buffer.getInt(pos);
+      pos += 4;
+      return v;
+    }
+
+    private String readString() {
+      int n = readInt();
+      String s = buffer.getString(pos, pos + n, StandardCharsets.UTF_8.name());
+      pos += n;
+      return s;
+    }
+
+    private static Object readSharedPayload(Object value) {
+      if (value instanceof Buffer) return SharedPayload.of((Buffer) value);
+      else if (value instanceof JsonObject) return SharedPayload.of((JsonObject) value);
+      else return SharedPayload.of((JsonArray) value);
+    }
+  }
+}
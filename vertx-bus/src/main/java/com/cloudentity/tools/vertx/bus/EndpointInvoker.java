@@ -0,0 +1,54 @@
+package com.cloudentity.tools.vertx.bus;
+
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Invokes @VertxEndpoint method implementation with arguments taken from {@link ServiceRequest}.
+ *
+ * Use {@link EndpointInvoker#compile(Object, Method)} to build the invoker once, at consumer registration time.
+ * It binds the method to the target object as a {@link MethodHandle}, so the per-request call does not go through
+ * reflective access checks and, for methods with up to 5 parameters, does not copy request values to an array.
+ * If the MethodHandle can't be created (e.g. the implementing class is not accessible) then it falls back to {@link Method#invoke}.
+ */
+public interface EndpointInvoker {
+  Object invoke(List<Object> args) throws Throwable;
+
+  static EndpointInvoker compile(Object target, Method method) {
+    try {
+      return methodHandle(target, method);
+    } catch (IllegalAccessException | RuntimeException ex) {
+      LoggerFactory.getLogger(EndpointInvoker.class).debug("Could not compile MethodHandle for method={}, falling back to reflection", method, ex);
+      return reflective(target, method);
+    }
+  }
+
+  static EndpointInvoker reflective(Object target, Method method) {
+    return args -> method.invoke(target, args.toArray());
+  }
+
+  static EndpointInvoker methodHandle(Object target, Method method) throws IllegalAccessException {
+    int arity = method.getParameterCount();
+    MethodHandle bound = MethodHandles.lookup().unreflect(method).bindTo(target);
+
+    if (arity > 5) {
+      MethodHandle spread = bound.asSpreader(Object[].class, arity).asType(MethodType.methodType(Object.class, Object[].class));
+      return args -> spread.invokeExact(args.toArray());
+    }
+
+    MethodHandle h = bound.asType(MethodType.genericMethodType(arity));
+    switch (arity) {
+      case 0: return args -> h.invokeExact();
+      case 1: return args -> h.invokeExact(args.get(0));
+      case 2: return args -> h.invokeExact(args.get(0), args.get(1));
+      case 3: return args -> h.invokeExact(args.get(0), args.get(1), args.get(2));
+      case 4: return args -> h.invokeExact(args.get(0), args.get(1), args.get(2), args.get(3));
+      default: return args -> h.invokeExact(args.get(0), args.get(1), args.get(2), args.get(3), args.get(4));
+    }
+  }
+}
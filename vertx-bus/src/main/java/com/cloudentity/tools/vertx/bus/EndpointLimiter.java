@@ -0,0 +1,190 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.micrometer.backends.BackendRegistries;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounds number of in-flight requests of single @VertxEndpoint implementation.
+ *
+ * A request is in flight from calling the implementation until its Future completes.
+ * When `maxInFlight` requests are in flight, next requests wait in a queue of `maxQueued` size.
+ * When the queue is full, the request is rejected immediately with {@link ReplyException} with {@link EndpointLimiter#OVERLOADED_FAILURE_CODE}.
+ * Queued requests are executed on the verticle's context.
+ *
+ * Limiters of registered endpoints are available in {@link EndpointLimiter#limiters(EventBus)} to expose queue-depth and rejection metrics.
+ * If Vertx metrics are enabled, then following meters are registered with `endpoint` tag, summed over all instances of the endpoint:
+ *
+ * - `vertx.endpoint.limiter.inflight` - gauge of requests being executed
+ * - `vertx.endpoint.limiter.queued` - gauge of requests waiting in the queue
+ * - `vertx.endpoint.limiter.rejected` - counter of requests rejected because the queue was full
+ */
+public class EndpointLimiter {
+  public static final int OVERLOADED_FAILURE_CODE = 503;
+
+  private static final Map<EventBus, Map<String, List<EndpointLimiter>>> registry = new WeakHashMap<>();
+
+  private final String address;
+  private final Context ctx;
+  private final int maxInFlight;
+  private final int maxQueued;
+
+  private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+  private volatile int inFlight;
+  private volatile int queued;
+  private final LongAdder rejected = new LongAdder();
+  private volatile Counter rejectedMeter;
+
+  public EndpointLimiter(String address, Context ctx, int maxInFlight, int maxQueued) {
+    if (maxInFlight <= 0 || maxQueued < 0) {
+      throw new IllegalArgumentException("maxInFlight must be positive and maxQueued must not be negative");
+    }
+    this.address = address;
+    this.ctx = ctx;
+    this.maxInFlight = maxInFlight;
+    this.maxQueued = maxQueued;
+  }
+
+  /**
+   * Returns limiters of endpoints registered on given event bus by address. There are many limiters per address
+   * if there are many instances of ServiceVerticle.
+   */
+  public static Map<String, List<EndpointLimiter>> limiters(EventBus bus) {
+    synchronized (registry) {
+      return registry.computeIfAbsent(bus, b -> new ConcurrentHashMap<>());
+    }
+  }
+
+  /**
+   * Registers limiter in {@link EndpointLimiter#limiters(EventBus)} until its context is closed.
+   */
+  public static void register(EventBus bus, EndpointLimiter limiter) {
+    Map<String, List<EndpointLimiter>> limiters = limiters(bus);
+    limiters.computeIfAbsent(limiter.address, a -> new CopyOnWriteArrayList<>()).add(limiter);
+
+    limiter.ctx.addCloseHook(completion -> {
+      limiters.computeIfPresent(limiter.address, (a, ls) -> {
+        ls.remove(limiter);
+        return ls.isEmpty() ? null : ls;
+      });
+      completion.handle(Future.succeededFuture());
+    });
+
+    MeterRegistry meters = BackendRegistries.getDefaultNow();
+    if (meters != null) {
+      registerMeters(meters, limiters, limiter);
+    }
+  }
+
+  private static void registerMeters(MeterRegistry meters, Map<String, List<EndpointLimiter>> limiters, EndpointLimiter limiter) {
+    String address = limiter.address;
+    Gauge.builder("vertx.endpoint.limiter.inflight", limiters, ls -> sum(ls.get(address), EndpointLimiter::inFlight))
+      .tag("endpoint", address).register(meters);
+    Gauge.builder("vertx.endpoint.limiter.queued", limiters, ls -> sum(ls.get(address), EndpointLimiter::queued))
+      .tag("endpoint", address).register(meters);
+    limiter.rejectedMeter = Counter.builder("vertx.endpoint.limiter.rejected").tag("endpoint", address).register(meters);
+  }
+
+  private static int sum(List<EndpointLimiter> limiters, ToIntFunction<EndpointLimiter> value) {
+    return limiters == null ? 0 : limiters.stream().mapToInt(value).sum();
+  }
+
+  public <T> Future<T> execute(Supplier<Future<T>> call) {
+    Future<T> f = Future.future();
+    synchronized (this) {
+      if (inFlight < maxInFlight) {
+        inFlight++;
+      } else if (queue.size() < maxQueued) {
+        queue.add(() -> ctx.runOnContext(x -> run(call, f)));
+        queued = queue.size();
+        return f;
+      } else {
+        rejected.increment();
+        if (rejectedMeter != null) rejectedMeter.increment();
+        return Future.failedFuture(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, OVERLOADED_FAILURE_CODE,
+          "Endpoint overloaded, rejected request. address: " + address + ", in-flight: " + inFlight + ", queued: " + queue.size()));
+      }
+    }
+
+    run(call, f);
+    return f;
+  }
+
+  private <T> void run(Supplier<Future<T>> call, Future<T> f) {
+    Future<T> result;
+    try {
+      result = call.get();
+    } catch (Throwable ex) {
+      result = Future.failedFuture(ex);
+    }
+
+    result.setHandler(r -> {
+      release();
+      f.handle(r);
+    });
+  }
+
+  private void release() {
+    Runnable next;
+    synchronized (this) {
+      next = queue.poll();
+      queued = queue.size();
+      if (next == null) {
+        inFlight--;
+      }
+    }
+
+    if (next != null) {
+      next.run();
+    }
+  }
+
+  public String address() {
+    return address;
+  }
+
+  public int maxInFlight() {
+    return maxInFlight;
+  }
+
+  public int maxQueued() {
+    return maxQueued;
+  }
+
+  /**
+   * Number of requests being executed.
+   */
+  public int inFlight() {
+    return inFlight;
+  }
+
+  /**
+   * Number of requests waiting in the queue.
+   */
+  public int queued() {
+    return queued;
+  }
+
+  /**
+   * Number of requests rejected because the queue was full.
+   */
+  public long rejected() {
+    return rejected.sum();
+  }
+}
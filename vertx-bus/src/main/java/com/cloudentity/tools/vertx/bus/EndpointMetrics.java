@@ -0,0 +1,104 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Future;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.micrometer.backends.BackendRegistries;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency and throughput metrics of @VertxEndpoint calls, per endpoint address.
+ *
+ * Client metrics (`vertx.endpoint.client.*`) are recorded by {@link ServiceClientFactory} and cover the whole call:
+ * sending, queueing in the ServiceVerticle and handling. Handler metrics (`vertx.endpoint.handler.*`) are recorded by {@link ServiceVerticleTools}
+ * and cover execution of the ServiceVerticle method until its Future completes. Following meters are registered with `endpoint` tag (Vertx metrics filter out `address` tag by default):
+ *
+ * - `{prefix}.time` - timer with p50, p99 and p999 percentiles
+ * - `{prefix}.inflight` - gauge of calls in progress
+ * - `{prefix}.failures` - counter of failed calls, excluding timeouts
+ * - `{prefix}.timeouts` - counter of calls failed with {@link ReplyFailure#TIMEOUT}
+ *
+ * Metrics are registered in Micrometer registry of Vertx metrics (see `vertx.options.metricsOptions` in vertx-cmd).
+ * If Vertx metrics are disabled then metrics are not recorded.
+ */
+public class EndpointMetrics {
+  // weak keys, so registry of closed Vertx can be collected
+  private static final Map<MeterRegistry, Map<String, EndpointMetrics>> cache = new WeakHashMap<>();
+
+  private final Timer time;
+  private final Counter failures;
+  private final Counter timeouts;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private EndpointMetrics(MeterRegistry registry, String prefix, String address) {
+    time = Timer.builder(prefix + ".time").tag("endpoint", address)
+      .publishPercentiles(0.5, 0.99, 0.999)
+      .register(registry);
+    failures = Counter.builder(prefix + ".failures").tag("endpoint", address).register(registry);
+    timeouts = Counter.builder(prefix + ".timeouts").tag("endpoint", address).register(registry);
+    Gauge.builder(prefix + ".inflight", inFlight, AtomicInteger::get).tag("endpoint", address).register(registry);
+  }
+
+  /**
+   * Returns client metrics of given endpoint address or null if Vertx metrics are disabled.
+   */
+  public static EndpointMetrics client(String address) {
+    return get("vertx.endpoint.client", address);
+  }
+
+  /**
+   * Returns handler metrics of given endpoint address or null if Vertx metrics are disabled.
+   */
+  public static EndpointMetrics handler(String address) {
+    return get("vertx.endpoint.handler", address);
+  }
+
+  private static EndpointMetrics get(String prefix, String address) {
+    MeterRegistry registry = BackendRegistries.getDefaultNow();
+    if (registry == null) {
+      return null;
+    }
+    Map<String, EndpointMetrics> metrics;
+    synchronized (cache) {
+      metrics = cache.computeIfAbsent(registry, r -> new ConcurrentHashMap<>());
+    }
+    return metrics.computeIfAbsent(prefix + ":" + address, k -> new EndpointMetrics(registry, prefix, address));
+  }
+
+  /**
+   * Marks start of the call. Returns start time to be passed to {@link EndpointMetrics#end(long, Future)}.
+   */
+  public long start() {
+    inFlight.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  /**
+   * Records the call when `response` completes.
+   */
+  public <T> Future<T> end(long start, Future<T> response) {
+    Future<T> f = Future.future();
+    response.setHandler(result -> {
+      inFlight.decrementAndGet();
+      time.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      if (result.failed()) {
+        if (result.cause() instanceof ReplyException && ((ReplyException) result.cause()).failureType() == ReplyFailure.TIMEOUT) {
+          timeouts.increment();
+        } else {
+          failures.increment();
+        }
+      }
+      f.handle(result);
+    });
+    return f;
+  }
+}
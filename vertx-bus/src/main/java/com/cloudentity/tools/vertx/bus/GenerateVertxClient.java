@@ -0,0 +1,14 @@
+package com.cloudentity.tools.vertx.bus;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks interface with @VertxEndpoint methods for which {@link VertxClientProcessor} generates concrete client class at build time.
+ *
+ * When the generated class is on the classpath then {@link VertxEndpointClient} returns its instance instead of reflection-based Proxy.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GenerateVertxClient {
+  String CLASS_NAME_PREFIX = "VertxClient_";
+}
@@ -0,0 +1,252 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Registry of @VertxEndpoint implementations deployed in this Vertx instance.
+ *
+ * When enabled, {@link ServiceClientFactory} calls co-located ServiceVerticle directly instead of sending message over event bus.
+ * The implementation is executed on the ServiceVerticle's context, the response is delivered on the caller's context
+ * and the call fails with {@link ReplyFailure#TIMEOUT} after DeliveryOptions.sendTimeout, same as with event bus.
+ * If there are many instances of ServiceVerticle with the same address then they are called in round-robin.
+ *
+ * Local dispatch is disabled by default. Set `VERTX_BUS_LOCAL_DISPATCH` system or environment variable to `true` to enable it.
+ *
+ * When least-loaded dispatch is enabled, each instance of ServiceVerticle consumes also on its own instance address and
+ * {@link ServiceClientFactory} sends request to the instance with the fewest in-flight requests sent from this Vertx instance
+ * (or calls it directly if local dispatch is enabled), instead of relying on event-bus round-robin.
+ * Set `VERTX_BUS_LEAST_LOADED_DISPATCH` system or environment variable to `true` to enable it.
+ *
+ * ServiceVerticle registers here (and on its instance address) only if the flags are enabled when it is deployed.
+ */
+public class LocalServiceRegistry {
+  private static volatile boolean enabled;
+  private static volatile boolean leastLoadedEnabled;
+
+  static {
+    enabled = readFlag("VERTX_BUS_LOCAL_DISPATCH");
+    leastLoadedEnabled = readFlag("VERTX_BUS_LEAST_LOADED_DISPATCH");
+  }
+
+  private static boolean readFlag(String name) {
+    if (System.getenv(name) != null) {
+      return Boolean.parseBoolean(System.getenv(name));
+    } else {
+      return Boolean.parseBoolean(System.getProperty(name));
+    }
+  }
+
+  private static final Map<EventBus, Map<String, LocalEndpoints>> registry = new WeakHashMap<>();
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  public static void setEnabled(boolean enabled) {
+    LocalServiceRegistry.enabled = enabled;
+  }
+
+  public static boolean isLeastLoadedEnabled() {
+    return leastLoadedEnabled;
+  }
+
+  public static void setLeastLoadedEnabled(boolean leastLoadedEnabled) {
+    LocalServiceRegistry.leastLoadedEnabled = leastLoadedEnabled;
+  }
+
+  /**
+   * Returns true if local or least-loaded dispatch is enabled, i.e. request can't be simply sent at endpoint's address.
+   */
+  public static boolean isDispatchEnabled() {
+    return enabled || leastLoadedEnabled;
+  }
+
+  /**
+   * Returns address on which single instance of ServiceVerticle consumes requests sent to endpoint's address.
+   */
+  public static String instanceAddress(String address, String instanceId) {
+    return address + "#" + instanceId;
+  }
+
+  /**
+   * Returns local endpoints registered for given event bus. The returned map is updated when endpoints are (un)registered.
+   */
+  public static Map<String, LocalEndpoints> endpoints(EventBus bus) {
+    synchronized (registry) {
+      return registry.computeIfAbsent(bus, b -> new ConcurrentHashMap<>());
+    }
+  }
+
+  /**
+   * Registers endpoint handler executed on given context. The handler is unregistered when the context is closed,
+   * i.e. when the verticle is undeployed.
+   */
+  public static void register(EventBus bus, String address, Context ctx, Function<List<Object>, Future<Object>> handler) {
+    register(bus, address, null, ctx, handler);
+  }
+
+  /**
+   * @param instanceAddress address on which this instance consumes, see {@link LocalServiceRegistry#instanceAddress(String, String)}
+   */
+  public static void register(EventBus bus, String address, String instanceAddress, Context ctx, Function<List<Object>, Future<Object>> handler) {
+    LocalEndpoint endpoint = new LocalEndpoint(ctx, instanceAddress, handler);
+    Map<String, LocalEndpoints> endpoints = endpoints(bus);
+    endpoints.computeIfAbsent(address, a -> new LocalEndpoints()).instances.add(endpoint);
+
+    ctx.addCloseHook(completion -> {
+      endpoints.computeIfPresent(address, (a, es) -> {
+        es.instances.remove(endpoint);
+        return es.instances.isEmpty() ? null : es;
+      });
+      completion.handle(Future.succeededFuture());
+    });
+  }
+
+  /**
+   * Counts the request as in flight to given instance until `response` completes.
+   */
+  public static <T> Future<T> track(LocalEndpoint target, Future<T> response) {
+    Future<T> f = Future.future();
+    target.inFlight.incrementAndGet();
+    response.setHandler(result -> {
+      target.inFlight.decrementAndGet();
+      f.handle(result);
+    });
+    return f;
+  }
+
+  /**
+   * Calls the endpoint handler on its context and returns the result on caller's context.
+   * The timeout timer is set and cancelled on caller's context (or on endpoint's context if called outside of Vertx context).
+   */
+  public static Future<Object> ask(LocalEndpoint target, String address, DeliveryOptions opts, List<Object> args) {
+    Context callerCtx = Vertx.currentContext();
+    Context replyCtx = callerCtx != null ? callerCtx : target.ctx;
+    Vertx vertx = target.ctx.owner();
+    Future<Object> f = Future.future();
+
+    long timeout = opts.getSendTimeout();
+    AtomicLong timerId = new AtomicLong(-1);
+    if (timeout > 0) {
+      runOnContext(replyCtx, () -> {
+        if (!f.isComplete()) {
+          timerId.set(vertx.setTimer(timeout, t -> f.tryFail(new ReplyException(ReplyFailure.TIMEOUT, "Timed out after waiting " + timeout + "(ms) for a reply. address: " + address))));
+        }
+      });
+    }
+
+    Handler<AsyncResult<Object>> reply = result ->
+      runOnContext(replyCtx, () -> {
+        if (timerId.get() != -1) vertx.cancelTimer(timerId.get());
+        complete(f, result);
+      });
+
+    runOnContext(target.ctx, () -> invoke(target, args, reply));
+    return f;
+  }
+
+  private static void runOnContext(Context ctx, Runnable action) {
+    if (ctx == Vertx.currentContext()) {
+      action.run();
+    } else {
+      ctx.runOnContext(x -> action.run());
+    }
+  }
+
+  private static void invoke(LocalEndpoint target, List<Object> args, Handler<AsyncResult<Object>> reply) {
+    try {
+      target.handler.apply(args).setHandler(reply);
+    } catch (Throwable ex) {
+      reply.handle(Future.failedFuture(ex));
+    }
+  }
+
+  private static void complete(Future<Object> f, AsyncResult<Object> result) {
+    if (result.succeeded()) f.tryComplete(result.result());
+    else f.tryFail(result.cause());
+  }
+
+  public static class LocalEndpoints {
+    private final List<LocalEndpoint> instances = new CopyOnWriteArrayList<>();
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Returns next endpoint instance in round-robin or null if there is none.
+     */
+    public LocalEndpoint next() {
+      while (true) {
+        int size = instances.size();
+        if (size == 0) return null;
+        try {
+          return instances.get(size == 1 ? 0 : Math.floorMod(counter.getAndIncrement(), size));
+        } catch (IndexOutOfBoundsException ex) {
+          // instance removed concurrently, try again
+        }
+      }
+    }
+
+    /**
+     * Returns endpoint instance with the fewest in-flight requests or null if there is none.
+     * Scanning starts at round-robin position, so equally loaded instances get requests in turns.
+     */
+    public LocalEndpoint leastLoaded() {
+      Object[] snapshot = instances.toArray();
+      if (snapshot.length == 0) return null;
+      if (snapshot.length == 1) return (LocalEndpoint) snapshot[0];
+
+      int start = Math.floorMod(counter.getAndIncrement(), snapshot.length);
+      LocalEndpoint best = null;
+      for (int i = 0; i < snapshot.length; i++) {
+        LocalEndpoint e = (LocalEndpoint) snapshot[(start + i) % snapshot.length];
+        if (best == null || e.inFlight.get() < best.inFlight.get()) {
+          best = e;
+        }
+      }
+      return best;
+    }
+  }
+
+  public static class LocalEndpoint {
+    private final Context ctx;
+    private final String instanceAddress;
+    private final Function<List<Object>, Future<Object>> handler;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    LocalEndpoint(Context ctx, String instanceAddress, Function<List<Object>, Future<Object>> handler) {
+      this.ctx = ctx;
+      this.instanceAddress = instanceAddress;
+      this.handler = handler;
+    }
+
+    /**
+     * Address on which this instance consumes or null if it was not registered with one.
+     */
+    public String instanceAddress() {
+      return instanceAddress;
+    }
+
+    /**
+     * Number of requests sent to this instance from this Vertx instance and not responded yet.
+     */
+    public int inFlight() {
+      return inFlight.get();
+    }
+  }
+}
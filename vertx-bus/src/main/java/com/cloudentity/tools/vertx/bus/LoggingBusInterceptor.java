@@ -0,0 +1,62 @@
+package com.cloudentity.tools.vertx.bus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs messages exchanged with {@link VertxBus} at trace level and failures at debug level, using VertxBus logger.
+ * Log level is checked on each call, so it can be changed at runtime.
+ */
+public class LoggingBusInterceptor implements BusInterceptor {
+  private static final Logger log = LoggerFactory.getLogger(VertxBus.class);
+
+  /**
+   * Returns false if `VERTX_BUS_LOGGING` system or environment variable is `false`, true otherwise.
+   */
+  public static boolean isEnabled() {
+    String flag = System.getenv("VERTX_BUS_LOGGING") != null ? System.getenv("VERTX_BUS_LOGGING") : System.getProperty("VERTX_BUS_LOGGING");
+    return !"false".equalsIgnoreCase(flag);
+  }
+
+  @Override
+  public void askStarted(String addr, Object request) {
+    if (log.isTraceEnabled()) {
+      log.trace("Asking started on address={} with request={}", addr, request);
+    }
+  }
+
+  @Override
+  public void askCompleted(String addr, Object request, Object response) {
+    if (log.isTraceEnabled()) {
+      log.trace("Asking completed on address={} with request={}, response={}", addr, request, response);
+    }
+  }
+
+  @Override
+  public void askFailed(String addr, Object request, Throwable cause) {
+    if (log.isDebugEnabled()) {
+      log.debug("Asking failed on address={} with request={}", addr, request, cause);
+    }
+  }
+
+  @Override
+  public void consumeStarted(String addr, Object request) {
+    if (log.isTraceEnabled()) {
+      log.trace("Consuming started on address={}, request={}", addr, request);
+    }
+  }
+
+  @Override
+  public void consumeCompleted(String addr, Object request, Object response) {
+    if (log.isTraceEnabled()) {
+      log.trace("Consuming completed on address={}, request={}, response={}", addr, request, response);
+    }
+  }
+
+  @Override
+  public void consumeFailed(String addr, Object request, Throwable cause) {
+    if (log.isDebugEnabled()) {
+      log.debug(String.format("Consuming failed on address=%s, request=%s: %s", addr, request, cause.getMessage()), cause);
+    }
+  }
+}
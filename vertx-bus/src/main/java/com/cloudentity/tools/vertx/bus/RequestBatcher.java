@@ -0,0 +1,101 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Coalesces single requests made on the same Vertx context into batches.
+ *
+ * A batch is sent when it reaches `maxSize` requests or `windowMs` after its first request, whichever comes first.
+ * Each request gets its own element of the batch response, so it can fail on its own. If the batch fails then all its requests fail.
+ * Requests made outside of Vertx context are sent as single-element batches.
+ */
+public class RequestBatcher<A, B> {
+  private final int maxSize;
+  private final long windowMs;
+  private final Function<List<A>, Future<List<AsyncResult<B>>>> sender;
+  private final String contextKey = "vertx-bus.request-batcher." + UUID.randomUUID();
+
+  public RequestBatcher(int maxSize, long windowMs, Function<List<A>, Future<List<AsyncResult<B>>>> sender) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    this.maxSize = maxSize;
+    this.windowMs = windowMs;
+    this.sender = sender;
+  }
+
+  public Future<B> submit(A request) {
+    Future<B> f = Future.future();
+    Context ctx = Vertx.currentContext();
+    if (ctx == null || ctx.isMultiThreadedWorkerContext() || maxSize == 1) {
+      Batch batch = new Batch();
+      batch.add(request, f);
+      send(batch);
+      return f;
+    }
+
+    Batch batch = ctx.get(contextKey);
+    if (batch == null) {
+      Batch newBatch = new Batch();
+      ctx.put(contextKey, newBatch);
+      newBatch.timerId = ctx.owner().setTimer(Math.max(1, windowMs), t -> flush(ctx, newBatch));
+      batch = newBatch;
+    }
+
+    batch.add(request, f);
+    if (batch.requests.size() >= maxSize) {
+      ctx.owner().cancelTimer(batch.timerId);
+      flush(ctx, batch);
+    }
+    return f;
+  }
+
+  private void flush(Context ctx, Batch batch) {
+    if (ctx.get(contextKey) == batch) {
+      ctx.remove(contextKey);
+      send(batch);
+    }
+  }
+
+  private void send(Batch batch) {
+    Future<List<AsyncResult<B>>> response;
+    try {
+      response = sender.apply(batch.requests);
+    } catch (Throwable ex) {
+      response = Future.failedFuture(ex);
+    }
+
+    response.setHandler(result -> {
+      if (result.succeeded() && result.result().size() == batch.responses.size()) {
+        for (int i = 0; i < batch.responses.size(); i++) {
+          AsyncResult<B> element = result.result().get(i);
+          if (element.succeeded()) batch.responses.get(i).tryComplete(element.result());
+          else batch.responses.get(i).tryFail(element.cause());
+        }
+      } else {
+        Throwable ex = result.failed() ? result.cause()
+          : new IllegalStateException("Batch response size " + result.result().size() + " does not match batch request size " + batch.responses.size());
+        batch.responses.forEach(f -> f.tryFail(ex));
+      }
+    });
+  }
+
+  private class Batch {
+    final List<A> requests = new ArrayList<>();
+    final List<Future<B>> responses = new ArrayList<>();
+    long timerId;
+
+    void add(A request, Future<B> response) {
+      requests.add(request);
+      responses.add(response);
+    }
+  }
+}
@@ -1,11 +1,13 @@
 package com.cloudentity.tools.vertx.bus;
 
 import com.google.common.collect.Lists;
+import com.cloudentity.tools.vertx.tracing.TracingContext;
 import com.cloudentity.tools.vertx.tracing.TracingManager;
 import com.cloudentity.tools.vertx.tracing.internals.JaegerTracing;
 import io.vertx.core.Future;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.streams.ReadStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,15 +48,28 @@ public class ServiceClientFactory {
 
     assertAllMethodsAreVertxEndpoints(clazz, vertxEndpoints);
     assertAllReturnFutureOrVoid(clazz, vertxEndpoints);
+    assertBatchEndpoints(clazz, vertxEndpoints);
 
+    T proxy = makeProxy(bus, tracing, clazz, vertxEndpoints, opts);
+    if (clazz.isAnnotationPresent(GenerateVertxClient.class)) {
+      return makeGenerated(bus, clazz, vertxEndpoints, opts, proxy).orElse(proxy);
+    } else {
+      return proxy;
+    }
+  }
+
+  private static <T> T makeProxy(EventBus bus, TracingManager tracing, Class<T> clazz, List<VertxEndpointInterface> vertxEndpoints, DeliveryOptions opts) {
     Map<Method, Function<Object[], Future<Object>>> methodHandlers = buildFutureMethodHandlers(bus, tracing, vertxEndpoints, opts);
     Map<Method, Consumer<Object[]>> methodVoidHandlers = buildVoidMethodHandlers(bus, vertxEndpoints, opts);
+    Map<Method, Function<Object[], ReadStream<Object>>> methodStreamHandlers = buildStreamMethodHandlers(bus, vertxEndpoints, opts);
 
     InvocationHandler handler = new InvocationHandler() {
       @Override
       public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         if (method.getReturnType() == Future.class) {
           return methodHandlers.get(method).apply(args == null ? new Object[0] : args);
+        } else if (method.getReturnType() == ReadStream.class) {
+          return methodStreamHandlers.get(method).apply(args == null ? new Object[0] : args);
         } else {
           methodVoidHandlers.get(method).accept(args == null ? new Object[0] : args);
           return null;
@@ -65,6 +80,50 @@ public class ServiceClientFactory {
     return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class[] { clazz }, handler);
   }
 
+  /**
+   * Instantiates client class generated by {@link VertxClientProcessor} for interface annotated with {@link GenerateVertxClient}.
+   * Returns empty if the generated class is missing, e.g. the annotation processor was not enabled.
+   *
+   * The generated client sends request directly at address of void methods and methods with plain request-response.
+   * Other methods (batch, stream, with TracingContext parameter or with metrics enabled) are delegated to `fallback`.
+   */
+  private static <T> Optional<T> makeGenerated(EventBus bus, Class<T> clazz, List<VertxEndpointInterface> vertxEndpoints, DeliveryOptions opts, T fallback) {
+    String packageName = clazz.getPackage() != null ? clazz.getPackage().getName() : "";
+    String simpleName = VertxClientProcessor.generatedSimpleName(clazz.getName(), packageName);
+    String className = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+    Map<Method, String> addresses = new HashMap<>();
+    vertxEndpoints.stream().filter(ServiceClientFactory::isDirect).forEach(endpoint -> addresses.put(endpoint.method, endpoint.address));
+    try {
+      Class<?> generated = Class.forName(className, true, clazz.getClassLoader());
+      Object client = generated.getConstructor(EventBus.class, DeliveryOptions.class, Map.class, clazz)
+        .newInstance(bus, opts, addresses, fallback);
+      return Optional.of(clazz.cast(client));
+    } catch (ClassNotFoundException ex) {
+      log.warn("{} is annotated with @GenerateVertxClient, but generated {} is missing. Falling back to Proxy client", clazz.getName(), className);
+      return Optional.empty();
+    } catch (ReflectiveOperationException ex) {
+      throw new IllegalStateException("Could not instantiate generated client " + className, ex);
+    }
+  }
+
+  private static boolean isDirect(VertxEndpointInterface endpoint) {
+    Class<?> returnType = endpoint.method.getReturnType();
+    if (returnType == Void.TYPE) {
+      return true;
+    } else if (returnType == Future.class) {
+      return endpoint.batch == 0
+        && Arrays.stream(endpoint.method.getParameterTypes()).noneMatch(type -> type.isAssignableFrom(TracingContext.class))
+        && EndpointMetrics.client(endpoint.address) == null;
+    } else {
+      return false;
+    }
+  }
+
+  static DeliveryOptions defaultDeliveryOptions() {
+    return new DeliveryOptions().setSendTimeout(VERTX_SERVICE_CLIENT_TIMEOUT);
+  }
+
   public static <T> T makeWithTracing(EventBus bus, TracingManager tracing, Class<T> clazz, Optional<String> addressPrefixOpt) {
     return makeWithTracing(bus, tracing, clazz, addressPrefixOpt, new DeliveryOptions().setSendTimeout(VERTX_SERVICE_CLIENT_TIMEOUT));
   }
@@ -94,7 +153,15 @@ public class ServiceClientFactory {
   private static Map<Method, Function<Object[], Future<Object>>> buildFutureMethodHandlers(EventBus bus, TracingManager tracing,
                                                                                            List<VertxEndpointInterface> vertxEndpoints, DeliveryOptions opts) {
     Map<Method, Function<Object[], Future<Object>>> handlers = new HashMap<>();
-    vertxEndpoints.forEach(endpoint -> handlers.put(endpoint.method, buildMethodHandler(bus, tracing, endpoint, opts)));
+    vertxEndpoints.stream().filter(endpoint -> endpoint.method.getReturnType() == Future.class)
+      .forEach(endpoint -> handlers.put(endpoint.method, buildMethodHandler(bus, tracing, endpoint, opts)));
+    return handlers;
+  }
+
+  private static Map<Method, Function<Object[], ReadStream<Object>>> buildStreamMethodHandlers(EventBus bus, List<VertxEndpointInterface> vertxEndpoints, DeliveryOptions opts) {
+    Map<Method, Function<Object[], ReadStream<Object>>> handlers = new HashMap<>();
+    vertxEndpoints.stream().filter(endpoint -> endpoint.method.getReturnType() == ReadStream.class)
+      .forEach(endpoint -> handlers.put(endpoint.method, buildStreamMethodHandler(bus, endpoint, opts)));
     return handlers;
   }
 
@@ -109,25 +176,102 @@ public class ServiceClientFactory {
   }
 
   private static Function<Object[], Future<Object>> buildMethodHandler(EventBus bus, TracingManager tracing, VertxEndpointInterface endpoint, DeliveryOptions opts) {
+    if (endpoint.batch > 0) {
+      return buildBatchMethodHandler(bus, endpoint, opts);
+    }
+
+    Map<String, LocalServiceRegistry.LocalEndpoints> localEndpoints = LocalServiceRegistry.endpoints(bus);
+    EndpointMetrics metrics = EndpointMetrics.client(endpoint.address);
     return (objects) -> {
       ServiceTracing.ObjectsWithContext obt = ServiceTracing.createNewSpanForTracingContext(tracing, endpoint, objects);
-      return VertxBus
-        .ask(bus, endpoint.address, opts, ServiceResponse.class, new ServiceRequest(Arrays.asList(obt.getObjectsWithContext())))
+      Future<Object> response;
+      if (metrics != null) {
+        long start = metrics.start();
+        response = metrics.end(start, ask(bus, localEndpoints, endpoint, opts, Arrays.asList(obt.getObjectsWithContext())));
+      } else {
+        response = ask(bus, localEndpoints, endpoint, opts, Arrays.asList(obt.getObjectsWithContext()));
+      }
+      return response
         .map(event -> { obt.finishSpan(); return event; })
-        .recover(t -> { obt.logErrorAndFinish(t); return Future.failedFuture(t); })
-        .map(event -> event.value);
+        .recover(t -> { obt.logErrorAndFinish(t); return Future.failedFuture(t); });
     };
   }
 
+  /**
+   * Streams elements of ReadStream returned by ServiceVerticle, see {@link VertxBus#askStream}.
+   * Stream endpoints always use event bus and do not create tracing spans.
+   */
+  private static Function<Object[], ReadStream<Object>> buildStreamMethodHandler(EventBus bus, VertxEndpointInterface endpoint, DeliveryOptions opts) {
+    VertxEndpoint annotation = endpoint.method.getAnnotation(VertxEndpoint.class);
+    int window = annotation != null ? annotation.streamWindow() : 16;
+    return (objects) -> VertxBus.askStream(bus, endpoint.address, opts, Object.class, window, new ServiceRequest(Arrays.asList(objects)));
+  }
+
+  /**
+   * Coalesces calls made on the same Vertx context and sends them in single message.
+   * Batch endpoints always use event bus and do not create tracing spans.
+   */
+  private static Function<Object[], Future<Object>> buildBatchMethodHandler(EventBus bus, VertxEndpointInterface endpoint, DeliveryOptions opts) {
+    RequestBatcher<Object, Object> batcher = new RequestBatcher<>(endpoint.batch, endpoint.batchWindowMs,
+      requests -> VertxBus.askBatched(bus, endpoint.address, opts, Object.class, requests));
+    EndpointMetrics metrics = EndpointMetrics.client(endpoint.address);
+    if (metrics != null) {
+      return (objects) -> metrics.end(metrics.start(), batcher.submit(objects[0]));
+    } else {
+      return (objects) -> batcher.submit(objects[0]);
+    }
+  }
+
+  /**
+   * Calls co-located ServiceVerticle directly if local dispatch is enabled and the endpoint is registered in {@link LocalServiceRegistry},
+   * otherwise sends request over event bus. If least-loaded dispatch is enabled then picks the instance with the fewest in-flight requests.
+   */
+  private static Future<Object> ask(EventBus bus, Map<String, LocalServiceRegistry.LocalEndpoints> localEndpoints,
+                                    VertxEndpointInterface endpoint, DeliveryOptions opts, List<Object> args) {
+    boolean localDispatch = LocalServiceRegistry.isEnabled();
+    boolean leastLoaded = LocalServiceRegistry.isLeastLoadedEnabled();
+    if (localDispatch || leastLoaded) {
+      LocalServiceRegistry.LocalEndpoints local = localEndpoints.get(endpoint.address);
+      LocalServiceRegistry.LocalEndpoint target = local == null ? null : leastLoaded ? local.leastLoaded() : local.next();
+      if (target != null && localDispatch) {
+        return LocalServiceRegistry.track(target, LocalServiceRegistry.ask(target, endpoint.address, opts, args));
+      } else if (target != null && target.instanceAddress() != null) {
+        return LocalServiceRegistry.track(target, askOverBus(bus, target.instanceAddress(), opts, args));
+      }
+    }
+
+    return askOverBus(bus, endpoint.address, opts, args);
+  }
+
+  private static Future<Object> askOverBus(EventBus bus, String address, DeliveryOptions opts, List<Object> args) {
+    return VertxBus
+      .ask(bus, address, opts, ServiceResponse.class, new ServiceRequest(args))
+      .map(event -> event.value);
+  }
+
   public static void assertAllReturnFutureOrVoid(Class clazz, List<VertxEndpointInterface> methods) {
-    List<VertxEndpointInterface> methodsNotReturningFutures = methods.stream().filter(endpoint -> (endpoint.method.getReturnType() != Future.class && endpoint.method.getReturnType() != Void.TYPE)).collect(Collectors.toList());
+    List<VertxEndpointInterface> methodsNotReturningFutures = methods.stream().filter(endpoint -> !isSupportedReturnType(endpoint.method.getReturnType())).collect(Collectors.toList());
     if (!methodsNotReturningFutures.isEmpty()) {
-      throw new IllegalStateException("All VertxEndpoint methods in " + clazz.getName() + " need to return io.vertx.core.Future or void: " + methodsNotReturningFutures.toString());
+      throw new IllegalStateException("All VertxEndpoint methods in " + clazz.getName() + " need to return io.vertx.core.Future, io.vertx.core.streams.ReadStream or void: " + methodsNotReturningFutures.toString());
+    }
+  }
+
+  public static boolean isSupportedReturnType(Class returnType) {
+    return returnType == Future.class || returnType == ReadStream.class || returnType == Void.TYPE;
+  }
+
+  /**
+   * Batch endpoint, i.e. with VertxEndpoint.batch > 0, must have single parameter and return io.vertx.core.Future.
+   */
+  public static void assertBatchEndpoints(Class clazz, List<VertxEndpointInterface> methods) {
+    List<VertxEndpointInterface> invalidBatchMethods = methods.stream().filter(endpoint -> endpoint.batch > 0 && (endpoint.method.getReturnType() != Future.class || endpoint.method.getParameterCount() != 1)).collect(Collectors.toList());
+    if (!invalidBatchMethods.isEmpty()) {
+      throw new IllegalStateException("Batch VertxEndpoint methods in " + clazz.getName() + " need to have single parameter and return io.vertx.core.Future: " + invalidBatchMethods.toString());
     }
   }
 
   /**
-   * Returns a list of methods that are annotated with @VertxEndpoint.
+   * Returns a list of methods that are annotated with @VertxEndpoint. Registers their parameter and return types in {@link WireTypes}.
    */
   public static List<VertxEndpointInterface> getVertxEndpoints(Class clazz, Optional<String> addressPrefixOpt) {
     List<VertxEndpointInterface> endpoints = new LinkedList<>();
@@ -140,7 +284,8 @@ public class ServiceClientFactory {
         if (endpointAnnotations.length == 1) {
           VertxEndpoint a = endpointAnnotations[0];
           String address = getEndpointAddress(a, method);
-          endpoints.add(new VertxEndpointInterface(addressPrefix + address, method));
+          WireTypes.register(method);
+          endpoints.add(new VertxEndpointInterface(addressPrefix + address, method, a.batch(), a.batchWindowMs()));
         }
       });
 
@@ -163,10 +308,18 @@ public class ServiceClientFactory {
   public static class VertxEndpointInterface {
     public final String address;
     public final Method method;
+    public final int batch;
+    public final long batchWindowMs;
 
     public VertxEndpointInterface(String address, Method method) {
+      this(address, method, 0, 0);
+    }
+
+    public VertxEndpointInterface(String address, Method method, int batch, long batchWindowMs) {
       this.address = address;
       this.method = method;
+      this.batch = batch;
+      this.batchWindowMs = batchWindowMs;
     }
 
     @Override
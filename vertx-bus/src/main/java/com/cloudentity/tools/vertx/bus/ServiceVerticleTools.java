@@ -1,16 +1,27 @@
 package com.cloudentity.tools.vertx.bus;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.cloudentity.tools.vertx.bus.ServiceClientFactory.*;
@@ -22,8 +33,10 @@ public class ServiceVerticleTools {
     List<VertxEndpointInterface> vertxEndpoints = getVertxEndpoints(vertxService, addressPrefixOpt);
     ServiceVerticleTools.assertVertxServiceInterfaceImplemented(vertxService, verticle);
     ServiceVerticleTools.assertVertxEndpointsReturnFutureOrVoid(vertxService, vertxEndpoints);
+    ServiceClientFactory.assertBatchEndpoints(vertxService, vertxEndpoints);
 
-    ServiceVerticleTools.registerConsumers(vertx, verticle, vertxEndpoints);
+    JsonObject config = verticle.getConfig() != null ? verticle.getConfig() : new JsonObject();
+    ServiceVerticleTools.registerConsumers(vertx, verticle, vertxEndpoints, config.getJsonObject("endpointLimits", new JsonObject()));
   }
 
   public static void assertVertxServiceInterfaceImplemented(Class vertxService, Object verticle) {
@@ -48,52 +61,234 @@ public class ServiceVerticleTools {
   }
 
   public static void assertVertxEndpointsReturnFutureOrVoid(Class vertxService, List<VertxEndpointInterface> vertxEndpoints) {
-    List<VertxEndpointInterface> nonFutureMethods = vertxEndpoints.stream().filter(endpoint -> endpoint.method.getReturnType() != Future.class && endpoint.method.getReturnType() != Void.TYPE).collect(Collectors.toList());
+    List<VertxEndpointInterface> nonFutureMethods = vertxEndpoints.stream().filter(endpoint -> !ServiceClientFactory.isSupportedReturnType(endpoint.method.getReturnType())).collect(Collectors.toList());
     if (!nonFutureMethods.isEmpty()) {
-      String errMsg = "Methods on ServiceVerticle.service()=" + vertxService.getName() + " interface annotated with @VertxEndpoint must return io.vertx.core.Future or void: " + nonFutureMethods;
+      String errMsg = "Methods on ServiceVerticle.service()=" + vertxService.getName() + " interface annotated with @VertxEndpoint must return io.vertx.core.Future, io.vertx.core.streams.ReadStream or void: " + nonFutureMethods;
       log.error(errMsg);
       throw new IllegalStateException(errMsg);
     }
   }
 
   public static void registerConsumers(Vertx vertx, Object verticle, List<VertxEndpointInterface> vertxEndpoints) {
-    vertxEndpoints.forEach(e -> registerConsumer(vertx, verticle, e));
+    registerConsumers(vertx, verticle, vertxEndpoints, new JsonObject());
   }
 
-  private static void registerConsumer(Vertx vertx, Object verticle, VertxEndpointInterface endpoint) {
+  /**
+   * @param limitsConfig in-flight limits and worker pool size by endpoint method name overriding VertxEndpoint.maxInFlight, maxQueued and workerPoolSize,
+   *                     e.g. {"getUser": {"maxInFlight": 10, "maxQueued": 100, "workerPoolSize": 5}}
+   */
+  public static void registerConsumers(Vertx vertx, Object verticle, List<VertxEndpointInterface> vertxEndpoints, JsonObject limitsConfig) {
+    vertxEndpoints.forEach(e -> registerConsumer(vertx, verticle, e, buildLimiter(vertx, e, limitsConfig), buildWorkerPool(vertx, e, limitsConfig)));
+  }
+
+  private static Optional<EndpointLimiter> buildLimiter(Vertx vertx, VertxEndpointInterface endpoint, JsonObject limitsConfig) {
+    VertxEndpoint annotation = endpoint.method.getAnnotation(VertxEndpoint.class);
+    JsonObject limits = limitsConfig.getJsonObject(endpoint.method.getName(), new JsonObject());
+    int maxInFlight = limits.getInteger("maxInFlight", annotation != null ? annotation.maxInFlight() : 0);
+    int maxQueued = limits.getInteger("maxQueued", annotation != null ? annotation.maxQueued() : 0);
+
+    if (maxInFlight > 0 && endpoint.method.getReturnType() == Future.class) {
+      EndpointLimiter limiter = new EndpointLimiter(endpoint.address, vertx.getOrCreateContext(), maxInFlight, maxQueued);
+      EndpointLimiter.register(vertx.eventBus(), limiter);
+      return Optional.of(limiter);
+    } else {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns worker pool executing BLOCKING endpoint or empty if endpoint is executed on event loop.
+   */
+  private static Optional<WorkerPool> buildWorkerPool(Vertx vertx, VertxEndpointInterface endpoint, JsonObject limitsConfig) {
+    VertxEndpoint annotation = endpoint.method.getAnnotation(VertxEndpoint.class);
+    if (annotation == null || annotation.execution() != VertxEndpoint.Execution.BLOCKING) {
+      return Optional.empty();
+    }
+
+    JsonObject limits = limitsConfig.getJsonObject(endpoint.method.getName(), new JsonObject());
+    int poolSize = limits.getInteger("workerPoolSize", annotation.workerPoolSize());
+    if (poolSize > 0) {
+      // shared executor is closed when all verticles that created it are undeployed
+      return Optional.of(new WorkerPool(vertx, vertx.createSharedWorkerExecutor("vertx-endpoint-" + endpoint.address, poolSize)));
+    } else {
+      return Optional.of(new WorkerPool(vertx, null));
+    }
+  }
+
+  private static void registerConsumer(Vertx vertx, Object verticle, VertxEndpointInterface endpoint, Optional<EndpointLimiter> limiter, Optional<WorkerPool> worker) {
     // we will find the implementation because we executed `assertVertxServiceInterfaceImplemented`
     Method methodImpl = findMethodImpl(verticle, endpoint.method);
 
-    if (methodImpl.getReturnType() == Future.class) {
-      registerSendConsumer(vertx, verticle, endpoint, methodImpl);
+    if (endpoint.batch > 0) {
+      registerBatchConsumer(vertx, verticle, endpoint, methodImpl, limiter, worker);
+    } else if (methodImpl.getReturnType() == Future.class) {
+      registerSendConsumer(vertx, verticle, endpoint, methodImpl, limiter, worker);
+    } else if (methodImpl.getReturnType() == ReadStream.class) {
+      registerStreamConsumer(vertx, verticle, endpoint, methodImpl);
     } else {
-      registerPublishConsumer(vertx, verticle, endpoint, methodImpl);
+      registerPublishConsumer(vertx, verticle, endpoint, methodImpl, worker);
     }
   }
 
-  private static void registerPublishConsumer(Vertx vertx, Object verticle, VertxEndpointInterface endpoint, Method methodImpl) {
-    VertxBus.consumePublished(vertx.eventBus(), endpoint.address, ServiceRequest.class, request -> {
+  private static void registerPublishConsumer(Vertx vertx, Object verticle, VertxEndpointInterface endpoint, Method methodImpl, Optional<WorkerPool> worker) {
+    EndpointInvoker invoker = EndpointInvoker.compile(verticle, methodImpl);
+    Function<ServiceRequest, Future<Void>> handler = offload(request -> {
       try {
-        invoke(verticle, methodImpl, request);
+        invoker.invoke(request.values);
       } catch (Throwable ex) {
         log.error("Invoking method={} on address={} with request={} threw an exception", methodImpl, endpoint.address, request, ex);
       }
-    });
+      return Future.succeededFuture();
+    }, worker);
+    VertxBus.consumePublished(vertx.eventBus(), endpoint.address, ServiceRequest.class, handler::apply);
   }
 
-  private static void registerSendConsumer(Vertx vertx, Object verticle, VertxEndpointInterface endpoint, Method methodImpl) {
-    VertxBus.<ServiceRequest, ServiceResponse>consume(vertx.eventBus(), endpoint.address, ServiceRequest.class, request -> {
+  private static void registerSendConsumer(Vertx vertx, Object verticle, VertxEndpointInterface endpoint, Method methodImpl, Optional<EndpointLimiter> limiter, Optional<WorkerPool> worker) {
+    EndpointInvoker invoker = EndpointInvoker.compile(verticle, methodImpl);
+    Function<List<Object>, Future<Object>> unlimitedHandler = values -> {
       try {
         // we can cast result to Future because we checked `methodImpl.getReturnType() == Future.class`
-        Future future = (Future) invoke(verticle, methodImpl, request);
-        return future.map(x -> new ServiceResponse(x));
+        return (Future<Object>) invoker.invoke(values);
       } catch (Throwable ex) {
-        log.error("Invoking method={} on address={} with request={} threw an exception", methodImpl, endpoint.address, request, ex);
+        log.error("Invoking method={} on address={} with request={} threw an exception", methodImpl, endpoint.address, values, ex);
         return Future.failedFuture(ex);
       }
+    };
+    Function<List<Object>, Future<Object>> handler = limit(measure(offload(unlimitedHandler, worker), endpoint), limiter);
+
+    Function<ServiceRequest, Future<ServiceResponse>> consumer = request -> handler.apply(request.values).map(x -> new ServiceResponse(x));
+    VertxBus.consume(vertx.eventBus(), endpoint.address, ServiceRequest.class, consumer);
+
+    // instance address and local registry are needed only by local and least-loaded dispatch, flags are read when the verticle is deployed
+    if (LocalServiceRegistry.isLeastLoadedEnabled()) {
+      String instanceAddress = LocalServiceRegistry.instanceAddress(endpoint.address, UUID.randomUUID().toString());
+      VertxBus.consume(vertx.eventBus(), instanceAddress, ServiceRequest.class, consumer);
+      LocalServiceRegistry.register(vertx.eventBus(), endpoint.address, instanceAddress, vertx.getOrCreateContext(), handler);
+    } else if (LocalServiceRegistry.isEnabled()) {
+      LocalServiceRegistry.register(vertx.eventBus(), endpoint.address, vertx.getOrCreateContext(), handler);
+    }
+  }
+
+  /**
+   * Stream endpoints are always executed on event loop and are not limited nor measured, the stream is consumed as the client requests elements.
+   */
+  private static void registerStreamConsumer(Vertx vertx, Object verticle, VertxEndpointInterface endpoint, Method methodImpl) {
+    EndpointInvoker invoker = EndpointInvoker.compile(verticle, methodImpl);
+    VertxBus.consumeStream(vertx.eventBus(), endpoint.address, ServiceRequest.class, request -> {
+      try {
+        // we can cast result to ReadStream because we checked `methodImpl.getReturnType() == ReadStream.class`
+        return (ReadStream<Object>) invoker.invoke(request.values);
+      } catch (Throwable ex) {
+        log.error("Invoking method={} on address={} with request={} threw an exception", methodImpl, endpoint.address, request.values, ex);
+        Throwables.throwIfUnchecked(ex);
+        throw new RuntimeException(ex);
+      }
     });
   }
 
+  /**
+   * Batch is handled by public method with the endpoint's name, taking List and returning Future, if verticle has one.
+   * Otherwise the endpoint method is called for each element of the batch and each element succeeds or fails on its own.
+   */
+  private static void registerBatchConsumer(Vertx vertx, Object verticle, VertxEndpointInterface endpoint, Method methodImpl, Optional<EndpointLimiter> limiter, Optional<WorkerPool> worker) {
+    Optional<Method> batchMethodImpl = findBatchMethodImpl(verticle, endpoint.method);
+    EndpointInvoker invoker = EndpointInvoker.compile(verticle, batchMethodImpl.orElse(methodImpl));
+
+    Function<List<Object>, Future<List<Object>>> handler;
+    if (batchMethodImpl.isPresent()) {
+      handler = values -> {
+        try {
+          return (Future<List<Object>>) invoker.invoke(Collections.singletonList(values));
+        } catch (Throwable ex) {
+          log.error("Invoking method={} on address={} with batch={} threw an exception", batchMethodImpl.get(), endpoint.address, values, ex);
+          return Future.failedFuture(ex);
+        }
+      };
+    } else {
+      handler = values -> {
+        List<Future> responses = new ArrayList<>(values.size());
+        for (Object value : values) {
+          try {
+            responses.add((Future<Object>) invoker.invoke(Collections.singletonList(value)));
+          } catch (Throwable ex) {
+            log.error("Invoking method={} on address={} with request={} threw an exception", methodImpl, endpoint.address, value, ex);
+            responses.add(Future.failedFuture(ex));
+          }
+        }
+        Future<List<Object>> batchResponse = Future.future();
+        CompositeFuture.join(responses).setHandler(x -> {
+          List<Object> results = new ArrayList<>(responses.size());
+          for (Future<Object> response : responses) {
+            results.add(response.succeeded() ? response.result() : BusPayload.failed(response.cause()));
+          }
+          batchResponse.complete(results);
+        });
+        return batchResponse;
+      };
+    }
+
+    VertxBus.consumeBatched(vertx.eventBus(), endpoint.address, Object.class, limit(measure(offload(handler, worker), endpoint), limiter));
+  }
+
+  private static <A, B> Function<A, Future<B>> offload(Function<A, Future<B>> handler, Optional<WorkerPool> worker) {
+    if (worker.isPresent()) {
+      return values -> worker.get().execute(() -> handler.apply(values));
+    } else {
+      return handler;
+    }
+  }
+
+  private static <A, B> Function<A, Future<B>> measure(Function<A, Future<B>> handler, VertxEndpointInterface endpoint) {
+    EndpointMetrics metrics = EndpointMetrics.handler(endpoint.address);
+    if (metrics != null) {
+      return values -> {
+        long start = metrics.start();
+        return metrics.end(start, handler.apply(values));
+      };
+    } else {
+      return handler;
+    }
+  }
+
+  private static <A, B> Function<A, Future<B>> limit(Function<A, Future<B>> handler, Optional<EndpointLimiter> limiter) {
+    if (limiter.isPresent()) {
+      return values -> limiter.get().execute(() -> handler.apply(values));
+    } else {
+      return handler;
+    }
+  }
+
+  /**
+   * Executes blocking code on dedicated or Vertx default worker pool. Result is delivered on the calling context.
+   */
+  private static class WorkerPool {
+    private final Vertx vertx;
+    private final WorkerExecutor executor; // null for Vertx default worker pool
+
+    WorkerPool(Vertx vertx, WorkerExecutor executor) {
+      this.vertx = vertx;
+      this.executor = executor;
+    }
+
+    <T> Future<T> execute(Supplier<Future<T>> code) {
+      Future<T> result = Future.future();
+      Handler<Promise<T>> blocking = promise -> code.get().setHandler(promise);
+      if (executor != null) {
+        executor.executeBlocking(blocking, false, result);
+      } else {
+        vertx.executeBlocking(blocking, false, result);
+      }
+      return result;
+    }
+  }
+
+  private static Optional<Method> findBatchMethodImpl(Object verticle, Method m) {
+    return
+    Arrays.asList(verticle.getClass().getMethods()).stream()
+      .filter(mm -> stringEquals(m.getName(), mm.getName()) && mm.getParameterCount() == 1 && mm.getParameterTypes()[0] == List.class && mm.getReturnType() == Future.class)
+      .findAny();
+  }
+
   private static Method findMethodImpl(Object verticle, Method m) {
     return
     Arrays.asList(verticle.getClass().getMethods()).stream()
@@ -107,8 +302,4 @@ public class ServiceVerticleTools {
     else if (a != null) return a.equals(b);
     else return false;
   }
-
-  private static Object invoke(Object verticle, Method m, ServiceRequest request) throws InvocationTargetException, IllegalAccessException {
-    return m.invoke(verticle, request.values.toArray());
-  }
 }
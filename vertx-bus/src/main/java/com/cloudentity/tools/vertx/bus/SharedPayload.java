@@ -0,0 +1,63 @@
+package com.cloudentity.tools.vertx.bus;
+
+import com.cloudentity.tools.vertx.json.ReadOnlyJson;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Objects;
+
+/**
+ * Payload shared by reference between verticles without copying.
+ *
+ * It wraps read-only view of Buffer, JsonObject or JsonArray, so neither the sender nor the receivers need defensive copies
+ * of large payloads: any modification of the view throws an exception (ReadOnlyBufferException for Buffer,
+ * UnsupportedOperationException for JSON). Creating the view does not copy the content.
+ * The sender must not modify the original value after wrapping it.
+ *
+ * Use `value().copy()` to get modifiable copy.
+ */
+public final class SharedPayload<T> {
+  private final T value;
+
+  private SharedPayload(T value) {
+    this.value = value;
+  }
+
+  public static SharedPayload<Buffer> of(Buffer buffer) {
+    return new SharedPayload<>(Buffer.buffer(buffer.getByteBuf().asReadOnly()));
+  }
+
+  public static SharedPayload<JsonObject> of(JsonObject object) {
+    return new SharedPayload<>(ReadOnlyJson.readOnly(object));
+  }
+
+  public static SharedPayload<JsonArray> of(JsonArray array) {
+    return new SharedPayload<>(ReadOnlyJson.readOnly(array));
+  }
+
+  public T value() {
+    return value;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    SharedPayload<?> that = (SharedPayload<?>) o;
+    return Objects.equals(value, that.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(value);
+  }
+
+  @Override
+  public String toString() {
+    // do not print content of large buffers in logs
+    return "SharedPayload{" +
+    "value=" + (value instanceof Buffer ? "Buffer[length=" + ((Buffer) value).length() + "]" : value) +
+    '}';
+  }
+}
@@ -1,15 +1,23 @@
 package com.cloudentity.tools.vertx.bus;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageCodec;
 import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
 import io.vertx.core.impl.NoStackTraceThrowable;
+import io.vertx.core.streams.ReadStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -20,13 +28,15 @@ import java.util.function.Function;
  * 1. {@link io.vertx.core.Future}'s clean programming model (e.g. {@link Future#map(Object)}, {@link Future#compose(Function)})
  *    instead of using Vertx's callback-based approach. VertxBus' methods return {@link io.vertx.core.Future}.
  * 2. Proper error handling - all thrown exceptions are logged and signaled by returning failed Future or failing received message.
- * 3. Debug logs of exchanged messages.
+ * 3. Debug logs of exchanged messages, see {@link LoggingBusInterceptor}. Custom {@link BusInterceptor} can be plugged in with {@link BusInterceptors}.
  *
  * The messages that are sent and received in ask/consume methods are wrapped in {@link BusPayload}
  * Before using VertxBus' ask/consume methods you should register message codec with {@link VertxBus#registerPayloadCodec(EventBus)}.
  */
 public class VertxBus {
   private static final Logger log = LoggerFactory.getLogger(VertxBus.class);
+  // static final, so JIT can remove interceptor calls when it's null
+  private static final BusInterceptor interceptor = BusInterceptors.INTERCEPTOR;
 
   /**
    * Delegates to {@link VertxBus#ask(EventBus, String, DeliveryOptions, Class, Object)} with DeliveryOptions with 3000ms send-timeout.
@@ -39,6 +49,8 @@ public class VertxBus {
    * Sends a request to given address on provided event bus. The message is wrapped in {@link BusPayload}.
    * Returns failed Future if sending or decoding response failed.
    *
+   * If {@link AskTimeouts} is enabled for the event bus then send-timeout is tracked by timing wheel instead of Vertx timer.
+   *
    * @param bus the event bus
    * @param addr address where to send the message
    * @param request the message body
@@ -48,8 +60,14 @@ public class VertxBus {
    */
   public static <T> Future<T> ask(EventBus bus, String addr, DeliveryOptions opts, Class<T> responseClazz, Object request) {
     Future<T> f = Future.future();
-    log.trace("Asking started on address={} with request={}", addr, request);
-    bus.<BusPayload>send(addr, new BusPayload(request), opts, msg -> handleAskResponse(addr, responseClazz, request, f, msg));
+    if (interceptor != null) interceptor.askStarted(addr, request);
+    AskTimeouts timeouts = AskTimeouts.get(bus);
+    Context ctx = timeouts != null ? Vertx.currentContext() : null;
+    if (timeouts != null && AskTimeouts.canTrack(ctx, opts)) {
+      timeouts.send(ctx, addr, new BusPayload(request), opts, msg -> handleAskResponse(addr, responseClazz, request, f, msg));
+    } else {
+      bus.<BusPayload>send(addr, new BusPayload(request), opts, msg -> handleAskResponse(addr, responseClazz, request, f, msg));
+    }
     return f;
   }
 
@@ -58,16 +76,18 @@ public class VertxBus {
       BusPayload payload = msg.result().body();
       Object response = payload.value;
       if (payload.isFailed()) {
+        if (interceptor != null) interceptor.askFailed(addr, request, payload.ex);
         f.fail(payload.ex);
       } else if (responseClazz.isInstance(response)) {
-        log.trace("Asking completed on address={} with request={}, response={}", addr, request, response);
+        if (interceptor != null) interceptor.askCompleted(addr, request, response);
         f.complete((T) response);
       } else {
-        log.debug("Asking failed on address={} with request={}, response={}. {} can't be cast to {}", addr, request, msg.cause(), classOf(response), responseClazz);
-        f.fail(new NoStackTraceThrowable("Asking failed on address={}. {} can't be cast to {}"));
+        NoStackTraceThrowable ex = new NoStackTraceThrowable(String.format("Asking failed on address=%s. %s can't be cast to %s", addr, classOf(response), responseClazz));
+        if (interceptor != null) interceptor.askFailed(addr, request, ex);
+        f.fail(ex);
       }
     } else {
-      log.debug("Asking failed on address={} with request={}", addr, request, msg.cause());
+      if (interceptor != null) interceptor.askFailed(addr, request, msg.cause());
       f.fail(msg.cause());
     }
   }
@@ -77,6 +97,53 @@ public class VertxBus {
     else return null;
   }
 
+  /**
+   * Sends a batch of requests in single message to given address. Use with consumer registered with {@link VertxBus#consumeBatched}.
+   * Returns failed Future if the batch failed or response size does not match request size.
+   * Response element is failed if the consumer failed it or it can't be cast to `responseClazz`.
+   *
+   * @return responses in the same order as requests
+   */
+  public static <B> Future<List<AsyncResult<B>>> askBatched(EventBus bus, String addr, DeliveryOptions opts, Class<B> responseClazz, List<?> requests) {
+    return ask(bus, addr, opts, List.class, new ArrayList<>(requests)).compose(responses -> {
+      if (responses.size() != requests.size()) {
+        return Future.failedFuture(new NoStackTraceThrowable(String.format("Asking batch failed on address=%s. Response size %d does not match request size %d", addr, responses.size(), requests.size())));
+      }
+      List<AsyncResult<B>> results = new ArrayList<>(responses.size());
+      for (Object response : responses) {
+        if (response instanceof BusPayload && ((BusPayload) response).isFailed()) {
+          results.add(Future.failedFuture(((BusPayload) response).ex));
+        } else if (response != null && !responseClazz.isInstance(response)) {
+          results.add(Future.failedFuture(new NoStackTraceThrowable(String.format("Asking batch failed on address=%s. %s can't be cast to %s", addr, classOf(response), responseClazz))));
+        } else {
+          results.add(Future.succeededFuture((B) response));
+        }
+      }
+      return Future.succeededFuture(results);
+    });
+  }
+
+  /**
+   * Asks for a stream of responses. Use with consumer registered with {@link VertxBus#consumeStream}.
+   * Elements are sent by the producer only when the returned stream has demand, at most `window` elements are in transit or buffered.
+   * The stream fails if asking fails, element can't be cast to `elementClazz` or no element arrives within DeliveryOptions.sendTimeout while expected.
+   * Setting null handler cancels the stream. Call it on Vertx context, elements are delivered on that context.
+   */
+  public static <T> ReadStream<T> askStream(EventBus bus, String addr, DeliveryOptions opts, Class<T> elementClazz, int window, Object request) {
+    WireTypes.register(elementClazz);
+    return BusStreams.ask(bus, addr, opts, elementClazz, window, request);
+  }
+
+  /**
+   * Handles streams asked with {@link VertxBus#askStream}. The ReadStream returned by `handler` is paused
+   * and its elements are fetched as the client requests them.
+   * Fails the received message when it was not sent with askStream or request can't be cast to `A` (400 error code).
+   */
+  public static <A, B> void consumeStream(EventBus bus, String addr, Class<A> requestClazz, Function<A, ReadStream<B>> handler) {
+    WireTypes.register(requestClazz);
+    BusStreams.consume(bus, addr, requestClazz, handler);
+  }
+
   public static void publish(EventBus bus, String addr, Object body) {
     bus.publish(addr, new BusPayload(body));
   }
@@ -101,41 +168,66 @@ public class VertxBus {
    * @return either an error or response body wrapped in Future
    */
   public static <A, B> void consume(EventBus bus, String addr, Class<A> requestClazz, Function<A, Future<B>> handler) {
+    WireTypes.register(requestClazz);
     bus.consumer(addr, msg -> {
       Object request = ((BusPayload)msg.body()).value;
-      log.trace("Consuming started on address={}, request={}", addr, request);
+      if (interceptor != null) interceptor.consumeStarted(addr, request);
       if (requestClazz.isInstance(request)) {
         try {
           handler.apply(requestClazz.cast(request)).setHandler(result -> {
             if (result.succeeded()) {
-              log.trace("Consuming completed on address={}, request={}, response={}", addr, request, result.result());
+              if (interceptor != null) interceptor.consumeCompleted(addr, request, result.result());
               msg.reply(new BusPayload(result.result()));
             } else {
-              String errMsg = String.format("Consuming failed on address=%s, request=%s. Request handler returned failed Future: %s", addr, request, result.cause().getMessage());
-              log.debug(errMsg, result.cause());
+              if (interceptor != null) interceptor.consumeFailed(addr, request, result.cause());
               msg.reply(BusPayload.failed(result.cause()));
             }
           });
         } catch (Throwable ex) {
-          String errMsg = String.format("Consuming failed on address=%s, request=%s. Request handler threw an exception: %s", addr, request, ex.getMessage());
-          log.debug(errMsg, ex);
+          if (interceptor != null) interceptor.consumeFailed(addr, request, ex);
           msg.reply(BusPayload.failed(ex));
         }
       } else {
         String errMsg = String.format("Consuming failed on address=%s, request=%s. Could not convert request body to %s", addr, request, requestClazz.getName());
-        log.debug(errMsg);
+        if (interceptor != null) interceptor.consumeFailed(addr, request, new NoStackTraceThrowable(errMsg));
         msg.fail(400, errMsg);
       }
     });
   }
 
+  /**
+   * Handles consumption of batches sent with {@link VertxBus#askBatched}.
+   * Handler can fail single element of the batch by returning {@link BusPayload#failed(Throwable)} at its position.
+   * Fails the received message when any batch element can't be cast to `A` (400 error code)
+   * or handler returned response of different size than the batch (500 error code).
+   */
+  public static <A, B> void consumeBatched(EventBus bus, String addr, Class<A> requestClazz, Function<List<A>, Future<List<B>>> handler) {
+    consume(bus, addr, List.class, requests -> {
+      for (Object request : requests) {
+        if (request != null && !requestClazz.isInstance(request)) {
+          String errMsg = String.format("Consuming batch failed on address=%s. Could not convert request body %s to %s", addr, classOf(request), requestClazz.getName());
+          return Future.failedFuture(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, 400, errMsg));
+        }
+      }
+      return handler.apply((List<A>) requests).compose(responses -> {
+        if (responses.size() != requests.size()) {
+          String errMsg = String.format("Consuming batch failed on address=%s. Response size %d does not match request size %d", addr, responses.size(), requests.size());
+          return Future.failedFuture(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, 500, errMsg));
+        }
+        return Future.succeededFuture(responses);
+      });
+    });
+  }
+
   public static <A> MessageConsumer<Object> consumePublished(EventBus bus, String addr, Class<A> requestClazz, Consumer<A> consumer) {
+    WireTypes.register(requestClazz);
     return bus.consumer(addr, msg -> {
       Object request = ((BusPayload)msg.body()).value;
-      log.trace("Consuming published message started on address={}, request={}", addr, request);
+      if (interceptor != null) interceptor.consumeStarted(addr, request);
       if (requestClazz.isInstance(request)) {
         try {
           consumer.accept(requestClazz.cast(request));
+          if (interceptor != null) interceptor.consumeCompleted(addr, request, null);
         } catch (Throwable ex) {
           String errMsg = String.format("Consuming published message failed on address=%s, request=%s. Request consumer threw an exception: %s", addr, request, ex.getMessage());
           log.error(errMsg, ex);
@@ -150,12 +242,30 @@ public class VertxBus {
   /**
    * Registers BusPayload codec. BusPayload wraps the actual objects that are exchanged between verticles.
    * Vertx should work in local mode (no cluster), so there is no need to provide implementation of encode/decode over wire.
+   * In clustered mode use {@link VertxBus#registerClusteredPayloadCodec(EventBus)}.
    *
    * Returns true if executed for the first time with given EventBus.
    */
   public static boolean registerPayloadCodec(EventBus bus) {
+    return registerPayloadCodec(bus, new InMemoryCodec(BusPayload.class));
+  }
+
+  /**
+   * Registers BusPayload codec that can send messages to other cluster nodes, using {@link WireSerializer#load()}.
+   *
+   * Returns true if executed for the first time with given EventBus.
+   */
+  public static boolean registerClusteredPayloadCodec(EventBus bus) {
+    return registerClusteredPayloadCodec(bus, WireSerializer.load());
+  }
+
+  public static boolean registerClusteredPayloadCodec(EventBus bus, WireSerializer serializer) {
+    return registerPayloadCodec(bus, new WireCodec(BusPayload.class, serializer));
+  }
+
+  private static boolean registerPayloadCodec(EventBus bus, MessageCodec<BusPayload, BusPayload> codec) {
     try {
-      bus.registerDefaultCodec(BusPayload.class, new InMemoryCodec(BusPayload.class));
+      bus.registerDefaultCodec(BusPayload.class, codec);
       return true;
     } catch (IllegalStateException ex) {
       log.warn("Could not register bus payload codec", ex);
@@ -0,0 +1,196 @@
+package com.cloudentity.tools.vertx.bus;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Annotation processor generating concrete client class for each interface annotated with {@link GenerateVertxClient}.
+ *
+ * For interface `com.example.Outer.MyService` it generates `com.example.VertxClient_Outer_MyService`.
+ * The generated class sends request directly with {@link VertxBus} at @VertxEndpoint address resolved once by {@link ServiceClientFactory},
+ * so the call does not go through {@link java.lang.reflect.Proxy} and method-handler lookup.
+ * Methods that need tracing spans, metrics, batching, streaming or local dispatch delegate to Proxy client passed to the constructor.
+ *
+ * The processor is not registered as a service, enable it explicitly, e.g. with maven-compiler-plugin `annotationProcessors` configuration
+ * or javac `-processor com.cloudentity.tools.vertx.bus.VertxClientProcessor` option.
+ */
+@SupportedAnnotationTypes("com.cloudentity.tools.vertx.bus.GenerateVertxClient")
+public class VertxClientProcessor extends AbstractProcessor {
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(GenerateVertxClient.class)) {
+      if (element.getKind() != ElementKind.INTERFACE) {
+        error(element, "@GenerateVertxClient can be used only on interfaces");
+      } else if (!((TypeElement) element).getTypeParameters().isEmpty()) {
+        error(element, "@GenerateVertxClient can't be used on generic interfaces");
+      } else if (isPrivate(element)) {
+        error(element, "@GenerateVertxClient can't be used on private interfaces");
+      } else {
+        generate((TypeElement) element);
+      }
+    }
+    return true;
+  }
+
+  private void generate(TypeElement iface) {
+    List<ExecutableElement> methods =
+      ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(iface)).stream()
+        .filter(m -> m.getModifiers().contains(Modifier.ABSTRACT))
+        .collect(Collectors.toList());
+
+    for (ExecutableElement method : methods) {
+      if (method.getAnnotation(VertxEndpoint.class) == null) {
+        error(method, "All methods in " + iface.getQualifiedName() + " must be annotated with @VertxEndpoint");
+        return;
+      }
+    }
+
+    String packageName = processingEnv.getElementUtils().getPackageOf(iface).getQualifiedName().toString();
+    String className = generatedSimpleName(processingEnv.getElementUtils().getBinaryName(iface).toString(), packageName);
+    String ifaceName = iface.getQualifiedName().toString();
+
+    StringBuilder src = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      src.append("package ").append(packageName).append(";\n\n");
+    }
+    src.append("// Generated by ").append(VertxClientProcessor.class.getName()).append(", do not edit\n");
+    src.append("@SuppressWarnings({\"unchecked\", \"rawtypes\", \"deprecation\"})\n");
+    src.append("public final class ").append(className).append(" implements ").append(ifaceName).append(" {\n");
+
+    for (int i = 0; i < methods.size(); i++) {
+      src.append("  private final String a").append(i).append(";\n");
+    }
+    src.append("  private final io.vertx.core.eventbus.EventBus bus;\n");
+    src.append("  private final io.vertx.core.eventbus.DeliveryOptions opts;\n");
+    src.append("  private final ").append(ifaceName).append(" fallback;\n");
+
+    src.append("\n  public ").append(className).append("(io.vertx.core.eventbus.EventBus bus, io.vertx.core.eventbus.DeliveryOptions opts, ")
+      .append("java.util.Map<java.lang.reflect.Method, String> addresses, ").append(ifaceName).append(" fallback) {\n");
+    src.append("    this.bus = bus;\n    this.opts = opts;\n    this.fallback = fallback;\n");
+    src.append("    try {\n");
+    for (int i = 0; i < methods.size(); i++) {
+      ExecutableElement m = methods.get(i);
+      src.append("      a").append(i).append(" = addresses.get(").append(ifaceName).append(".class.getMethod(\"").append(m.getSimpleName()).append("\"")
+        .append(m.getParameters().stream().map(p -> ", " + erasure(p.asType()) + ".class").collect(Collectors.joining())).append("));\n");
+    }
+    src.append("    } catch (NoSuchMethodException ex) {\n");
+    src.append("      throw new IllegalStateException(\"Generated client does not match \" + ").append(ifaceName).append(".class.getName(), ex);\n");
+    src.append("    }\n");
+    src.append("  }\n");
+
+    for (int i = 0; i < methods.size(); i++) {
+      appendMethod(src, methods.get(i), i);
+    }
+    src.append("}\n");
+
+    String fullName = packageName.isEmpty() ? className : packageName + "." + className;
+    try (Writer writer = processingEnv.getFiler().createSourceFile(fullName, iface).openWriter()) {
+      writer.write(src.toString());
+    } catch (IOException ex) {
+      error(iface, "Could not write " + fullName + ": " + ex.getMessage());
+    }
+  }
+
+  private void appendMethod(StringBuilder src, ExecutableElement m, int i) {
+    List<? extends VariableElement> params = m.getParameters();
+
+    src.append("\n  @Override\n  public ");
+    if (!m.getTypeParameters().isEmpty()) {
+      src.append("<").append(m.getTypeParameters().stream().map(this::typeParameter).collect(Collectors.joining(", "))).append("> ");
+    }
+    src.append(m.getReturnType()).append(" ").append(m.getSimpleName()).append("(");
+    for (int p = 0; p < params.size(); p++) {
+      if (p > 0) src.append(", ");
+      TypeMirror type = params.get(p).asType();
+      if (m.isVarArgs() && p == params.size() - 1) {
+        String arrayType = type.toString();
+        src.append(arrayType, 0, arrayType.length() - 2).append("...");
+      } else {
+        src.append(type);
+      }
+      src.append(" arg").append(p);
+    }
+    src.append(") {\n");
+
+    String call = "fallback." + m.getSimpleName() + "(" + params.stream().map(p -> "arg" + params.indexOf(p)).collect(Collectors.joining(", ")) + ")";
+    if (isVoid(m)) {
+      src.append("    if (a").append(i).append(" != null) {\n");
+      src.append("      com.cloudentity.tools.vertx.bus.VertxBus.publish(bus, a").append(i).append(", opts, ").append(request(params)).append(");\n");
+      src.append("    } else {\n      ").append(call).append(";\n    }\n");
+    } else if (isStream(m)) {
+      src.append("    return ").append(call).append(";\n");
+    } else {
+      src.append("    if (a").append(i).append(" != null && !com.cloudentity.tools.vertx.bus.LocalServiceRegistry.isDispatchEnabled()) {\n");
+      src.append("      return (io.vertx.core.Future) com.cloudentity.tools.vertx.bus.VertxBus.ask(bus, a").append(i)
+        .append(", opts, com.cloudentity.tools.vertx.bus.ServiceResponse.class, ").append(request(params)).append(").map(r -> r.value);\n");
+      src.append("    } else {\n      return ").append(call).append(";\n    }\n");
+    }
+    src.append("  }\n");
+  }
+
+  private String request(List<? extends VariableElement> params) {
+    String values;
+    if (params.isEmpty()) {
+      values = "java.util.Collections.emptyList()";
+    } else if (params.size() == 1) {
+      values = "java.util.Collections.singletonList(arg0)";
+    } else {
+      values = "java.util.Arrays.asList(new Object[] {" + params.stream().map(p -> "arg" + params.indexOf(p)).collect(Collectors.joining(", ")) + "})";
+    }
+    return "new com.cloudentity.tools.vertx.bus.ServiceRequest(" + values + ")";
+  }
+
+  private String typeParameter(TypeParameterElement t) {
+    List<String> bounds = t.getBounds().stream().map(TypeMirror::toString).filter(b -> !"java.lang.Object".equals(b)).collect(Collectors.toList());
+    return bounds.isEmpty() ? t.getSimpleName().toString() : t.getSimpleName() + " extends " + String.join(" & ", bounds);
+  }
+
+  private String erasure(TypeMirror type) {
+    return processingEnv.getTypeUtils().erasure(type).toString();
+  }
+
+  private boolean isVoid(ExecutableElement m) {
+    return m.getReturnType().getKind() == TypeKind.VOID;
+  }
+
+  private boolean isStream(ExecutableElement m) {
+    return "io.vertx.core.streams.ReadStream".equals(erasure(m.getReturnType()));
+  }
+
+  private boolean isPrivate(Element element) {
+    for (Element e = element; e != null && e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+      if (e.getModifiers().contains(Modifier.PRIVATE)) return true;
+    }
+    return false;
+  }
+
+  private void error(Element element, String msg) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, msg, element);
+  }
+
+  /**
+   * Returns simple name of the generated client class, e.g. `VertxClient_Outer_MyService` for `com.example.Outer$MyService`.
+   */
+  public static String generatedSimpleName(String binaryName, String packageName) {
+    String name = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+    return GenerateVertxClient.CLASS_NAME_PREFIX + name.replace('$', '_');
+  }
+}
@@ -8,4 +8,52 @@ import java.lang.annotation.*;
 public @interface VertxEndpoint {
   String address() default DERIVE_ADDRESS; // if address is not set explicitly then it will be derived from Method full name
   String DERIVE_ADDRESS = "";
+
+  /**
+   * Max number of calls coalesced by the client into single event-bus message. 0 disables batching.
+   *
+   * Batch endpoint must have single parameter and return Future. ServiceVerticle handles the batch with public method
+   * of the same name taking List of parameters and returning Future of List of results (in the same order).
+   * If there is no such method then the endpoint method is called for each element of the batch.
+   */
+  int batch() default 0;
+
+  /**
+   * Max time in milliseconds the client waits for calls to coalesce before sending the batch.
+   */
+  long batchWindowMs() default 5;
+
+  /**
+   * Max number of requests executed concurrently by single ServiceVerticle instance. 0 means no limit.
+   * Can be overridden in verticle configuration at `endpointLimits.{method-name}.maxInFlight`.
+   */
+  int maxInFlight() default 0;
+
+  /**
+   * Max number of requests waiting when `maxInFlight` requests are executed. Requests exceeding it are rejected
+   * with {@link EndpointLimiter#OVERLOADED_FAILURE_CODE}. Applies only if `maxInFlight` is set.
+   * Can be overridden in verticle configuration at `endpointLimits.{method-name}.maxQueued`.
+   */
+  int maxQueued() default 0;
+
+  /**
+   * Thread the ServiceVerticle method is executed on. BLOCKING methods are executed on worker pool, so they can call blocking APIs,
+   * e.g. JDBC. The method's Future may be completed on the worker thread, the reply is sent from ServiceVerticle's event loop.
+   */
+  Execution execution() default Execution.EVENT_LOOP;
+
+  /**
+   * Size of dedicated worker pool of BLOCKING endpoint, shared by all ServiceVerticle instances. 0 means Vertx default worker pool.
+   * Can be overridden in verticle configuration at `endpointLimits.{method-name}.workerPoolSize`.
+   */
+  int workerPoolSize() default 0;
+
+  /**
+   * Max number of elements in transit or buffered by the client of endpoint returning ReadStream, see {@link VertxBus#askStream}.
+   */
+  int streamWindow() default 16;
+
+  enum Execution {
+    EVENT_LOOP, BLOCKING
+  }
 }
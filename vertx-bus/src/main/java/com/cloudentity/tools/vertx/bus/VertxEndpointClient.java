@@ -1,10 +1,17 @@
 package com.cloudentity.tools.vertx.bus;
 
 import com.cloudentity.tools.vertx.tracing.TracingManager;
+import com.cloudentity.tools.vertx.tracing.internals.JaegerTracing;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.json.JsonObject;
 
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class VertxEndpointClient {
   public static <T> T makeWithTracing(Vertx vertx, TracingManager tracing, Class<T> clazz, Optional<String> addressPrefixOpt, DeliveryOptions opts) {
@@ -30,4 +37,70 @@ public class VertxEndpointClient {
   public static <T> T make(Vertx vertx, Class<T> clazz) {
     return ServiceClientFactory.make(vertx.eventBus(), clazz);
   }
+
+  private static final Map<Vertx, Map<ClientKey, Object>> cachedClients = new ConcurrentHashMap<>();
+
+  /**
+   * Returns a client built with {@link VertxEndpointClient#makeWithTracing(Vertx, TracingManager, Class, Optional, DeliveryOptions)}
+   * and cached per Vertx instance, interface, address prefix, delivery options and tracing manager.
+   *
+   * Clients are stateless, so the same instance can be shared. Use it instead of building client on every call.
+   * The cached client uses a copy of `opts`, so changing `opts` afterwards has no effect on it.
+   * Clients cached for Vertx instance are dropped when it is closed.
+   */
+  public static <T> T makeCachedWithTracing(Vertx vertx, TracingManager tracing, Class<T> clazz, Optional<String> addressPrefixOpt, DeliveryOptions opts) {
+    Map<ClientKey, Object> clients = cachedClients.computeIfAbsent(vertx, v -> {
+      ((VertxInternal) v).addCloseHook(completion -> {
+        cachedClients.remove(v);
+        completion.handle(Future.succeededFuture());
+      });
+      return new ConcurrentHashMap<>();
+    });
+
+    ClientKey key = new ClientKey(clazz, addressPrefixOpt, opts, tracing);
+    return clazz.cast(clients.computeIfAbsent(key, k -> makeWithTracing(vertx, tracing, clazz, addressPrefixOpt, new DeliveryOptions(opts))));
+  }
+
+  public static <T> T makeCachedWithTracing(Vertx vertx, TracingManager tracing, Class<T> clazz, Optional<String> addressPrefixOpt) {
+    return makeCachedWithTracing(vertx, tracing, clazz, addressPrefixOpt, ServiceClientFactory.defaultDeliveryOptions());
+  }
+
+  public static <T> T makeCached(Vertx vertx, Class<T> clazz, Optional<String> addressPrefixOpt, DeliveryOptions opts) {
+    return makeCachedWithTracing(vertx, JaegerTracing.noTracing, clazz, addressPrefixOpt, opts);
+  }
+
+  public static <T> T makeCached(Vertx vertx, Class<T> clazz, Optional<String> addressPrefixOpt) {
+    return makeCached(vertx, clazz, addressPrefixOpt, ServiceClientFactory.defaultDeliveryOptions());
+  }
+
+  public static <T> T makeCached(Vertx vertx, Class<T> clazz) {
+    return makeCached(vertx, clazz, Optional.empty());
+  }
+
+  private static class ClientKey {
+    private final Class clazz;
+    private final Optional<String> addressPrefixOpt;
+    private final JsonObject opts;
+    private final TracingManager tracing;
+
+    ClientKey(Class clazz, Optional<String> addressPrefixOpt, DeliveryOptions opts, TracingManager tracing) {
+      this.clazz = clazz;
+      this.addressPrefixOpt = addressPrefixOpt;
+      this.opts = opts.toJson();
+      this.tracing = tracing;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      ClientKey that = (ClientKey) o;
+      return clazz == that.clazz && tracing == that.tracing && addressPrefixOpt.equals(that.addressPrefixOpt) && opts.equals(that.opts);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(clazz, addressPrefixOpt, opts, System.identityHashCode(tracing));
+    }
+  }
 }
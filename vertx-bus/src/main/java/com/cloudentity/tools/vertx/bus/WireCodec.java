@@ -0,0 +1,48 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * Codec of event-bus messages that can be sent to other cluster nodes. Use it instead of {@link InMemoryCodec} in Vertx clustered mode.
+ *
+ * The message is encoded with {@link WireSerializer} and prefixed with its length. Local delivery passes the message by reference.
+ */
+public class WireCodec<T> implements MessageCodec<T, T> {
+  private final Class<T> clazz;
+  private final WireSerializer serializer;
+
+  public WireCodec(Class<T> clazz, WireSerializer serializer) {
+    this.clazz = clazz;
+    this.serializer = serializer;
+  }
+
+  @Override
+  public void encodeToWire(Buffer buffer, T t) {
+    int lengthPos = buffer.length();
+    buffer.appendInt(0);
+    serializer.encode(buffer, t);
+    buffer.setInt(lengthPos, buffer.length() - lengthPos - 4);
+  }
+
+  @Override
+  public T decodeFromWire(int pos, Buffer buffer) {
+    int length = buffer.getInt(pos);
+    return clazz.cast(serializer.decode(buffer, pos + 4, length));
+  }
+
+  @Override
+  public T transform(T t) {
+    return t;
+  }
+
+  @Override
+  public String name() {
+    return clazz.getSimpleName();
+  }
+
+  @Override
+  public byte systemCodecID() {
+    return -1;
+  }
+}
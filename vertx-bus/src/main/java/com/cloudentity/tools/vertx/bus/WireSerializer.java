@@ -0,0 +1,29 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Serializes event-bus messages sent to other cluster nodes, see {@link WireCodec}.
+ *
+ * Custom implementation can be provided with ServiceLoader, i.e. in META-INF/services/com.cloudentity.tools.vertx.bus.WireSerializer.
+ * {@link DefaultWireSerializer} is used if there is none.
+ */
+public interface WireSerializer {
+  /**
+   * Appends serialized value to the buffer.
+   */
+  void encode(Buffer buffer, Object value);
+
+  /**
+   * Reads value serialized with {@link WireSerializer#encode} from buffer region [pos, pos + length).
+   */
+  Object decode(Buffer buffer, int pos, int length);
+
+  static WireSerializer load() {
+    Iterator<WireSerializer> serializers = ServiceLoader.load(WireSerializer.class).iterator();
+    return serializers.hasNext() ? serializers.next() : new DefaultWireSerializer();
+  }
+}
@@ -0,0 +1,62 @@
+package com.cloudentity.tools.vertx.bus;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classes that {@link DefaultWireSerializer} can decode from JSON when receiving message from other cluster node.
+ *
+ * Parameter and return types of @VertxEndpoint methods (including type arguments, e.g. `Foo` of `Future<List<Foo>>`) are registered
+ * when client or ServiceVerticle is created, request classes of {@link VertxBus} consumers (e.g. ConfigChange consumed by ComponentVerticle)
+ * when the consumer is registered. Register other classes, e.g. subclasses of declared types or types sent with VertxBus directly,
+ * with {@link WireTypes#register(Class)} before they are received. Values of other classes are rejected,
+ * so a message can't make the receiver instantiate arbitrary class.
+ */
+public class WireTypes {
+  private static final Map<String, Class<?>> types = new ConcurrentHashMap<>();
+
+  public static void register(Class<?> clazz) {
+    types.putIfAbsent(clazz.getName(), clazz);
+  }
+
+  /**
+   * Registers parameter types and return type of endpoint method.
+   */
+  public static void register(Method method) {
+    for (Type type : method.getGenericParameterTypes()) {
+      register(type);
+    }
+    register(method.getGenericReturnType());
+  }
+
+  private static void register(Type type) {
+    if (type instanceof Class) {
+      Class<?> clazz = (Class<?>) type;
+      if (!clazz.isPrimitive()) register(clazz);
+      if (clazz.isArray()) register(clazz.getComponentType());
+    } else if (type instanceof ParameterizedType) {
+      register(((ParameterizedType) type).getRawType());
+      for (Type arg : ((ParameterizedType) type).getActualTypeArguments()) {
+        register(arg);
+      }
+    } else if (type instanceof GenericArrayType) {
+      register(((GenericArrayType) type).getGenericComponentType());
+    } else if (type instanceof WildcardType) {
+      for (Type bound : ((WildcardType) type).getUpperBounds()) {
+        register(bound);
+      }
+    }
+  }
+
+  /**
+   * Returns registered class with given name or null.
+   */
+  public static Class<?> get(String className) {
+    return types.get(className);
+  }
+}
@@ -17,15 +17,21 @@ public class ConfBuilder {
   public static class Config {
     public final JsonObject rawRootConfig;
     public final JsonObject resolvedConfig;
-    public final JsonObject resolvedConfigWithMask;
+    public final ConfMask mask; // secret paths of resolvedConfig, applied when configuration is printed
     public final List<ValidRawModule> validModules;
+    public final VariableLookups variables; // environment variables and system properties resolvedConfig depends on
 
 
-    public Config(JsonObject rawRootConfig, JsonObject resolvedConfig, JsonObject resolvedConfigWithMask, List<ValidRawModule> validModules) {
+    public Config(JsonObject rawRootConfig, JsonObject resolvedConfig, ConfMask mask, List<ValidRawModule> validModules) {
+      this(rawRootConfig, resolvedConfig, mask, validModules, new VariableLookups());
+    }
+
+    public Config(JsonObject rawRootConfig, JsonObject resolvedConfig, ConfMask mask, List<ValidRawModule> validModules, VariableLookups variables) {
       this.rawRootConfig = rawRootConfig;
       this.resolvedConfig = resolvedConfig;
-      this.resolvedConfigWithMask = resolvedConfigWithMask;
+      this.mask = mask;
       this.validModules = validModules;
+      this.variables = variables;
     }
   }
 
@@ -52,6 +58,11 @@ public class ConfBuilder {
   }
 
   public static Either<List<MissingModule>, Config> buildFinalConfig(JsonObject rawRootConfigOriginal) {
+    VariableLookups variables = new VariableLookups();
+    return VariableLookups.record(variables, () -> buildFinalConfig(rawRootConfigOriginal, variables));
+  }
+
+  private static Either<List<MissingModule>, Config> buildFinalConfig(JsonObject rawRootConfigOriginal, VariableLookups variables) {
     JsonObject rawRootConfig = rawRootConfigOriginal.copy();
     List<Either<MissingModule, ValidRawModule>> modules = readRawModulesConfigs(rawRootConfig);
 
@@ -62,18 +73,13 @@ public class ConfBuilder {
 
     List<ValidRawModule> validRawModules = modules.stream().filter(x -> x.isRight()).map(x -> x.get()).collect(Collectors.toList());
     JsonObject rawModulesConf = mergeRawClasspathModules(validRawModules);
-    JsonObject result = rawModulesConf.copy().mergeIn(rawRootConfig, true);
-
-    JsonObject mask = popMask(result);
-    JsonObject maskedResult = applyMask(result.copy(), mask);
-    maskedResult = ConfReference.populateRefs(maskedResult, maskedResult);
+    JsonObject result = ConfMask.merge(rawModulesConf.copy(), rawRootConfig);
 
+    ConfMask mask = ConfMask.pop(result);
     result = ConfReference.populateRefs(result, result);
-
     ConfNullifier.nullify(result);
-    ConfNullifier.nullify(maskedResult);
 
-    return Either.right(new Config(rawRootConfig, result, maskedResult, validRawModules));
+    return Either.right(new Config(rawRootConfig, result, mask, validRawModules, variables));
   }
 
   public static List<Either<MissingModule, ValidRawModule>> readRawModulesConfigs(JsonObject rawRootConfig) {
@@ -133,17 +139,7 @@ public class ConfBuilder {
 
   private static JsonObject mergeRawClasspathModules(List<ValidRawModule> validRawModules) {
     JsonObject conf = new JsonObject();
-    validRawModules.forEach(module -> conf.mergeIn(module.rawConfig.copy(), true));
+    validRawModules.forEach(module -> ConfMask.merge(conf, module.rawConfig.copy()));
     return conf;
   }
-
-  private static JsonObject popMask(JsonObject o) {
-    JsonObject mask = o.getJsonObject("_mask", new JsonObject());
-    o.remove("_mask");
-    return mask;
-  }
-
-  private static JsonObject applyMask(JsonObject o, JsonObject mask) {
-    return o.mergeIn(mask);
-  }
 }
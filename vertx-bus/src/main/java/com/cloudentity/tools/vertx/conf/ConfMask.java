@@ -0,0 +1,341 @@
+package com.cloudentity.tools.vertx.conf;
+
+import com.cloudentity.tools.vertx.json.JsonPath;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Secret paths of configuration, read from `_mask` and `_maskPaths` attributes of raw configuration (see `maskSecrets` flag of ExtConfigStore).
+ *
+ * `_mask` mirrors configuration tree, JsonObjects are followed and any other value marks its path as secret, e.g. `{"secrets": {"db": true}}`.
+ * Masked copy of configuration, as put at `_mask` by older ExtConfigStore, is a valid mask as well.
+ * `_maskPaths` has `true` at period-separated secret paths, e.g. `{"secrets.db": true}`. Its keys are distinct paths, so it is not
+ * narrowed when configurations of stores are deep-merged by ConfigRetriever, while `{"db": true}` merged with `{"db": {"password": true}}`
+ * in `_mask` leaves only `db.password`. Use {@link #merge(JsonObject, JsonObject)} to merge configurations with `_mask`.
+ * Values referencing secret paths with `$ref`, `${...}` or `$env` (resolved from `env` attribute) are secret too.
+ *
+ * Masking is applied when configuration is serialized or its masked copy is requested,
+ * so masked configuration is neither resolved nor kept in memory along with actual configuration.
+ */
+public class ConfMask {
+  public static final String MASK_KEY = "_mask";
+  public static final String MASK_PATHS_KEY = "_maskPaths";
+  public static final String MASKED_VALUE = "***";
+
+  private static final ConfMask EMPTY = new ConfMask(new JsonObject());
+  private static final Pattern springRefPattern = Pattern.compile("\\$\\{([^}:]+)[^}]*}");
+
+  private final JsonObject secrets;
+
+  private ConfMask(JsonObject secrets) {
+    this.secrets = secrets;
+  }
+
+  public static ConfMask empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns mask of secret paths in `_mask` format, as returned by {@link #toJson()}.
+   */
+  public static ConfMask fromJson(JsonObject secrets) {
+    return secrets.isEmpty() ? EMPTY : new ConfMask(secrets.copy());
+  }
+
+  /**
+   * Removes `_mask` and `_maskPaths` attributes from unresolved configuration and returns mask of its secret paths, including paths of references to secrets.
+   */
+  public static ConfMask pop(JsonObject rawConf) {
+    Object mask = rawConf.remove(MASK_KEY);
+    Object maskPaths = rawConf.remove(MASK_PATHS_KEY);
+
+    JsonObject secrets = mask instanceof JsonObject ? ((JsonObject) mask).copy() : new JsonObject();
+    if (maskPaths instanceof JsonObject) {
+      for (String path : ((JsonObject) maskPaths).fieldNames()) {
+        markSecret(secrets, JsonPath.compile(path).keys());
+      }
+    }
+    if (secrets.isEmpty()) {
+      return EMPTY;
+    }
+
+    List<RefSite> sites = new ArrayList<>();
+    collectRefSites(rawConf, new ArrayList<>(), null, sites);
+
+    // references to references to secret are secret, so repeat until no new secret path is found
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (Iterator<RefSite> it = sites.iterator(); it.hasNext();) {
+        RefSite site = it.next();
+        if (site.targets.stream().anyMatch(target -> overlaps(secrets, target))) {
+          markSecret(secrets, site.path);
+          it.remove();
+          changed = true;
+        }
+      }
+    }
+    return new ConfMask(secrets);
+  }
+
+  /**
+   * Deep-merges `source` configuration into `target`, as ConfigRetriever merges configurations of stores,
+   * except that `_mask` attributes are united: a path secret in either of them is secret in the result.
+   */
+  public static JsonObject merge(JsonObject target, JsonObject source) {
+    Object targetMask = target.getValue(MASK_KEY);
+    Object sourceMask = source.getValue(MASK_KEY);
+    JsonObject unitedMask = targetMask instanceof JsonObject && sourceMask instanceof JsonObject ? union((JsonObject) targetMask, (JsonObject) sourceMask) : null;
+
+    target.mergeIn(source, true);
+    if (unitedMask != null) {
+      target.put(MASK_KEY, unitedMask);
+    }
+    return target;
+  }
+
+  /**
+   * Returns union of masks in `_mask` format. Path secret as a whole in one mask is secret as a whole in the result,
+   * even if the other mask has secrets only below it.
+   */
+  static JsonObject union(JsonObject a, JsonObject b) {
+    JsonObject result = a.copy();
+    for (Map.Entry<String, Object> entry : b) {
+      Object existing = result.getValue(entry.getKey());
+      if (!result.containsKey(entry.getKey())) {
+        result.put(entry.getKey(), copyValue(entry.getValue()));
+      } else if (existing instanceof JsonObject && entry.getValue() instanceof JsonObject) {
+        result.put(entry.getKey(), union((JsonObject) existing, (JsonObject) entry.getValue()));
+      } else if (existing instanceof JsonObject) {
+        result.put(entry.getKey(), copyValue(entry.getValue()));
+      }
+    }
+    return result;
+  }
+
+  public boolean isEmpty() {
+    return secrets.isEmpty();
+  }
+
+  /**
+   * Returns secret paths in `_mask` format, i.e. with `true` at every secret path.
+   */
+  public JsonObject toJson() {
+    return secrets.copy();
+  }
+
+  /**
+   * Returns copy of `conf` with values at secret paths replaced with "***". Structure of secret JsonObjects and JsonArrays is kept.
+   */
+  public JsonObject apply(JsonObject conf) {
+    return maskedCopy(conf, secrets);
+  }
+
+  /**
+   * Encodes `conf` to JSON string with values at secret paths written as "***", without building masked copy.
+   */
+  public String encode(JsonObject conf) {
+    if (isEmpty()) {
+      return conf.encode();
+    }
+
+    StringWriter out = new StringWriter();
+    try (JsonGenerator gen = Json.mapper.getFactory().createGenerator(out)) {
+      writeObject(gen, conf, secrets);
+    } catch (IOException ex) {
+      throw new EncodeException("Failed to encode as JSON: " + ex.getMessage());
+    }
+    return out.toString();
+  }
+
+  private static class RefSite {
+    final List<String> path;
+    final List<List<String>> targets;
+
+    RefSite(List<String> path, List<List<String>> targets) {
+      this.path = path;
+      this.targets = targets;
+    }
+  }
+
+  /**
+   * Collects paths of strings containing references with paths they reference.
+   * Path of the outermost JsonArray is used for references in JsonArray, as mask can't address array items.
+   */
+  private static void collectRefSites(Object value, List<String> path, List<String> arrayPath, List<RefSite> sites) {
+    if (value instanceof JsonObject) {
+      for (Map.Entry<String, Object> entry : (JsonObject) value) {
+        path.add(entry.getKey());
+        collectRefSites(entry.getValue(), path, arrayPath, sites);
+        path.remove(path.size() - 1);
+      }
+    } else if (value instanceof JsonArray) {
+      List<String> sitePath = arrayPath != null ? arrayPath : new ArrayList<>(path);
+      for (Object item : (JsonArray) value) {
+        collectRefSites(item, path, sitePath, sites);
+      }
+    } else if (value instanceof String) {
+      List<List<String>> targets = refTargets((String) value);
+      if (!targets.isEmpty()) {
+        sites.add(new RefSite(arrayPath != null ? arrayPath : new ArrayList<>(path), targets));
+      }
+    }
+  }
+
+  private static List<List<String>> refTargets(String value) {
+    List<List<String>> targets = new ArrayList<>();
+    if (value.startsWith("$ref:")) {
+      Matcher matcher = ConfReference.confRefPattern.matcher(value);
+      if (matcher.matches()) {
+        targets.add(JsonPath.compile(Ref.fromString(matcher.group(1)).path).keys());
+      }
+    } else if (value.startsWith("$env:")) {
+      Matcher matcher = ConfReference.envRefPattern.matcher(value);
+      if (matcher.matches()) {
+        List<String> target = new ArrayList<>();
+        target.add("env");
+        target.add(Ref.fromString(matcher.group(1)).path);
+        targets.add(target);
+      }
+    }
+
+    if (value.contains("${")) {
+      Matcher matcher = springRefPattern.matcher(value);
+      while (matcher.find()) {
+        targets.add(JsonPath.compile(matcher.group(1)).keys());
+      }
+    }
+    return targets;
+  }
+
+  /**
+   * Returns true if value at `path` is secret or contains secret.
+   */
+  private static boolean overlaps(JsonObject secrets, List<String> path) {
+    JsonObject node = secrets;
+    for (String key : path) {
+      if (!node.containsKey(key)) return false;
+      Object value = node.getValue(key);
+      if (!(value instanceof JsonObject)) return true;
+      node = (JsonObject) value;
+    }
+    return !node.isEmpty();
+  }
+
+  private static void markSecret(JsonObject secrets, List<String> path) {
+    if (path.isEmpty()) return;
+
+    JsonObject node = secrets;
+    for (String key : path.subList(0, path.size() - 1)) {
+      Object value = node.getValue(key);
+      if (value instanceof JsonObject) {
+        node = (JsonObject) value;
+      } else if (node.containsKey(key)) {
+        return; // ancestor is secret already
+      } else {
+        JsonObject child = new JsonObject();
+        node.put(key, child);
+        node = child;
+      }
+    }
+    node.put(path.get(path.size() - 1), true);
+  }
+
+  private static JsonObject maskedCopy(JsonObject obj, JsonObject secrets) {
+    JsonObject copy = new JsonObject();
+    for (Map.Entry<String, Object> entry : obj) {
+      String key = entry.getKey();
+      Object value = entry.getValue();
+      if (!secrets.containsKey(key)) {
+        copy.put(key, copyValue(value));
+      } else {
+        Object secret = secrets.getValue(key);
+        if (secret instanceof JsonObject && value instanceof JsonObject) {
+          copy.put(key, maskedCopy((JsonObject) value, (JsonObject) secret));
+        } else {
+          copy.put(key, maskValue(value));
+        }
+      }
+    }
+    return copy;
+  }
+
+  private static Object copyValue(Object value) {
+    if (value instanceof JsonObject) {
+      return ((JsonObject) value).copy();
+    } else if (value instanceof JsonArray) {
+      return ((JsonArray) value).copy();
+    } else {
+      return value;
+    }
+  }
+
+  private static Object maskValue(Object value) {
+    if (value instanceof JsonObject) {
+      JsonObject masked = new JsonObject();
+      for (Map.Entry<String, Object> entry : (JsonObject) value) {
+        masked.put(entry.getKey(), maskValue(entry.getValue()));
+      }
+      return masked;
+    } else if (value instanceof JsonArray) {
+      JsonArray masked = new JsonArray();
+      for (Object item : (JsonArray) value) {
+        masked.add(maskValue(item));
+      }
+      return masked;
+    } else {
+      return MASKED_VALUE;
+    }
+  }
+
+  private static void writeObject(JsonGenerator gen, JsonObject obj, JsonObject secrets) throws IOException {
+    gen.writeStartObject();
+    for (Map.Entry<String, Object> entry : obj) {
+      String key = entry.getKey();
+      Object value = entry.getValue();
+      gen.writeFieldName(key);
+      if (!secrets.containsKey(key)) {
+        gen.writeObject(value);
+      } else {
+        Object secret = secrets.getValue(key);
+        if (secret instanceof JsonObject && value instanceof JsonObject) {
+          writeObject(gen, (JsonObject) value, (JsonObject) secret);
+        } else {
+          writeMasked(gen, value);
+        }
+      }
+    }
+    gen.writeEndObject();
+  }
+
+  private static void writeMasked(JsonGenerator gen, Object value) throws IOException {
+    if (value instanceof JsonObject) {
+      gen.writeStartObject();
+      for (Map.Entry<String, Object> entry : (JsonObject) value) {
+        gen.writeFieldName(entry.getKey());
+        writeMasked(gen, entry.getValue());
+      }
+      gen.writeEndObject();
+    } else if (value instanceof JsonArray) {
+      gen.writeStartArray();
+      for (Object item : (JsonArray) value) {
+        writeMasked(gen, item);
+      }
+      gen.writeEndArray();
+    } else {
+      gen.writeString(MASKED_VALUE);
+    }
+  }
+}
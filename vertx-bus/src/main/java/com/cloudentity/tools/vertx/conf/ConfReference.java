@@ -1,7 +1,6 @@
 package com.cloudentity.tools.vertx.conf;
 
-import com.cloudentity.tools.vertx.json.JsonExtractor;
-import io.vertx.core.json.Json;
+import com.cloudentity.tools.vertx.json.JsonPath;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
@@ -35,21 +34,37 @@ public class ConfReference {
    * Replaces configuration references in `conf`.
    * Uses values from `globalConf`, system properties and environment properties.
    *
+   * The tree is walked once, each string value is substituted with its $ref value first and then with $sys and $env values.
+   *
    * {@see ConfReference#populateInnerRefs}, {@see ConfReference#populateSysRefs}, {@see ConfReference#populateEnvRefs}.
    */
   public static JsonObject populateRefs(JsonObject conf, JsonObject globalConf) {
-    JsonObject withConfRefs =
-      ConfReference.populateInnerRefs(
-        ConfSpringlikeReference.populateRefs(conf),
-        ConfSpringlikeReference.populateRefs((globalConf))
-      );
-
-    JsonObject envFallback = withConfRefs.getJsonObject("env", new JsonObject());
-    JsonObject sysFallback = withConfRefs.getJsonObject("sys", new JsonObject());
-
-    JsonObject withSysRefs = ConfReference.populateSysRefs(withConfRefs, sysFallback);
-    JsonObject withEnvRefs = ConfReference.populateEnvRefs(withSysRefs, envFallback);
-    return withEnvRefs;
+    JsonObject springlikeConf = ConfSpringlikeReference.populateRefs(conf);
+    JsonObject springlikeGlobalConf = conf == globalConf ? springlikeConf : ConfSpringlikeReference.populateRefs(globalConf);
+
+    InnerRefResolver confRefs = new InnerRefResolver(springlikeGlobalConf);
+    JsonObject result = springlikeConf.copy();
+
+    JsonObject envFallback = resolveFallback(result.getValue("env"), confRefs);
+    JsonObject sysFallback = resolveFallback(result.getValue("sys"), confRefs);
+
+    Function<String, Object> envRefs = propertyRefSubstitution(envRefPattern, "$env", resolveEnvVariableWithFallback(envFallback));
+    Function<String, Object> sysRefs = propertyRefSubstitution(sysRefPattern, "$sys", resolveSysVariableWithFallback(sysFallback));
+    Function<String, Object> propertyRefs = value -> {
+      Object withSysRef = sysRefs.apply(value);
+      return withSysRef == value ? envRefs.apply(value) : substituteInPlace(withSysRef, envRefs);
+    };
+
+    substituteInPlace(result, value -> {
+      Object withConfRef = confRefs.substitute(value);
+      return withConfRef == value ? propertyRefs.apply(value) : substituteInPlace(withConfRef, propertyRefs);
+    });
+    return result;
+  }
+
+  private static JsonObject resolveFallback(Object fallback, InnerRefResolver confRefs) {
+    Object resolved = substituteInPlace(copy(fallback), confRefs::substitute);
+    return resolved instanceof JsonObject ? (JsonObject) resolved : new JsonObject();
   }
 
   /**
@@ -60,42 +75,102 @@ public class ConfReference {
    * default-value-type - optional, one of {"string", "int", "double", "boolean", "array", "object"}, default value is cast to the provided type
    * default-value - optional
    *
+   * References in referenced values are resolved as well, each path of `globalConf` is resolved at most once.
+   * Throws IllegalStateException if references are cyclic.
+   *
    * `conf` is not modified.
    */
   public static JsonObject populateInnerRefs(JsonObject conf, JsonObject globalConf) {
-    List<Ref> refs = findRefs(conf, confRefPattern);
+    JsonObject result = conf.copy();
+    substituteInPlace(result, new InnerRefResolver(globalConf)::substitute);
+    return result;
+  }
 
-    if (refs.isEmpty()) {
-      return conf;
-    } else {
-      List<ResolvedRef> resolvedRefs = resolveConfSubstitutions(globalConf, refs);
-      String newJson = replaceRefs(conf, resolvedRefs, "$ref");
-      return populateInnerRefs(new JsonObject(newJson), globalConf);
+  /**
+   * Resolves $ref values against `globalConf`. Values of referenced paths are resolved once and memoized,
+   * paths being resolved are tracked to detect cycles.
+   */
+  private static class InnerRefResolver {
+    private final JsonObject globalConf;
+    private final Map<String, Optional<Object>> resolvedPaths = new HashMap<>();
+    private final Set<String> resolvingPaths = new LinkedHashSet<>();
+
+    InnerRefResolver(JsonObject globalConf) {
+      this.globalConf = globalConf;
     }
-  }
 
-  private static List<ResolvedRef> resolveConfSubstitutions(JsonObject globalConf, List<Ref> refs) {
-    List<ResolvedRef> resolvedRefs = new ArrayList<>();
-
-    refs.forEach(ref -> {
-      final Object defaultValue = defaultInnerReferenceValue(ref);
-      Optional<Object> resolvedValue =
-        JsonExtractor.resolveValue(globalConf, ref.path)
-          .map(value -> {
-            if (ref.valueType.isPresent()) {
-              return convertValue(value, ref.valueType.get(), ref, "$ref");
-            } else {
-              return value;
-            }
-          });
-      if (resolvedValue.isPresent()) {
-        resolvedRefs.add(new ResolvedRef(ref, resolvedValue.get()));
+    /**
+     * Returns `value` if it is not a reference, otherwise resolved value. Returned JsonObject or JsonArray is a fresh copy.
+     */
+    Object substitute(String value) {
+      if (!value.startsWith("$ref:")) return value;
+      Matcher matcher = confRefPattern.matcher(value);
+      if (!matcher.matches()) return value;
+
+      Ref ref = Ref.fromString(matcher.group(1));
+      Optional<Object> resolvedValue = resolvePath(ref.path);
+      if (!ref.valueType.isPresent()) {
+        return resolvedValue.map(ConfReference::copy).orElse(null);
       } else {
-        resolvedRefs.add(new ResolvedRef(ref, defaultValue));
+        Optional<Object> convertedValue = resolvedValue.map(v -> convertValue(v, ref.valueType.get(), ref, "$ref"));
+        Object result = convertedValue.isPresent() ? convertedValue.get() : defaultInnerReferenceValue(ref);
+        // converted and default values are parsed from strings, so they may contain references
+        return substituteInPlace(result, this::substitute);
       }
-    });
+    }
+
+    private Optional<Object> resolvePath(String path) {
+      Optional<Object> resolved = resolvedPaths.get(path);
+      if (resolved == null) {
+        if (!resolvingPaths.add(path)) {
+          throw new IllegalStateException("Cyclic configuration reference: " + String.join(" -> ", resolvingPaths) + " -> " + path);
+        }
+        resolved = JsonPath.compile(path).resolveValue(globalConf).map(value -> substituteInPlace(copy(value), this::substitute));
+        resolvingPaths.remove(path);
+        resolvedPaths.put(path, resolved);
+      }
+      return resolved;
+    }
+  }
 
-    return resolvedRefs;
+  /**
+   * Replaces strings in `value` with result of `substitution`. JsonObjects and JsonArrays are modified in place.
+   * Returns substituted `value`.
+   */
+  private static Object substituteInPlace(Object value, Function<String, Object> substitution) {
+    if (value instanceof String) {
+      return substitution.apply((String) value);
+    } else if (value instanceof JsonObject) {
+      substituteInMap(((JsonObject) value).getMap(), substitution);
+    } else if (value instanceof JsonArray) {
+      substituteInList(((JsonArray) value).getList(), substitution);
+    } else if (value instanceof Map) { // internal representation of JsonObject is Map
+      substituteInMap((Map<String, Object>) value, substitution);
+    } else if (value instanceof List) { // internal representation of JsonArray is List
+      substituteInList((List<Object>) value, substitution);
+    }
+    return value;
+  }
+
+  private static void substituteInMap(Map<String, Object> map, Function<String, Object> substitution) {
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      entry.setValue(substituteInPlace(entry.getValue(), substitution));
+    }
+  }
+
+  private static void substituteInList(List<Object> list, Function<String, Object> substitution) {
+    ListIterator<Object> it = list.listIterator();
+    while (it.hasNext()) {
+      it.set(substituteInPlace(it.next(), substitution));
+    }
+  }
+
+  private static Object copy(Object value) {
+    if (value instanceof JsonObject) return ((JsonObject) value).copy();
+    else if (value instanceof JsonArray) return ((JsonArray) value).copy();
+    else if (value instanceof Map) return new JsonObject((Map<String, Object>) value).copy();
+    else if (value instanceof List) return new JsonArray((List) value).copy();
+    else return value;
   }
 
   private static Object defaultInnerReferenceValue(Ref ref) {
@@ -125,7 +200,7 @@ public class ConfReference {
   }
 
   private static Function<String, String> resolveSysVariableWithFallback(JsonObject fallback) {
-    return ref -> Optional.ofNullable(getVariableFallback(fallback, ref)).orElse(System.getProperty(ref));
+    return ref -> Optional.ofNullable(getVariableFallback(fallback, ref)).orElseGet(() -> VariableLookups.getProperty(ref));
   }
 
   /**
@@ -145,45 +220,52 @@ public class ConfReference {
   }
 
   private static Function<String, String> resolveEnvVariableWithFallback(JsonObject fallback) {
-    return ref -> Optional.ofNullable(getVariableFallback(fallback, ref)).orElse(System.getenv(ref));
+    return ref -> Optional.ofNullable(getVariableFallback(fallback, ref)).orElseGet(() -> VariableLookups.getenv(ref));
   }
 
   private static String getVariableFallback(JsonObject fallback, String variableName) {
     return Optional.ofNullable(fallback.getValue(variableName)).map(Object::toString).orElse(null);
   }
   /**
-   * Extracts references from `conf` matching `refPattern` and substitutes them with corresponding values from `resolveValue`.
+   * Substitutes references in `conf` matching `refPattern` with corresponding values from `resolveValue`.
    * Reference is a string with following format: "`refPrefix`:{property-name-or-value-pattern}:{property-type}:{default-value}"
    *
    * {property-name-or-value-expression} can be name of property (e.g. 'PATH') or an expression embedding name of the property in curly braces.
    * Given PATH=user and value expression '/apis/{PATH}' the resolved value is '/apis/user'.
    */
   private static JsonObject populatePropertyRefs(JsonObject conf, Pattern refPattern, String refPrefix, Function<String, String> resolveValue) {
-    List<Ref> refs = findRefs(conf, refPattern);
-    List<ResolvedRef> resolvedRefs = resolveRefs(refs, resolveValue, refPrefix);
+    JsonObject result = conf.copy();
+    substituteInPlace(result, propertyRefSubstitution(refPattern, refPrefix, resolveValue));
+    return result;
+  }
 
-    return new JsonObject(replaceRefs(conf, resolvedRefs, refPrefix));
+  private static Function<String, Object> propertyRefSubstitution(Pattern refPattern, String refPrefix, Function<String, String> resolveValue) {
+    String prefix = refPrefix + ":";
+    return value -> {
+      if (!value.startsWith(prefix)) return value;
+      Matcher matcher = refPattern.matcher(value);
+      return matcher.matches() ? resolveRef(Ref.fromString(matcher.group(1)), resolveValue, refPrefix) : value;
+    };
   }
 
   private static List<ResolvedRef> resolveRefs(List<Ref> refs, Function<String, String> resolveValue, String refPrefix) {
     List<ResolvedRef> substitutions = new ArrayList<>();
+    refs.forEach(ref -> substitutions.add(new ResolvedRef(ref, resolveRef(ref, resolveValue, refPrefix))));
+    return substitutions;
+  }
 
-    refs.forEach(ref -> {
-      if (ref.valueType.isPresent()) {
-        String propertyNameOrValueExpression = ref.path;
-        String propertyType = ref.valueType.get();
-
-        String defaultValue = ref.defaultValue.orElse(null);
+  private static Object resolveRef(Ref ref, Function<String, String> resolveValue, String refPrefix) {
+    if (ref.valueType.isPresent()) {
+      String propertyNameOrValueExpression = ref.path;
+      String propertyType = ref.valueType.get();
 
-        Object value = resolvePropertyValue(propertyNameOrValueExpression, propertyType, defaultValue, resolveValue, ref, refPrefix);
-        substitutions.add(new ResolvedRef(ref, value));
-      } else {
-        log.error("Invalid configuration reference format. Should be {}:{property-name}:{property-type}:{default-value} was {}:{}", refPrefix, refPrefix, ref);
-        substitutions.add(new ResolvedRef(ref, null));
-      }
-    });
+      String defaultValue = ref.defaultValue.orElse(null);
 
-    return substitutions;
+      return resolvePropertyValue(propertyNameOrValueExpression, propertyType, defaultValue, resolveValue, ref, refPrefix);
+    } else {
+      log.error("Invalid configuration reference format. Should be {}:{property-name}:{property-type}:{default-value} was {}:{}", refPrefix, refPrefix, ref);
+      return null;
+    }
   }
 
   private static Pattern propertyValueExpressionPattern = Pattern.compile(".*\\{([^}]+)}.*");
@@ -230,26 +312,6 @@ public class ConfReference {
     }
   }
 
-  private static String replaceRefs(JsonObject json, List<ResolvedRef> resolvedRefs, String refPrefix) {
-    String result = json.toString();
-    for (ResolvedRef ref : resolvedRefs) {
-      Object value = ref.resolvedValue;
-
-      if (value instanceof String) value = "\"" + value + "\"";
-
-      String substitutionValue = Optional.ofNullable(value).map(v -> v.toString()).orElse("null");
-      String escapedReference = escapeReference(ref); // we need to escape special JSON characters in the reference because we are replacing in encoded JSON object
-
-      result = result.replace("\"" + refPrefix + ":" + escapedReference + "\"", substitutionValue);
-    }
-    return result;
-  }
-
-  private static String escapeReference(ResolvedRef ref) {
-    String encoded = Json.encode(ref.ref.toString());
-    return encoded.substring(1, encoded.length() - 1);
-  }
-
   private static List<Ref> findRefs(JsonObject json, Pattern pattern) {
     return findRefsRec(json, pattern);
   }
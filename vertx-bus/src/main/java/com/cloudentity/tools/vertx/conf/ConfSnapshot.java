@@ -0,0 +1,148 @@
+package com.cloudentity.tools.vertx.conf;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.CopyOptions;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * File with the last resolved configuration. {@link ConfVerticle} starts with configuration read from the snapshot,
+ * so verticles are deployed without waiting for config stores, and refreshes it from the stores in the background.
+ *
+ * Snapshot is valid only for the meta configuration it was written with and for the same values of environment variables
+ * and system properties read while resolving the configuration (see {@link VariableLookups}). Hash of raw configuration from stores
+ * is kept in the snapshot, so unchanged store contents are not resolved and published again.
+ *
+ * Snapshot contains configuration secrets, the file is readable by its owner only.
+ */
+public class ConfSnapshot {
+  private static final Logger log = LoggerFactory.getLogger(ConfSnapshot.class);
+
+  public static class Content {
+    public final String rawConfigHash;
+    public final JsonObject resolvedConfig;
+    public final ConfMask mask;
+
+    public Content(String rawConfigHash, JsonObject resolvedConfig, ConfMask mask) {
+      this.rawConfigHash = rawConfigHash;
+      this.resolvedConfig = resolvedConfig;
+      this.mask = mask;
+    }
+  }
+
+  private final String path;
+  private final String metaConfigHash;
+  private Future<Void> lastWrite = Future.succeededFuture();
+
+  public ConfSnapshot(String path, JsonObject resolvedMetaConfig) {
+    this.path = path;
+    this.metaConfigHash = hash(resolvedMetaConfig);
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public static String hash(JsonObject conf) {
+    return DigestUtils.sha256Hex(conf.encode());
+  }
+
+  /**
+   * Returns hash of current values of given environment variables and system properties.
+   */
+  private static String variablesHash(Collection<String> env, Collection<String> sys) {
+    return hash(new JsonObject()
+      .put("env", new JsonObject(values(env, System::getenv)))
+      .put("sys", new JsonObject(values(sys, System::getProperty)))
+    );
+  }
+
+  private static TreeMap<String, Object> values(Collection<String> names, Function<String, String> read) {
+    TreeMap<String, Object> values = new TreeMap<>();
+    names.forEach(name -> values.put(name, read.apply(name)));
+    return values;
+  }
+
+  private static boolean isValidInEnvironment(JsonObject variables) {
+    JsonArray env = variables.getJsonArray("env", new JsonArray());
+    JsonArray sys = variables.getJsonArray("sys", new JsonArray());
+    return variablesHash(env.getList(), sys.getList()).equals(variables.getString("hash"));
+  }
+
+  /**
+   * Returns content of the snapshot or empty if it is missing, can't be read or was written with different meta configuration
+   * or different values of environment variables or system properties used to resolve the configuration.
+   */
+  public Future<Optional<Content>> read(Vertx vertx) {
+    return Future.<Buffer>future(promise -> vertx.fileSystem().readFile(path, promise))
+      .map(buffer -> {
+        JsonObject snapshot = buffer.toJsonObject();
+        if (metaConfigHash.equals(snapshot.getString("metaConfigHash")) && isValidInEnvironment(snapshot.getJsonObject("variables", new JsonObject()))) {
+          return Optional.of(new Content(
+            snapshot.getString("rawConfigHash"),
+            snapshot.getJsonObject("resolvedConfig"),
+            ConfMask.fromJson(snapshot.getJsonObject("mask", new JsonObject()))
+          ));
+        } else {
+          log.info("Ignoring configuration snapshot '{}' written with different meta configuration or environment", path);
+          return Optional.<Content>empty();
+        }
+      }).otherwise(ex -> {
+        log.info("Could not read configuration snapshot '{}': {}", path, ex.getMessage());
+        return Optional.empty();
+      });
+  }
+
+  /**
+   * Writes snapshot to temporary file accessible by its owner only and moves it to the snapshot path,
+   * so the snapshot is replaced atomically. Writes are serialized, so the snapshot is never replaced by older content.
+   *
+   * @param variables environment variables and system properties read while resolving `resolvedConfig`
+   */
+  public synchronized Future<Void> write(Vertx vertx, String rawConfigHash, JsonObject resolvedConfig, ConfMask mask, VariableLookups variables) {
+    Buffer content = new JsonObject()
+      .put("metaConfigHash", metaConfigHash)
+      .put("variables", new JsonObject()
+        .put("env", new JsonArray(new ArrayList<>(variables.env)))
+        .put("sys", new JsonArray(new ArrayList<>(variables.sys)))
+        .put("hash", variablesHash(variables.env, variables.sys)))
+      .put("rawConfigHash", rawConfigHash)
+      .put("resolvedConfig", resolvedConfig)
+      .put("mask", mask.toJson())
+      .toBuffer();
+
+    Future<Void> previous = lastWrite;
+    lastWrite = previous.recover(ex -> Future.succeededFuture()).compose(x -> writeFile(vertx.fileSystem(), content));
+    return lastWrite;
+  }
+
+  private Future<Void> writeFile(FileSystem fs, Buffer content) {
+    String tmpPath = path + "." + UUID.randomUUID() + ".tmp";
+    Path parent = Paths.get(path).toAbsolutePath().getParent();
+
+    Future<Void> written = Future.<Void>future(promise -> fs.mkdirs(parent.toString(), promise))
+      .compose(x -> Future.<Void>future(promise -> fs.createFile(tmpPath, "rw-------", promise)))
+      .compose(x -> Future.<Void>future(promise -> fs.writeFile(tmpPath, content, promise)))
+      .compose(x -> Future.<Void>future(promise -> fs.move(tmpPath, path, new CopyOptions().setReplaceExisting(true).setAtomicMove(true), promise)));
+
+    return written.recover(ex -> {
+      fs.delete(tmpPath, x -> {});
+      return Future.failedFuture(ex);
+    });
+  }
+}
@@ -0,0 +1,26 @@
+package com.cloudentity.tools.vertx.conf;
+
+/**
+ * Configuration of {@link ConfSnapshot}, read from `snapshot` attribute of meta configuration.
+ */
+public class ConfSnapshotConf {
+  private String path;
+  private Boolean enabled = true;
+
+  public ConfSnapshotConf() {
+
+  }
+
+  public ConfSnapshotConf(String path, Boolean enabled) {
+    this.path = path;
+    this.enabled = enabled;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public Boolean getEnabled() {
+    return enabled;
+  }
+}
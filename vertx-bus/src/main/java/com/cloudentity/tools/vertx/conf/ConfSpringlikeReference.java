@@ -88,7 +88,7 @@ public class ConfSpringlikeReference {
         String refValue = JsonExtractor.resolveValue(root, refPath).map(x -> x.toString())
           .orElseGet(() ->
             Optional.ofNullable(envFallback.getString(refPath))
-              .orElse(Optional.ofNullable(System.getenv(refPath))
+              .orElseGet(() -> Optional.ofNullable(VariableLookups.getenv(refPath))
               .orElse(defaultValue))
           );
         return replaceSpringlikeRef(root).apply(in.replace(placeholder, refValue));
@@ -2,7 +2,12 @@ package com.cloudentity.tools.vertx.conf;
 
 import com.cloudentity.tools.vertx.bus.ServiceVerticle;
 import com.cloudentity.tools.vertx.bus.VertxBus;
-import com.cloudentity.tools.vertx.json.JsonExtractor;
+import com.cloudentity.tools.vertx.configs.ConfigFactory;
+import com.cloudentity.tools.vertx.json.CopyOnWriteJson;
+import com.cloudentity.tools.vertx.json.JsonDiff;
+import com.cloudentity.tools.vertx.json.JsonPath;
+import com.cloudentity.tools.vertx.json.JsonPathIndex;
+import com.cloudentity.tools.vertx.json.ReadOnlyJson;
 import com.cloudentity.tools.vertx.logging.InitLog;
 import io.vavr.control.Either;
 import io.vavr.control.Try;
@@ -16,12 +21,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * This ServiceVerticle implements a ConfService method that returns config by key from {@link io.vertx.config.ConfigRetriever}.
  * It also listens on changes in ConfigRetriever and publishes it on event bus.
  *
+ * The whole configuration change is published at {@link ConfVerticle#CONFIG_CHANGE_ADDRESS}. Additionally, for each JsonObject
+ * in the new configuration that has changed, ConfigChange of that object is published at {@link ConfVerticle#configChangeAddress(String)}.
+ *
+ * Configuration is kept as immutable copy (see {@link ReadOnlyJson#immutableCopy(JsonObject, JsonObject)}), JsonObjects that did not change
+ * keep their identity when configuration changes. Returned and published configuration is modifiable copy-on-write view of it
+ * (see {@link CopyOnWriteJson}), so verticles share the immutable copy until they modify their configuration.
+ *
+ * If {@link ConfSnapshot} is configured, then ConfVerticle starts with configuration from the snapshot and applies
+ * configuration from ConfigRetriever in the background, publishing changes as above.
+ *
  * Use ConfVerticleDeploy to deploy it.
  */
 public class ConfVerticle extends ServiceVerticle implements ConfService {
@@ -31,10 +47,24 @@ public class ConfVerticle extends ServiceVerticle implements ConfService {
 
   public static final String CONFIG_CHANGE_ADDRESS = "com.cloudentity.configuration.change";
 
+  /**
+   * Returns address where changes of JsonObject at given configuration path are published.
+   * The address is built from canonical path (see {@link JsonPath#canonicalPath()}), as paths of changed objects are.
+   */
+  public static String configChangeAddress(String path) {
+    return CONFIG_CHANGE_ADDRESS + ":" + JsonPath.compile(path).canonicalPath();
+  }
+
   private ConfigRetriever retriever;
+  private Optional<ConfSnapshot> snapshot;
 
   public ConfVerticle(ConfigRetriever retriever) {
+    this(retriever, Optional.empty());
+  }
+
+  public ConfVerticle(ConfigRetriever retriever, Optional<ConfSnapshot> snapshot) {
     this.retriever = retriever;
+    this.snapshot = snapshot;
   }
 
   public static Try<ConfVerticle> buildFromMetaConfig(Vertx vertx, JsonObject metaConfig) {
@@ -44,17 +74,28 @@ public class ConfVerticle extends ServiceVerticle implements ConfService {
       initLog.info("Environment variables in meta configuration: ");
       ConfPrinter.logMaskedEnvVariables(meta.rawMetaConfig, log);
 
-      ConfigRetriever retriever = ConfigRetrieverFactory.buildFromJson(vertx, meta.resolvedMetaConfig);
-      return Try.success(new ConfVerticle(retriever));
+      return Try.of(() -> {
+        ConfigRetriever retriever = ConfigRetrieverFactory.buildFromJson(vertx, meta.resolvedMetaConfig);
+        return new ConfVerticle(retriever, buildSnapshot(meta.resolvedMetaConfig));
+      });
     } else {
       List<String> missingModules = metaConfigResult.getLeft().stream().map(module -> module.name).collect(Collectors.toList());
       return Try.failure(new NoStackTraceThrowable("Could not read classpath config-store modules configuration: [" + String.join(", ", missingModules) + "]"));
     }
   }
 
+  private static Optional<ConfSnapshot> buildSnapshot(JsonObject resolvedMetaConfig) {
+    return Optional.ofNullable(resolvedMetaConfig.getJsonObject("snapshot"))
+      .map(conf -> ConfigFactory.build(conf, ConfSnapshotConf.class))
+      .filter(ConfSnapshotConf::getEnabled)
+      .map(conf -> new ConfSnapshot(conf.getPath(), resolvedMetaConfig));
+  }
+
   JsonObject globalConf;
-  JsonObject maskedGlobalConf;
+  JsonPathIndex globalConfIndex = JsonPathIndex.build(null); // rebuilt on every globalConf change, see `setGlobalConf`
+  ConfMask globalConfMask = ConfMask.empty(); // applied on demand, see `getMaskedGlobalConf`
   JsonObject rawGlobalConf;
+  String rawGlobalConfHash; // set only if snapshot is enabled
 
   @Override
   public void start(Future<Void> start) {
@@ -62,14 +103,50 @@ public class ConfVerticle extends ServiceVerticle implements ConfService {
       retriever.listen(this::configurationChangeListener);
 
       return Future.succeededFuture();
-    }).compose(x -> {
-      Future<JsonObject> promise = Future.future();
-      retriever.getConfig(promise);
+    }).compose(x -> readSnapshot()).compose(snapshotContent -> {
+      if (snapshotContent.isPresent()) {
+        return setSnapshotConfig(snapshotContent.get());
+      } else {
+        Future<JsonObject> promise = Future.future();
+        retriever.getConfig(promise);
 
-      return promise.compose(this::setInitialConfig);
+        return promise.compose(this::setInitialConfig);
+      }
     }).setHandler(start);
   }
 
+  private Future<Optional<ConfSnapshot.Content>> readSnapshot() {
+    return snapshot.map(s -> s.read(vertx)).orElse(Future.succeededFuture(Optional.empty()));
+  }
+
+  private Future<Void> setSnapshotConfig(ConfSnapshot.Content content) {
+    setGlobalConf(content.resolvedConfig, content.mask);
+    rawGlobalConfHash = content.rawConfigHash;
+
+    initLog.info("Configuration read from snapshot '{}', refreshing it from config stores in background", snapshot.get().getPath());
+    initLog.info("Configuration: {}", content.mask.encode(content.resolvedConfig));
+
+    retriever.getConfig(result -> {
+      if (result.succeeded()) {
+        applyConfig(result.result());
+      } else {
+        log.error("Could not refresh configuration read from snapshot", result.cause());
+      }
+    });
+    return Future.succeededFuture();
+  }
+
+  private void writeSnapshot(JsonObject rawConf, VariableLookups variables) {
+    snapshot.ifPresent(s -> {
+      rawGlobalConfHash = ConfSnapshot.hash(rawConf);
+      s.write(vertx, rawGlobalConfHash, globalConf, globalConfMask, variables).setHandler(result -> {
+        if (result.failed()) {
+          log.warn("Could not write configuration snapshot '{}'", s.getPath(), result.cause());
+        }
+      });
+    });
+  }
+
   private Future<Void> setInitialConfig(JsonObject config) {
     initLog.debug("Unresolved root configuration: {}", config);
     rawGlobalConf = config;
@@ -77,8 +154,7 @@ public class ConfVerticle extends ServiceVerticle implements ConfService {
     Either<List<ConfBuilder.MissingModule>, ConfBuilder.Config> configResult = ConfBuilder.buildFinalConfig(config);
     if (configResult.isRight()) {
       ConfBuilder.Config cfg = configResult.get();
-      globalConf = cfg.resolvedConfig;
-      maskedGlobalConf = cfg.resolvedConfigWithMask;
+      setGlobalConf(cfg.resolvedConfig, cfg.mask);
 
       initLog.info("Environment variables in root configuration: ");
       ConfPrinter.logEnvVariables(config, log);
@@ -90,8 +166,9 @@ public class ConfVerticle extends ServiceVerticle implements ConfService {
         initLog.info("");
       });
 
-      initLog.info("Configuration: {}", cfg.resolvedConfigWithMask);
+      initLog.info("Configuration: {}", cfg.mask.encode(cfg.resolvedConfig));
       initLog.debug("Configuration:\n{}", globalConf.encodePrettily());
+      writeSnapshot(config, cfg.variables);
 
       return Future.<Void>succeededFuture();
     } else {
@@ -107,24 +184,58 @@ public class ConfVerticle extends ServiceVerticle implements ConfService {
 
   private void configurationChangeListener(ConfigChange change) {
     log.debug("Configuration changed: {}", change.toJson());
-    rawGlobalConf = change.getNewConfiguration();
+    applyConfig(change.getNewConfiguration());
+  }
+
+  /**
+   * Resolves raw configuration and publishes changes. Configuration from stores having the same contents as the snapshot is skipped.
+   */
+  private void applyConfig(JsonObject rawConf) {
+    if (rawGlobalConfHash != null && rawGlobalConfHash.equals(ConfSnapshot.hash(rawConf))) {
+      log.debug("Configuration from stores did not change");
+      return;
+    }
+    rawGlobalConf = rawConf;
 
     JsonObject oldConf = globalConf;
-    Either<List<ConfBuilder.MissingModule>, ConfBuilder.Config> newConfResult = ConfBuilder.buildFinalConfig(change.getNewConfiguration());
+    JsonPathIndex oldConfIndex = globalConfIndex;
+    Either<List<ConfBuilder.MissingModule>, ConfBuilder.Config> newConfResult = ConfBuilder.buildFinalConfig(rawConf);
 
     if (newConfResult.isRight()) {
-      globalConf = newConfResult.get().resolvedConfig;
+      setGlobalConf(newConfResult.get().resolvedConfig, newConfResult.get().mask);
+      writeSnapshot(rawConf, newConfResult.get().variables);
 
       log.debug("New configuration with ref resolution: {}. Publishing on '{}' address", globalConf, CONFIG_CHANGE_ADDRESS);
-      VertxBus.publish(vertx.eventBus(), CONFIG_CHANGE_ADDRESS, new ConfigChange(oldConf, globalConf));
+      VertxBus.publish(vertx.eventBus(), CONFIG_CHANGE_ADDRESS, configChange(oldConf, globalConf));
+      publishPathChanges(oldConf, oldConfIndex);
     } else {
       List<String> missingModules = newConfResult.getLeft().stream().map(module -> module.name).collect(Collectors.toList());
       log.error("Could not read classpath modules configuration: [{}]", String.join(", ", missingModules));
     }
   }
 
+  private void publishPathChanges(JsonObject oldConf, JsonPathIndex oldConfIndex) {
+    for (String path : JsonDiff.changedObjectPaths(oldConf, globalConf)) {
+      JsonObject oldPathConf = oldConfIndex.resolve(path).orElse(null);
+      globalConfIndex.resolve(path).ifPresent(newPathConf ->
+        VertxBus.publish(vertx.eventBus(), configChangeAddress(path), configChange(oldPathConf, newPathConf))
+      );
+    }
+  }
+
+  private static ConfigChange configChange(JsonObject oldConf, JsonObject newConf) {
+    return new ConfigChange(CopyOnWriteJson.copyOnWrite(oldConf), CopyOnWriteJson.copyOnWrite(newConf));
+  }
+
+  private void setGlobalConf(JsonObject conf, ConfMask mask) {
+    JsonObject sharedConf = ReadOnlyJson.immutableCopy(conf, globalConf);
+    globalConfIndex = JsonPathIndex.build(sharedConf);
+    globalConfMask = mask;
+    globalConf = sharedConf;
+  }
+
   /**
-   * Reads JsonObject by period-separated path.
+   * Reads JsonObject by period-separated path. Paths are looked up in index of current configuration.
    *
    * E.g.
    *   global configuration: {
@@ -138,17 +249,20 @@ public class ConfVerticle extends ServiceVerticle implements ConfService {
    */
   @Override
   public Future<JsonObject> getConf(final String path) {
-    return Future.succeededFuture(JsonExtractor.resolve(globalConf, path).orElse(null));
+    return Future.succeededFuture(globalConfIndex.resolve(path).map(CopyOnWriteJson::copyOnWrite).orElse(null));
   }
 
   @Override
   public Future<JsonObject> getGlobalConf() {
-    return Future.succeededFuture(globalConf);
+    return Future.succeededFuture(CopyOnWriteJson.copyOnWrite(globalConf));
   }
 
+  /**
+   * Returns copy of global configuration with secret values masked. The copy is built on every call.
+   */
   @Override
   public Future<JsonObject> getMaskedGlobalConf() {
-    return Future.succeededFuture(maskedGlobalConf);
+    return Future.succeededFuture(globalConfMask.apply(globalConf));
   }
 
   @Override
@@ -1,9 +1,13 @@
 package com.cloudentity.tools.vertx.conf;
 
 import com.google.common.collect.Lists;
+
+import java.util.ArrayList;
 import java.util.List;
 
 import com.cloudentity.tools.vertx.conf.retriever.ConfigRetrieverConf;
+import com.cloudentity.tools.vertx.conf.retriever.ConfigStoreConf;
+import com.cloudentity.tools.vertx.conf.retriever.ParallelConfigRetriever;
 import com.cloudentity.tools.vertx.configs.ConfigFactory;
 import io.vertx.config.ConfigRetriever;
 import io.vertx.config.ConfigRetrieverOptions;
@@ -19,15 +23,26 @@ public class ConfigRetrieverFactory {
   public static ConfigRetriever buildFromJson(Vertx vertx, JsonObject obj) {
     ConfigRetrieverConf conf = ConfigFactory.build(obj, ConfigRetrieverConf.class);
 
-    List<ConfigStoreOptions> stores =
+    List<ConfigStoreConf> enabledStores =
       conf.getStores().stream()
       .filter(store -> store.getEnabled())
-      .map(store ->
-        new ConfigStoreOptions()
-          .setType(store.getType())
-          .setFormat(store.getFormat())
-          .setConfig(store.getConfig())
-      ).collect(Collectors.toList());
+      .collect(Collectors.toList());
+
+    if (conf.getParallel()) {
+      List<ParallelConfigRetriever.StoreOptions> stores = new ArrayList<>();
+      for (int i = 0; i < enabledStores.size(); i++) {
+        ConfigStoreConf store = enabledStores.get(i);
+        String name = store.getName().orElse(store.getType() + "-" + i);
+        int scanPeriod = store.getScanPeriod().orElse(conf.getScanPeriod());
+        stores.add(new ParallelConfigRetriever.StoreOptions(name, toStoreOptions(store), scanPeriod));
+      }
+      return new ParallelConfigRetriever(vertx, stores);
+    }
+
+    List<ConfigStoreOptions> stores =
+      enabledStores.stream()
+      .map(ConfigRetrieverFactory::toStoreOptions)
+      .collect(Collectors.toList());
 
     ConfigRetrieverOptions retOpts =
       new ConfigRetrieverOptions()
@@ -37,6 +52,13 @@ public class ConfigRetrieverFactory {
     return ConfigRetriever.create(vertx, retOpts);
   }
 
+  private static ConfigStoreOptions toStoreOptions(ConfigStoreConf store) {
+    return new ConfigStoreOptions()
+      .setType(store.getType())
+      .setFormat(store.getFormat())
+      .setConfig(store.getConfig());
+  }
+
   public static ConfigRetriever buildFileRetriever(Vertx vertx, String descriptorsFilePath, ConfigRetrieverOptions retOpts) {
     ConfigStoreOptions file = new ConfigStoreOptions()
       .setType("file")
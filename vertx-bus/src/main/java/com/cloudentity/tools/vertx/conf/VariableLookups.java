@@ -0,0 +1,42 @@
+package com.cloudentity.tools.vertx.conf;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Names of environment variables and system properties read while resolving configuration references.
+ * Configuration resolved earlier, e.g. by {@link ConfSnapshot}, is valid as long as these variables have the same values.
+ */
+public class VariableLookups {
+  private static final ThreadLocal<VariableLookups> current = new ThreadLocal<>();
+
+  public final SortedSet<String> env = new TreeSet<>();
+  public final SortedSet<String> sys = new TreeSet<>();
+
+  /**
+   * Runs `action` and records in `lookups` variables it reads on this thread.
+   */
+  public static <T> T record(VariableLookups lookups, Supplier<T> action) {
+    VariableLookups previous = current.get();
+    current.set(lookups);
+    try {
+      return action.get();
+    } finally {
+      if (previous != null) current.set(previous);
+      else current.remove();
+    }
+  }
+
+  static String getenv(String name) {
+    VariableLookups lookups = current.get();
+    if (lookups != null) lookups.env.add(name);
+    return System.getenv(name);
+  }
+
+  static String getProperty(String name) {
+    VariableLookups lookups = current.get();
+    if (lookups != null) lookups.sys.add(name);
+    return System.getProperty(name);
+  }
+}
@@ -1,24 +1,140 @@
 package com.cloudentity.tools.vertx.conf.modules;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.vavr.control.Try;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import org.reflections.Reflections;
 import org.reflections.scanners.ResourcesScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ModulesReader {
+  private static final Logger log = LoggerFactory.getLogger(ModulesReader.class);
+
   private static final String MODULES_FOLDER = "modules";
+  private static final String MODULES_INDEX = "META-INF/cloudentity/modules.idx"; // written by vertx-modules-index annotation processor
   private static Pattern moduleNamePattern = Pattern.compile(MODULES_FOLDER + "/(.+)\\..+");
 
+  /**
+   * Returns names of modules available on classpath.
+   *
+   * Modules in jars are read from `META-INF/cloudentity/modules.idx` index generated at build time, modules in classpath directories are listed directly.
+   * Entries of a jar with modules, but without the index (e.g. having no Java sources), are listed. Whole classpath is scanned only if modules are in other location.
+   */
   public static List<String> readAvailableModuleNames() {
+    try {
+      Optional<List<String>> indexed = readIndexedModuleNames(Thread.currentThread().getContextClassLoader());
+      if (indexed.isPresent()) {
+        return indexed.get();
+      }
+    } catch (Exception ex) {
+      log.warn("Could not read modules index, scanning classpath", ex);
+    }
+    return scanAvailableModuleNames();
+  }
+
+  private static Optional<List<String>> readIndexedModuleNames(ClassLoader classLoader) throws IOException, URISyntaxException {
+    Set<String> names = new LinkedHashSet<>();
+    Set<String> indexedRoots = new HashSet<>();
+    for (URL index : Collections.list(classLoader.getResources(MODULES_INDEX))) {
+      if (!"file".equals(index.getProtocol())) {
+        indexedRoots.add(classpathRoot(index, MODULES_INDEX));
+        readIndex(index, names);
+      }
+    }
+
+    for (URL modulesDir : Collections.list(classLoader.getResources(MODULES_FOLDER))) {
+      if ("file".equals(modulesDir.getProtocol())) {
+        listModuleNames(Paths.get(modulesDir.toURI()), names);
+      } else if (!indexedRoots.contains(classpathRoot(modulesDir, MODULES_FOLDER))) {
+        if ("jar".equals(modulesDir.getProtocol())) {
+          log.debug("Modules index missing in '{}', listing jar entries", modulesDir);
+          listJarModuleNames(modulesDir, names);
+        } else {
+          log.debug("Modules index missing in '{}'", modulesDir);
+          return Optional.empty();
+        }
+      }
+    }
+    return Optional.of(new ArrayList<>(names));
+  }
+
+  private static String classpathRoot(URL resource, String resourcePath) {
+    String url = resource.toString();
+    if (url.endsWith("/")) {
+      url = url.substring(0, url.length() - 1);
+    }
+    return url.substring(0, url.length() - resourcePath.length());
+  }
+
+  private static void readIndex(URL index, Set<String> names) throws IOException {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.trim().isEmpty()) {
+          names.add(line.trim());
+        }
+      }
+    }
+  }
+
+  private static void listModuleNames(Path modulesDir, Set<String> names) throws IOException {
+    try (Stream<Path> files = Files.walk(modulesDir)) {
+      files.filter(Files::isRegularFile).forEach(file ->
+        addModuleName(modulesDir.relativize(file).toString().replace(modulesDir.getFileSystem().getSeparator(), "/"), names)
+      );
+    }
+  }
+
+  private static void listJarModuleNames(URL modulesDir, Set<String> names) throws IOException {
+    JarURLConnection connection = (JarURLConnection) modulesDir.openConnection();
+    String prefix = connection.getEntryName() + "/";
+    JarFile jar = connection.getJarFile(); // cached and shared with class loader, so it is not closed
+    for (JarEntry entry : Collections.list(jar.entries())) {
+      if (!entry.isDirectory() && entry.getName().startsWith(prefix)) {
+        addModuleName(entry.getName().substring(prefix.length()), names);
+      }
+    }
+  }
+
+  /**
+   * Adds module name, i.e. path relative to modules folder without extension.
+   */
+  private static void addModuleName(String path, Set<String> names) {
+    int extension = path.lastIndexOf('.');
+    if (extension > 0) {
+      names.add(path.substring(0, extension));
+    }
+  }
+
+  private static List<String> scanAvailableModuleNames() {
     Reflections r = new Reflections(MODULES_FOLDER, new ResourcesScanner());
 
     ArrayList<String> result = new ArrayList<>();
@@ -36,9 +152,11 @@ public class ModulesReader {
 
     try (InputStream stream = Thread.currentThread().getContextClassLoader().getResourceAsStream(path)) {
       if (stream != null) {
-        try (BufferedReader buffer = new BufferedReader(new InputStreamReader(stream))) {
-          JsonObject conf = new JsonObject(buffer.lines().collect(Collectors.joining("\n")));
-          return Try.success(conf);
+        Object conf = decodeValue(stream);
+        if (conf instanceof Map) {
+          return Try.success(new JsonObject((Map<String, Object>) conf));
+        } else {
+          return Try.failure(new DecodeException("Module '" + path + "' is not JSON object"));
         }
       } else {
         return Try.failure(new Exception("Could not find resource '" + path + "' on classpath"));
@@ -47,4 +165,15 @@ public class ModulesReader {
       return Try.failure(e);
     }
   }
+
+  /**
+   * Parses JSON directly from the stream. Returns Map, List or JSON primitive.
+   */
+  static Object decodeValue(InputStream stream) throws IOException {
+    try {
+      return Json.mapper.readValue(stream, Object.class);
+    } catch (JsonProcessingException e) {
+      throw new DecodeException("Failed to decode:" + e.getMessage());
+    }
+  }
 }
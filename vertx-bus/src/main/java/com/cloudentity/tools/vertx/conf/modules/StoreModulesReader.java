@@ -2,13 +2,13 @@ package com.cloudentity.tools.vertx.conf.modules;
 
 import io.vavr.control.Either;
 import io.vavr.control.Try;
+import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.Map;
 
 public class StoreModulesReader {
   private static final String MODULES_FOLDER = "store-modules";
@@ -23,14 +23,13 @@ public class StoreModulesReader {
 
     try (InputStream stream = Thread.currentThread().getContextClassLoader().getResourceAsStream(path)) {
       if (stream != null) {
-        try (BufferedReader buffer = new BufferedReader(new InputStreamReader(stream))) {
-          String content = buffer.lines().collect(Collectors.joining("\n"));
-          Try<JsonObject> tryObj = Try.of(() -> new JsonObject(content));
-          if (tryObj.isSuccess()) {
-            return Try.success(Either.left(tryObj.get()));
-          } else {
-            return Try.success(Either.right(new JsonArray(content)));
-          }
+        Object content = ModulesReader.decodeValue(stream);
+        if (content instanceof Map) {
+          return Try.success(Either.left(new JsonObject((Map<String, Object>) content)));
+        } else if (content instanceof List) {
+          return Try.success(Either.right(new JsonArray((List) content)));
+        } else {
+          return Try.failure(new DecodeException("Store module '" + path + "' is neither JSON object nor array"));
         }
       } else {
         return Try.failure(new Exception("Could not find resource '" + path + "' on classpath"));
@@ -8,6 +8,7 @@ import java.util.List;
 public class ConfigRetrieverConf {
   private Integer scanPeriod;
   private List<ConfigStoreConf> stores;
+  private Boolean parallel = false;
 
   public ConfigRetrieverConf() {
 
@@ -25,4 +26,11 @@ public class ConfigRetrieverConf {
   public List<ConfigStoreConf> getStores() {
     return stores;
   }
+
+  /**
+   * If true then stores are fetched independently by {@link ParallelConfigRetriever}.
+   */
+  public Boolean getParallel() {
+    return parallel;
+  }
 }
@@ -9,6 +9,8 @@ public class ConfigStoreConf {
   private String format;
   private JsonObject config;
   private Boolean enabled;
+  private String name;
+  private Integer scanPeriod;
 
   public ConfigStoreConf() {
 
@@ -36,4 +38,18 @@ public class ConfigStoreConf {
   public Boolean getEnabled() {
     return enabled != null ? enabled : true;
   }
+
+  /**
+   * Name of the store in logs and metrics of {@link ParallelConfigRetriever}.
+   */
+  public Optional<String> getName() {
+    return Optional.ofNullable(name);
+  }
+
+  /**
+   * Scan period of the store used by {@link ParallelConfigRetriever}, overrides global `scanPeriod`.
+   */
+  public Optional<Integer> getScanPeriod() {
+    return Optional.ofNullable(scanPeriod);
+  }
 }
@@ -0,0 +1,416 @@
+package com.cloudentity.tools.vertx.conf.retriever;
+
+import com.cloudentity.tools.vertx.conf.ConfMask;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.config.ConfigChange;
+import io.vertx.config.ConfigRetriever;
+import io.vertx.config.ConfigStoreOptions;
+import io.vertx.config.spi.ConfigProcessor;
+import io.vertx.config.spi.ConfigStore;
+import io.vertx.config.spi.ConfigStoreFactory;
+import io.vertx.config.spi.utils.Processors;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.micrometer.backends.BackendRegistries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ConfigRetriever that fetches config stores independently of each other.
+ *
+ * Default {@link ConfigRetriever} fetches all stores in every scan and publishes the merged configuration when the slowest store returns.
+ * This retriever scans each store with its own period and merges the configuration as soon as any store returns new value,
+ * so slow store does not delay changes of other stores. Configuration is merged in order of stores, as in default ConfigRetriever,
+ * except that `_mask` attributes are united (see {@link ConfMask#merge(JsonObject, JsonObject)}).
+ *
+ * `getConfig` fetches concurrently only the stores that are not fresh, i.e. were never fetched or were fetched longer than their scan period ago.
+ * Changes are published to listeners and to {@link ParallelConfigRetriever#configStream()} after all stores have been fetched at least once.
+ *
+ * Following meters with `store` tag are registered in Micrometer registry of Vertx metrics, if enabled:
+ *
+ * - `vertx.config.store.fetch.time` - timer of store fetches
+ * - `vertx.config.store.fetch.failures` - counter of failed fetches
+ * - `vertx.config.store.age` - gauge of milliseconds since last successful fetch
+ */
+public class ParallelConfigRetriever implements ConfigRetriever {
+  private static final Logger log = LoggerFactory.getLogger(ParallelConfigRetriever.class);
+
+  /**
+   * Config store with its name used in logs and metrics and scan period in milliseconds. Store is not scanned periodically if scan period is not positive.
+   */
+  public static class StoreOptions {
+    public final String name;
+    public final ConfigStoreOptions options;
+    public final long scanPeriod;
+
+    public StoreOptions(String name, ConfigStoreOptions options, long scanPeriod) {
+      this.name = name;
+      this.options = options;
+      this.scanPeriod = scanPeriod;
+    }
+  }
+
+  private final Vertx vertx;
+  private final List<Store> stores;
+  private final List<Handler<ConfigChange>> listeners = new CopyOnWriteArrayList<>();
+  private final ConfigStream configStream = new ConfigStream();
+
+  private Handler<Void> beforeScan;
+  private Function<JsonObject, JsonObject> processor = Function.identity();
+  private JsonObject current = new JsonObject();
+  private boolean closed;
+
+  public ParallelConfigRetriever(Vertx vertx, List<StoreOptions> options) {
+    this.vertx = vertx;
+
+    Map<String, ConfigStoreFactory> factories = new HashMap<>();
+    ServiceLoader.load(ConfigStoreFactory.class).forEach(factory -> factories.put(factory.name(), factory));
+
+    MeterRegistry registry = BackendRegistries.getDefaultNow();
+    this.stores = options.stream().map(opts -> new Store(opts, factories, registry)).collect(Collectors.toList());
+    stores.forEach(store -> {
+      if (store.scanPeriod > 0) {
+        store.timerId = vertx.setPeriodic(store.scanPeriod, t -> scan(store));
+      }
+    });
+  }
+
+  private class Store {
+    final String name;
+    final long scanPeriod;
+    final boolean optional;
+    final JsonObject config;
+    final ConfigStore store;
+    final ConfigProcessor format;
+
+    final Timer fetchTime;
+    final Counter fetchFailures;
+
+    long timerId = -1;
+    boolean fetching;
+    JsonObject value;   // null until fetched
+    long fetchedAt = -1; // System.currentTimeMillis() of last successful fetch
+
+    Store(StoreOptions opts, Map<String, ConfigStoreFactory> factories, MeterRegistry registry) {
+      ConfigStoreFactory factory = factories.get(opts.options.getType());
+      if (factory == null) {
+        throw new IllegalArgumentException("unknown configuration store implementation: " + opts.options.getType() + " (known implementations are: " + factories.keySet() + ")");
+      }
+      String formatName = opts.options.getFormat() != null ? opts.options.getFormat() : "json";
+      ConfigProcessor format = Processors.get(formatName);
+      if (format == null) {
+        throw new IllegalArgumentException("unknown configuration format: " + formatName + " (supported formats are: " + Processors.getSupportedFormats() + ")");
+      }
+
+      this.name = opts.name;
+      this.scanPeriod = opts.scanPeriod;
+      this.optional = opts.options.isOptional();
+      this.config = opts.options.getConfig() != null ? opts.options.getConfig() : new JsonObject();
+      this.store = factory.create(vertx, config);
+      this.format = format;
+
+      if (registry != null) {
+        fetchTime = Timer.builder("vertx.config.store.fetch.time").tag("store", name).register(registry);
+        fetchFailures = Counter.builder("vertx.config.store.fetch.failures").tag("store", name).register(registry);
+        Gauge.builder("vertx.config.store.age", this, s -> s.age()).tag("store", name).register(registry);
+      } else {
+        fetchTime = null;
+        fetchFailures = null;
+      }
+    }
+
+    synchronized double age() {
+      return fetchedAt < 0 ? Double.NaN : System.currentTimeMillis() - fetchedAt;
+    }
+
+    synchronized boolean isFresh() {
+      return value != null && scanPeriod > 0 && System.currentTimeMillis() - fetchedAt < scanPeriod;
+    }
+  }
+
+  private Future<JsonObject> fetch(Store store) {
+    Promise<JsonObject> promise = Promise.promise();
+    long start = System.nanoTime();
+    try {
+      store.store.get(buffer -> {
+        if (buffer.failed()) {
+          promise.fail(buffer.cause());
+        } else {
+          try {
+            store.format.process(vertx, store.config, buffer.result(), promise);
+          } catch (Throwable ex) {
+            promise.tryFail(ex);
+          }
+        }
+      });
+    } catch (Throwable ex) {
+      promise.tryFail(ex);
+    }
+
+    return promise.future().compose(value -> {
+      if (store.fetchTime != null) store.fetchTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      synchronized (store) {
+        store.value = value;
+        store.fetchedAt = System.currentTimeMillis();
+      }
+      return Future.succeededFuture(value);
+    }, ex -> {
+      if (store.fetchTime != null) store.fetchTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      if (store.fetchFailures != null) store.fetchFailures.increment();
+      if (store.optional) {
+        log.warn("Could not fetch optional config store '{}', using empty configuration", store.name, ex);
+        synchronized (store) {
+          store.value = new JsonObject();
+        }
+        return Future.succeededFuture(new JsonObject());
+      } else {
+        return Future.failedFuture(ex);
+      }
+    });
+  }
+
+  private void scan(Store store) {
+    synchronized (store) {
+      if (store.fetching) return; // previous fetch of slow store is still in progress
+      store.fetching = true;
+    }
+    if (beforeScan != null) {
+      beforeScan.handle(null);
+    }
+
+    fetch(store).setHandler(result -> {
+      synchronized (store) {
+        store.fetching = false;
+      }
+      if (result.succeeded()) {
+        publishChange();
+      } else {
+        log.error("Could not fetch config store '{}'", store.name, result.cause());
+        configStream.fail(result.cause());
+      }
+    });
+  }
+
+  private void publishChange() {
+    ConfigChange change;
+    synchronized (this) {
+      if (closed || !stores.stream().allMatch(store -> store.value != null)) return;
+
+      JsonObject merged;
+      try {
+        merged = merge();
+      } catch (Throwable ex) {
+        log.error("Could not process configuration", ex);
+        return;
+      }
+
+      if (merged.equals(current)) return;
+      change = new ConfigChange(current, merged);
+      current = merged;
+    }
+    listeners.forEach(listener -> listener.handle(change));
+    configStream.handle(change.getNewConfiguration());
+  }
+
+  private synchronized JsonObject merge() {
+    JsonObject merged = new JsonObject();
+    for (Store store : stores) {
+      JsonObject value;
+      synchronized (store) {
+        value = store.value;
+      }
+      if (value != null) {
+        ConfMask.merge(merged, value.copy());
+      }
+    }
+    return processor.apply(merged);
+  }
+
+  @Override
+  public void getConfig(Handler<AsyncResult<JsonObject>> completionHandler) {
+    List<Future> fetches = new ArrayList<>();
+    for (Store store : stores) {
+      if (!store.isFresh()) {
+        fetches.add(fetch(store));
+      }
+    }
+
+    CompositeFuture.all(fetches).setHandler(result -> {
+      if (result.failed()) {
+        completionHandler.handle(Future.failedFuture(result.cause()));
+      } else {
+        JsonObject merged;
+        try {
+          merged = merge();
+        } catch (Throwable ex) {
+          completionHandler.handle(Future.failedFuture(ex));
+          return;
+        }
+        synchronized (this) {
+          current = merged;
+        }
+        completionHandler.handle(Future.succeededFuture(merged));
+      }
+    });
+  }
+
+  /**
+   * Returns milliseconds since last successful fetch of each store, by store name. Stores that were never fetched are not included.
+   */
+  public Map<String, Long> getStoreAges() {
+    Map<String, Long> ages = new HashMap<>();
+    for (Store store : stores) {
+      double age = store.age();
+      if (!Double.isNaN(age)) {
+        ages.put(store.name, (long) age);
+      }
+    }
+    return ages;
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    stores.forEach(store -> {
+      if (store.timerId != -1) {
+        vertx.cancelTimer(store.timerId);
+      }
+      store.store.close(x -> {});
+    });
+    configStream.end();
+  }
+
+  @Override
+  public synchronized JsonObject getCachedConfig() {
+    return current;
+  }
+
+  @Override
+  public void listen(Handler<ConfigChange> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public ConfigRetriever setBeforeScanHandler(Handler<Void> handler) {
+    this.beforeScan = handler;
+    return this;
+  }
+
+  @Override
+  public synchronized ConfigRetriever setConfigurationProcessor(Function<JsonObject, JsonObject> processor) {
+    this.processor = processor;
+    return this;
+  }
+
+  /**
+   * Returns stream of new configurations, published on the same changes as to listeners.
+   * While the stream is paused only the latest configuration is kept and it is emitted when the stream is resumed.
+   * Failed scans are reported to the exception handler and the stream ends when the retriever is closed.
+   */
+  @Override
+  public ReadStream<JsonObject> configStream() {
+    return configStream;
+  }
+
+  private static class ConfigStream implements ReadStream<JsonObject> {
+    private Handler<JsonObject> handler;
+    private Handler<Throwable> exceptionHandler;
+    private Handler<Void> endHandler;
+    private long demand = Long.MAX_VALUE;
+    private JsonObject pending; // latest configuration published while paused
+
+    void handle(JsonObject conf) {
+      Handler<JsonObject> h;
+      synchronized (this) {
+        if (handler == null) return;
+        if (demand == 0) {
+          pending = conf;
+          return;
+        }
+        if (demand != Long.MAX_VALUE) demand--;
+        h = handler;
+      }
+      h.handle(conf);
+    }
+
+    void fail(Throwable ex) {
+      Handler<Throwable> h;
+      synchronized (this) {
+        h = exceptionHandler;
+      }
+      if (h != null) h.handle(ex);
+    }
+
+    void end() {
+      Handler<Void> h;
+      synchronized (this) {
+        h = endHandler;
+        handler = null;
+        pending = null;
+      }
+      if (h != null) h.handle(null);
+    }
+
+    @Override
+    public synchronized ConfigStream exceptionHandler(Handler<Throwable> handler) {
+      this.exceptionHandler = handler;
+      return this;
+    }
+
+    @Override
+    public synchronized ConfigStream handler(Handler<JsonObject> handler) {
+      this.handler = handler;
+      if (handler == null) pending = null;
+      return this;
+    }
+
+    @Override
+    public synchronized ConfigStream pause() {
+      demand = 0;
+      return this;
+    }
+
+    @Override
+    public ConfigStream resume() {
+      return fetch(Long.MAX_VALUE);
+    }
+
+    @Override
+    public ConfigStream fetch(long amount) {
+      JsonObject conf;
+      synchronized (this) {
+        demand += amount;
+        if (demand < 0) demand = Long.MAX_VALUE;
+        conf = pending;
+        pending = null;
+      }
+      if (conf != null) handle(conf);
+      return this;
+    }
+
+    @Override
+    public synchronized ConfigStream endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      return this;
+    }
+  }
+}
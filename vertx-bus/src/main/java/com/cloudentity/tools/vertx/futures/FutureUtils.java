@@ -5,9 +5,13 @@ import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class FutureUtils {
 
@@ -64,6 +68,77 @@ public class FutureUtils {
     return promise;
   }
 
+  /**
+   * Applies `f` to `items` running at most `parallelism` Futures at a time.
+   * Returns results in order of `items` or the first failure, in which case not started items are skipped.
+   */
+  public static <A, T> Future<List<T>> traverse(List<A> items, int parallelism, Function<A, Future<T>> f) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism must be positive");
+    }
+
+    Future<List<T>> promise = Future.future();
+    List<T> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+    AtomicInteger next = new AtomicInteger();
+    AtomicInteger completed = new AtomicInteger();
+
+    if (items.isEmpty()) {
+      promise.complete(results);
+      return promise;
+    }
+
+    Runnable[] startNext = new Runnable[1];
+    startNext[0] = () -> {
+      // already completed Futures are handled in the loop, so long list of them does not grow the stack
+      while (true) {
+        int i = next.getAndIncrement();
+        if (i >= items.size() || promise.isComplete()) return;
+
+        Future<T> result;
+        try {
+          result = f.apply(items.get(i));
+        } catch (Throwable ex) {
+          result = Future.failedFuture(ex);
+        }
+
+        if (result.isComplete()) {
+          if (!handleTraversed(i, result, results, completed, promise)) return;
+        } else {
+          result.setHandler(async -> {
+            if (handleTraversed(i, async, results, completed, promise)) startNext[0].run();
+          });
+          return;
+        }
+      }
+    };
+
+    for (int i = 0; i < Math.min(parallelism, items.size()); i++) {
+      startNext[0].run();
+    }
+    return promise;
+  }
+
+  /**
+   * Returns true if next item should be started.
+   */
+  private static <T> boolean handleTraversed(int i, AsyncResult<T> result, List<T> results, AtomicInteger completed, Future<List<T>> promise) {
+    if (result.failed()) {
+      promise.tryFail(result.cause());
+      return false;
+    }
+
+    synchronized (results) {
+      results.set(i, result.result());
+    }
+    if (completed.incrementAndGet() == results.size()) {
+      synchronized (results) {
+        promise.tryComplete(results);
+      }
+      return false;
+    }
+    return true;
+  }
+
   public static <T> Future<T> asFuture(Consumer<Handler<AsyncResult<T>>> f) {
     Future<T> promise = Future.future();
 
@@ -1,12 +1,15 @@
 package com.cloudentity.tools.vertx.tracing;
 
+import com.cloudentity.tools.vertx.tracing.internals.MapTextMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.slf4j.Marker;
 
-import java.util.function.Consumer;
-
+/**
+ * Logger that puts entries of TracingContext (trace id and baggage items) to MDC for the time of logging.
+ * MDC is modified only if the log level is enabled.
+ */
 public class LoggingWithTracing {
   public static LoggingWithTracing getLogger(Class<?> clazz) {
     return new LoggingWithTracing(LoggerFactory.getLogger(clazz));
@@ -22,11 +25,22 @@ public class LoggingWithTracing {
     this.log = log;
   }
 
-  private void logIf(TracingContext ctx, Boolean condition, Consumer<Void> action) {
-    if (condition) {
-      ctx.consumeContext(MDC::put);
-      action.accept(null);
-      ctx.consumeContext((k, v) -> MDC.remove(k));
+  /**
+   * Puts tracing context to MDC and returns its entries to be removed with {@link LoggingWithTracing#exit(String[])} after logging,
+   * see {@link MapTextMap#entries()}. Entries are cached by the context, so no iterator or lambda is allocated per log call.
+   * SLF4J loggers do not throw on logging, so `exit` is not guarded with try-finally.
+   */
+  private static String[] enter(TracingContext ctx) {
+    String[] entries = ctx.getSpanContextMap().entries();
+    for (int i = 0; i < entries.length; i += 2) {
+      MDC.put(entries[i], entries[i + 1]);
+    }
+    return entries;
+  }
+
+  private static void exit(String[] entries) {
+    for (int i = 0; i < entries.length; i += 2) {
+      MDC.remove(entries[i]);
     }
   }
 
@@ -39,23 +53,43 @@ public class LoggingWithTracing {
   }
 
   public void trace(TracingContext ctx, String msg) {
-    logIf(ctx, isTraceEnabled(), (n) -> log.trace(msg));
+    if (isTraceEnabled()) {
+      String[] mdc = enter(ctx);
+      log.trace(msg);
+      exit(mdc);
+    }
   }
 
   public void trace(TracingContext ctx, String var1, Object var2) {
-    logIf(ctx, isTraceEnabled(), (n) -> log.trace(var1, var2));
+    if (isTraceEnabled()) {
+      String[] mdc = enter(ctx);
+      log.trace(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void trace(TracingContext ctx, String var1, Object var2, Object var3) {
-    logIf(ctx, isTraceEnabled(), (n) -> log.trace(var1, var2, var3));
+    if (isTraceEnabled()) {
+      String[] mdc = enter(ctx);
+      log.trace(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void trace(TracingContext ctx, String var1, Object... var2) {
-    logIf(ctx, isTraceEnabled(), (n) -> log.trace(var1, var2));
+    if (isTraceEnabled()) {
+      String[] mdc = enter(ctx);
+      log.trace(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void trace(TracingContext ctx, String var1, Throwable var2) {
-    logIf(ctx, isTraceEnabled(), (n) -> log.trace(var1, var2));
+    if (isTraceEnabled()) {
+      String[] mdc = enter(ctx);
+      log.trace(var1, var2);
+      exit(mdc);
+    }
   }
 
   public boolean isTraceEnabled(Marker m) {
@@ -63,23 +97,43 @@ public class LoggingWithTracing {
   }
 
   public void trace(TracingContext ctx, Marker var1, String var2) {
-    logIf(ctx, isTraceEnabled(), (n) -> log.trace(var1, var2));
+    if (isTraceEnabled()) {
+      String[] mdc = enter(ctx);
+      log.trace(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void trace(TracingContext ctx, Marker var1, String var2, Object var3) {
-    logIf(ctx, isTraceEnabled(), (n) -> log.trace(var1, var2, var3));
+    if (isTraceEnabled()) {
+      String[] mdc = enter(ctx);
+      log.trace(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void trace(TracingContext ctx, Marker var1, String var2, Object var3, Object var4) {
-    logIf(ctx, isTraceEnabled(), (n) -> log.trace(var1, var2, var3, var4));
+    if (isTraceEnabled()) {
+      String[] mdc = enter(ctx);
+      log.trace(var1, var2, var3, var4);
+      exit(mdc);
+    }
   }
 
   public void trace(TracingContext ctx, Marker var1, String var2, Object... var3) {
-    logIf(ctx, isTraceEnabled(), (n) -> log.trace(var1, var2, var3));
+    if (isTraceEnabled()) {
+      String[] mdc = enter(ctx);
+      log.trace(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void trace(TracingContext ctx, Marker var1, String var2, Throwable var3) {
-    logIf(ctx, isTraceEnabled(), (n) -> log.trace(var1, var2, var3));
+    if (isTraceEnabled()) {
+      String[] mdc = enter(ctx);
+      log.trace(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public boolean isDebugEnabled() {
@@ -87,47 +141,87 @@ public class LoggingWithTracing {
   }
 
   public void debug(TracingContext ctx, String var1) {
-    logIf(ctx, isDebugEnabled(), (n) -> log.debug(var1));
+    if (isDebugEnabled()) {
+      String[] mdc = enter(ctx);
+      log.debug(var1);
+      exit(mdc);
+    }
   }
 
   public void debug(TracingContext ctx, String var1, Object var2) {
-    logIf(ctx, isDebugEnabled(), (n) -> log.debug(var1, var2));
+    if (isDebugEnabled()) {
+      String[] mdc = enter(ctx);
+      log.debug(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void debug(TracingContext ctx, String var1, Object var2, Object var3) {
-    logIf(ctx, isDebugEnabled(), (n) -> log.debug(var1, var2, var3));
+    if (isDebugEnabled()) {
+      String[] mdc = enter(ctx);
+      log.debug(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void debug(TracingContext ctx, String var1, Object... var2) {
-    logIf(ctx, isDebugEnabled(), (n) -> log.debug(var1, var2));
+    if (isDebugEnabled()) {
+      String[] mdc = enter(ctx);
+      log.debug(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void debug(TracingContext ctx, String var1, Throwable var2) {
-    logIf(ctx, isDebugEnabled(), (n) -> log.debug(var1, var2));
+    if (isDebugEnabled()) {
+      String[] mdc = enter(ctx);
+      log.debug(var1, var2);
+      exit(mdc);
+    }
   }
 
   public boolean isDebugEnabled(Marker var1) {
-    return isDebugEnabled(var1);
+    return log.isDebugEnabled(var1);
   }
 
   public void debug(TracingContext ctx, Marker var1, String var2) {
-    logIf(ctx, isDebugEnabled(), (n) -> log.debug(var1, var2));
+    if (isDebugEnabled()) {
+      String[] mdc = enter(ctx);
+      log.debug(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void debug(TracingContext ctx, Marker var1, String var2, Object var3) {
-    logIf(ctx, isDebugEnabled(), (n) -> log.debug(var1, var2, var3));
+    if (isDebugEnabled()) {
+      String[] mdc = enter(ctx);
+      log.debug(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void debug(TracingContext ctx, Marker var1, String var2, Object var3, Object var4) {
-    logIf(ctx, isDebugEnabled(), (n) -> log.debug(var1, var2, var3, var4));
+    if (isDebugEnabled()) {
+      String[] mdc = enter(ctx);
+      log.debug(var1, var2, var3, var4);
+      exit(mdc);
+    }
   }
 
   public void debug(TracingContext ctx, Marker var1, String var2, Object... var3) {
-    logIf(ctx, isDebugEnabled(), (n) -> log.debug(var1, var2, var3));
+    if (isDebugEnabled()) {
+      String[] mdc = enter(ctx);
+      log.debug(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void debug(TracingContext ctx, Marker var1, String var2, Throwable var3) {
-    logIf(ctx, isDebugEnabled(), (n) -> log.debug(var1, var2, var3));
+    if (isDebugEnabled()) {
+      String[] mdc = enter(ctx);
+      log.debug(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public boolean isInfoEnabled() {
@@ -135,23 +229,43 @@ public class LoggingWithTracing {
   }
 
   public void info(TracingContext ctx, String var1) {
-    logIf(ctx, isInfoEnabled(), (n) -> log.info(var1));
+    if (isInfoEnabled()) {
+      String[] mdc = enter(ctx);
+      log.info(var1);
+      exit(mdc);
+    }
   }
 
   public void info(TracingContext ctx, String var1, Object var2) {
-    logIf(ctx, isInfoEnabled(), (n) -> log.info(var1, var2));
+    if (isInfoEnabled()) {
+      String[] mdc = enter(ctx);
+      log.info(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void info(TracingContext ctx, String var1, Object var2, Object var3) {
-    logIf(ctx, isInfoEnabled(), (n) -> log.info(var1, var2, var3));
+    if (isInfoEnabled()) {
+      String[] mdc = enter(ctx);
+      log.info(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void info(TracingContext ctx, String var1, Object... var2) {
-    logIf(ctx, isInfoEnabled(), (n) -> log.info(var1, var2));
+    if (isInfoEnabled()) {
+      String[] mdc = enter(ctx);
+      log.info(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void info(TracingContext ctx, String var1, Throwable var2) {
-    logIf(ctx, isInfoEnabled(), (n) -> log.info(var1, var2));
+    if (isInfoEnabled()) {
+      String[] mdc = enter(ctx);
+      log.info(var1, var2);
+      exit(mdc);
+    }
   }
 
   public boolean isInfoEnabled(Marker var1) {
@@ -159,23 +273,43 @@ public class LoggingWithTracing {
   }
 
   public void info(TracingContext ctx, Marker var1, String var2) {
-    logIf(ctx, isInfoEnabled(), (n) -> log.info(var1, var2));
+    if (isInfoEnabled()) {
+      String[] mdc = enter(ctx);
+      log.info(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void info(TracingContext ctx, Marker var1, String var2, Object var3) {
-    logIf(ctx, isInfoEnabled(), (n) -> log.info(var1, var2, var3));
+    if (isInfoEnabled()) {
+      String[] mdc = enter(ctx);
+      log.info(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void info(TracingContext ctx, Marker var1, String var2, Object var3, Object var4) {
-    logIf(ctx, isInfoEnabled(), (n) -> log.info(var1, var2, var3, var4));
+    if (isInfoEnabled()) {
+      String[] mdc = enter(ctx);
+      log.info(var1, var2, var3, var4);
+      exit(mdc);
+    }
   }
 
   public void info(TracingContext ctx, Marker var1, String var2, Object... var3) {
-    logIf(ctx, isInfoEnabled(), (n) -> log.info(var1, var2, var3));
+    if (isInfoEnabled()) {
+      String[] mdc = enter(ctx);
+      log.info(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void info(TracingContext ctx, Marker var1, String var2, Throwable var3) {
-    logIf(ctx, isInfoEnabled(), (n) -> log.info(var1, var2, var3));
+    if (isInfoEnabled()) {
+      String[] mdc = enter(ctx);
+      log.info(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public boolean isWarnEnabled() {
@@ -183,23 +317,43 @@ public class LoggingWithTracing {
   }
 
   public void warn(TracingContext ctx, String var1) {
-    logIf(ctx, isWarnEnabled(), (n) -> log.warn(var1));
+    if (isWarnEnabled()) {
+      String[] mdc = enter(ctx);
+      log.warn(var1);
+      exit(mdc);
+    }
   }
 
   public void warn(TracingContext ctx, String var1, Object var2) {
-    logIf(ctx, isWarnEnabled(), (n) -> log.warn(var1, var2));
+    if (isWarnEnabled()) {
+      String[] mdc = enter(ctx);
+      log.warn(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void warn(TracingContext ctx, String var1, Object... var2) {
-    logIf(ctx, isWarnEnabled(), (n) -> log.warn(var1, var2));
+    if (isWarnEnabled()) {
+      String[] mdc = enter(ctx);
+      log.warn(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void warn(TracingContext ctx, String var1, Object var2, Object var3) {
-    logIf(ctx, isWarnEnabled(), (n) -> log.warn(var1, var2, var3));
+    if (isWarnEnabled()) {
+      String[] mdc = enter(ctx);
+      log.warn(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void warn(TracingContext ctx, String var1, Throwable var2) {
-    logIf(ctx, isWarnEnabled(), (n) -> log.warn(var1, var2));
+    if (isWarnEnabled()) {
+      String[] mdc = enter(ctx);
+      log.warn(var1, var2);
+      exit(mdc);
+    }
   }
 
   public boolean isWarnEnabled(Marker var1) {
@@ -207,23 +361,43 @@ public class LoggingWithTracing {
   }
 
   public void warn(TracingContext ctx, Marker var1, String var2) {
-    logIf(ctx, isWarnEnabled(), (n) -> log.warn(var1, var2));
+    if (isWarnEnabled()) {
+      String[] mdc = enter(ctx);
+      log.warn(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void warn(TracingContext ctx, Marker var1, String var2, Object var3) {
-    logIf(ctx, isWarnEnabled(), (n) -> log.warn(var1, var2, var3));
+    if (isWarnEnabled()) {
+      String[] mdc = enter(ctx);
+      log.warn(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void warn(TracingContext ctx, Marker var1, String var2, Object var3, Object var4) {
-    logIf(ctx, isWarnEnabled(), (n) -> log.warn(var1, var2, var3, var4));
+    if (isWarnEnabled()) {
+      String[] mdc = enter(ctx);
+      log.warn(var1, var2, var3, var4);
+      exit(mdc);
+    }
   }
 
   public void warn(TracingContext ctx, Marker var1, String var2, Object... var3) {
-    logIf(ctx, isWarnEnabled(), (n) -> log.warn(var1, var2, var3));
+    if (isWarnEnabled()) {
+      String[] mdc = enter(ctx);
+      log.warn(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void warn(TracingContext ctx, Marker var1, String var2, Throwable var3) {
-    logIf(ctx, isWarnEnabled(), (n) -> log.warn(var1, var2, var3));
+    if (isWarnEnabled()) {
+      String[] mdc = enter(ctx);
+      log.warn(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public boolean isErrorEnabled() {
@@ -231,23 +405,43 @@ public class LoggingWithTracing {
   }
 
   public void error(TracingContext ctx, String var1) {
-    logIf(ctx, isErrorEnabled(), (n) -> log.error(var1));
+    if (isErrorEnabled()) {
+      String[] mdc = enter(ctx);
+      log.error(var1);
+      exit(mdc);
+    }
   }
 
   public void error(TracingContext ctx, String var1, Object var2) {
-    logIf(ctx, isErrorEnabled(), (n) -> log.error(var1, var2));
+    if (isErrorEnabled()) {
+      String[] mdc = enter(ctx);
+      log.error(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void error(TracingContext ctx, String var1, Object var2, Object var3) {
-    logIf(ctx, isErrorEnabled(), (n) -> log.error(var1, var2, var3));
+    if (isErrorEnabled()) {
+      String[] mdc = enter(ctx);
+      log.error(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void error(TracingContext ctx, String var1, Object... var2) {
-    logIf(ctx, isErrorEnabled(), (n) -> log.error(var1, var2));
+    if (isErrorEnabled()) {
+      String[] mdc = enter(ctx);
+      log.error(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void error(TracingContext ctx, String var1, Throwable var2) {
-    logIf(ctx, isErrorEnabled(), (n) -> log.error(var1, var2));
+    if (isErrorEnabled()) {
+      String[] mdc = enter(ctx);
+      log.error(var1, var2);
+      exit(mdc);
+    }
   }
 
   public boolean isErrorEnabled(Marker var1) {
@@ -255,22 +449,42 @@ public class LoggingWithTracing {
   }
 
   public void error(TracingContext ctx, Marker var1, String var2) {
-    logIf(ctx, isErrorEnabled(), (n) -> log.error(var1, var2));
+    if (isErrorEnabled()) {
+      String[] mdc = enter(ctx);
+      log.error(var1, var2);
+      exit(mdc);
+    }
   }
 
   public void error(TracingContext ctx, Marker var1, String var2, Object var3) {
-    logIf(ctx, isErrorEnabled(), (n) -> log.error(var1, var2, var3));
+    if (isErrorEnabled()) {
+      String[] mdc = enter(ctx);
+      log.error(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void error(TracingContext ctx, Marker var1, String var2, Object var3, Object var4) {
-    logIf(ctx, isErrorEnabled(), (n) -> log.error(var1, var2, var3, var4));
+    if (isErrorEnabled()) {
+      String[] mdc = enter(ctx);
+      log.error(var1, var2, var3, var4);
+      exit(mdc);
+    }
   }
 
   public void error(TracingContext ctx, Marker var1, String var2, Object... var3) {
-    logIf(ctx, isErrorEnabled(), (n) -> log.error(var1, var2, var3));
+    if (isErrorEnabled()) {
+      String[] mdc = enter(ctx);
+      log.error(var1, var2, var3);
+      exit(mdc);
+    }
   }
 
   public void error(TracingContext ctx, Marker var1, String var2, Throwable var3) {
-    logIf(ctx, isErrorEnabled(), (n) -> log.error(var1, var2, var3));
+    if (isErrorEnabled()) {
+      String[] mdc = enter(ctx);
+      log.error(var1, var2, var3);
+      exit(mdc);
+    }
   }
 }
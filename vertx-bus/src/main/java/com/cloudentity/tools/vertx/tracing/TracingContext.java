@@ -7,6 +7,7 @@ import io.opentracing.propagation.TextMapAdapter;
 import io.opentracing.tag.Tags;
 import com.cloudentity.tools.vertx.tracing.internals.JaegerTracing;
 import com.cloudentity.tools.vertx.tracing.internals.MapTextMap;
+import com.cloudentity.tools.vertx.tracing.internals.RemoteSpan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +59,24 @@ public class TracingContext {
     }
   }
 
+  /**
+   * Returns context of span started on other node, e.g. of TracingContext received in clustered mode.
+   * Spans started with it as parent are children of the remote span. Its tags, logs and finish are ignored,
+   * the remote span is recorded and finished by the node that started it.
+   */
+  public static TracingContext remote(TracingManager tracing, Map<String, String> context) {
+    try {
+      SpanContext ctx = tracing.tracer.extract(Format.Builtin.HTTP_HEADERS, new TextMapAdapter(context));
+      if (ctx == null) {
+        throw new IllegalArgumentException("missing span context");
+      }
+      return of(tracing, new RemoteSpan(ctx));
+    } catch (Exception e) {
+      log.error("Failed to create a remote span context from: " + context, e);
+      return dummy();
+    }
+  }
+
   /**
    * Create a dummy span for testing
    */
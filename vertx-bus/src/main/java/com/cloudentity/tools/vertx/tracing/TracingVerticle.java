@@ -16,6 +16,7 @@ public class TracingVerticle extends ServiceVerticle implements TracingService {
   private TracingManager tracing;
 
   private static boolean tracingEnabled;
+  private static volatile TracingManager sharedTracing = JaegerTracing.noTracing;
 
   @Override
   public void start(Future<Void> start) {
@@ -23,6 +24,7 @@ public class TracingVerticle extends ServiceVerticle implements TracingService {
     toFuture(super::start).compose(x -> JaegerTracing.getTracingConfiguration(confService)
       .compose(t -> {
         this.tracing = t;
+        sharedTracing = t;
         tracingEnabled = true;
         return Future.<Void>succeededFuture();
       })).setHandler(start);
@@ -32,6 +34,14 @@ public class TracingVerticle extends ServiceVerticle implements TracingService {
     return tracingEnabled;
   }
 
+  /**
+   * Returns TracingManager of the last started TracingVerticle or noTracing if there is none.
+   * Use it where TracingService can't be called, e.g. when decoding message received from other cluster node.
+   */
+  public static TracingManager sharedTracing() {
+    return sharedTracing;
+  }
+
   @Override
   public Future<TracingManager> getTracingManager() {
     return Future.succeededFuture(tracing);
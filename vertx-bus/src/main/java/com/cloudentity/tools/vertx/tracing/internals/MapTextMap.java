@@ -2,6 +2,7 @@ package com.cloudentity.tools.vertx.tracing.internals;
 
 import io.opentracing.propagation.TextMap;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -9,15 +10,34 @@ import java.util.stream.Collectors;
 
 public class MapTextMap implements TextMap {
   private Map<String, String> map = new HashMap<>();
+  private volatile String[] entries; // cached result of `entries()`, cleared on `put`
 
   @Override
   public Iterator<Map.Entry<String, String>> iterator() {
-    return map.entrySet().iterator();
+    return Collections.unmodifiableMap(map).entrySet().iterator();
   }
 
   @Override
   public void put(String key, String value) {
     map.put(key, value);
+    entries = null;
+  }
+
+  /**
+   * Returns keys and values as [key1, value1, key2, value2, ...] array. The array is cached until next `put`, it must not be modified.
+   */
+  public String[] entries() {
+    String[] result = entries;
+    if (result == null) {
+      result = new String[map.size() * 2];
+      int i = 0;
+      for (Map.Entry<String, String> e : map.entrySet()) {
+        result[i++] = e.getKey();
+        result[i++] = e.getValue();
+      }
+      entries = result;
+    }
+    return result;
   }
 
   public String get(String key) {
@@ -0,0 +1,103 @@
+package com.cloudentity.tools.vertx.tracing.internals;
+
+import io.jaegertracing.internal.JaegerSpanContext;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.tag.Tag;
+
+import java.util.Map;
+
+/**
+ * Span started on other cluster node, see {@link com.cloudentity.tools.vertx.tracing.TracingContext#remote(com.cloudentity.tools.vertx.tracing.TracingManager, Map)}.
+ * It carries span context only, so spans started with it as parent are its children. Tags, logs and finish are ignored,
+ * as the span is recorded and finished by the node that started it.
+ */
+public class RemoteSpan implements Span {
+  private volatile SpanContext context;
+
+  public RemoteSpan(SpanContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public SpanContext context() {
+    return context;
+  }
+
+  @Override
+  public Span setTag(String key, String value) {
+    return this;
+  }
+
+  @Override
+  public Span setTag(String key, boolean value) {
+    return this;
+  }
+
+  @Override
+  public Span setTag(String key, Number value) {
+    return this;
+  }
+
+  @Override
+  public <T> Span setTag(Tag<T> tag, T value) {
+    return this;
+  }
+
+  @Override
+  public Span log(Map<String, ?> fields) {
+    return this;
+  }
+
+  @Override
+  public Span log(long timestampMicroseconds, Map<String, ?> fields) {
+    return this;
+  }
+
+  @Override
+  public Span log(String event) {
+    return this;
+  }
+
+  @Override
+  public Span log(long timestampMicroseconds, String event) {
+    return this;
+  }
+
+  /**
+   * Baggage is propagated to children started on this node.
+   */
+  @Override
+  public Span setBaggageItem(String key, String value) {
+    if (context instanceof JaegerSpanContext) {
+      context = ((JaegerSpanContext) context).withBaggageItem(key, value);
+    }
+    return this;
+  }
+
+  @Override
+  public String getBaggageItem(String key) {
+    for (Map.Entry<String, String> item : context.baggageItems()) {
+      if (item.getKey().equals(key)) return item.getValue();
+    }
+    return null;
+  }
+
+  @Override
+  public Span setOperationName(String operationName) {
+    return this;
+  }
+
+  @Override
+  public void finish() {
+  }
+
+  @Override
+  public void finish(long finishMicros) {
+  }
+
+  @Override
+  public String toString() {
+    return "RemoteSpan{" + context + '}';
+  }
+}
@@ -0,0 +1,116 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.UUID;
+
+@RunWith(VertxUnitRunner.class)
+public class AskTimeoutsTest {
+  Vertx vertx = Vertx.vertx();
+  EventBus bus = vertx.eventBus();
+  AskTimeouts timeouts;
+
+  @Before
+  public void init() {
+    VertxBus.registerPayloadCodec(bus);
+    AskTimeouts.enable(vertx, 10, 8);
+    timeouts = AskTimeouts.get(bus);
+  }
+
+  @Test
+  public void shouldReturnResponseAndStopTrackingAsk(TestContext ctx) {
+    Async async = ctx.async();
+
+    // given
+    String addr = UUID.randomUUID().toString();
+    VertxBus.consume(bus, addr, String.class, a -> Future.succeededFuture(a + a));
+
+    // when
+    vertx.runOnContext(x ->
+      VertxBus.ask(bus, addr, new DeliveryOptions().setSendTimeout(1000), String.class, "echo").setHandler(ctx.asyncAssertSuccess(result -> {
+        // then
+        ctx.assertEquals("echoecho", result);
+        ctx.assertEquals(0L, timeouts.activeAsks());
+        ctx.assertEquals(0L, timeouts.expiredAsks());
+        async.complete();
+      }))
+    );
+  }
+
+  @Test
+  public void shouldFailAskWithTimeoutLongerThanWheelRound(TestContext ctx) {
+    Async async = ctx.async();
+
+    // given
+    String addr = UUID.randomUUID().toString();
+    VertxBus.consume(bus, addr, String.class, a -> Future.future());
+    long start = System.currentTimeMillis();
+
+    // when
+    vertx.runOnContext(x -> {
+      Future<String> response = VertxBus.ask(bus, addr, new DeliveryOptions().setSendTimeout(200), String.class, "echo");
+      ctx.assertEquals(1L, timeouts.activeAsks());
+
+      response.setHandler(ctx.asyncAssertFailure(ex -> {
+        // then
+        ctx.assertEquals(ReplyFailure.TIMEOUT, ((ReplyException) ex).failureType());
+        ctx.assertTrue(System.currentTimeMillis() - start >= 200);
+        ctx.assertEquals(0L, timeouts.activeAsks());
+        ctx.assertEquals(1L, timeouts.expiredAsks());
+        async.complete();
+      }));
+    });
+  }
+
+  @Test
+  public void shouldRegisterMetersAndDisableWhenVertxIsClosed(TestContext ctx) {
+    Async async = ctx.async();
+
+    // given
+    MeterRegistry registry = new SimpleMeterRegistry();
+    Vertx other = Vertx.vertx(new VertxOptions().setMetricsOptions(new MicrometerMetricsOptions().setEnabled(true).setMicrometerRegistry(registry)));
+    EventBus otherBus = other.eventBus();
+    AskTimeouts.enable(other);
+    ctx.assertNotNull(registry.find("vertx.bus.ask.active").gauge());
+    ctx.assertNotNull(registry.find("vertx.bus.ask.expired").functionCounter());
+
+    // when
+    other.close(ctx.asyncAssertSuccess(x -> {
+      // then
+      ctx.assertNull(AskTimeouts.get(otherBus));
+      ctx.assertNull(registry.find("vertx.bus.ask.active").gauge());
+      ctx.assertNull(registry.find("vertx.bus.ask.expired").functionCounter());
+      async.complete();
+    }));
+  }
+
+  @Test
+  public void shouldFailAskImmediatelyWhenNoHandlers(TestContext ctx) {
+    Async async = ctx.async();
+
+    // when
+    vertx.runOnContext(x ->
+      VertxBus.ask(bus, UUID.randomUUID().toString(), new DeliveryOptions().setSendTimeout(1000), String.class, "echo").setHandler(ctx.asyncAssertFailure(ex -> {
+        // then
+        ctx.assertEquals(ReplyFailure.NO_HANDLERS, ((ReplyException) ex).failureType());
+        ctx.assertEquals(0L, timeouts.activeAsks());
+        async.complete();
+      }))
+    );
+  }
+}
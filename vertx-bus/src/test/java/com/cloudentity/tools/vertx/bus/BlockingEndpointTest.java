@@ -0,0 +1,143 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(VertxUnitRunner.class)
+public class BlockingEndpointTest {
+  Vertx vertx = Vertx.vertx();
+  static AtomicInteger running = new AtomicInteger();
+  static AtomicInteger maxRunning = new AtomicInteger();
+
+  @Before
+  public void init() {
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    running.set(0);
+    maxRunning.set(0);
+  }
+
+  interface BlockingService {
+    @VertxEndpoint(address = "blocking-thread", execution = VertxEndpoint.Execution.BLOCKING)
+    Future<String> thread();
+
+    @VertxEndpoint(address = "blocking-sleep", execution = VertxEndpoint.Execution.BLOCKING, workerPoolSize = 2)
+    Future<String> sleep(long ms);
+
+    @VertxEndpoint(address = "blocking-fail", execution = VertxEndpoint.Execution.BLOCKING)
+    Future<String> fail();
+  }
+
+  public static class BlockingVerticle extends ServiceVerticle implements BlockingService {
+    @Override
+    public Future<String> thread() {
+      return Future.succeededFuture(Thread.currentThread().getName() + ":" + Context.isOnWorkerThread());
+    }
+
+    @Override
+    public Future<String> sleep(long ms) {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(ms);
+      } catch (InterruptedException e) {
+        return Future.failedFuture(e);
+      } finally {
+        running.decrementAndGet();
+      }
+      return Future.succeededFuture(Thread.currentThread().getName());
+    }
+
+    @Override
+    public Future<String> fail() {
+      throw new IllegalStateException("fail");
+    }
+
+    @Override
+    protected Optional<String> vertxServiceAddressPrefix() {
+      return Optional.empty();
+    }
+  }
+
+  @Test
+  public void shouldExecuteBlockingEndpointOnWorkerThread(TestContext ctx) {
+    Async async = ctx.async();
+    BlockingService client = VertxEndpointClient.make(vertx, BlockingService.class);
+
+    vertx.deployVerticle(new BlockingVerticle(), ctx.asyncAssertSuccess(id -> {
+      client.thread().setHandler(ctx.asyncAssertSuccess(result -> {
+        ctx.assertTrue(result.startsWith("vert.x-worker-thread"), result);
+        ctx.assertTrue(result.endsWith(":true"), result);
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldLimitConcurrencyToWorkerPoolSize(TestContext ctx) {
+    Async async = ctx.async();
+    BlockingService client = VertxEndpointClient.make(vertx, BlockingService.class);
+
+    vertx.deployVerticle(new BlockingVerticle(), ctx.asyncAssertSuccess(id -> {
+      List<Future> responses = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        responses.add(client.sleep(100));
+      }
+
+      CompositeFuture.all(responses).setHandler(ctx.asyncAssertSuccess(result -> {
+        ctx.assertEquals(2, maxRunning.get());
+        for (Object thread : result.list()) {
+          ctx.assertTrue(((String) thread).startsWith("vertx-endpoint-blocking-sleep"), (String) thread);
+        }
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldFailWhenBlockingImplementationThrowsException(TestContext ctx) {
+    Async async = ctx.async();
+    BlockingService client = VertxEndpointClient.make(vertx, BlockingService.class);
+
+    vertx.deployVerticle(new BlockingVerticle(), ctx.asyncAssertSuccess(id -> {
+      client.fail().setHandler(ctx.asyncAssertFailure(ex -> {
+        ctx.assertEquals("fail", ex.getMessage());
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldOverrideWorkerPoolSizeFromConfiguration(TestContext ctx) {
+    Async async = ctx.async();
+    List<ServiceClientFactory.VertxEndpointInterface> endpoints = ServiceClientFactory.getVertxEndpoints(BlockingService.class, Optional.of("config-"));
+    JsonObject limitsConfig = new JsonObject().put("sleep", new JsonObject().put("workerPoolSize", 3));
+    BlockingService client = VertxEndpointClient.make(vertx, BlockingService.class, Optional.of("config-"));
+
+    vertx.runOnContext(x -> {
+      ServiceVerticleTools.registerConsumers(vertx, new BlockingVerticle(), endpoints, limitsConfig);
+
+      List<Future> responses = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        responses.add(client.sleep(100));
+      }
+
+      CompositeFuture.all(responses).setHandler(ctx.asyncAssertSuccess(result -> {
+        ctx.assertEquals(3, maxRunning.get());
+        async.complete();
+      }));
+    });
+  }
+}
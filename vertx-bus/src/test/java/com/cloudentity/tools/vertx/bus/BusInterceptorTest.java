@@ -0,0 +1,94 @@
+package com.cloudentity.tools.vertx.bus;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checks calls of {@link LoggingBusInterceptor}, installed by default.
+ */
+@RunWith(VertxUnitRunner.class)
+public class BusInterceptorTest {
+  Vertx vertx = Vertx.vertx();
+  Logger logger = (Logger) LoggerFactory.getLogger(VertxBus.class);
+  Level level;
+  ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  @Before
+  public void init() {
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    level = logger.getLevel();
+    logger.setLevel(Level.TRACE);
+    appender.start();
+    logger.addAppender(appender);
+  }
+
+  @After
+  public void finish() {
+    logger.detachAppender(appender);
+    logger.setLevel(level);
+  }
+
+  @Test
+  public void shouldCallInterceptorOnAskAndConsume(TestContext ctx) {
+    Async async = ctx.async();
+    VertxBus.consume(vertx.eventBus(), "intercepted-echo", String.class, a -> Future.succeededFuture(a + a));
+
+    VertxBus.ask(vertx.eventBus(), "intercepted-echo", String.class, "x").setHandler(ctx.asyncAssertSuccess(response -> {
+      ctx.assertEquals(Arrays.asList(
+        "Asking started on address=intercepted-echo with request=x",
+        "Consuming started on address=intercepted-echo, request=x",
+        "Consuming completed on address=intercepted-echo, request=x, response=xx",
+        "Asking completed on address=intercepted-echo with request=x, response=xx"
+      ), events());
+      async.complete();
+    }));
+  }
+
+  @Test
+  public void shouldCallInterceptorOnFailure(TestContext ctx) {
+    Async async = ctx.async();
+    VertxBus.consume(vertx.eventBus(), "intercepted-fail", String.class, a -> Future.failedFuture("failed"));
+
+    VertxBus.ask(vertx.eventBus(), "intercepted-fail", String.class, "x").setHandler(ctx.asyncAssertFailure(ex -> {
+      ctx.assertEquals(Arrays.asList(
+        "Asking started on address=intercepted-fail with request=x",
+        "Consuming started on address=intercepted-fail, request=x",
+        "Consuming failed on address=intercepted-fail, request=x: failed",
+        "Asking failed on address=intercepted-fail with request=x"
+      ), events());
+      async.complete();
+    }));
+  }
+
+  @Test
+  public void shouldCheckLogLevelOnEachCall(TestContext ctx) {
+    Async async = ctx.async();
+    logger.setLevel(Level.INFO);
+    VertxBus.consume(vertx.eventBus(), "intercepted-quiet", String.class, a -> Future.succeededFuture(a));
+
+    VertxBus.ask(vertx.eventBus(), "intercepted-quiet", String.class, "x").setHandler(ctx.asyncAssertSuccess(response -> {
+      ctx.assertTrue(events().isEmpty());
+      async.complete();
+    }));
+  }
+
+  private List<String> events() {
+    return appender.list.stream().map(ILoggingEvent::getFormattedMessage).filter(m -> m.contains("address=intercepted-")).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,279 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@RunWith(VertxUnitRunner.class)
+public class BusStreamTest {
+  Vertx vertx = Vertx.vertx();
+  DeliveryOptions opts = new DeliveryOptions().setSendTimeout(1000);
+  static List<RangeStream> producers = new ArrayList<>();
+
+  @Before
+  public void init() {
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    producers.clear();
+  }
+
+  /**
+   * Emits integers from 0 to `size` as they are fetched, fails at `failAt` element.
+   */
+  static class RangeStream implements ReadStream<Integer>, AutoCloseable {
+    final int size;
+    final int failAt;
+    int next;
+    long demand = Long.MAX_VALUE;
+    boolean cancelled;
+    boolean closed;
+    Handler<Integer> handler;
+    Handler<Void> endHandler;
+    Handler<Throwable> exceptionHandler;
+
+    RangeStream(int size, int failAt) {
+      this.size = size;
+      this.failAt = failAt;
+      producers.add(this);
+    }
+
+    void emit() {
+      while (handler != null && demand > 0 && next < size) {
+        if (next == failAt) {
+          next = size;
+          exceptionHandler.handle(new IllegalStateException("fail"));
+          return;
+        }
+        demand--;
+        handler.handle(next++);
+      }
+      if (next == size && handler != null && endHandler != null) {
+        Handler<Void> h = endHandler;
+        endHandler = null;
+        h.handle(null);
+      }
+    }
+
+    @Override
+    public ReadStream<Integer> exceptionHandler(Handler<Throwable> handler) {
+      this.exceptionHandler = handler;
+      return this;
+    }
+
+    @Override
+    public ReadStream<Integer> handler(Handler<Integer> handler) {
+      this.handler = handler;
+      if (handler == null) cancelled = true;
+      emit();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Integer> pause() {
+      demand = 0;
+      return this;
+    }
+
+    @Override
+    public ReadStream<Integer> resume() {
+      return fetch(Long.MAX_VALUE);
+    }
+
+    @Override
+    public ReadStream<Integer> fetch(long amount) {
+      demand = Long.MAX_VALUE - demand < amount ? Long.MAX_VALUE : demand + amount;
+      emit();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Integer> endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      return this;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private String consumeRange(int failAt) {
+    String addr = UUID.randomUUID().toString();
+    VertxBus.consumeStream(vertx.eventBus(), addr, Integer.class, size -> new RangeStream(size, failAt));
+    return addr;
+  }
+
+  @Test
+  public void shouldStreamAllElementsInOrderKeepingAtMostWindowInTransit(TestContext ctx) {
+    Async async = ctx.async();
+    String addr = consumeRange(-1);
+    List<Integer> received = new ArrayList<>();
+
+    vertx.runOnContext(x -> {
+      ReadStream<Integer> stream = VertxBus.askStream(vertx.eventBus(), addr, opts, Integer.class, 8, 1000);
+      stream.exceptionHandler(ctx::fail);
+      stream.handler(i -> {
+        received.add(i);
+        ctx.assertTrue(producers.get(0).next - received.size() <= 8);
+      });
+      stream.endHandler(v -> {
+        ctx.assertEquals(1000, received.size());
+        for (int i = 0; i < received.size(); i++) {
+          ctx.assertEquals(i, received.get(i));
+        }
+        async.complete();
+      });
+    });
+  }
+
+  @Test
+  public void shouldStopProducerWhenClientIsPaused(TestContext ctx) {
+    Async async = ctx.async();
+    String addr = consumeRange(-1);
+    List<Integer> received = new ArrayList<>();
+
+    vertx.runOnContext(x -> {
+      ReadStream<Integer> stream = VertxBus.askStream(vertx.eventBus(), addr, opts, Integer.class, 8, 100);
+      stream.handler(i -> {
+        received.add(i);
+        if (received.size() == 5) {
+          stream.pause();
+          vertx.setTimer(100, t -> {
+            ctx.assertEquals(5, received.size());
+            ctx.assertTrue(producers.get(0).next <= 8 + 4);
+            stream.resume();
+          });
+        }
+      });
+      stream.endHandler(v -> {
+        ctx.assertEquals(100, received.size());
+        async.complete();
+      });
+    });
+  }
+
+  @Test
+  public void shouldFailStreamWhenProducerFails(TestContext ctx) {
+    Async async = ctx.async();
+    String addr = consumeRange(3);
+    List<Integer> received = new ArrayList<>();
+
+    vertx.runOnContext(x -> {
+      ReadStream<Integer> stream = VertxBus.askStream(vertx.eventBus(), addr, opts, Integer.class, 8, 100);
+      stream.handler(received::add);
+      stream.endHandler(v -> ctx.fail("stream should fail"));
+      stream.exceptionHandler(ex -> {
+        ctx.assertEquals("fail", ex.getMessage());
+        ctx.assertEquals(3, received.size());
+        async.complete();
+      });
+    });
+  }
+
+  @Test
+  public void shouldFailStreamWhenNoProducer(TestContext ctx) {
+    Async async = ctx.async();
+
+    vertx.runOnContext(x -> {
+      ReadStream<Integer> stream = VertxBus.askStream(vertx.eventBus(), UUID.randomUUID().toString(), opts, Integer.class, 8, 100);
+      stream.handler(i -> ctx.fail("no element expected"));
+      stream.exceptionHandler(ex -> {
+        ctx.assertEquals(ReplyFailure.NO_HANDLERS, ((ReplyException) ex).failureType());
+        async.complete();
+      });
+    });
+  }
+
+  @Test
+  public void shouldCancelProducerWhenHandlerIsUnset(TestContext ctx) {
+    Async async = ctx.async();
+    String addr = consumeRange(-1);
+
+    vertx.runOnContext(x -> {
+      ReadStream<Integer> stream = VertxBus.askStream(vertx.eventBus(), addr, opts, Integer.class, 8, 1000);
+      stream.handler(i -> {
+        if (i == 2) {
+          stream.handler(null);
+          vertx.setTimer(100, t -> {
+            ctx.assertTrue(producers.get(0).cancelled);
+            ctx.assertTrue(producers.get(0).closed);
+            ctx.assertTrue(producers.get(0).next < 1000);
+            async.complete();
+          });
+        }
+      });
+    });
+  }
+
+  @Test
+  public void shouldCloseProducerWhenClientSendsNoCredits(TestContext ctx) {
+    Async async = ctx.async();
+    String addr = consumeRange(-1);
+    BusStreams.setIdleTimeout(100);
+    DeliveryOptions streamOpts = new DeliveryOptions().addHeader(BusStreams.STREAM_ADDRESS_HEADER, UUID.randomUUID().toString());
+
+    vertx.runOnContext(x ->
+      // when
+      VertxBus.ask(vertx.eventBus(), addr, streamOpts, String.class, 10).setHandler(ctx.asyncAssertSuccess(controlAddr ->
+        vertx.setTimer(300, t -> {
+          // then
+          BusStreams.setIdleTimeout(60000);
+          ctx.assertTrue(producers.get(0).closed);
+          ctx.assertEquals(0, producers.get(0).next);
+          async.complete();
+        })
+      ))
+    );
+  }
+
+  interface RangeService {
+    @VertxEndpoint(address = "stream-range", streamWindow = 4)
+    ReadStream<Integer> range(int size);
+  }
+
+  public static class RangeVerticle extends ServiceVerticle implements RangeService {
+    @Override
+    public ReadStream<Integer> range(int size) {
+      return new RangeStream(size, -1);
+    }
+
+    @Override
+    protected Optional<String> vertxServiceAddressPrefix() {
+      return Optional.empty();
+    }
+  }
+
+  @Test
+  public void shouldStreamFromServiceVerticle(TestContext ctx) {
+    Async async = ctx.async();
+    RangeService client = VertxEndpointClient.make(vertx, RangeService.class);
+    List<Integer> received = new ArrayList<>();
+
+    vertx.deployVerticle(new RangeVerticle(), ctx.asyncAssertSuccess(id -> {
+      vertx.runOnContext(x -> {
+        ReadStream<Integer> stream = client.range(50);
+        stream.exceptionHandler(ctx::fail);
+        stream.handler(received::add);
+        stream.endHandler(v -> {
+          ctx.assertEquals(50, received.size());
+          ctx.assertEquals(49, received.get(49));
+          async.complete();
+        });
+      });
+    }));
+  }
+}
@@ -0,0 +1,135 @@
+package com.cloudentity.tools.vertx.bus;
+
+import com.cloudentity.tools.vertx.tracing.TracingContext;
+import com.cloudentity.tools.vertx.tracing.internals.JaegerTracing;
+import io.vertx.config.ConfigChange;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBusOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends messages between two clustered Vertx instances, so they are encoded with {@link WireCodec}.
+ */
+@RunWith(VertxUnitRunner.class)
+public class ClusteredBusTest {
+  Vertx sender;
+  Vertx receiver;
+
+  interface TracedService {
+    @VertxEndpoint(address = "clustered-traced-service")
+    Future<String> traceId(TracingContext ctx);
+  }
+
+  public static class TracedVerticle extends ServiceVerticle implements TracedService {
+    @Override
+    public Future<String> traceId(TracingContext ctx) {
+      return Future.succeededFuture(ctx.getTraceId());
+    }
+
+    @Override
+    protected boolean tracingEnabled() {
+      return false;
+    }
+  }
+
+  @Before
+  public void setUp(TestContext ctx) {
+    sender = clusteredVertx(ctx);
+    receiver = clusteredVertx(ctx);
+  }
+
+  @After
+  public void tearDown(TestContext ctx) {
+    sender.close(ctx.asyncAssertSuccess());
+    receiver.close(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldPropagateTracingContextToOtherNode(TestContext ctx) {
+    Async async = ctx.async();
+
+    // given
+    TracingContext tracing = TracingContext.newSpan(JaegerTracing.noTracing, "operation");
+    TracedService client = VertxEndpointClient.make(sender, TracedService.class);
+
+    receiver.deployVerticle(new TracedVerticle(), ctx.asyncAssertSuccess(id -> {
+      // when
+      client.traceId(tracing).setHandler(ctx.asyncAssertSuccess(traceId -> {
+        // then
+        ctx.assertEquals(tracing.getTraceId(), traceId);
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldPublishConfigChangeToOtherNode(TestContext ctx) {
+    Async async = ctx.async();
+
+    // given
+    ConfigChange change = new ConfigChange(new JsonObject().put("x", 1), new JsonObject().put("x", 2));
+
+    VertxBus.consumePublished(receiver.eventBus(), "clustered-config-change", ConfigChange.class, result -> {
+      // then
+      ctx.assertEquals(change.getPreviousConfiguration(), result.getPreviousConfiguration());
+      ctx.assertEquals(change.getNewConfiguration(), result.getNewConfiguration());
+      async.complete();
+    }).completionHandler(ctx.asyncAssertSuccess(x ->
+      // when
+      VertxBus.publish(sender.eventBus(), "clustered-config-change", change)
+    ));
+  }
+
+  @Test
+  public void shouldStreamFromOtherNode(TestContext ctx) {
+    Async async = ctx.async();
+
+    // given
+    List<Integer> received = new ArrayList<>();
+    VertxBus.consumeStream(receiver.eventBus(), "clustered-stream", Integer.class, size -> new BusStreamTest.RangeStream(size, -1));
+
+    // when
+    sender.runOnContext(x -> {
+      ReadStream<Integer> stream = VertxBus.askStream(sender.eventBus(), "clustered-stream", new DeliveryOptions().setSendTimeout(5000), Integer.class, 4, 20);
+      stream.exceptionHandler(ctx::fail);
+      stream.endHandler(end -> {
+        // then
+        ctx.assertEquals(20, received.size());
+        ctx.assertEquals(19, received.get(19));
+        async.complete();
+      });
+      stream.handler(received::add);
+    });
+  }
+
+  private Vertx clusteredVertx(TestContext ctx) {
+    Async async = ctx.async();
+    Promise<Vertx> promise = Promise.promise();
+    VertxOptions opts = new VertxOptions()
+      .setClusterManager(new LocalClusterManager())
+      .setEventBusOptions(new EventBusOptions().setHost("localhost"));
+
+    Vertx.clusteredVertx(opts, ctx.asyncAssertSuccess(vertx -> {
+      VertxBus.registerClusteredPayloadCodec(vertx.eventBus());
+      promise.complete(vertx);
+      async.complete();
+    }));
+    async.awaitSuccess(30000);
+    return promise.future().result();
+  }
+}
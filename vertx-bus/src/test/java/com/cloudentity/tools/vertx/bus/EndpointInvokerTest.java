@@ -0,0 +1,75 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.Future;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class EndpointInvokerTest {
+
+  public static class Target {
+    public Future<String> none() {
+      return Future.succeededFuture("none");
+    }
+
+    public Future<String> two(String x, int y) {
+      return Future.succeededFuture(x + y);
+    }
+
+    public Future<String> seven(String a, String b, String c, String d, String e, String f, int g) {
+      return Future.succeededFuture(a + b + c + d + e + f + g);
+    }
+
+    public Future<String> failing() {
+      throw new IllegalStateException("failing");
+    }
+  }
+
+  Target target = new Target();
+
+  @Test
+  public void shouldInvokeMethodWithoutArguments() throws Throwable {
+    EndpointInvoker invoker = EndpointInvoker.compile(target, method("none"));
+
+    assertEquals("none", ((Future) invoker.invoke(Arrays.asList())).result());
+  }
+
+  @Test
+  public void shouldInvokeMethodWithPrimitiveArgument() throws Throwable {
+    EndpointInvoker invoker = EndpointInvoker.compile(target, method("two"));
+
+    assertEquals("x3", ((Future) invoker.invoke(Arrays.asList("x", 3))).result());
+  }
+
+  @Test
+  public void shouldInvokeMethodWithSpreadArguments() throws Throwable {
+    EndpointInvoker invoker = EndpointInvoker.compile(target, method("seven"));
+
+    assertEquals("abcdef7", ((Future) invoker.invoke(Arrays.asList("a", "b", "c", "d", "e", "f", 7))).result());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRethrowExceptionThrownByCompiledMethod() throws Throwable {
+    EndpointInvoker.compile(target, method("failing")).invoke(Arrays.asList());
+  }
+
+  @Test
+  public void shouldInvokeReflectively() throws Throwable {
+    EndpointInvoker invoker = EndpointInvoker.reflective(target, method("two"));
+
+    assertEquals("x3", ((Future) invoker.invoke(Arrays.asList("x", 3))).result());
+  }
+
+  @Test(expected = InvocationTargetException.class)
+  public void shouldWrapExceptionThrownByReflectiveMethod() throws Throwable {
+    EndpointInvoker.reflective(target, method("failing")).invoke(Arrays.asList());
+  }
+
+  private Method method(String name) {
+    return Arrays.stream(Target.class.getMethods()).filter(m -> m.getName().equals(name)).findAny().get();
+  }
+}
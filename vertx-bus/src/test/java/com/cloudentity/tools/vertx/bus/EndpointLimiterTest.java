@@ -0,0 +1,100 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@RunWith(VertxUnitRunner.class)
+public class EndpointLimiterTest {
+  Vertx vertx = Vertx.vertx();
+  static List<Future<String>> pending = new CopyOnWriteArrayList<>();
+
+  @Before
+  public void init() {
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    pending.clear();
+  }
+
+  interface LimitedService {
+    @VertxEndpoint(address = "limited-hold", maxInFlight = 1, maxQueued = 1)
+    Future<String> hold(String s);
+  }
+
+  public static class LimitedVerticle extends ServiceVerticle implements LimitedService {
+    @Override
+    public Future<String> hold(String s) {
+      Future<String> f = Future.future();
+      pending.add(f);
+      return f;
+    }
+
+    @Override
+    protected Optional<String> vertxServiceAddressPrefix() {
+      return Optional.empty();
+    }
+  }
+
+  @Test
+  public void shouldQueueAndRejectRequestsOverLimit(TestContext ctx) {
+    Async async = ctx.async();
+    LimitedService client = VertxEndpointClient.make(vertx, LimitedService.class);
+
+    vertx.deployVerticle(new LimitedVerticle(), ctx.asyncAssertSuccess(id -> {
+      Future<String> first = client.hold("a");
+      Future<String> second = client.hold("b");
+      client.hold("c").setHandler(ctx.asyncAssertFailure(ex -> {
+        ctx.assertEquals(EndpointLimiter.OVERLOADED_FAILURE_CODE, ((ReplyException) ex).failureCode());
+
+        EndpointLimiter limiter = EndpointLimiter.limiters(vertx.eventBus()).get("limited-hold").get(0);
+        ctx.assertEquals(1, limiter.inFlight());
+        ctx.assertEquals(1, limiter.queued());
+        ctx.assertEquals(1L, limiter.rejected());
+        ctx.assertEquals(1, pending.size());
+
+        pending.get(0).complete("a");
+      }));
+
+      first.setHandler(ctx.asyncAssertSuccess(a -> {
+        ctx.assertEquals("a", a);
+        vertx.setTimer(50, t -> {
+          ctx.assertEquals(2, pending.size());
+          pending.get(1).complete("b");
+        });
+      }));
+
+      second.setHandler(ctx.asyncAssertSuccess(b -> {
+        EndpointLimiter limiter = EndpointLimiter.limiters(vertx.eventBus()).get("limited-hold").get(0);
+        ctx.assertEquals(0, limiter.inFlight());
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldOverrideLimitsFromConfiguration(TestContext ctx) {
+    Async async = ctx.async();
+    List<ServiceClientFactory.VertxEndpointInterface> endpoints = ServiceClientFactory.getVertxEndpoints(LimitedService.class, Optional.of("config-"));
+    JsonObject limitsConfig = new JsonObject().put("hold", new JsonObject().put("maxInFlight", 5).put("maxQueued", 0));
+
+    vertx.runOnContext(x -> {
+      ServiceVerticleTools.registerConsumers(vertx, new LimitedVerticle(), endpoints, limitsConfig);
+
+      EndpointLimiter limiter = EndpointLimiter.limiters(vertx.eventBus()).get("config-limited-hold").get(0);
+      ctx.assertEquals(5, limiter.maxInFlight());
+      ctx.assertEquals(0, limiter.maxQueued());
+      async.complete();
+    });
+  }
+}
@@ -0,0 +1,119 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Optional;
+
+@RunWith(VertxUnitRunner.class)
+public class EndpointMetricsTest {
+  MeterRegistry registry = new SimpleMeterRegistry();
+  Vertx vertx;
+
+  @Before
+  public void init() {
+    vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(new MicrometerMetricsOptions().setEnabled(true).setMicrometerRegistry(registry)));
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+  }
+
+  @After
+  public void finish(TestContext ctx) {
+    vertx.close(ctx.asyncAssertSuccess());
+  }
+
+  interface MeasuredService {
+    @VertxEndpoint(address = "measured-echo")
+    Future<String> echo(String s);
+
+    @VertxEndpoint(address = "measured-never")
+    Future<String> never();
+
+    @VertxEndpoint(address = "measured-limited", maxInFlight = 1, maxQueued = 0)
+    Future<String> limited();
+  }
+
+  public static class MeasuredVerticle extends ServiceVerticle implements MeasuredService {
+    @Override
+    public Future<String> echo(String s) {
+      return Future.succeededFuture(s);
+    }
+
+    @Override
+    public Future<String> never() {
+      return Future.future();
+    }
+
+    @Override
+    public Future<String> limited() {
+      return Future.future();
+    }
+
+    @Override
+    protected Optional<String> vertxServiceAddressPrefix() {
+      return Optional.empty();
+    }
+  }
+
+  @Test
+  public void shouldRecordClientAndHandlerLatency(TestContext ctx) {
+    Async async = ctx.async();
+    MeasuredService client = VertxEndpointClient.make(vertx, MeasuredService.class);
+
+    vertx.deployVerticle(new MeasuredVerticle(), ctx.asyncAssertSuccess(id ->
+      client.echo("a").compose(x -> client.echo("b")).setHandler(ctx.asyncAssertSuccess(x -> {
+        Timer clientTime = registry.get("vertx.endpoint.client.time").tag("endpoint", "measured-echo").timer();
+        Timer handlerTime = registry.get("vertx.endpoint.handler.time").tag("endpoint", "measured-echo").timer();
+        ctx.assertEquals(2L, clientTime.count());
+        ctx.assertEquals(2L, handlerTime.count());
+        ctx.assertEquals(0.0, registry.get("vertx.endpoint.client.inflight").tag("endpoint", "measured-echo").gauge().value());
+        async.complete();
+      }))
+    ));
+  }
+
+  @Test
+  public void shouldCountTimeouts(TestContext ctx) {
+    Async async = ctx.async();
+    MeasuredService client = VertxEndpointClient.make(vertx, MeasuredService.class, Optional.empty(), new DeliveryOptions().setSendTimeout(50));
+
+    vertx.deployVerticle(new MeasuredVerticle(), ctx.asyncAssertSuccess(id ->
+      client.never().setHandler(ctx.asyncAssertFailure(ex -> {
+        ctx.assertEquals(1.0, registry.get("vertx.endpoint.client.timeouts").tag("endpoint", "measured-never").counter().count());
+        ctx.assertEquals(0.0, registry.get("vertx.endpoint.client.failures").tag("endpoint", "measured-never").counter().count());
+        ctx.assertEquals(1.0, registry.get("vertx.endpoint.handler.inflight").tag("endpoint", "measured-never").gauge().value());
+        async.complete();
+      }))
+    ));
+  }
+
+  @Test
+  public void shouldRegisterLimiterMeters(TestContext ctx) {
+    Async async = ctx.async();
+    MeasuredService client = VertxEndpointClient.make(vertx, MeasuredService.class);
+
+    vertx.deployVerticle(new MeasuredVerticle(), ctx.asyncAssertSuccess(id -> {
+      // when
+      client.limited();
+      client.limited().setHandler(ctx.asyncAssertFailure(ex -> {
+        // then
+        ctx.assertEquals(1.0, registry.get("vertx.endpoint.limiter.inflight").tag("endpoint", "measured-limited").gauge().value());
+        ctx.assertEquals(0.0, registry.get("vertx.endpoint.limiter.queued").tag("endpoint", "measured-limited").gauge().value());
+        ctx.assertEquals(1.0, registry.get("vertx.endpoint.limiter.rejected").tag("endpoint", "measured-limited").counter().count());
+        async.complete();
+      }));
+    }));
+  }
+}
@@ -0,0 +1,91 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@RunWith(VertxUnitRunner.class)
+public class LeastLoadedDispatchTest {
+  Vertx vertx = Vertx.vertx();
+  static Map<String, Call> calls = new ConcurrentHashMap<>();
+
+  static class Call {
+    final Object instance;
+    final Future<Object> response = Future.future();
+
+    Call(Object instance) {
+      this.instance = instance;
+    }
+  }
+
+  @Before
+  public void init() {
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    LocalServiceRegistry.setLeastLoadedEnabled(true);
+    calls.clear();
+  }
+
+  @After
+  public void finish() {
+    LocalServiceRegistry.setLeastLoadedEnabled(false);
+  }
+
+  interface HoldService {
+    @VertxEndpoint(address = "least-loaded-hold")
+    Future<Object> hold(String id);
+  }
+
+  public static class HoldVerticle extends ServiceVerticle implements HoldService {
+    @Override
+    public Future<Object> hold(String id) {
+      Call call = new Call(this);
+      calls.put(id, call);
+      return call.response;
+    }
+
+    @Override
+    protected Optional<String> vertxServiceAddressPrefix() {
+      return Optional.empty();
+    }
+  }
+
+  @Test
+  public void shouldSendRequestToInstanceWithFewestInFlightRequests(TestContext ctx) {
+    Async async = ctx.async();
+    HoldService client = VertxEndpointClient.make(vertx, HoldService.class);
+
+    vertx.deployVerticle(HoldVerticle.class.getName(), new DeploymentOptions().setInstances(2), ctx.asyncAssertSuccess(id -> {
+      client.hold("first");
+      Future<Object> second = client.hold("second");
+
+      vertx.setTimer(50, t -> {
+        ctx.assertEquals(2, calls.size());
+        ctx.assertTrue(calls.get("first").instance != calls.get("second").instance);
+
+        // when second instance is idle again
+        calls.get("second").response.complete("done");
+        second.setHandler(ctx.asyncAssertSuccess(x -> {
+          client.hold("third");
+
+          vertx.setTimer(50, t2 -> {
+            // then it gets next request, although round-robin would pick the busy first instance
+            ctx.assertEquals(3, calls.size());
+            ctx.assertTrue(calls.get("third").instance == calls.get("second").instance);
+            async.complete();
+          });
+        }));
+      });
+    }));
+  }
+}
@@ -0,0 +1,179 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.AsyncMap;
+import io.vertx.core.shareddata.Counter;
+import io.vertx.core.shareddata.Lock;
+import io.vertx.core.spi.cluster.AsyncMultiMap;
+import io.vertx.core.spi.cluster.ChoosableIterable;
+import io.vertx.core.spi.cluster.ClusterManager;
+import io.vertx.core.spi.cluster.NodeListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cluster of Vertx instances in this JVM, so clustered event bus can be tested without cluster manager dependency.
+ * Event bus messages are sent between the instances over TCP, as between cluster nodes. Shared data is not supported.
+ */
+public class LocalClusterManager implements ClusterManager {
+  private static final Map<String, LocalClusterManager> nodes = new ConcurrentHashMap<>();
+  private static final Map<String, Map<Object, List<Object>>> multiMaps = new ConcurrentHashMap<>();
+  private static final Map<String, Map> syncMaps = new ConcurrentHashMap<>();
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final List<NodeListener> listeners = new CopyOnWriteArrayList<>();
+  private Vertx vertx;
+  private volatile boolean active;
+
+  @Override
+  public void setVertx(Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  @Override
+  public <K, V> void getAsyncMultiMap(String name, Handler<AsyncResult<AsyncMultiMap<K, V>>> resultHandler) {
+    Map map = multiMaps.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+    complete(() -> new LocalMultiMap<K, V>(map), resultHandler);
+  }
+
+  @Override
+  public <K, V> void getAsyncMap(String name, Handler<AsyncResult<AsyncMap<K, V>>> resultHandler) {
+    resultHandler.handle(Future.failedFuture(new UnsupportedOperationException()));
+  }
+
+  @Override
+  public <K, V> Map<K, V> getSyncMap(String name) {
+    return syncMaps.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+  }
+
+  @Override
+  public void getLockWithTimeout(String name, long timeout, Handler<AsyncResult<Lock>> resultHandler) {
+    resultHandler.handle(Future.failedFuture(new UnsupportedOperationException()));
+  }
+
+  @Override
+  public void getCounter(String name, Handler<AsyncResult<Counter>> resultHandler) {
+    resultHandler.handle(Future.failedFuture(new UnsupportedOperationException()));
+  }
+
+  @Override
+  public String getNodeID() {
+    return nodeId;
+  }
+
+  @Override
+  public List<String> getNodes() {
+    return new ArrayList<>(nodes.keySet());
+  }
+
+  @Override
+  public void nodeListener(NodeListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void join(Handler<AsyncResult<Void>> resultHandler) {
+    complete(() -> {
+      nodes.values().forEach(node -> node.listeners.forEach(l -> l.nodeAdded(nodeId)));
+      nodes.put(nodeId, this);
+      active = true;
+      return null;
+    }, resultHandler);
+  }
+
+  @Override
+  public void leave(Handler<AsyncResult<Void>> resultHandler) {
+    complete(() -> {
+      active = false;
+      nodes.remove(nodeId);
+      nodes.values().forEach(node -> node.listeners.forEach(l -> l.nodeLeft(nodeId)));
+      return null;
+    }, resultHandler);
+  }
+
+  @Override
+  public boolean isActive() {
+    return active;
+  }
+
+  private <T> void complete(Supplier<T> action, Handler<AsyncResult<T>> resultHandler) {
+    vertx.executeBlocking(promise -> promise.complete(action.get()), false, resultHandler);
+  }
+
+  /**
+   * View of multimap shared by all nodes, completing on this node's Vertx. Changes are applied before the method returns, so a consumer is visible to other nodes as soon as it is registered.
+   */
+  private class LocalMultiMap<K, V> implements AsyncMultiMap<K, V> {
+    private final Map<K, List<V>> map;
+
+    LocalMultiMap(Map<K, List<V>> map) {
+      this.map = map;
+    }
+
+    @Override
+    public void add(K k, V v, Handler<AsyncResult<Void>> completionHandler) {
+      map.computeIfAbsent(k, x -> new CopyOnWriteArrayList<>()).add(v);
+      complete(() -> null, completionHandler);
+    }
+
+    @Override
+    public void get(K k, Handler<AsyncResult<ChoosableIterable<V>>> resultHandler) {
+      List<V> values = new ArrayList<>(map.getOrDefault(k, new ArrayList<>()));
+      complete(() -> new LocalChoosableIterable<>(values), resultHandler);
+    }
+
+    @Override
+    public void remove(K k, V v, Handler<AsyncResult<Boolean>> completionHandler) {
+      List<V> values = map.get(k);
+      boolean removed = values != null && values.remove(v);
+      complete(() -> removed, completionHandler);
+    }
+
+    @Override
+    public void removeAllForValue(V v, Handler<AsyncResult<Void>> completionHandler) {
+      removeAllMatching(v::equals, completionHandler);
+    }
+
+    @Override
+    public void removeAllMatching(Predicate<V> p, Handler<AsyncResult<Void>> completionHandler) {
+      map.values().forEach(values -> values.removeIf(p));
+      complete(() -> null, completionHandler);
+    }
+  }
+
+  private static class LocalChoosableIterable<V> implements ChoosableIterable<V> {
+    private static final AtomicInteger counter = new AtomicInteger();
+    private final List<V> values;
+
+    LocalChoosableIterable(List<V> values) {
+      this.values = values;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return values.isEmpty();
+    }
+
+    @Override
+    public V choose() {
+      return values.isEmpty() ? null : values.get(Math.floorMod(counter.getAndIncrement(), values.size()));
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+      return values.iterator();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(VertxUnitRunner.class)
+public class LocalServiceRegistryTest {
+  Vertx vertx = Vertx.vertx();
+  AtomicInteger sentOverBus = new AtomicInteger();
+
+  @Before
+  public void init() {
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    vertx.eventBus().addOutboundInterceptor(ctx -> {
+      if (ctx.message().address().startsWith("local-")) sentOverBus.incrementAndGet();
+      ctx.next();
+    });
+    LocalServiceRegistry.setEnabled(true);
+  }
+
+  @After
+  public void finish() {
+    LocalServiceRegistry.setEnabled(false);
+  }
+
+  interface LocalService {
+    @VertxEndpoint(address = "local-context")
+    Future<Context> context();
+
+    @VertxEndpoint(address = "local-never")
+    Future<String> never();
+
+    @VertxEndpoint(address = "local-fail")
+    Future<String> fail();
+  }
+
+  public static class LocalVerticle extends ServiceVerticle implements LocalService {
+    @Override
+    public Future<Context> context() {
+      return Future.succeededFuture(Vertx.currentContext());
+    }
+
+    @Override
+    public Future<String> never() {
+      return Future.future();
+    }
+
+    @Override
+    public Future<String> fail() {
+      throw new IllegalStateException("fail");
+    }
+
+    @Override
+    protected Optional<String> vertxServiceAddressPrefix() {
+      return Optional.empty();
+    }
+  }
+
+  @Test
+  public void shouldCallCoLocatedServiceVerticleOnItsContextWithoutEventBus(TestContext ctx) {
+    Async async = ctx.async();
+    LocalService client = VertxEndpointClient.make(vertx, LocalService.class);
+
+    vertx.deployVerticle(new LocalVerticle(), ctx.asyncAssertSuccess(id -> {
+      Context callerCtx = vertx.getOrCreateContext();
+      callerCtx.runOnContext(x ->
+        client.context().setHandler(ctx.asyncAssertSuccess(verticleCtx -> {
+          ctx.assertTrue(verticleCtx != callerCtx);
+          ctx.assertTrue(Vertx.currentContext() == callerCtx);
+          ctx.assertEquals(0, sentOverBus.get());
+          async.complete();
+        }))
+      );
+    }));
+  }
+
+  @Test
+  public void shouldNotRegisterServiceVerticleWhenDispatchDisabled(TestContext ctx) {
+    // given
+    LocalServiceRegistry.setEnabled(false);
+
+    // when
+    vertx.deployVerticle(new LocalVerticle(), ctx.asyncAssertSuccess(id ->
+      // then
+      ctx.assertFalse(LocalServiceRegistry.endpoints(vertx.eventBus()).containsKey("local-context"))
+    ));
+  }
+
+  @Test
+  public void shouldFailWithTimeout(TestContext ctx) {
+    Async async = ctx.async();
+    LocalService client = VertxEndpointClient.make(vertx, LocalService.class, Optional.empty(), new DeliveryOptions().setSendTimeout(100));
+
+    vertx.deployVerticle(new LocalVerticle(), ctx.asyncAssertSuccess(id -> {
+      client.never().setHandler(ctx.asyncAssertFailure(ex -> {
+        ctx.assertEquals(ReplyFailure.TIMEOUT, ((ReplyException) ex).failureType());
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldFailWithTimeoutOnCallerContext(TestContext ctx) {
+    Async async = ctx.async();
+    LocalService client = VertxEndpointClient.make(vertx, LocalService.class, Optional.empty(), new DeliveryOptions().setSendTimeout(100));
+
+    vertx.deployVerticle(new LocalVerticle(), ctx.asyncAssertSuccess(id -> {
+      Context callerCtx = vertx.getOrCreateContext();
+      callerCtx.runOnContext(x ->
+        client.never().setHandler(ctx.asyncAssertFailure(ex -> {
+          ctx.assertEquals(ReplyFailure.TIMEOUT, ((ReplyException) ex).failureType());
+          ctx.assertTrue(Vertx.currentContext() == callerCtx);
+          async.complete();
+        }))
+      );
+    }));
+  }
+
+  @Test
+  public void shouldFailWhenImplementationThrowsException(TestContext ctx) {
+    Async async = ctx.async();
+    LocalService client = VertxEndpointClient.make(vertx, LocalService.class);
+
+    vertx.deployVerticle(new LocalVerticle(), ctx.asyncAssertSuccess(id -> {
+      client.fail().setHandler(ctx.asyncAssertFailure(ex -> {
+        ctx.assertEquals("fail", ex.getMessage());
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldFallBackToEventBusWhenServiceVerticleUndeployed(TestContext ctx) {
+    Async async = ctx.async();
+    LocalService client = VertxEndpointClient.make(vertx, LocalService.class);
+
+    vertx.deployVerticle(new LocalVerticle(), ctx.asyncAssertSuccess(id -> {
+      vertx.undeploy(id, ctx.asyncAssertSuccess(x -> {
+        client.context().setHandler(ctx.asyncAssertFailure(ex -> {
+          ctx.assertEquals(ReplyFailure.NO_HANDLERS, ((ReplyException) ex).failureType());
+          ctx.assertEquals(1, sentOverBus.get());
+          async.complete();
+        }));
+      }));
+    }));
+  }
+}
@@ -0,0 +1,150 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+@RunWith(VertxUnitRunner.class)
+public class RequestBatcherTest {
+  Vertx vertx = Vertx.vertx();
+  static List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+  @Before
+  public void init() {
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    batchSizes.clear();
+  }
+
+  interface BatchService {
+    @VertxEndpoint(address = "batch-uppercase", batch = 3, batchWindowMs = 50)
+    Future<String> toUpperCase(String s);
+
+    @VertxEndpoint(address = "batch-length", batch = 10)
+    Future<Integer> length(String s);
+  }
+
+  public static class BatchVerticle extends ServiceVerticle implements BatchService {
+    @Override
+    public Future<String> toUpperCase(String s) {
+      throw new IllegalStateException("should be called with batch");
+    }
+
+    public Future<List<String>> toUpperCase(List<String> batch) {
+      batchSizes.add(batch.size());
+      return Future.succeededFuture(batch.stream().map(String::toUpperCase).collect(Collectors.toList()));
+    }
+
+    @Override
+    public Future<Integer> length(String s) {
+      if (s.isEmpty()) throw new IllegalArgumentException("empty");
+      return Future.succeededFuture(s.length());
+    }
+
+    @Override
+    protected Optional<String> vertxServiceAddressPrefix() {
+      return Optional.empty();
+    }
+  }
+
+  @Test
+  public void shouldCoalesceCallsIntoBatchesOfMaxSize(TestContext ctx) {
+    Async async = ctx.async();
+    BatchService client = VertxEndpointClient.make(vertx, BatchService.class);
+
+    vertx.deployVerticle(new BatchVerticle(), ctx.asyncAssertSuccess(id ->
+      vertx.runOnContext(x -> {
+        List<Future> responses = Arrays.asList("a", "b", "c", "d").stream().map(client::toUpperCase).collect(Collectors.toList());
+        CompositeFuture.all(responses).setHandler(ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(Arrays.asList("A", "B", "C", "D"), result.list());
+          ctx.assertEquals(Arrays.asList(3, 1), batchSizes);
+          async.complete();
+        }));
+      })
+    ));
+  }
+
+  @Test
+  public void shouldCallSingleMethodForEachElementIfNoBatchMethod(TestContext ctx) {
+    Async async = ctx.async();
+    BatchService client = VertxEndpointClient.make(vertx, BatchService.class);
+
+    vertx.deployVerticle(new BatchVerticle(), ctx.asyncAssertSuccess(id ->
+      vertx.runOnContext(x -> {
+        List<Future> responses = Arrays.asList("a", "bb", "ccc").stream().map(client::length).collect(Collectors.toList());
+        CompositeFuture.all(responses).setHandler(ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(Arrays.asList(1, 2, 3), result.list());
+          async.complete();
+        }));
+      })
+    ));
+  }
+
+  @Test
+  public void shouldFailOnlyElementThatFailedIfNoBatchMethod(TestContext ctx) {
+    Async async = ctx.async();
+    BatchService client = VertxEndpointClient.make(vertx, BatchService.class);
+
+    vertx.deployVerticle(new BatchVerticle(), ctx.asyncAssertSuccess(id ->
+      vertx.runOnContext(x -> {
+        // when
+        List<Future> responses = Arrays.asList("a", "", "ccc").stream().map(client::length).collect(Collectors.toList());
+
+        // then
+        CompositeFuture.join(responses).setHandler(result -> {
+          ctx.assertEquals(1, responses.get(0).result());
+          ctx.assertEquals("empty", responses.get(1).cause().getMessage());
+          ctx.assertEquals(3, responses.get(2).result());
+          async.complete();
+        });
+      })
+    ));
+  }
+
+  @Test
+  public void shouldFailAllRequestsOfFailedBatch(TestContext ctx) {
+    Async async = ctx.async(2);
+    String addr = UUID.randomUUID().toString();
+    VertxBus.<String, String>consumeBatched(vertx.eventBus(), addr, String.class, batch -> Future.failedFuture("batch failed"));
+    RequestBatcher<String, String> batcher = new RequestBatcher<>(10, 10,
+      batch -> VertxBus.askBatched(vertx.eventBus(), addr, new DeliveryOptions(), String.class, batch));
+
+    vertx.runOnContext(x -> {
+      batcher.submit("a").setHandler(ctx.asyncAssertFailure(ex -> async.countDown()));
+      batcher.submit("b").setHandler(ctx.asyncAssertFailure(ex -> async.countDown()));
+    });
+  }
+
+  @Test
+  public void shouldFailBatchWhenResponseSizeDoesNotMatch(TestContext ctx) {
+    Async async = ctx.async();
+    String addr = UUID.randomUUID().toString();
+    VertxBus.<String, String>consumeBatched(vertx.eventBus(), addr, String.class, batch -> Future.succeededFuture(Arrays.asList("x")));
+
+    VertxBus.askBatched(vertx.eventBus(), addr, new DeliveryOptions(), String.class, Arrays.asList("a", "b"))
+      .setHandler(ctx.asyncAssertFailure(ex -> async.complete()));
+  }
+
+  interface InvalidBatchService {
+    @VertxEndpoint(batch = 10)
+    Future<String> get(String a, String b);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRejectBatchEndpointWithManyParameters() {
+    VertxEndpointClient.make(vertx, InvalidBatchService.class);
+  }
+}
@@ -2,6 +2,7 @@ package com.cloudentity.tools.vertx.bus;
 
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -100,4 +101,30 @@ public class ServiceClientFactoryTest {
   public void makeShouldThrowExceptionWhenSomeInterfaceMethodsAreNotVertxEndpoints() {
     VertxEndpointClient.make(vertx, NonVertxEndpointService.class);
   }
+
+  @Test
+  public void makeCachedShouldReturnSameClientForSameArguments(TestContext ctx) {
+    MyService client = VertxEndpointClient.makeCached(vertx, MyService.class, Optional.of("a"), new DeliveryOptions().setSendTimeout(100));
+
+    ctx.assertTrue(client == VertxEndpointClient.makeCached(vertx, MyService.class, Optional.of("a"), new DeliveryOptions().setSendTimeout(100)));
+    ctx.assertFalse(client == VertxEndpointClient.makeCached(vertx, MyService.class, Optional.of("b"), new DeliveryOptions().setSendTimeout(100)));
+    ctx.assertFalse(client == VertxEndpointClient.makeCached(vertx, MyService.class, Optional.of("a"), new DeliveryOptions().setSendTimeout(200)));
+
+    Vertx otherVertx = Vertx.vertx();
+    ctx.assertFalse(client == VertxEndpointClient.makeCached(otherVertx, MyService.class, Optional.of("a"), new DeliveryOptions().setSendTimeout(100)));
+    otherVertx.close(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void makeCachedShouldDropClientsWhenVertxIsClosed(TestContext ctx) {
+    // given
+    Vertx otherVertx = Vertx.vertx();
+    MyService client = VertxEndpointClient.makeCached(otherVertx, MyService.class);
+
+    // when
+    otherVertx.close(ctx.asyncAssertSuccess(x ->
+      // then
+      ctx.assertFalse(client == VertxEndpointClient.makeCached(otherVertx, MyService.class))
+    ));
+  }
 }
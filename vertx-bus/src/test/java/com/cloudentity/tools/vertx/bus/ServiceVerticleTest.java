@@ -20,6 +20,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
 
 @RunWith(VertxUnitRunner.class)
 public class ServiceVerticleTest {
@@ -523,8 +525,17 @@ public class ServiceVerticleTest {
   static class MyVerticleSelfConfChangeListener extends ServiceVerticle implements ConfListener {
     public static final String CONFIG_PATH = "my-verticle";
 
+    String configPath;
     ConfigChanged changed;
 
+    public MyVerticleSelfConfChangeListener(String configPath) {
+      this.configPath = configPath;
+    }
+
+    public MyVerticleSelfConfChangeListener() {
+      this(CONFIG_PATH);
+    }
+
     @Override
     public void initService() {
       registerSelfConfChangeListener(x -> changed = x);
@@ -532,7 +543,7 @@ public class ServiceVerticleTest {
 
     @Override
     public String configPath() {
-      return CONFIG_PATH;
+      return configPath;
     }
 
     @Override
@@ -543,11 +554,22 @@ public class ServiceVerticleTest {
 
   @Test
   public void shouldReceiveNotificationOnSelfConfChangeWhenRegistered(TestContext ctx) {
+    testShouldReceiveNotificationOnSelfConfChange(ctx, MyVerticleSelfConfChangeListener.CONFIG_PATH,
+      changed -> new JsonObject().put(MyVerticleSelfConfChangeListener.CONFIG_PATH, new JsonObject().put("changed", changed)));
+  }
+
+  @Test
+  public void shouldReceiveNotificationOnSelfConfChangeAtPathWithDottedKey(TestContext ctx) {
+    testShouldReceiveNotificationOnSelfConfChange(ctx, "parent.key\\.with\\.dot.",
+      changed -> new JsonObject().put("parent", new JsonObject().put("key.with.dot", new JsonObject().put("changed", changed))));
+  }
+
+  private void testShouldReceiveNotificationOnSelfConfChange(TestContext ctx, String configPath, Function<Integer, JsonObject> globalConf) {
     VertxBus.registerPayloadCodec(vertx.eventBus());
 
-    JsonObject changedGlobalConf1 = new JsonObject().put(MyVerticleSelfConfChangeListener.CONFIG_PATH, new JsonObject().put("changed", 1));
-    JsonObject changedGlobalConf2 = new JsonObject().put(MyVerticleSelfConfChangeListener.CONFIG_PATH, new JsonObject().put("changed", 2));
-    String confStoreAddress = "test-conf-address";
+    JsonObject changedGlobalConf1 = globalConf.apply(1);
+    JsonObject changedGlobalConf2 = globalConf.apply(2);
+    String confStoreAddress = "test-conf-address-" + UUID.randomUUID();
 
     ConfigRetrieverOptions opts = new ConfigRetrieverOptions();
     opts.setScanPeriod(20).addStore(new ConfigStoreOptions().setType("event-bus").setConfig(new JsonObject().put("address", confStoreAddress)));
@@ -555,7 +577,7 @@ public class ServiceVerticleTest {
     ConfListener confListener = VertxEndpointClient.make(vertx, ConfListener.class);
 
     VertxDeploy.deploy(vertx, new ConfVerticle(ConfigRetriever.create(vertx, opts))) // deploy ConfVerticle
-      .compose(x -> VertxDeploy.deploy(vertx, new MyVerticleSelfConfChangeListener())) // deploy ServiceVerticle
+      .compose(x -> VertxDeploy.deploy(vertx, new MyVerticleSelfConfChangeListener(configPath))) // deploy ServiceVerticle
       .map(x -> vertx.eventBus().publish(confStoreAddress, changedGlobalConf1)) // change configuration
       .compose(x -> wait(vertx, 100)) // wait for configuration to be propagated
       .compose(x -> confListener.changedConfig()) // get changed configuration from ServiceVerticle
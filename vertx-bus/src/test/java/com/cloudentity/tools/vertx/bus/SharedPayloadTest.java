@@ -0,0 +1,85 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ReadOnlyBufferException;
+import java.util.UUID;
+
+@RunWith(VertxUnitRunner.class)
+public class SharedPayloadTest {
+  Vertx vertx = Vertx.vertx();
+
+  @Test
+  public void shouldShareBufferWithoutCopying(TestContext ctx) {
+    Async async = ctx.async();
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+
+    // given
+    Buffer buffer = Buffer.buffer("payload");
+    SharedPayload<Buffer> payload = SharedPayload.of(buffer);
+    String addr = UUID.randomUUID().toString();
+    VertxBus.consume(vertx.eventBus(), addr, SharedPayload.class, p -> Future.succeededFuture(p));
+
+    // when
+    VertxBus.ask(vertx.eventBus(), addr, SharedPayload.class, payload).setHandler(ctx.asyncAssertSuccess(response -> {
+      // then
+      ctx.assertTrue(response == payload);
+      ctx.assertEquals("payload", response.value().toString());
+      try {
+        ((Buffer) response.value()).setByte(0, (byte) 'P');
+        ctx.fail("read-only buffer modified");
+      } catch (ReadOnlyBufferException ex) {
+        async.complete();
+      }
+    }));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void shouldRejectModificationOfSharedJson() {
+    SharedPayload.of(new JsonObject().put("x", new JsonObject())).value().getJsonObject("x").put("y", 1);
+  }
+
+  /**
+   * Allocation benchmark: sharing a payload allocates constant number of bytes, while defensive copy allocates its size.
+   */
+  @Test
+  public void shouldNotAllocateProportionallyToPayloadSize() {
+    Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+    long threadId = Thread.currentThread().getId();
+
+    for (int size : new int[] { 1024, 64 * 1024, 1024 * 1024 }) {
+      Buffer buffer = Buffer.buffer(new byte[size]);
+      // warm-up
+      for (int i = 0; i < 1000; i++) {
+        SharedPayload.of(buffer);
+      }
+
+      long before = threads.getThreadAllocatedBytes(threadId);
+      SharedPayload<Buffer> shared = SharedPayload.of(buffer);
+      long sharedBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+      before = threads.getThreadAllocatedBytes(threadId);
+      Buffer copy = buffer.copy();
+      long copiedBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+      Assert.assertEquals(size, shared.value().length());
+      Assert.assertEquals(size, copy.length());
+      Assert.assertTrue("shared " + size + "B payload allocated " + sharedBytes + "B", sharedBytes < 1024);
+      Assert.assertTrue("copied " + size + "B payload allocated " + copiedBytes + "B", copiedBytes >= size);
+    }
+  }
+}
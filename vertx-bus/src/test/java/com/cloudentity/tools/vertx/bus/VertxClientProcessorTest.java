@@ -0,0 +1,111 @@
+package com.cloudentity.tools.vertx.bus;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+@RunWith(VertxUnitRunner.class)
+public class VertxClientProcessorTest {
+  Vertx vertx = Vertx.vertx();
+
+  String echoService =
+    "package generated;\n" +
+    "import io.vertx.core.Future;\n" +
+    "import com.cloudentity.tools.vertx.bus.*;\n" +
+    "@GenerateVertxClient\n" +
+    "public interface EchoService {\n" +
+    "  @VertxEndpoint(address = \"generated-echo\")\n" +
+    "  Future<String> echo(String x, int times);\n" +
+    "  @VertxEndpoint(address = \"generated-notify\")\n" +
+    "  void notify(String... xs);\n" +
+    "  @VertxEndpoint(address = \"generated-range\")\n" +
+    "  io.vertx.core.streams.ReadStream<Integer> range(int n);\n" +
+    "}\n";
+
+  @Before
+  public void init() {
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+  }
+
+  @Test
+  public void shouldUseGeneratedClient(TestContext ctx) throws Exception {
+    Async async = ctx.async();
+
+    // given
+    Class<?> echoServiceClass = compile("generated.EchoService", echoService);
+
+    VertxBus.consume(vertx.eventBus(), "prefix:generated-echo", ServiceRequest.class, request -> {
+      String x = (String) request.values.get(0);
+      int times = (Integer) request.values.get(1);
+      return Future.succeededFuture(new ServiceResponse(new String(new char[times]).replace("\0", x)));
+    });
+
+    // when
+    Object client = VertxEndpointClient.make(vertx, echoServiceClass, Optional.of("prefix:"));
+    Future<String> response = (Future<String>) echoServiceClass.getMethod("echo", String.class, int.class).invoke(client, "x", 3);
+
+    // then
+    ctx.assertFalse(Proxy.isProxyClass(client.getClass()));
+    ctx.assertEquals("VertxClient_EchoService", client.getClass().getSimpleName());
+    response.setHandler(result -> {
+      ctx.assertTrue(result.succeeded());
+      ctx.assertEquals("xxx", result.result());
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldPublishWithGeneratedClient(TestContext ctx) throws Exception {
+    Async async = ctx.async();
+
+    // given
+    Class<?> echoServiceClass = compile("generated.EchoService", echoService);
+
+    VertxBus.consumePublished(vertx.eventBus(), "generated-notify", ServiceRequest.class, request -> {
+      ctx.assertEquals(1, request.values.size());
+      ctx.assertEquals(2, ((String[]) request.values.get(0)).length);
+      async.complete();
+    });
+
+    // when
+    Object client = VertxEndpointClient.make(vertx, echoServiceClass);
+    echoServiceClass.getMethod("notify", String[].class).invoke(client, (Object) new String[] {"a", "b"});
+  }
+
+  private Class<?> compile(String className, String source) throws Exception {
+    Path dir = Files.createTempDirectory("vertx-client-processor");
+    Path sourceFile = dir.resolve(className.replace('.', File.separatorChar) + ".java");
+    Files.createDirectories(sourceFile.getParent());
+    Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    int result = compiler.run(null, null, null,
+      "-classpath", System.getProperty("java.class.path"),
+      "-processor", VertxClientProcessor.class.getName(),
+      "-d", dir.toString(),
+      "-s", dir.toString(),
+      sourceFile.toString());
+    if (result != 0) {
+      throw new IllegalStateException("Could not compile " + className);
+    }
+
+    ClassLoader loader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, getClass().getClassLoader());
+    return loader.loadClass(className);
+  }
+}
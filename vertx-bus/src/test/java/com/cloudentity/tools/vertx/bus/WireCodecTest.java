@@ -0,0 +1,160 @@
+package com.cloudentity.tools.vertx.bus;
+
+import com.cloudentity.tools.vertx.tracing.TracingContext;
+import com.cloudentity.tools.vertx.tracing.internals.JaegerTracing;
+import io.vertx.config.ConfigChange;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+public class WireCodecTest {
+  private static final Logger log = LoggerFactory.getLogger(WireCodecTest.class);
+
+  WireCodec<BusPayload> codec = new WireCodec<>(BusPayload.class, new DefaultWireSerializer());
+
+  public static class Pojo {
+    public String name;
+    public int count;
+
+    public Pojo() {
+    }
+
+    public Pojo(String name, int count) {
+      this.name = name;
+      this.count = count;
+    }
+  }
+
+  @Test
+  public void shouldEncodeAndDecodeServiceRequest() {
+    // given
+    WireTypes.register(Pojo.class);
+    List<Object> values = Arrays.asList(null, "text", 1, 2L, 3.0, 4.0f, true, new byte[] { 1, 2 }, Buffer.buffer("buffer"),
+      new JsonObject().put("x", 1), new JsonArray().add("y"), Arrays.asList("a", 1), Optional.of("opt"), new Pojo("pojo", 5));
+
+    // when
+    BusPayload decoded = roundTrip(new BusPayload(new ServiceRequest(values)));
+
+    // then
+    List<Object> result = ((ServiceRequest) decoded.value).values;
+    Assert.assertEquals(values.size(), result.size());
+    Assert.assertNull(result.get(0));
+    Assert.assertEquals(values.subList(1, 7), result.subList(1, 7));
+    Assert.assertArrayEquals(new byte[] { 1, 2 }, (byte[]) result.get(7));
+    Assert.assertEquals(values.subList(8, 13), result.subList(8, 13));
+    Assert.assertEquals("pojo", ((Pojo) result.get(13)).name);
+    Assert.assertEquals(5, ((Pojo) result.get(13)).count);
+  }
+
+  public static class UnregisteredPojo {
+    public String name;
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRejectUnregisteredPojo() {
+    roundTrip(new BusPayload(new ServiceRequest(Arrays.asList(new UnregisteredPojo()))));
+  }
+
+  interface PojoService {
+    @VertxEndpoint(address = "pojo-service")
+    io.vertx.core.Future<List<Pojo>> get(Pojo[] pojos);
+  }
+
+  @Test
+  public void shouldRegisterEndpointTypes() {
+    // when
+    ServiceClientFactory.getVertxEndpoints(PojoService.class, Optional.empty());
+
+    // then
+    Assert.assertEquals(Pojo.class, WireTypes.get(Pojo.class.getName()));
+    Assert.assertEquals(Pojo[].class, WireTypes.get(Pojo[].class.getName()));
+  }
+
+  @Test
+  public void shouldEncodeAndDecodeFailedPayload() {
+    // when
+    BusPayload decoded = roundTrip(BusPayload.failed(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, 503, "overloaded")));
+    BusPayload decodedOther = roundTrip(BusPayload.failed(new IllegalStateException("failed")));
+
+    // then
+    ReplyException ex = (ReplyException) decoded.ex;
+    Assert.assertEquals(ReplyFailure.RECIPIENT_FAILURE, ex.failureType());
+    Assert.assertEquals(503, ex.failureCode());
+    Assert.assertEquals("overloaded", ex.getMessage());
+    Assert.assertEquals("java.lang.IllegalStateException: failed", decodedOther.ex.getMessage());
+  }
+
+  @Test
+  public void shouldEncodeAndDecodeTracingContext() {
+    // given
+    TracingContext ctx = TracingContext.newSpan(JaegerTracing.noTracing, "operation");
+
+    // when
+    BusPayload decoded = roundTrip(new BusPayload(new ServiceRequest(Arrays.asList(ctx))));
+
+    // then
+    TracingContext result = (TracingContext) ((ServiceRequest) decoded.value).values.get(0);
+    Assert.assertEquals(ctx.getTraceId(), result.getTraceId());
+    Assert.assertEquals(ctx.getSpanContextMap().print(), result.getSpanContextMap().print());
+  }
+
+  @Test
+  public void shouldEncodeAndDecodeConfigChange() {
+    // given
+    ConfigChange change = new ConfigChange(new JsonObject().put("x", 1), new JsonObject().put("x", 2));
+
+    // when
+    BusPayload decoded = roundTrip(new BusPayload(change));
+
+    // then
+    ConfigChange result = (ConfigChange) decoded.value;
+    Assert.assertEquals(change.getPreviousConfiguration(), result.getPreviousConfiguration());
+    Assert.assertEquals(change.getNewConfiguration(), result.getNewConfiguration());
+  }
+
+  @Test
+  public void shouldDecodeFromGivenPosition() {
+    // given
+    Buffer buffer = Buffer.buffer("header");
+    codec.encodeToWire(buffer, new BusPayload(new ServiceResponse(SharedPayload.of(new JsonObject().put("x", 1)))));
+
+    // when
+    BusPayload decoded = codec.decodeFromWire(6, buffer);
+
+    // then
+    SharedPayload<JsonObject> value = (SharedPayload<JsonObject>) ((ServiceResponse) decoded.value).value;
+    Assert.assertEquals(new JsonObject().put("x", 1), value.value());
+  }
+
+  /**
+   * Throughput benchmark of encoding and decoding typical ServiceRequest.
+   */
+  @Test
+  public void measureThroughput() {
+    BusPayload payload = new BusPayload(new ServiceRequest(Arrays.asList("user-id", 10, new JsonObject().put("scope", "read"))));
+    int n = 200000;
+
+    for (int i = 0; i < n; i++) roundTrip(payload);
+    long start = System.nanoTime();
+    for (int i = 0; i < n; i++) roundTrip(payload);
+    long elapsed = System.nanoTime() - start;
+
+    log.info("WireCodec encode+decode throughput: {} msg/s", n * 1_000_000_000L / Math.max(1, elapsed));
+  }
+
+  private BusPayload roundTrip(BusPayload payload) {
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, payload);
+    return codec.decodeFromWire(0, buffer);
+  }
+}
@@ -92,11 +92,81 @@ public class ConfBuilderTest {
         .put("secret", new JsonObject().put("nested", "***"))
         .put("ref", "***");
 
-    assertEquals(expectedResolvedWithMask, result.get().resolvedConfigWithMask);
+    assertEquals(expectedResolvedWithMask, result.get().mask.apply(result.get().resolvedConfig));
     assertEquals(expectedResolved, result.get().resolvedConfig);
 
   }
 
+  @Test
+  public void shouldMaskSecretPathsAndTransitiveReferences() {
+    // given
+    JsonObject config =
+      new JsonObject()
+        .put("secret", new JsonObject().put("password", "p4ss").put("user", "admin"))
+        .put("db", new JsonObject().put("password", "$ref:secret.password").put("host", "localhost"))
+        .put("url", "http://${secret.user}@localhost")
+        .put("urls", new JsonArray().add("$ref:db.password"))
+        .put("plain", "$ref:db.host")
+        .put("_mask", new JsonObject().put("secret", true));
+
+    // when
+    ConfBuilder.Config result = ConfBuilder.buildFinalConfig(config).get();
+
+    // then
+    JsonObject expectedMasked =
+      new JsonObject()
+        .put("secret", new JsonObject().put("password", "***").put("user", "***"))
+        .put("db", new JsonObject().put("password", "***").put("host", "localhost"))
+        .put("url", "***")
+        .put("urls", new JsonArray().add("***"))
+        .put("plain", "localhost");
+
+    assertEquals(expectedMasked, result.mask.apply(result.resolvedConfig));
+    assertEquals(expectedMasked, new JsonObject(result.mask.encode(result.resolvedConfig)));
+    assertEquals("p4ss", result.resolvedConfig.getJsonObject("db").getString("password"));
+  }
+
+  @Test
+  public void shouldKeepBroaderSecretPathWhenMasksOfStoresAreMerged() {
+    // given
+    JsonObject storeA =
+      new JsonObject()
+        .put("db", new JsonObject().put("user", "admin").put("password", "p4ss"))
+        .put("_maskPaths", new JsonObject().put("db", true))
+        .put("_mask", new JsonObject().put("db", true));
+    JsonObject storeB =
+      new JsonObject()
+        .put("_maskPaths", new JsonObject().put("db.password", true))
+        .put("_mask", new JsonObject().put("db", new JsonObject().put("password", true)));
+
+    // when
+    JsonObject merged = ConfMask.merge(new JsonObject().mergeIn(storeA, true), storeB);
+    JsonObject mergedPathsOnly = storeA.copy().mergeIn(storeB, true);
+    mergedPathsOnly.remove("_mask");
+
+    // then
+    JsonObject expectedMasked = new JsonObject().put("db", new JsonObject().put("user", "***").put("password", "***"));
+    ConfBuilder.Config result = ConfBuilder.buildFinalConfig(merged).get();
+    assertEquals(expectedMasked, result.mask.apply(result.resolvedConfig));
+
+    ConfBuilder.Config pathsResult = ConfBuilder.buildFinalConfig(mergedPathsOnly).get();
+    assertEquals(expectedMasked, pathsResult.mask.apply(pathsResult.resolvedConfig));
+  }
+
+  @Test
+  public void shouldNotMaskWithoutSecrets() {
+    // given
+    JsonObject config = new JsonObject().put("a", "$ref:b").put("b", "x");
+
+    // when
+    ConfBuilder.Config result = ConfBuilder.buildFinalConfig(config).get();
+
+    // then
+    assertTrue(result.mask.isEmpty());
+    assertEquals(result.resolvedConfig, result.mask.apply(result.resolvedConfig));
+    assertEquals(result.resolvedConfig.encode(), result.mask.encode(result.resolvedConfig));
+  }
+
   @Test
   public void shouldSubstituteEnvFallbackWithReference() {
     JsonObject raw =
@@ -5,9 +5,11 @@ import io.vertx.core.json.JsonObject;
 import org.junit.Test;
 
 import java.util.Base64;
+import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class ConfReferenceTest {
   @Test
@@ -192,8 +194,8 @@ public class ConfReferenceTest {
     assertEquals("value", arr.getString(0));
   }
 
-  @Test(expected = StackOverflowError.class)
-  public void shouldThrowStackOverflow() {
+  @Test(expected = IllegalStateException.class)
+  public void shouldFailOnCyclicReference() {
     // given
     JsonObject globalConf =
       new JsonObject()
@@ -207,6 +209,106 @@ public class ConfReferenceTest {
     ConfReference.populateInnerRefs(globalConf, globalConf);
   }
 
+  @Test
+  public void shouldResolveReferencesInReferencedObject() {
+    // given
+    JsonObject globalConf =
+      new JsonObject()
+        .put("defaults", new JsonObject().put("host", "localhost").put("port", 8080))
+        .put("server", new JsonObject().put("host", "$ref:defaults.host").put("port", "$ref:defaults.port"))
+        .put("a", "$ref:server")
+        .put("b", new JsonArray().add("$ref:server").add("$ref:server.host"));
+
+    // when
+    JsonObject result = ConfReference.populateInnerRefs(globalConf, globalConf);
+
+    // then
+    JsonObject server = new JsonObject().put("host", "localhost").put("port", 8080);
+    assertEquals(server, result.getJsonObject("server"));
+    assertEquals(server, result.getJsonObject("a"));
+    assertEquals(new JsonArray().add(server).add("localhost"), result.getJsonArray("b"));
+    assertEquals("$ref:defaults.host", globalConf.getJsonObject("server").getString("host"));
+  }
+
+  @Test
+  public void shouldNotShareSubstitutedObjects() {
+    // given
+    JsonObject conf =
+      new JsonObject()
+        .put("x", new JsonObject().put("value", 1))
+        .put("a", "$ref:x")
+        .put("b", "$ref:x");
+
+    // when
+    JsonObject result = ConfReference.populateInnerRefs(conf, conf);
+    result.getJsonObject("a").put("value", 2);
+
+    // then
+    assertEquals(new Integer(1), result.getJsonObject("b").getInteger("value"));
+    assertEquals(new Integer(1), result.getJsonObject("x").getInteger("value"));
+  }
+
+  @Test
+  public void shouldNotReplaceReferenceEmbeddedInString() {
+    // given
+    JsonObject conf = new JsonObject().put("x", "value").put("y", "prefix-$ref:x");
+
+    // when
+    JsonObject result = ConfReference.populateInnerRefs(conf, conf);
+
+    // then
+    assertEquals("prefix-$ref:x", result.getString("y"));
+  }
+
+  @Test
+  public void shouldResolveSysReferenceInReferencedValue() {
+    // given
+    System.setProperty("X_REF", "10");
+    JsonObject conf =
+      new JsonObject()
+        .put("defaults", new JsonObject().put("port", "$sys:X_REF:int"))
+        .put("port", "$ref:defaults.port");
+
+    // when
+    JsonObject result = ConfReference.populateRefs(conf, conf);
+
+    // then
+    assertEquals(new Integer(10), result.getInteger("port"));
+    assertEquals(new Integer(10), result.getJsonObject("defaults").getInteger("port"));
+  }
+
+  @Test
+  public void shouldResolveLargeConfigWithManyReferences() {
+    // given
+    int services = 5000;
+    JsonObject defaults = new JsonObject();
+    JsonObject servicesConf = new JsonObject();
+    for (int i = 0; i < services; i++) {
+      defaults.put("host-" + i, "host-" + i + ".local");
+      servicesConf.put("service-" + i,
+        new JsonObject()
+          .put("host", "$ref:defaults.host-" + i)
+          .put("port", "$ref:defaults.port")
+          .put("description", String.join("", Collections.nCopies(1000, "x")))
+          .put("peer", "$ref:services.service-" + ((i + 1) % services) + ".host")
+      );
+    }
+    JsonObject conf = new JsonObject().put("defaults", defaults.put("port", 8080)).put("services", servicesConf);
+    assertTrue(conf.toString().length() > 5 * 1000 * 1000);
+
+    // when
+    long start = System.currentTimeMillis();
+    JsonObject result = ConfReference.populateRefs(conf, conf);
+    long duration = System.currentTimeMillis() - start;
+
+    // then
+    JsonObject service = result.getJsonObject("services").getJsonObject("service-" + (services - 1));
+    assertEquals("host-" + (services - 1) + ".local", service.getString("host"));
+    assertEquals(new Integer(8080), service.getInteger("port"));
+    assertEquals("host-0.local", service.getString("peer"));
+    assertTrue("resolving took " + duration + "ms", duration < 10000);
+  }
+
   @Test
   public void shouldReplaceStringSysValue() {
     // given
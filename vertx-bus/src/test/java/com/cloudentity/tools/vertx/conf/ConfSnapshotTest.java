@@ -0,0 +1,242 @@
+package com.cloudentity.tools.vertx.conf;
+
+import com.cloudentity.tools.vertx.bus.VertxBus;
+import com.cloudentity.tools.vertx.bus.VertxEndpointClient;
+import com.cloudentity.tools.vertx.verticles.VertxDeploy;
+import io.vertx.config.ConfigChange;
+import io.vertx.config.ConfigRetriever;
+import io.vertx.config.ConfigRetrieverOptions;
+import io.vertx.config.ConfigStoreOptions;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@RunWith(VertxUnitRunner.class)
+public class ConfSnapshotTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  Vertx vertx;
+  String snapshotPath;
+  String storeKey = UUID.randomUUID().toString();
+  JsonObject metaConfig = new JsonObject().put("stores", storeKey);
+
+  @Before
+  public void init(TestContext ctx) throws IOException {
+    vertx = Vertx.vertx();
+    vertx.exceptionHandler(ctx.exceptionHandler());
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    snapshotPath = folder.getRoot().toPath().resolve("snapshot/conf.json").toString();
+  }
+
+  @After
+  public void finish(TestContext ctx) {
+    vertx.close(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldReadWrittenSnapshotOnlyWithSameMetaConfig(TestContext ctx) {
+    // given
+    ConfSnapshot snapshot = new ConfSnapshot(snapshotPath, metaConfig);
+    JsonObject conf = new JsonObject().put("db", new JsonObject().put("password", "secret"));
+    ConfMask mask = ConfMask.fromJson(new JsonObject().put("db", new JsonObject().put("password", true)));
+
+    // when
+    snapshot.write(vertx, "raw-hash", conf, mask, new VariableLookups())
+      .compose(x -> snapshot.read(vertx))
+      .compose(content -> new ConfSnapshot(snapshotPath, metaConfig.copy().put("scanPeriod", 1000)).read(vertx).map(otherContent -> {
+        // then
+        ctx.assertTrue(content.isPresent());
+        ctx.assertEquals("raw-hash", content.get().rawConfigHash);
+        ctx.assertEquals(conf, content.get().resolvedConfig);
+        ctx.assertEquals(mask.toJson(), content.get().mask.toJson());
+        ctx.assertFalse(otherContent.isPresent());
+        return null;
+      }))
+      .map(x -> {
+        try {
+          ctx.assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(Paths.get(snapshotPath))));
+        } catch (IOException e) {
+          ctx.fail(e);
+        }
+        return null;
+      })
+      .setHandler(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldReadSnapshotOnlyWithSameValuesOfReferencedVariables(TestContext ctx) {
+    // given
+    String referenced = "conf-snapshot-test-" + UUID.randomUUID(), other = "conf-snapshot-test-" + UUID.randomUUID();
+    System.setProperty(referenced, "a");
+    JsonObject raw = new JsonObject().put("x", "$sys:" + referenced + ":string");
+    ConfBuilder.Config config = ConfBuilder.buildFinalConfig(raw).get();
+    ConfSnapshot snapshot = new ConfSnapshot(snapshotPath, metaConfig);
+
+    // when
+    snapshot.write(vertx, ConfSnapshot.hash(raw), config.resolvedConfig, config.mask, config.variables)
+      .compose(x -> {
+        System.setProperty(other, "b");
+        return snapshot.read(vertx);
+      })
+      .compose(unrelatedChanged -> {
+        System.setProperty(referenced, "c");
+        return snapshot.read(vertx).map(referencedChanged -> {
+          // then
+          ctx.assertEquals(new JsonObject().put("x", "a"), config.resolvedConfig);
+          ctx.assertTrue(config.variables.sys.contains(referenced));
+          ctx.assertTrue(unrelatedChanged.isPresent());
+          ctx.assertFalse(referencedChanged.isPresent());
+          return null;
+        });
+      })
+      .setHandler(ctx.asyncAssertSuccess(x -> {
+        System.clearProperty(referenced);
+        System.clearProperty(other);
+      }));
+  }
+
+  @Test
+  public void shouldKeepLastOfConcurrentWrites(TestContext ctx) {
+    // given
+    ConfSnapshot snapshot = new ConfSnapshot(snapshotPath, metaConfig);
+
+    // when
+    Future<Void> first = snapshot.write(vertx, "first", new JsonObject().put("v", 1), ConfMask.empty(), new VariableLookups());
+    Future<Void> second = snapshot.write(vertx, "second", new JsonObject().put("v", 2), ConfMask.empty(), new VariableLookups());
+
+    CompositeFuture.all(first, second)
+      .compose(x -> snapshot.read(vertx))
+      .map(content -> {
+        // then
+        ctx.assertEquals("second", content.get().rawConfigHash);
+        ctx.assertEquals(1, folder.getRoot().toPath().resolve("snapshot").toFile().list().length);
+        return null;
+      })
+      .setHandler(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldReturnEmptyIfSnapshotMissing(TestContext ctx) {
+    // when
+    new ConfSnapshot(snapshotPath, metaConfig).read(vertx)
+      .setHandler(ctx.asyncAssertSuccess(content ->
+        // then
+        ctx.assertFalse(content.isPresent())
+      ));
+  }
+
+  @Test
+  public void shouldStartFromSnapshotAndPublishChangesFromStores(TestContext ctx) {
+    // given
+    JsonObject oldConf = new JsonObject().put("a", new JsonObject().put("x", 1)).put("b", new JsonObject().put("y", 1));
+    JsonObject newConf = new JsonObject().put("a", new JsonObject().put("x", 2)).put("b", new JsonObject().put("y", 1));
+    new ConfSnapshot(snapshotPath, metaConfig).write(vertx, ConfSnapshot.hash(oldConf), oldConf, ConfMask.empty(), new VariableLookups())
+      .setHandler(ctx.asyncAssertSuccess());
+    ParallelConfigRetrieverTest.values.put(storeKey, newConf);
+
+    List<ConfigChange> changes = new CopyOnWriteArrayList<>();
+    List<ConfigChange> changesOfA = new CopyOnWriteArrayList<>();
+    List<ConfigChange> changesOfB = new CopyOnWriteArrayList<>();
+    VertxBus.consumePublished(vertx.eventBus(), ConfVerticle.CONFIG_CHANGE_ADDRESS, ConfigChange.class, changes::add);
+    VertxBus.consumePublished(vertx.eventBus(), ConfVerticle.configChangeAddress("a"), ConfigChange.class, changesOfA::add);
+    VertxBus.consumePublished(vertx.eventBus(), ConfVerticle.configChangeAddress("b"), ConfigChange.class, changesOfB::add);
+
+    // when
+    delay(100)
+      .compose(x -> VertxDeploy.deploy(vertx, buildConfVerticle(300)))
+      .compose(x -> VertxEndpointClient.make(vertx, ConfService.class).getGlobalConf())
+      .map(conf -> {
+        // then
+        ctx.assertEquals(oldConf, conf);
+        return null;
+      })
+      .compose(x -> delay(600))
+      .compose(x -> VertxEndpointClient.make(vertx, ConfService.class).getGlobalConf())
+      .map(conf -> {
+        ctx.assertEquals(newConf, conf);
+        ctx.assertEquals(1, changes.size());
+        ctx.assertEquals(1, changesOfA.size());
+        ctx.assertEquals(0, changesOfB.size());
+        return null;
+      })
+      .compose(x -> new ConfSnapshot(snapshotPath, metaConfig).read(vertx))
+      .map(content -> {
+        ctx.assertEquals(newConf, content.get().resolvedConfig);
+        return null;
+      })
+      .setHandler(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldNotPublishChangeIfStoresMatchSnapshot(TestContext ctx) {
+    // given
+    JsonObject conf = new JsonObject().put("a", new JsonObject().put("x", 1));
+    new ConfSnapshot(snapshotPath, metaConfig).write(vertx, ConfSnapshot.hash(conf), conf, ConfMask.empty(), new VariableLookups())
+      .setHandler(ctx.asyncAssertSuccess());
+    ParallelConfigRetrieverTest.values.put(storeKey, conf);
+
+    List<ConfigChange> changes = new CopyOnWriteArrayList<>();
+    VertxBus.consumePublished(vertx.eventBus(), ConfVerticle.CONFIG_CHANGE_ADDRESS, ConfigChange.class, changes::add);
+
+    // when
+    delay(100)
+      .compose(x -> VertxDeploy.deploy(vertx, buildConfVerticle(1)))
+      .compose(x -> delay(300))
+      .map(x -> {
+        // then
+        ctx.assertEquals(0, changes.size());
+        return null;
+      })
+      .setHandler(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldWriteSnapshotOfInitialConfig(TestContext ctx) {
+    // given
+    JsonObject conf = new JsonObject().put("a", new JsonObject().put("x", 1));
+    ParallelConfigRetrieverTest.values.put(storeKey, conf);
+
+    // when
+    VertxDeploy.deploy(vertx, buildConfVerticle(1))
+      .compose(x -> delay(200))
+      .compose(x -> new ConfSnapshot(snapshotPath, metaConfig).read(vertx))
+      .map(content -> {
+        // then
+        ctx.assertEquals(conf, content.get().resolvedConfig);
+        ctx.assertEquals(ConfSnapshot.hash(conf), content.get().rawConfigHash);
+        return null;
+      })
+      .setHandler(ctx.asyncAssertSuccess());
+  }
+
+  private ConfVerticle buildConfVerticle(long storeDelay) {
+    ConfigRetrieverOptions opts = new ConfigRetrieverOptions().setScanPeriod(0)
+      .addStore(new ConfigStoreOptions().setType("test-delayed").setFormat("json").setConfig(new JsonObject().put("key", storeKey).put("delay", storeDelay)));
+    return new ConfVerticle(ConfigRetriever.create(vertx, opts), Optional.of(new ConfSnapshot(snapshotPath, metaConfig)));
+  }
+
+  private Future<Void> delay(long delayMs) {
+    Future<Void> delay = Future.future();
+    vertx.runOnContext(x -> vertx.setTimer(delayMs, t -> delay.complete()));
+    return delay;
+  }
+}
@@ -4,8 +4,13 @@ import com.cloudentity.tools.vertx.bus.VertxEndpointClient;
 import com.cloudentity.tools.vertx.bus.ServiceVerticle;
 import com.cloudentity.tools.vertx.bus.VertxBus;
 import com.cloudentity.tools.vertx.bus.VertxEndpoint;
+import com.cloudentity.tools.vertx.json.CopyOnWriteJson;
+import com.cloudentity.tools.vertx.json.ReadOnlyJson;
 import com.cloudentity.tools.vertx.verticles.VertxDeploy;
+import io.vertx.config.ConfigChange;
+import io.vertx.config.ConfigRetriever;
 import io.vertx.config.ConfigRetrieverOptions;
+import io.vertx.config.ConfigStoreOptions;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
@@ -23,6 +28,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @RunWith(VertxUnitRunner.class)
 public class ConfVerticleTest {
@@ -205,4 +212,107 @@ public class ConfVerticleTest {
     })
     .setHandler(ctx.asyncAssertSuccess());
   }
+
+  @Test
+  public void shouldPublishChangeOnlyAtChangedPaths(TestContext ctx) {
+    // given
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    String confStoreAddress = "test-conf-paths-address";
+    ConfigRetrieverOptions opts = new ConfigRetrieverOptions().setScanPeriod(20)
+      .addStore(new ConfigStoreOptions().setType("event-bus").setConfig(new JsonObject().put("address", confStoreAddress)));
+
+    JsonObject initialConf = new JsonObject().put("a", new JsonObject().put("x", 1)).put("b", new JsonObject().put("y", 1));
+    JsonObject changedConf = new JsonObject().put("a", new JsonObject().put("x", 2)).put("b", new JsonObject().put("y", 1));
+    List<ConfigChange> changesOfA = new CopyOnWriteArrayList<>();
+    List<ConfigChange> changesOfB = new CopyOnWriteArrayList<>();
+
+    // when
+    VertxDeploy.deploy(vertx, new ConfVerticle(ConfigRetriever.create(vertx, opts)))
+      .map(x -> vertx.eventBus().publish(confStoreAddress, initialConf))
+      .compose(x -> delay(100))
+      .map(x -> {
+        VertxBus.consumePublished(vertx.eventBus(), ConfVerticle.configChangeAddress("a"), ConfigChange.class, changesOfA::add);
+        VertxBus.consumePublished(vertx.eventBus(), ConfVerticle.configChangeAddress("b"), ConfigChange.class, changesOfB::add);
+        return vertx.eventBus().publish(confStoreAddress, changedConf);
+      })
+      .compose(x -> delay(100))
+      .map(x -> {
+        // then
+        ctx.assertEquals(1, changesOfA.size());
+        ctx.assertEquals(1, changesOfA.get(0).getPreviousConfiguration().getInteger("x"));
+        ctx.assertEquals(2, changesOfA.get(0).getNewConfiguration().getInteger("x"));
+        ctx.assertEquals(0, changesOfB.size());
+        return null;
+      })
+      .setHandler(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldShareUnchangedConfigurationAfterChange(TestContext ctx) {
+    // given
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    String confStoreAddress = "test-conf-shared-address";
+    ConfigRetrieverOptions opts = new ConfigRetrieverOptions().setScanPeriod(20)
+      .addStore(new ConfigStoreOptions().setType("event-bus").setConfig(new JsonObject().put("address", confStoreAddress)));
+
+    JsonObject initialConf = new JsonObject().put("a", new JsonObject().put("x", 1)).put("b", new JsonObject().put("y", 1));
+    JsonObject changedConf = new JsonObject().put("a", new JsonObject().put("x", 2)).put("b", new JsonObject().put("y", 1));
+    List<JsonObject> confsOfB = new CopyOnWriteArrayList<>();
+    ConfService client = VertxEndpointClient.make(vertx, ConfService.class);
+
+    // when
+    VertxDeploy.deploy(vertx, new ConfVerticle(ConfigRetriever.create(vertx, opts)))
+      .map(x -> vertx.eventBus().publish(confStoreAddress, initialConf))
+      .compose(x -> delay(100))
+      .compose(x -> client.getConf("b"))
+      .map(conf -> confsOfB.add(conf))
+      .map(x -> vertx.eventBus().publish(confStoreAddress, changedConf))
+      .compose(x -> delay(100))
+      .compose(x -> client.getConf("b"))
+      .map(conf -> {
+        // then
+        ctx.assertTrue(CopyOnWriteJson.sameContent(confsOfB.get(0), conf));
+        ctx.assertFalse(ReadOnlyJson.isReadOnly(conf));
+        return null;
+      })
+      .compose(x -> client.getConf("a"))
+      .map(conf -> {
+        ctx.assertEquals(2, conf.getInteger("x"));
+        return null;
+      })
+      .setHandler(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldReturnModifiableConfigurationWithoutModifyingSharedOne(TestContext ctx) {
+    // given
+    VertxBus.registerPayloadCodec(vertx.eventBus());
+    ConfigRetriever retriever = ConfigRetriever.create(vertx, new ConfigRetrieverOptions().addStore(
+      new ConfigStoreOptions().setType("json").setConfig(new JsonObject().put("a", new JsonObject().put("x", 1)))
+    ));
+    ConfService client = VertxEndpointClient.make(vertx, ConfService.class);
+
+    // when
+    VertxDeploy.deploy(vertx, new ConfVerticle(retriever))
+      .compose(x -> client.getConf("a"))
+      .map(conf -> conf.put("x", 2).put("y", 2))
+      .compose(x -> client.getGlobalConf())
+      .map(global -> {
+        global.getJsonObject("a").remove("x");
+        return null;
+      })
+      .compose(x -> client.getConf("a"))
+      .map(conf -> {
+        // then
+        ctx.assertEquals(new JsonObject().put("x", 1), conf);
+        return null;
+      })
+      .setHandler(ctx.asyncAssertSuccess());
+  }
+
+  private Future<Void> delay(long delayMs) {
+    Future<Void> delay = Future.future();
+    vertx.setTimer(delayMs, t -> delay.complete());
+    return delay;
+  }
 }
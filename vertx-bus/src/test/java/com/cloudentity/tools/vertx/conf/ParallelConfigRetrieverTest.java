@@ -0,0 +1,234 @@
+package com.cloudentity.tools.vertx.conf;
+
+import com.cloudentity.tools.vertx.conf.retriever.ParallelConfigRetriever;
+import com.cloudentity.tools.vertx.json.VertxJson;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.config.ConfigChange;
+import io.vertx.config.ConfigRetriever;
+import io.vertx.config.spi.ConfigStore;
+import io.vertx.config.spi.ConfigStoreFactory;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(VertxUnitRunner.class)
+public class ParallelConfigRetrieverTest {
+  static Map<String, JsonObject> values = new ConcurrentHashMap<>();
+  static Map<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+
+  MeterRegistry registry = new SimpleMeterRegistry();
+  Vertx vertx;
+  ConfigRetriever retriever;
+
+  /**
+   * Store of type `test-delayed` returns `values` at `config.key` after `config.delay` milliseconds.
+   */
+  public static class DelayedStoreFactory implements ConfigStoreFactory {
+    @Override
+    public String name() {
+      return "test-delayed";
+    }
+
+    @Override
+    public ConfigStore create(Vertx vertx, JsonObject config) {
+      String key = config.getString("key");
+      return completionHandler -> {
+        fetches.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        // the timer is set on event-loop, timers set from test thread occasionally do not fire
+        vertx.runOnContext(x -> vertx.setTimer(config.getLong("delay", 1L), t -> {
+          JsonObject value = values.get(key);
+          if (value != null) {
+            completionHandler.handle(Future.succeededFuture(value.toBuffer()));
+          } else {
+            completionHandler.handle(Future.failedFuture("missing " + key));
+          }
+        }));
+      };
+    }
+  }
+
+  @Before
+  public void init(TestContext ctx) {
+    VertxJson.registerJsonObjectDeserializer();
+    vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(new MicrometerMetricsOptions().setEnabled(true).setMicrometerRegistry(registry)));
+    vertx.exceptionHandler(ctx.exceptionHandler()); // fail on assertion errors in timers instead of timing out
+  }
+
+  @After
+  public void finish(TestContext ctx) {
+    if (retriever != null) retriever.close();
+    vertx.close(ctx.asyncAssertSuccess());
+  }
+
+  private JsonObject store(String key, JsonObject value, long delay, Integer scanPeriod) {
+    if (value != null) values.put(key, value);
+    JsonObject store = new JsonObject().put("type", "test-delayed").put("format", "json").put("name", key).put("config", new JsonObject().put("key", key).put("delay", delay));
+    return scanPeriod != null ? store.put("scanPeriod", scanPeriod) : store;
+  }
+
+  private ConfigRetriever build(int scanPeriod, JsonObject... stores) {
+    JsonObject meta = new JsonObject().put("scanPeriod", scanPeriod).put("parallel", true).put("stores", new JsonArray().add(stores[0]));
+    for (int i = 1; i < stores.length; i++) {
+      meta.getJsonArray("stores").add(stores[i]);
+    }
+    retriever = ConfigRetrieverFactory.buildFromJson(vertx, meta);
+    return retriever;
+  }
+
+  @Test
+  public void shouldMergeStoresInOrder(TestContext ctx) {
+    // given
+    String a = UUID.randomUUID().toString(), b = UUID.randomUUID().toString();
+    ConfigRetriever retriever = build(0,
+      store(a, new JsonObject().put("x", 1).put("obj", new JsonObject().put("y", 1).put("z", 1)), 1, null),
+      store(b, new JsonObject().put("x", 2).put("obj", new JsonObject().put("y", 2)), 1, null)
+    );
+
+    // when
+    retriever.getConfig(ctx.asyncAssertSuccess(conf -> {
+      // then
+      ctx.assertTrue(retriever instanceof ParallelConfigRetriever);
+      ctx.assertEquals(new JsonObject().put("x", 2).put("obj", new JsonObject().put("y", 2).put("z", 1)), conf);
+    }));
+  }
+
+  @Test
+  public void shouldFetchStoresConcurrently(TestContext ctx) {
+    // given
+    String a = UUID.randomUUID().toString(), b = UUID.randomUUID().toString(), c = UUID.randomUUID().toString();
+    ConfigRetriever retriever = build(0,
+      store(a, new JsonObject().put("a", true), 300, null),
+      store(b, new JsonObject().put("b", true), 300, null),
+      store(c, new JsonObject().put("c", true), 300, null)
+    );
+    long start = System.currentTimeMillis();
+
+    // when
+    retriever.getConfig(ctx.asyncAssertSuccess(conf -> {
+      // then
+      ctx.assertEquals(3, conf.size());
+      ctx.assertTrue(System.currentTimeMillis() - start < 800);
+    }));
+  }
+
+  @Test
+  public void shouldPublishChangeOfFastStoreWithoutWaitingForSlowStore(TestContext ctx) {
+    // given
+    Async async = ctx.async();
+    String fast = UUID.randomUUID().toString(), slow = UUID.randomUUID().toString();
+    ConfigRetriever retriever = build(5000,
+      store(fast, new JsonObject().put("fast", 1), 1, 50),
+      store(slow, new JsonObject().put("slow", 1), 1, 5000)
+    );
+    List<ConfigChange> changes = new CopyOnWriteArrayList<>();
+    retriever.listen(changes::add);
+
+    retriever.getConfig(ctx.asyncAssertSuccess(conf -> {
+      // when
+      values.put(fast, new JsonObject().put("fast", 2));
+
+      vertx.setTimer(500, t -> {
+        // then
+        ctx.assertEquals(1, changes.size());
+        ctx.assertEquals(new JsonObject().put("fast", 1).put("slow", 1), changes.get(0).getPreviousConfiguration());
+        ctx.assertEquals(new JsonObject().put("fast", 2).put("slow", 1), changes.get(0).getNewConfiguration());
+        ctx.assertEquals(1, fetches.get(slow).get());
+        ctx.assertTrue(fetches.get(fast).get() > 2);
+        async.complete();
+      });
+    }));
+  }
+
+  @Test
+  public void shouldEmitLatestConfigurationOnConfigStreamWhenResumed(TestContext ctx) {
+    // given
+    Async async = ctx.async();
+    String a = UUID.randomUUID().toString();
+    ConfigRetriever retriever = build(5000, store(a, new JsonObject().put("a", 1), 1, 50));
+    List<JsonObject> confs = new CopyOnWriteArrayList<>();
+    retriever.configStream().handler(confs::add).pause();
+
+    retriever.getConfig(ctx.asyncAssertSuccess(conf -> {
+      // when
+      values.put(a, new JsonObject().put("a", 2));
+      vertx.setTimer(200, t1 -> {
+        values.put(a, new JsonObject().put("a", 3));
+        vertx.setTimer(200, t2 -> {
+          ctx.assertTrue(confs.isEmpty());
+          retriever.configStream().resume();
+
+          // then
+          ctx.assertEquals(1, confs.size());
+          ctx.assertEquals(new JsonObject().put("a", 3), confs.get(0));
+          async.complete();
+        });
+      });
+    }));
+  }
+
+  @Test
+  public void shouldNotRefetchFreshStoresOnGetConfig(TestContext ctx) {
+    // given
+    String fresh = UUID.randomUUID().toString(), unscanned = UUID.randomUUID().toString();
+    ConfigRetriever retriever = build(0,
+      store(fresh, new JsonObject().put("a", 1), 1, 60000),
+      store(unscanned, new JsonObject().put("b", 1), 1, null)
+    );
+
+    retriever.getConfig(ctx.asyncAssertSuccess(conf1 -> {
+      // when
+      retriever.getConfig(ctx.asyncAssertSuccess(conf2 -> {
+        // then
+        ctx.assertEquals(1, fetches.get(fresh).get());
+        ctx.assertEquals(2, fetches.get(unscanned).get());
+        ctx.assertTrue(((ParallelConfigRetriever) retriever).getStoreAges().containsKey(fresh));
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldFailGetConfigWhenStoreFails(TestContext ctx) {
+    // given
+    String missing = UUID.randomUUID().toString();
+    ConfigRetriever retriever = build(0, store(missing, null, 1, null));
+
+    // when
+    retriever.getConfig(ctx.asyncAssertFailure());
+  }
+
+  @Test
+  public void shouldRecordFetchLatencyPerStore(TestContext ctx) {
+    // given
+    String a = UUID.randomUUID().toString();
+    ConfigRetriever retriever = build(0, store(a, new JsonObject(), 50, null));
+
+    // when
+    retriever.getConfig(ctx.asyncAssertSuccess(conf -> {
+      // then
+      Timer timer = registry.find("vertx.config.store.fetch.time").tag("store", a).timer();
+      ctx.assertEquals(1L, timer.count());
+      ctx.assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 50);
+      ctx.assertNotNull(registry.find("vertx.config.store.age").tag("store", a).gauge());
+    }));
+  }
+}
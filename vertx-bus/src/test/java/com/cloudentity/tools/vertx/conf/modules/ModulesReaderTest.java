@@ -0,0 +1,111 @@
+package com.cloudentity.tools.vertx.conf.modules;
+
+import io.vavr.control.Try;
+import io.vertx.core.json.JsonObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ModulesReaderTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  ClassLoader originalClassLoader;
+
+  @Before
+  public void init() {
+    originalClassLoader = Thread.currentThread().getContextClassLoader();
+  }
+
+  @After
+  public void finish() {
+    Thread.currentThread().setContextClassLoader(originalClassLoader);
+  }
+
+  private void addJarToClasspath(String index, String... modules) throws IOException {
+    File jar = folder.newFile();
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+      out.putNextEntry(new JarEntry("modules/"));
+      for (String module : modules) {
+        out.putNextEntry(new JarEntry("modules/" + module + ".json"));
+        out.write("{\"x\": 1}".getBytes(StandardCharsets.UTF_8));
+      }
+      if (index != null) {
+        out.putNextEntry(new JarEntry("META-INF/cloudentity/modules.idx"));
+        out.write(index.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] { jar.toURI().toURL() }, originalClassLoader));
+  }
+
+  @Test
+  public void shouldListModulesInClasspathDirectories() {
+    // when
+    List<String> names = ModulesReader.readAvailableModuleNames();
+
+    // then
+    assertTrue(names.contains("builder/a"));
+    assertTrue(names.contains("namespace-a/module-a"));
+    assertTrue(names.contains("module-b"));
+  }
+
+  @Test
+  public void shouldReadModulesOfJarFromIndex() throws IOException {
+    // given
+    addJarToClasspath("indexed/a\nindexed/b\n", "indexed/a");
+
+    // when
+    List<String> names = ModulesReader.readAvailableModuleNames();
+
+    // then
+    assertTrue(names.contains("indexed/b")); // only in the index
+    assertTrue(names.contains("builder/a"));
+  }
+
+  @Test
+  public void shouldListModulesOfJarWithoutIndex() throws IOException {
+    // given
+    addJarToClasspath(null, "not-indexed/a");
+
+    // when
+    List<String> names = ModulesReader.readAvailableModuleNames();
+
+    // then
+    assertTrue(names.contains("not-indexed/a"));
+    assertTrue(names.contains("builder/a"));
+  }
+
+  @Test
+  public void shouldReadModuleConfig() {
+    // when
+    Try<JsonObject> conf = ModulesReader.readModuleConfigFromClasspath("builder/a");
+
+    // then
+    assertEquals(new JsonObject().put("a", "$env:A:string:a"), conf.get());
+  }
+
+  @Test
+  public void shouldFailReadingMissingModuleConfig() {
+    // when
+    Try<JsonObject> conf = ModulesReader.readModuleConfigFromClasspath("missing");
+
+    // then
+    assertFalse(conf.isSuccess());
+  }
+}
@@ -0,0 +1,92 @@
+package com.cloudentity.tools.vertx.futures;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@RunWith(VertxUnitRunner.class)
+public class FutureUtilsTest {
+  Vertx vertx;
+
+  @Before
+  public void init(TestContext ctx) {
+    vertx = Vertx.vertx();
+    vertx.exceptionHandler(ctx.exceptionHandler()); // fail on assertion errors in timers instead of timing out
+  }
+
+  @After
+  public void finish(TestContext ctx) {
+    vertx.close(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void traverseShouldReturnResultsInOrderRunningAtMostParallelismFutures(TestContext ctx) {
+    // given
+    Async async = ctx.async();
+    List<Integer> items = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    // the timers are set on event-loop, timers set from test thread occasionally do not fire
+    vertx.runOnContext(x -> {
+      // when
+      Future<List<Integer>> result = FutureUtils.traverse(items, 3, i -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Future<Integer> f = Future.future();
+        vertx.setTimer(1 + (i % 4) * 5, t -> {
+          running.decrementAndGet();
+          f.complete(i * 10);
+        });
+        return f;
+      });
+
+      // then
+      result.setHandler(ctx.asyncAssertSuccess(results -> {
+        ctx.assertEquals(items.stream().map(i -> i * 10).collect(Collectors.toList()), results);
+        ctx.assertEquals(3, maxRunning.get());
+        async.complete();
+      }));
+    });
+  }
+
+  @Test
+  public void traverseShouldFailAndSkipNotStartedItemsOnFailure(TestContext ctx) {
+    // given
+    List<Integer> started = new ArrayList<>();
+
+    // when
+    Future<List<Integer>> result = FutureUtils.traverse(Arrays.asList(1, 2, 3, 4), 1, i -> {
+      started.add(i);
+      return i == 2 ? Future.failedFuture("fail") : Future.succeededFuture(i);
+    });
+
+    // then
+    ctx.assertTrue(result.failed());
+    ctx.assertEquals(Arrays.asList(1, 2), started);
+  }
+
+  @Test
+  public void traverseShouldHandleManyCompletedFutures(TestContext ctx) {
+    // given
+    List<Integer> items = IntStream.range(0, 100000).boxed().collect(Collectors.toList());
+
+    // when
+    Future<List<Integer>> result = FutureUtils.traverse(items, 2, Future::succeededFuture);
+
+    // then
+    ctx.assertEquals(items, result.result());
+  }
+}
@@ -0,0 +1,96 @@
+package com.cloudentity.tools.vertx.tracing;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+public class LoggingWithTracingTest {
+  Logger logger = (Logger) LoggerFactory.getLogger(LoggingWithTracingTest.class.getName() + ".logger");
+  ListAppender<ILoggingEvent> appender = new ListAppender<>();
+  LoggingWithTracing log = LoggingWithTracing.getLogger(logger.getName());
+
+  @Before
+  public void init() {
+    appender.start();
+    logger.addAppender(appender);
+    logger.setLevel(Level.INFO);
+  }
+
+  @After
+  public void finish() {
+    logger.detachAppender(appender);
+    MDC.clear();
+  }
+
+  @Test
+  public void shouldPutTracingContextToMdcWhileLogging() {
+    // given
+    TracingContext ctx = TracingContext.dummy();
+    ctx.setBaggageItem("x-ctx-a", "1");
+
+    // when
+    log.info(ctx, "message {}", "arg");
+
+    // then
+    Assert.assertEquals(1, appender.list.size());
+    Assert.assertEquals("message arg", appender.list.get(0).getFormattedMessage());
+    Assert.assertEquals("1", appender.list.get(0).getMDCPropertyMap().get("x-ctx-a"));
+    Assert.assertNull(MDC.get("x-ctx-a"));
+  }
+
+  @Test
+  public void shouldPutBaggageItemAddedAfterLogging() {
+    // given
+    TracingContext ctx = TracingContext.dummy();
+    ctx.setBaggageItem("x-ctx-a", "1");
+    log.info(ctx, "first");
+
+    // when
+    ctx.setBaggageItem("x-ctx-b", "2");
+    log.info(ctx, "second");
+
+    // then
+    Assert.assertNull(appender.list.get(0).getMDCPropertyMap().get("x-ctx-b"));
+    Assert.assertEquals("2", appender.list.get(1).getMDCPropertyMap().get("x-ctx-b"));
+    Assert.assertNull(MDC.get("x-ctx-b"));
+  }
+
+  @Test
+  public void shouldNotLogNorPutMdcIfLevelDisabled() {
+    // given
+    TracingContext ctx = TracingContext.dummy();
+    ctx.setBaggageItem("x-ctx-a", "1");
+
+    // when
+    log.debug(ctx, "message");
+
+    // then
+    Assert.assertTrue(appender.list.isEmpty());
+    Assert.assertNull(MDC.get("x-ctx-a"));
+  }
+
+  @Test
+  public void shouldNotModifyContextThroughIterator() {
+    // given
+    TracingContext ctx = TracingContext.dummy();
+    ctx.setBaggageItem("x-ctx-a", "1");
+
+    // when
+    try {
+      ctx.getSpanContextMap().iterator().next().setValue("2");
+      Assert.fail("modification should fail");
+    } catch (UnsupportedOperationException ex) {
+    }
+    log.info(ctx, "message");
+
+    // then
+    Assert.assertEquals("1", appender.list.get(0).getMDCPropertyMap().get("x-ctx-a"));
+  }
+}
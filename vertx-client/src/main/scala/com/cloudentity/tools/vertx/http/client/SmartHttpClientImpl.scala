@@ -95,7 +95,7 @@ class SmartHttpClientImpl(
 
   private def runRequest(rs: RequestStep, node: Node, lastResult: Option[Throwable \/ ClientResponse]): Unit = {
     if(rs.attemptsLeft > 0) {
-      log.debug(rs.tracing, s"Calling ${callSignature(rs.req, node)}, ${rs.attemptsLeft - 1} retries left")
+      if (log.isDebugEnabled) log.debug(rs.tracing, s"Calling ${callSignature(rs.req, node)}, ${rs.attemptsLeft - 1} retries left")
 
       val handler: Handler[HttpClientResponse] =
       { response: HttpClientResponse =>
@@ -157,7 +157,7 @@ class SmartHttpClientImpl(
   private def step(rs: RequestStep, node: Node, response: ClientResponse): Unit =
     rs.evalResponse(new SmartHttpResponseImpl(response.body.getOrElse(Buffer.buffer()), response.http)) match {
       case CallOk =>
-        log.debug(rs.tracing, s"Request succeeded: ${callSignature(rs.req, node)}, response ${respSignature(response.http)}")
+        if (log.isDebugEnabled) log.debug(rs.tracing, s"Request succeeded: ${callSignature(rs.req, node)}, response ${respSignature(response.http)}")
         if (!rs.promise.isComplete) rs.promise.complete(response)
       case CallFailed(retry) =>
         log.error(rs.tracing, s"Call failed with bad response: ${callSignature(rs.req, node)}, response ${respSignature(response.http)}")
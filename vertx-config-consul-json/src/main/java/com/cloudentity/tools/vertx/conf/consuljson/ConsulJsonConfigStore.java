@@ -7,11 +7,16 @@ import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.consul.BlockingQueryOptions;
 import io.vertx.ext.consul.ConsulClient;
 import io.vertx.ext.consul.ConsulClientOptions;
 import io.vertx.ext.consul.KeyValueList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Reads configuration JsonObject from Consul value.
@@ -45,47 +50,159 @@ import java.util.Optional;
  * Optionally to `path` we can set `prefix` and `key` that concatenated are used as `path`.
  * `fallback` is optional, defaults to {} - used when the value at `path` is not set
  *
+ * After the first successful read the store watches the value with Consul blocking queries (`ModifyIndex` of the last read and `blockingWait` wait time)
+ * and caches its Buffer, so `get` returns immediately and the value is parsed only when its index has moved.
+ * `blockingQueries` is optional, defaults to true. If false then the value is read from Consul on every `get`.
+ * `blockingWait` is optional, defaults to 30s - it should be lower than ConsulClient `timeout`.
+ * `blockingRetryDelay` is optional, defaults to 1000 - milliseconds to wait before retrying failed blocking query,
+ * or blocking query that returned before `blockingWait` elapsed without change of the index.
+ *
+ * As recommended by Consul, the index is reset to 0 when it goes backwards and index lower than 1 is queried as 1.
  */
 public class ConsulJsonConfigStore implements ConfigStore {
+  private static final Logger log = LoggerFactory.getLogger(ConsulJsonConfigStore.class);
+  private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ns|us|\u00b5s|ms|s|m|h)");
 
+  private final Vertx vertx;
   private final ConsulClient client;
   private final String path;
   private final Optional<JsonObject> fallback;
+  private final boolean blockingQueries;
+  private final String blockingWait;
+  private final long blockingWaitMs;
+  private final long blockingRetryDelay;
+
+  private volatile Buffer cached; // value at `index`, set after first successful read if blocking queries are enabled
+  private volatile long index;
+  private volatile boolean watching;
+  private volatile boolean closed;
 
   ConsulJsonConfigStore(Vertx vertx, JsonObject configuration) {
+    this.vertx = vertx;
     client = ConsulClient.create(vertx, new ConsulClientOptions(configuration));
     path = Optional.ofNullable(configuration.getString("path"))
             .orElse(ConsulConfigUtils.getPathFromPrefixAndKey(configuration).orElse(null));
     fallback = Optional.ofNullable(configuration.getJsonObject("fallback"));
+    blockingQueries = configuration.getBoolean("blockingQueries", true);
+    blockingWait = configuration.getString("blockingWait", "30s");
+    blockingWaitMs = parseDuration(blockingWait);
+    blockingRetryDelay = configuration.getLong("blockingRetryDelay", 1000L);
   }
 
   @Override
   public void get(Handler<AsyncResult<Buffer>> completionHandler) {
+    Buffer value = cached;
+    if (value != null) {
+      completionHandler.handle(Future.succeededFuture(value));
+      return;
+    }
+
     client.getValues(path, kv -> {
       if (kv.succeeded()) {
-        KeyValueList list = kv.result();
-        if (list.isPresent() && list.getList().size() > 0) {
+        try {
+          Buffer buffer = toBuffer(kv.result());
+          if (blockingQueries && !closed) {
+            update(kv.result().getIndex(), buffer);
+            startWatching();
+          }
+          completionHandler.handle(Future.succeededFuture(buffer));
+        } catch (Throwable ex) {
+          completionHandler.handle(Future.failedFuture(ex));
+        }
+      } else {
+        completionHandler.handle(Future.failedFuture(kv.cause()));
+      }
+    });
+  }
+
+  /**
+   * Parses Consul (Go) duration, e.g. `30s`, `1m30s` or `500ms`, to milliseconds.
+   */
+  static long parseDuration(String duration) {
+    Matcher matcher = DURATION_PART.matcher(duration);
+    double millis = 0;
+    int end = 0;
+    while (matcher.find() && matcher.start() == end) {
+      double amount = Double.parseDouble(matcher.group(1));
+      switch (matcher.group(2)) {
+        case "ns": millis += amount / 1_000_000; break;
+        case "us":
+        case "\u00b5s": millis += amount / 1_000; break;
+        case "ms": millis += amount; break;
+        case "s": millis += amount * 1_000; break;
+        case "m": millis += amount * 60_000; break;
+        default: millis += amount * 3_600_000; break;
+      }
+      end = matcher.end();
+    }
+    if (end == 0 || end != duration.length()) {
+      throw new IllegalArgumentException("Invalid blockingWait duration: '" + duration + "'");
+    }
+    return (long) millis;
+  }
+
+  private Buffer toBuffer(KeyValueList list) {
+    if (list.isPresent() && list.getList().size() > 0) {
+      JsonObject config = new JsonObject(list.getList().get(0).getValue());
+      return Buffer.buffer(config.toString());
+    } else {
+      JsonObject fallbackConf = fallback.orElse(new JsonObject());
+      return Buffer.buffer(fallbackConf.toString());
+    }
+  }
+
+  private synchronized void update(long newIndex, Buffer buffer) {
+    index = Math.max(newIndex, 1);
+    cached = buffer;
+  }
+
+  private synchronized void startWatching() {
+    if (!watching) {
+      watching = true;
+      watch();
+    }
+  }
+
+  /**
+   * Waits for change of the value with blocking query and repeats. Value is parsed only if its index has moved.
+   */
+  private void watch() {
+    if (closed) return;
+
+    long lastIndex = index;
+    long start = System.currentTimeMillis();
+    client.getValuesWithOptions(path, new BlockingQueryOptions().setIndex(lastIndex).setWait(blockingWait), kv -> {
+      if (closed) return;
+
+      if (kv.succeeded()) {
+        long newIndex = Math.max(kv.result().getIndex(), 1);
+        if (newIndex != lastIndex) {
           try {
-            JsonObject config = new JsonObject(list.getList().get(0).getValue());
-            completionHandler.handle(Future.succeededFuture(Buffer.buffer(config.toString())));
+            update(newIndex, toBuffer(kv.result()));
           } catch (Throwable ex) {
-            completionHandler.handle(Future.failedFuture(ex));
+            log.error("Could not read configuration from Consul at '{}', keeping previous value", path, ex);
+            index = newIndex;
           }
+          // index going backwards means Consul state was reset, next query returns immediately with current index
+          if (newIndex < lastIndex) index = 0;
+          watch();
+        } else if (System.currentTimeMillis() - start < blockingWaitMs) {
+          log.debug("Blocking query of Consul at '{}' returned early without change, retrying in {}ms", path, blockingRetryDelay);
+          vertx.setTimer(blockingRetryDelay, t -> watch());
         } else {
-          JsonObject fallbackConf = fallback.orElse(new JsonObject());
-          completionHandler.handle(Future.succeededFuture(Buffer.buffer(fallbackConf.toString())));
+          watch();
         }
       } else {
-        completionHandler.handle(Future.failedFuture(kv.cause()));
+        log.warn("Blocking query of Consul at '{}' failed, retrying in {}ms", path, blockingRetryDelay, kv.cause());
+        vertx.setTimer(blockingRetryDelay, t -> watch());
       }
     });
   }
 
   @Override
   public void close(Handler<Void> completionHandler) {
+    closed = true;
     client.close();
     completionHandler.handle(null);
   }
 }
-
-
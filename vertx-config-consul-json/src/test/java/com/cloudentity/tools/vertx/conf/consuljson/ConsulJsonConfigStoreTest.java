@@ -0,0 +1,221 @@
+package com.cloudentity.tools.vertx.conf.consuljson;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+@RunWith(VertxUnitRunner.class)
+public class ConsulJsonConfigStoreTest {
+  Vertx vertx;
+  HttpServer server;
+  ConsulJsonConfigStore store;
+
+  String value;
+  long index = 10;
+  int reads;
+  int blockingReads;
+  List<Long> queriedIndexes = new ArrayList<>();
+  List<HttpServerRequest> blocked = new ArrayList<>();
+
+  /**
+   * Imitates Consul KV API, blocks requests with `index` equal to current index until the value changes or `wait` elapses.
+   */
+  @Before
+  public void init(TestContext ctx) {
+    vertx = Vertx.vertx();
+    server = vertx.createHttpServer().requestHandler(req -> {
+      String requestIndex = req.getParam("index");
+      if (requestIndex == null) {
+        reads++;
+        respond(req);
+      } else {
+        blockingReads++;
+        queriedIndexes.add(Long.parseLong(requestIndex));
+        if (Long.parseLong(requestIndex) == index) {
+          blocked.add(req);
+          vertx.setTimer(parseWait(req.getParam("wait")), t -> {
+            if (blocked.remove(req)) respond(req);
+          });
+        } else {
+          respond(req);
+        }
+      }
+    });
+    server.listen(0, ctx.asyncAssertSuccess());
+  }
+
+  @After
+  public void finish(TestContext ctx) {
+    if (store != null) store.close(x -> {});
+    vertx.close(ctx.asyncAssertSuccess());
+  }
+
+  private long parseWait(String wait) {
+    return wait.endsWith("ms") ? Long.parseLong(wait.substring(0, wait.length() - 2)) : Long.parseLong(wait.substring(0, wait.length() - 1)) * 1000;
+  }
+
+  private void respond(HttpServerRequest req) {
+    req.response().putHeader("X-Consul-Index", Long.toString(index));
+    if (value == null) {
+      req.response().setStatusCode(404).end();
+    } else {
+      JsonObject kv = new JsonObject()
+        .put("Key", "config")
+        .put("Value", Base64.getEncoder().encodeToString(value.getBytes()))
+        .put("CreateIndex", 1).put("ModifyIndex", index).put("LockIndex", 0).put("Flags", 0);
+      req.response().end(new JsonArray().add(kv).toBuffer());
+    }
+  }
+
+  private void update(String newValue) {
+    value = newValue;
+    index++;
+    List<HttpServerRequest> toRespond = new ArrayList<>(blocked);
+    blocked.clear();
+    toRespond.forEach(this::respond);
+  }
+
+  private ConsulJsonConfigStore createStore(JsonObject conf) {
+    store = new ConsulJsonConfigStore(vertx, conf.put("host", "localhost").put("port", server.actualPort()).put("path", "config"));
+    return store;
+  }
+
+  @Test
+  public void shouldReturnCachedBufferUntilIndexMoves(TestContext ctx) {
+    // given
+    value = "{\"x\":1}";
+    ConsulJsonConfigStore store = createStore(new JsonObject().put("blockingWait", "100ms"));
+
+    store.get(ctx.asyncAssertSuccess(first -> {
+      vertx.setTimer(300, t -> {
+        // when
+        store.get(ctx.asyncAssertSuccess(second -> {
+          // then
+          ctx.assertEquals(new JsonObject().put("x", 1), new JsonObject(first));
+          ctx.assertTrue(first == second);
+          ctx.assertEquals(1, reads);
+          ctx.assertTrue(blockingReads >= 2);
+        }));
+      });
+    }));
+  }
+
+  @Test
+  public void shouldPropagateChangeWithoutWaitingForBlockingQueryTimeout(TestContext ctx) {
+    // given
+    Async async = ctx.async();
+    value = "{\"x\":1}";
+    ConsulJsonConfigStore store = createStore(new JsonObject().put("blockingWait", "30s"));
+
+    store.get(ctx.asyncAssertSuccess(first -> {
+      vertx.setTimer(100, t1 -> {
+        // when
+        update("{\"x\":2}");
+
+        vertx.setTimer(100, t2 -> {
+          store.get(ctx.asyncAssertSuccess(second -> {
+            // then
+            ctx.assertEquals(new JsonObject().put("x", 2), new JsonObject(second));
+            ctx.assertEquals(1, reads);
+            async.complete();
+          }));
+        });
+      });
+    }));
+  }
+
+  @Test
+  public void shouldResetIndexWhenItGoesBackwards(TestContext ctx) {
+    // given
+    Async async = ctx.async();
+    value = "{\"x\":1}";
+    ConsulJsonConfigStore store = createStore(new JsonObject().put("blockingWait", "30s"));
+
+    store.get(ctx.asyncAssertSuccess(first -> {
+      vertx.setTimer(100, t1 -> {
+        // when
+        index = 4;
+        update("{\"x\":2}");
+
+        vertx.setTimer(100, t2 -> {
+          store.get(ctx.asyncAssertSuccess(second -> {
+            // then
+            ctx.assertEquals(new JsonObject().put("x", 2), new JsonObject(second));
+            ctx.assertEquals(Arrays.asList(10L, 0L, 5L), queriedIndexes);
+            async.complete();
+          }));
+        });
+      });
+    }));
+  }
+
+  @Test
+  public void shouldBackOffWhenBlockingQueryReturnsEarlyWithoutChange(TestContext ctx) {
+    // given
+    Async async = ctx.async();
+    value = "{\"x\":1}";
+    index = 0;
+    ConsulJsonConfigStore store = createStore(new JsonObject().put("blockingWait", "30s").put("blockingRetryDelay", 200));
+
+    // when
+    store.get(ctx.asyncAssertSuccess(first -> {
+      vertx.setTimer(500, t -> {
+        // then
+        ctx.assertTrue(queriedIndexes.stream().allMatch(i -> i == 1L));
+        ctx.assertTrue(blockingReads <= 4);
+        async.complete();
+      });
+    }));
+  }
+
+  @Test
+  public void shouldParseConsulDurations() {
+    Assert.assertEquals(30000, ConsulJsonConfigStore.parseDuration("30s"));
+    Assert.assertEquals(90000, ConsulJsonConfigStore.parseDuration("1m30s"));
+    Assert.assertEquals(500, ConsulJsonConfigStore.parseDuration("500ms"));
+  }
+
+  @Test
+  public void shouldReturnFallbackWhenValueIsMissing(TestContext ctx) {
+    // given
+    value = null;
+    ConsulJsonConfigStore store = createStore(new JsonObject().put("blockingWait", "100ms").put("fallback", new JsonObject().put("x", 0)));
+
+    // when
+    store.get(ctx.asyncAssertSuccess(buffer -> {
+      // then
+      ctx.assertEquals(new JsonObject().put("x", 0), new JsonObject(buffer));
+    }));
+  }
+
+  @Test
+  public void shouldReadValueOnEveryGetWhenBlockingQueriesDisabled(TestContext ctx) {
+    // given
+    value = "{\"x\":1}";
+    ConsulJsonConfigStore store = createStore(new JsonObject().put("blockingQueries", false));
+
+    store.get(ctx.asyncAssertSuccess(first -> {
+      // when
+      store.get(ctx.asyncAssertSuccess(second -> {
+        // then
+        ctx.assertEquals(2, reads);
+        ctx.assertEquals(0, blockingReads);
+      }));
+    }));
+  }
+}
@@ -26,7 +26,8 @@ import java.util.*;
  * * `outputPath` - optional, path at which the config is put
  * * `sourceFormat` - optional, format of the underlying configuration object, supported formats: 'json' (JSON object, default), 'string', `hocon`, `json-array`
  * * `base64Encode` - optional, default false, if true then it base64-encodes the config value
- * * `maskSecrets` - optional, default false, if true then config values are masked when printed in init log
+ * * `maskSecrets` - optional, default false, if true then config values are masked when printed in init log or returned by `ConfService.getMaskedGlobalConf`.
+ *   Only the secret paths are put at `_maskPaths` attribute, masking is applied when configuration is printed
  * * `cache` - optional, default false, if true then config values are read only once and are not refreshed
  *
  * ===== Example - wrapping JsonObject configuration attribute:
@@ -181,7 +182,7 @@ public class ExtConfigStore implements ConfigStore {
   private Buffer maskSecrets(Buffer buffer) {
     if (maskSecrets) {
       JsonObject o = buffer.toJsonObject();
-      return o.put("_mask", SecretsMask.create(o)).toBuffer();
+      return o.put("_maskPaths", SecretsMask.paths(o, outputPathOpt)).toBuffer();
     } else {
       return buffer;
     }
@@ -3,10 +3,27 @@ package com.cloudentity.tools.vertx.conf.ext;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
+import com.cloudentity.tools.vertx.json.JsonPath;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 public class SecretsMask {
+  /**
+   * Returns secret paths of the input, put at `_maskPaths` attribute of configuration.
+   * The paths object has `true` at `outputPath` or at every top-level attribute of the input if `outputPath` is empty.
+   */
+  public static JsonObject paths(JsonObject o, Optional<String> outputPath) {
+    JsonObject paths = new JsonObject();
+    if (outputPath.isPresent()) {
+      paths.put(outputPath.get(), true);
+    } else {
+      o.fieldNames().forEach(name -> paths.put(JsonPath.escapeKey(name), true));
+    }
+    return paths;
+  }
+
   /**
    * Returns a copy of the input with recursively replaced all primitive values (strings, numbers, booleans) with "***".
    */
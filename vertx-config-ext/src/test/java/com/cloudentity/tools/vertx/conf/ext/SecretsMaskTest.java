@@ -4,6 +4,8 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.junit.Test;
 
+import java.util.Optional;
+
 import static org.junit.Assert.assertEquals;
 
 public class SecretsMaskTest {
@@ -67,4 +69,27 @@ public class SecretsMaskTest {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void shouldMaskOutputPath() {
+    JsonObject config =
+      new JsonObject().put("a", new JsonObject().put("b", new JsonObject().put("secret", "x")));
+
+    JsonObject expected =
+      new JsonObject().put("a.b", true);
+
+    JsonObject actual = SecretsMask.paths(config, Optional.of("a.b"));
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void shouldMaskTopLevelAttributesWithoutOutputPath() {
+    JsonObject config =
+      new JsonObject().put("a", new JsonObject().put("secret", "x")).put("b.c", "y");
+
+    JsonObject expected =
+      new JsonObject().put("a", true).put("b\\.c", true);
+
+    JsonObject actual = SecretsMask.paths(config, Optional.empty());
+    assertEquals(expected, actual);
+  }
 }
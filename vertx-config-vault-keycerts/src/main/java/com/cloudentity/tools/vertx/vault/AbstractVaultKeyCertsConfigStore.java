@@ -9,6 +9,7 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.HttpRequest;
@@ -20,7 +21,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -44,6 +47,19 @@ public abstract class AbstractVaultKeyCertsConfigStore implements ConfigStore {
 
   private final Optional<JsonObject> fallback;
 
+  private final int maxConcurrentRequests;
+  private final long secretCacheTtl;
+  private final long secretMaxStale;
+
+  private final Map<String, CachedSecret> secrets = new ConcurrentHashMap<>();
+  private volatile List<JsonObject> lastBodies; // secret bodies `lastOutput` was built from, null for failed secrets
+  private volatile Buffer lastOutput;
+
+  /**
+   * Without a cache every scan would fetch every secret. A secret change is picked up within this time plus scan period.
+   */
+  public static final long DEFAULT_SECRET_CACHE_TTL = 60000L;
+
   private static final String VAULT_TOKEN_HEADER = "X-Vault-Token";
   private static final String VAULT_KEY_KEY = "key";
   private static final String VAULT_CERT_KEY = "cert";
@@ -70,6 +86,10 @@ public abstract class AbstractVaultKeyCertsConfigStore implements ConfigStore {
 
     fallback = Optional.ofNullable(config.getJsonObject("fallback"));
 
+    maxConcurrentRequests = config.getInteger("maxConcurrentRequests", 8);
+    secretCacheTtl = config.getLong("secretCacheTtl", DEFAULT_SECRET_CACHE_TTL);
+    secretMaxStale = config.getLong("secretMaxStale", 300000L);
+
     if (!keysOutputKeyOpt.isPresent() && !certsOutputKeyOpt.isPresent()) {
       throw new RuntimeException("'output.keys' or 'output.certs' need to be set");
     }
@@ -103,6 +123,24 @@ public abstract class AbstractVaultKeyCertsConfigStore implements ConfigStore {
     }
   }
 
+  private static class CachedSecret {
+    final JsonObject body;
+    final Optional<String> etag;
+    final long fetchedAt;
+
+    CachedSecret(JsonObject body, Optional<String> etag, long fetchedAt) {
+      this.body = body;
+      this.etag = etag;
+      this.fetchedAt = fetchedAt;
+    }
+  }
+
+  private static class SecretNotFoundException extends RuntimeException {
+    SecretNotFoundException(String message) {
+      super(message);
+    }
+  }
+
   protected abstract String listPath(String enginePath, String secretPath);
   protected abstract String secretPath(String enginePath, String secretPath);
 
@@ -110,12 +148,10 @@ public abstract class AbstractVaultKeyCertsConfigStore implements ConfigStore {
   public void get(Handler<AsyncResult<Buffer>> completionHandler) {
     listSecrets().compose(secretNamesOpt -> {
       if (secretNamesOpt.isPresent()) {
-        List<Future<Either<Throwable, JsonObject>>> futures = fetchSecrets(secretNamesOpt.get());
+        List<String> secretNames = secretNamesOpt.get();
+        secrets.keySet().retainAll(secretNames);
 
-        return FutureUtils.sequence(futures).compose(asyncErrorOrBodies -> {
-          KeyCerts keyCerts = readKeyCertsIgnoringErrors(asyncErrorOrBodies);
-          return Future.succeededFuture(buildOutput(keyCerts).toBuffer());
-        });
+        return FutureUtils.traverse(secretNames, maxConcurrentRequests, this::fetchSecret).map(this::buildOutputIfChanged);
       } else if (fallback.isPresent()){
         return Future.succeededFuture(fallback.get().toBuffer());
       } else {
@@ -124,6 +160,30 @@ public abstract class AbstractVaultKeyCertsConfigStore implements ConfigStore {
     }).setHandler(completionHandler);
   }
 
+  /**
+   * Returns previous output if it was built from the same secret bodies (cached bodies are reused when secrets did not change).
+   */
+  private synchronized Buffer buildOutputIfChanged(List<Either<Throwable, JsonObject>> errorOrBodies) {
+    List<JsonObject> bodies = errorOrBodies.stream().map(x -> x.isRight() ? x.get() : null).collect(Collectors.toList());
+    if (lastOutput != null && isSameInstances(bodies, lastBodies)) {
+      logFetchSecretErrors(filterLeft(errorOrBodies));
+      return lastOutput;
+    }
+
+    KeyCerts keyCerts = readKeyCertsIgnoringErrors(errorOrBodies);
+    lastBodies = bodies;
+    lastOutput = buildOutput(keyCerts).toBuffer();
+    return lastOutput;
+  }
+
+  private static boolean isSameInstances(List<JsonObject> xs, List<JsonObject> ys) {
+    if (ys == null || xs.size() != ys.size()) return false;
+    for (int i = 0; i < xs.size(); i++) {
+      if (xs.get(i) != ys.get(i)) return false;
+    }
+    return true;
+  }
+
   private Future<Optional<List<String>>> listSecrets() {
     HttpRequest<Buffer> request = client.get(listPath + "?list=true");
     vaultTokenOpt.map(vaultToken -> request.putHeader(VAULT_TOKEN_HEADER, vaultToken));
@@ -213,26 +273,52 @@ public abstract class AbstractVaultKeyCertsConfigStore implements ConfigStore {
       }).collect(Collectors.toList());
   }
 
-  private List<Future<Either<Throwable, JsonObject>>> fetchSecrets(List<String> secretNames) {
-    return
-      secretNames.stream()
-        .map(key -> {
-          String keyCertPath = secretPath + "/" + key;
-          return FutureUtils.<HttpResponse<Buffer>>asFuture(h -> {
-            HttpRequest<Buffer> request = client.get(keyCertPath);
-            vaultTokenOpt.map(vaultToken -> request.putHeader(VAULT_TOKEN_HEADER, vaultToken));
-            request.send(h);
-          })
-            .compose(response -> {
-              log.debug("Received secrets-get response from Vault. path=" + keyCertPath + ", code=" + response.statusCode() + ", body=" + response.bodyAsString());
-              if (response.statusCode() == 200) {
-                return Future.succeededFuture(response.bodyAsJsonObject());
-              } else {
-                return Future.failedFuture("Invalid response from Vault on getting keycerts. path=" + secretPath + "/" + key + ", code=" + response.statusCode() + ", body=" + response.bodyAsString());
-              }
-            })
-            .map(resp -> Either.<Throwable, JsonObject>right(resp))
-            .recover((Throwable ex) -> Future.succeededFuture(Either.left(new RuntimeException("Could not read keycerts from Vault at path=" + keyCertPath, ex))));
-        }).collect(Collectors.toList());
+  /**
+   * Returns cached secret body if it was fetched within `secretCacheTtl`, otherwise fetches it (conditionally, if Vault returned ETag).
+   * If the secret did not change then cached body instance is returned.
+   * If Vault returns 404 then the secret is evicted. If fetching fails otherwise then cached body is returned,
+   * if it was fetched within `secretMaxStale`.
+   */
+  private Future<Either<Throwable, JsonObject>> fetchSecret(String key) {
+    CachedSecret cached = secrets.get(key);
+    if (cached != null && System.currentTimeMillis() - cached.fetchedAt < secretCacheTtl) {
+      return Future.succeededFuture(Either.right(cached.body));
+    }
+
+    String keyCertPath = secretPath + "/" + key;
+    return FutureUtils.<HttpResponse<Buffer>>asFuture(h -> {
+      HttpRequest<Buffer> request = client.get(keyCertPath);
+      vaultTokenOpt.map(vaultToken -> request.putHeader(VAULT_TOKEN_HEADER, vaultToken));
+      if (cached != null) {
+        cached.etag.map(etag -> request.putHeader(HttpHeaders.IF_NONE_MATCH.toString(), etag));
+      }
+      request.send(h);
+    })
+      .compose(response -> {
+        log.debug("Received secrets-get response from Vault. path=" + keyCertPath + ", code=" + response.statusCode() + ", body=" + response.bodyAsString());
+        if (response.statusCode() == 304 && cached != null) {
+          secrets.put(key, new CachedSecret(cached.body, cached.etag, System.currentTimeMillis()));
+          return Future.succeededFuture(cached.body);
+        } else if (response.statusCode() == 404) {
+          secrets.remove(key);
+          return Future.failedFuture(new SecretNotFoundException("Keycerts not found in Vault. path=" + keyCertPath));
+        } else if (response.statusCode() == 200) {
+          JsonObject body = response.bodyAsJsonObject();
+          JsonObject unchangedOrNewBody = cached != null && cached.body.equals(body) ? cached.body : body;
+          secrets.put(key, new CachedSecret(unchangedOrNewBody, Optional.ofNullable(response.getHeader(HttpHeaders.ETAG.toString())), System.currentTimeMillis()));
+          return Future.succeededFuture(unchangedOrNewBody);
+        } else {
+          return Future.failedFuture("Invalid response from Vault on getting keycerts. path=" + secretPath + "/" + key + ", code=" + response.statusCode() + ", body=" + response.bodyAsString());
+        }
+      })
+      .map(resp -> Either.<Throwable, JsonObject>right(resp))
+      .recover((Throwable ex) -> {
+        if (cached != null && !(ex instanceof SecretNotFoundException) && System.currentTimeMillis() - cached.fetchedAt < secretMaxStale) {
+          log.error("Could not read keycerts from Vault at path=" + keyCertPath + ", using previous value", ex);
+          return Future.succeededFuture(Either.right(cached.body));
+        } else {
+          return Future.succeededFuture(Either.left(new RuntimeException("Could not read keycerts from Vault at path=" + keyCertPath, ex)));
+        }
+      });
   }
 }
@@ -75,6 +75,13 @@ import java.util.Optional;
  * `output.keys` - optional, name of output attribute with keys, string, keys are not loaded if not set
  * `output.certs` - optional, name of output attribute with keys, string, certs are not loaded if not set
  * `fallback` - optional, output configuration if listing secrets returns 404
+ * `maxConcurrentRequests` - optional, max number of secrets fetched at the same time, int, default 8
+ * `secretCacheTtl` - optional, milliseconds a fetched secret is reused for, long, default 60000; new secrets are fetched immediately,
+ *    changes of fetched secrets are read within `secretCacheTtl` plus scan period, set 0 to fetch every secret on every scan
+ * `secretMaxStale` - optional, milliseconds since last successful fetch of a secret during which its previous value is used if fetching it fails, long, default 300000
+ *
+ * A secret is fetched with If-None-Match header if Vault returned its ETag. If no secret has changed then the previous output is returned.
+ * If fetching of a secret fails then its previous value is used, if present and not older than `secretMaxStale`.
  */
 public class VaultKeyCertsConfigStore extends AbstractVaultKeyCertsConfigStore {
   public VaultKeyCertsConfigStore(Vertx vertx, JsonObject config) {
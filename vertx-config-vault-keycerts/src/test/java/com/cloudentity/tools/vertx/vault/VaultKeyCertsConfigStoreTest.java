@@ -0,0 +1,196 @@
+package com.cloudentity.tools.vertx.vault;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(VertxUnitRunner.class)
+public class VaultKeyCertsConfigStoreTest {
+  Vertx vertx;
+  HttpServer server;
+
+  Map<String, String> vaultCerts = new LinkedHashMap<>();
+  Map<String, AtomicInteger> secretReads = new ConcurrentHashMap<>();
+  Map<String, Integer> secretStatuses = new ConcurrentHashMap<>();
+  AtomicInteger running = new AtomicInteger();
+  AtomicInteger maxRunning = new AtomicInteger();
+
+  /**
+   * Imitates versioned secrets engine of Vault, responds to secret reads after 20ms.
+   * Reads of secret listed in `secretStatuses` fail with given status code.
+   */
+  @Before
+  public void init(TestContext ctx) {
+    vertx = Vertx.vertx();
+    server = vertx.createHttpServer().requestHandler(req -> {
+      if (req.path().equals("/v1/secret/metadata/certs")) {
+        req.response().end(new JsonObject().put("data", new JsonObject().put("keys", new JsonArray(new ArrayList<>(vaultCerts.keySet())))).toBuffer());
+      } else {
+        String name = req.path().substring("/v1/secret/data/certs/".length());
+        secretReads.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        vertx.setTimer(20, t -> {
+          running.decrementAndGet();
+          if (secretStatuses.containsKey(name)) {
+            req.response().setStatusCode(secretStatuses.get(name)).end();
+            return;
+          }
+          JsonObject data = new JsonObject().put("cert", vaultCerts.get(name));
+          req.response().end(new JsonObject().put("data", new JsonObject().put("data", data)).toBuffer());
+        });
+      }
+    });
+    server.listen(0, ctx.asyncAssertSuccess());
+  }
+
+  @After
+  public void finish(TestContext ctx) {
+    vertx.close(ctx.asyncAssertSuccess());
+  }
+
+  private VaultKeyCertsConfigStore createStore(long secretCacheTtl) {
+    return createStore(secretCacheTtl, 300000);
+  }
+
+  private VaultKeyCertsConfigStore createStore(long secretCacheTtl, long secretMaxStale) {
+    return new VaultKeyCertsConfigStore(vertx, storeConfig().put("secretCacheTtl", secretCacheTtl).put("secretMaxStale", secretMaxStale));
+  }
+
+  private JsonObject storeConfig() {
+    return new JsonObject()
+      .put("host", "localhost").put("port", server.actualPort())
+      .put("keyCertPath", "/certs")
+      .put("output", new JsonObject().put("certs", "certValues"))
+      .put("maxConcurrentRequests", 2);
+  }
+
+  @Test
+  public void shouldFetchSecretsWithBoundedParallelism(TestContext ctx) {
+    // given
+    for (int i = 0; i < 10; i++) vaultCerts.put("c" + i, "cert" + i);
+    VaultKeyCertsConfigStore store = createStore(60000);
+
+    // when
+    store.get(ctx.asyncAssertSuccess(buffer -> {
+      // then
+      ctx.assertEquals(10, new JsonObject(buffer).getJsonArray("certValues").size());
+      ctx.assertEquals("cert9", new JsonObject(buffer).getJsonArray("certValues").getString(9));
+      ctx.assertEquals(2, maxRunning.get());
+    }));
+  }
+
+  @Test
+  public void shouldFetchOnlyNewSecretsAndReturnPreviousOutputIfNothingChanged(TestContext ctx) {
+    // given
+    vaultCerts.put("a", "certA");
+    VaultKeyCertsConfigStore store = createStore(60000);
+
+    store.get(ctx.asyncAssertSuccess(first -> {
+      // when
+      store.get(ctx.asyncAssertSuccess(second -> {
+        vaultCerts.put("b", "certB");
+
+        store.get(ctx.asyncAssertSuccess(third -> {
+          // then
+          ctx.assertTrue(first == second);
+          ctx.assertEquals(new JsonArray().add("certA").add("certB"), new JsonObject(third).getJsonArray("certValues"));
+          ctx.assertEquals(1, secretReads.get("a").get());
+          ctx.assertEquals(1, secretReads.get("b").get());
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldReuseFetchedSecretsWithDefaultTtl(TestContext ctx) {
+    // given
+    vaultCerts.put("a", "certA");
+    VaultKeyCertsConfigStore store = new VaultKeyCertsConfigStore(vertx, storeConfig());
+
+    store.get(ctx.asyncAssertSuccess(first -> {
+      // when
+      store.get(ctx.asyncAssertSuccess(second -> {
+        // then
+        ctx.assertTrue(first == second);
+        ctx.assertEquals(1, secretReads.get("a").get());
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldRefetchSecretsAfterTtlAndDropRemovedSecrets(TestContext ctx) {
+    // given
+    vaultCerts.put("a", "certA");
+    vaultCerts.put("b", "certB");
+    VaultKeyCertsConfigStore store = createStore(0);
+
+    store.get(ctx.asyncAssertSuccess(first -> {
+      // when
+      vaultCerts.put("a", "certA2");
+      vaultCerts.remove("b");
+
+      store.get(ctx.asyncAssertSuccess(second -> {
+        // then
+        ctx.assertEquals(new JsonArray().add("certA2"), new JsonObject(second).getJsonArray("certValues"));
+        ctx.assertEquals(2, secretReads.get("a").get());
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldDropSecretWhenVaultReturnsNotFound(TestContext ctx) {
+    // given
+    vaultCerts.put("a", "certA");
+    vaultCerts.put("b", "certB");
+    VaultKeyCertsConfigStore store = createStore(0);
+
+    store.get(ctx.asyncAssertSuccess(first -> {
+      // when
+      secretStatuses.put("b", 404);
+
+      store.get(ctx.asyncAssertSuccess(second -> {
+        // then
+        ctx.assertEquals(new JsonArray().add("certA"), new JsonObject(second).getJsonArray("certValues"));
+      }));
+    }));
+  }
+
+  @Test
+  public void shouldUsePreviousValueOfFailedSecretOnlyWithinMaxStale(TestContext ctx) {
+    // given
+    Async async = ctx.async();
+    vaultCerts.put("a", "certA");
+    vaultCerts.put("b", "certB");
+    VaultKeyCertsConfigStore store = createStore(0, 200);
+
+    store.get(ctx.asyncAssertSuccess(first -> {
+      // when
+      secretStatuses.put("b", 500);
+
+      store.get(ctx.asyncAssertSuccess(second -> {
+        vertx.setTimer(300, t -> {
+          store.get(ctx.asyncAssertSuccess(third -> {
+            // then
+            ctx.assertEquals(new JsonArray().add("certA").add("certB"), new JsonObject(second).getJsonArray("certValues"));
+            ctx.assertEquals(new JsonArray().add("certA"), new JsonObject(third).getJsonArray("certValues"));
+            async.complete();
+          }));
+        });
+      }));
+    }));
+  }
+}
@@ -0,0 +1,257 @@
+package com.cloudentity.tools.vertx.json;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Modifiable views of JsonObject and JsonArray that must not change, e.g. immutable copy (see {@link ReadOnlyJson#immutableCopy(JsonObject, JsonObject)}).
+ *
+ * The view is created in constant time and reads the source until it is modified. On first modification the view copies
+ * the entries of its own level, nested objects and arrays stay views of the source until they are modified themselves.
+ * Reading nested object or array returns the same view every time, so modifications of nested views are visible in the parent view.
+ *
+ * Views are not thread-safe once modified, same as JsonObject. Like read-only JSON their `copy()` does not keep key order.
+ */
+public class CopyOnWriteJson {
+  public static JsonObject copyOnWrite(JsonObject o) {
+    return o != null ? new JsonObject(new CowMap(sourceMap(o))) : null;
+  }
+
+  public static JsonArray copyOnWrite(JsonArray a) {
+    return a != null ? new JsonArray(new CowList(sourceList(a))) : null;
+  }
+
+  /**
+   * Returns true if `a` and `b` are the same object or unmodified views of the same source, i.e. they are equal without comparing contents.
+   */
+  public static boolean sameContent(Object a, Object b) {
+    if (a == b) return true;
+    else if (a instanceof JsonObject && b instanceof JsonObject) return sourceMap((JsonObject) a) == sourceMap((JsonObject) b);
+    else if (a instanceof JsonArray && b instanceof JsonArray) return sourceList((JsonArray) a) == sourceList((JsonArray) b);
+    else return false;
+  }
+
+  /**
+   * Unmodified view is replaced with its source, so views of views do not chain.
+   */
+  private static Map<String, Object> sourceMap(JsonObject o) {
+    Map<String, Object> map = o.getMap();
+    if (map instanceof CowMap && ((CowMap) map).own == null) return ((CowMap) map).source;
+    else return map;
+  }
+
+  private static List<Object> sourceList(JsonArray a) {
+    List<Object> list = a.getList();
+    if (list instanceof CowList && ((CowList) list).own == null) return ((CowList) list).source;
+    else return list;
+  }
+
+  private static boolean isContainer(Object value) {
+    return value instanceof JsonObject || value instanceof JsonArray || value instanceof Map || value instanceof List;
+  }
+
+  private static Object view(Object value) {
+    if (value instanceof JsonObject) return copyOnWrite((JsonObject) value);
+    else if (value instanceof Map) return copyOnWrite(new JsonObject((Map<String, Object>) value));
+    else if (value instanceof JsonArray) return copyOnWrite((JsonArray) value);
+    else if (value instanceof List) return copyOnWrite(new JsonArray((List) value));
+    else return value;
+  }
+
+  private static class CowMap extends AbstractMap<String, Object> {
+    private final Map<String, Object> source;
+    private Map<String, Object> own; // copy of `source` level with nested views, set on first modification
+    private final Map<String, Object> children = new ConcurrentHashMap<>(); // views of nested objects and arrays of unmodified `source`
+
+    CowMap(Map<String, Object> source) {
+      this.source = source;
+    }
+
+    private Object child(String key, Object value) {
+      return isContainer(value) ? children.computeIfAbsent(key, k -> view(value)) : value;
+    }
+
+    private Map<String, Object> own() {
+      if (own == null) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (Entry<String, Object> e : source.entrySet()) {
+          copy.put(e.getKey(), child(e.getKey(), e.getValue()));
+        }
+        own = copy;
+        children.clear();
+      }
+      return own;
+    }
+
+    @Override
+    public Object get(Object key) {
+      if (own != null) return own.get(key);
+      else return key instanceof String ? child((String) key, source.get(key)) : source.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return own != null ? own.containsKey(key) : source.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return own != null ? own.size() : source.size();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+      return own().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+      return own().remove(key);
+    }
+
+    @Override
+    public void clear() {
+      own = new LinkedHashMap<>();
+      children.clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      if (own != null) return own.entrySet();
+
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          Iterator<Entry<String, Object>> it = source.entrySet().iterator();
+          return new Iterator<Entry<String, Object>>() {
+            private String lastKey;
+
+            @Override
+            public boolean hasNext() {
+              return it.hasNext();
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              lastKey = it.next().getKey();
+              return new CowEntry(lastKey);
+            }
+
+            @Override
+            public void remove() {
+              if (lastKey == null) throw new IllegalStateException();
+              own().remove(lastKey);
+              lastKey = null;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return CowMap.this.size();
+        }
+      };
+    }
+
+    /**
+     * Entry of unmodified map iteration, reads and writes the map, so it stays valid after the map is modified.
+     */
+    private class CowEntry implements Entry<String, Object> {
+      private final String key;
+
+      CowEntry(String key) {
+        this.key = key;
+      }
+
+      @Override
+      public String getKey() {
+        return key;
+      }
+
+      @Override
+      public Object getValue() {
+        return get(key);
+      }
+
+      @Override
+      public Object setValue(Object value) {
+        return put(key, value);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        return o instanceof Entry && new SimpleImmutableEntry<>(key, getValue()).equals(o);
+      }
+
+      @Override
+      public int hashCode() {
+        return new SimpleImmutableEntry<>(key, getValue()).hashCode();
+      }
+    }
+  }
+
+  private static class CowList extends AbstractList<Object> {
+    private final List<Object> source;
+    private List<Object> own; // copy of `source` level with nested views, set on first modification
+    private final Map<Integer, Object> children = new ConcurrentHashMap<>(); // views of nested objects and arrays of unmodified `source`
+
+    CowList(List<Object> source) {
+      this.source = source;
+    }
+
+    private Object child(int index, Object value) {
+      return isContainer(value) ? children.computeIfAbsent(index, i -> view(value)) : value;
+    }
+
+    private List<Object> own() {
+      if (own == null) {
+        List<Object> copy = new ArrayList<>(source.size());
+        for (int i = 0; i < source.size(); i++) {
+          copy.add(child(i, source.get(i)));
+        }
+        own = copy;
+        children.clear();
+      }
+      return own;
+    }
+
+    @Override
+    public Object get(int index) {
+      return own != null ? own.get(index) : child(index, source.get(index));
+    }
+
+    @Override
+    public int size() {
+      return own != null ? own.size() : source.size();
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+      return own().set(index, element);
+    }
+
+    @Override
+    public void add(int index, Object element) {
+      own().add(index, element);
+      modCount++;
+    }
+
+    @Override
+    public Object remove(int index) {
+      Object removed = own().remove(index);
+      modCount++;
+      return removed;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.cloudentity.tools.vertx.json;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Structural diff of two JsonObjects.
+ */
+public class JsonDiff {
+  /**
+   * Returns canonical paths (see {@link JsonPath#canonicalPath()}) of JsonObjects in `newObj` that are different than in `oldObj`, i.e. have changed, added or removed attribute,
+   * replaced other value or did not exist in `oldObj`. Paths of JsonObjects whose descendant changed are included.
+   * Paths of removed JsonObjects are not included.
+   *
+   * JsonObjects referenced by both `oldObj` and `newObj` are not compared, so diff of immutable copies sharing structure
+   * (see {@link ReadOnlyJson#immutableCopy(JsonObject, JsonObject)}) visits changed JsonObjects only.
+   */
+  public static Set<String> changedObjectPaths(JsonObject oldObj, JsonObject newObj) {
+    Set<String> paths = new HashSet<>();
+    if (newObj != null) {
+      diff(oldObj != null ? oldObj : new JsonObject(), newObj, null, paths);
+    }
+    return paths;
+  }
+
+  private static boolean diff(JsonObject oldObj, JsonObject newObj, String parentPath, Set<String> paths) {
+    boolean changed = false;
+    for (String key : newObj.fieldNames()) {
+      Object oldValue = oldObj.getValue(key);
+      Object newValue = newObj.getValue(key);
+      if (newValue instanceof JsonObject && newValue == oldValue) {
+        continue;
+      }
+
+      String path = JsonPath.append(parentPath, key);
+      if (newValue instanceof JsonObject) {
+        JsonObject oldChild = oldValue instanceof JsonObject ? (JsonObject) oldValue : new JsonObject();
+        if (diff(oldChild, (JsonObject) newValue, path, paths) || !(oldValue instanceof JsonObject)) {
+          paths.add(path);
+          changed = true;
+        }
+      } else if (!Objects.equals(oldValue, newValue) || !oldObj.containsKey(key)) {
+        changed = true;
+      }
+    }
+
+    for (String key : oldObj.fieldNames()) {
+      if (!newObj.containsKey(key)) {
+        changed = true;
+        break;
+      }
+    }
+    return changed;
+  }
+}
@@ -0,0 +1,150 @@
+package com.cloudentity.tools.vertx.json;
+
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Period-separated path to JsonObject attribute, split into keys once. Period in key is escaped with backslash, e.g. `x.key\.with\.dot`.
+ *
+ * Use {@link JsonPath#compile(String)} to get cached instance.
+ */
+public class JsonPath {
+  private static final Logger log = LoggerFactory.getLogger(JsonPath.class);
+  private static final int MAX_CACHE_SIZE = 10000;
+  private static final Map<String, JsonPath> cache = new ConcurrentHashMap<>();
+
+  private final String path;
+  private final String[] keys;
+  private volatile String canonicalPath;
+
+  private JsonPath(String path, String[] keys) {
+    this.path = path;
+    this.keys = keys;
+  }
+
+  /**
+   * Returns compiled path. Paths are cached, cache is cleared when it exceeds 10000 entries.
+   */
+  public static JsonPath compile(String path) {
+    JsonPath compiled = cache.get(path);
+    if (compiled == null) {
+      compiled = new JsonPath(path, split(path));
+      if (cache.size() >= MAX_CACHE_SIZE) {
+        cache.clear();
+      }
+      cache.put(path, compiled);
+    }
+    return compiled;
+  }
+
+  /**
+   * Splits path at non-escaped periods. Trailing empty keys are dropped, as in String.split.
+   */
+  private static String[] split(String path) {
+    List<String> keys = new ArrayList<>();
+    StringBuilder key = new StringBuilder();
+    for (int i = 0; i < path.length(); i++) {
+      char c = path.charAt(i);
+      if (c == '\\' && i + 1 < path.length() && path.charAt(i + 1) == '.') {
+        key.append('.');
+        i++;
+      } else if (c == '.') {
+        keys.add(key.toString());
+        key.setLength(0);
+      } else {
+        key.append(c);
+      }
+    }
+    keys.add(key.toString());
+
+    if (!path.isEmpty()) {
+      while (!keys.isEmpty() && keys.get(keys.size() - 1).isEmpty()) {
+        keys.remove(keys.size() - 1);
+      }
+    }
+    return keys.toArray(new String[0]);
+  }
+
+  /**
+   * Escapes periods in the key, so it can be used as path segment.
+   */
+  public static String escapeKey(String key) {
+    return key.indexOf('.') == -1 ? key : key.replace(".", "\\.");
+  }
+
+  /**
+   * Returns path of `key` nested in JsonObject at `parentPath` or path of root key if `parentPath` is null.
+   * Paths built with it are canonical, see {@link JsonPath#canonicalPath()}.
+   */
+  public static String append(String parentPath, String key) {
+    return parentPath == null ? escapeKey(key) : parentPath + "." + escapeKey(key);
+  }
+
+  public String path() {
+    return path;
+  }
+
+  /**
+   * Returns path of this path's keys built with {@link JsonPath#append(String, String)}, e.g. `x.key\.with\.dot` for `x.key\.with\.dot.`.
+   * Paths with the same keys have the same canonical path.
+   */
+  public String canonicalPath() {
+    String result = canonicalPath;
+    if (result == null) {
+      for (String key : keys) {
+        result = append(result, key);
+      }
+      canonicalPath = result = result != null ? result : "";
+    }
+    return result;
+  }
+
+  public List<String> keys() {
+    return Collections.unmodifiableList(Arrays.asList(keys));
+  }
+
+  /**
+   * Returns JsonObject at this path or empty if it's missing or is not JsonObject.
+   */
+  public Optional<JsonObject> resolve(JsonObject conf) {
+    return Optional.ofNullable(resolve(conf, keys.length));
+  }
+
+  /**
+   * Returns value at this path or empty if it's missing.
+   */
+  public Optional<Object> resolveValue(JsonObject conf) {
+    if (keys.length == 0) {
+      throw new IllegalArgumentException("Path '" + path + "' has no keys");
+    }
+    JsonObject parent = resolve(conf, keys.length - 1);
+    return parent != null ? Optional.ofNullable(parent.getValue(keys[keys.length - 1])) : Optional.empty();
+  }
+
+  private JsonObject resolve(JsonObject conf, int depth) {
+    JsonObject current = conf;
+    for (int i = 0; i < depth && current != null; i++) {
+      try {
+        current = current.getJsonObject(keys[i]);
+      } catch (Exception ex) {
+        log.error("Configuration at '{}' for path '{}' must be JsonObject. {}", keys[i], path, ex.getMessage());
+        return null;
+      }
+    }
+    return current;
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+}
@@ -0,0 +1,58 @@
+package com.cloudentity.tools.vertx.json;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Index of all JsonObjects nested in root JsonObject by their path, so looking up JsonObject by path is single map read.
+ *
+ * The index references the objects of the root, it should be rebuilt when the root is replaced.
+ * Paths missing in the index, e.g. of objects added to the root after the index was built, are resolved with {@link JsonPath}.
+ */
+public class JsonPathIndex {
+  private final JsonObject root;
+  private final Map<String, JsonObject> objects;
+
+  private JsonPathIndex(JsonObject root, Map<String, JsonObject> objects) {
+    this.root = root;
+    this.objects = objects;
+  }
+
+  public static JsonPathIndex build(JsonObject root) {
+    Map<String, JsonObject> objects = new HashMap<>();
+    if (root != null) {
+      index(root, null, objects);
+    }
+    return new JsonPathIndex(root, objects);
+  }
+
+  private static void index(JsonObject obj, String parentPath, Map<String, JsonObject> objects) {
+    for (Map.Entry<String, Object> entry : obj) {
+      if (entry.getValue() instanceof JsonObject) {
+        String path = JsonPath.append(parentPath, entry.getKey());
+        JsonObject value = (JsonObject) entry.getValue();
+        objects.put(path, value);
+        index(value, path, objects);
+      }
+    }
+  }
+
+  public JsonObject root() {
+    return root;
+  }
+
+  /**
+   * Returns JsonObject at given path or empty if it's missing or is not JsonObject, see {@link JsonExtractor#resolve(JsonObject, String)}.
+   */
+  public Optional<JsonObject> resolve(String path) {
+    JsonObject obj = objects.get(path);
+    if (obj != null) {
+      return Optional.of(obj);
+    } else {
+      return JsonPath.compile(path).resolve(root);
+    }
+  }
+}
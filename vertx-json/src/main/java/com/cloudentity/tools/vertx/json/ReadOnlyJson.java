@@ -0,0 +1,324 @@
+package com.cloudentity.tools.vertx.json;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only views of JsonObject and JsonArray.
+ *
+ * The view is created in constant time without copying: nested objects and arrays are wrapped in read-only views when first accessed
+ * and the view of each nested value is cached, so reading it again returns the same instance.
+ * Any modification of the view (e.g. put, remove, mergeIn) throws UnsupportedOperationException. Use `copy()` to get modifiable copy.
+ * The view reflects changes of the underlying object, so the owner must not modify it after sharing the view.
+ *
+ * Immutable copy (see {@link #immutableCopy(JsonObject, JsonObject)}) is a tree of persistent maps and arrays, so nobody can modify it.
+ * Its nested objects and arrays are wrapped when copied, so reading them returns the same instance every time.
+ * Hand it out to code that may modify it as copy-on-write view, see {@link CopyOnWriteJson}.
+ *
+ * Read-only JSON keeps key order, but its `copy()` does not: JsonObject keeps key order of a copy only if it is backed by LinkedHashMap.
+ */
+public class ReadOnlyJson {
+  public static JsonObject readOnly(JsonObject o) {
+    if (o == null || isReadOnly(o)) return o;
+    else return new JsonObject(new ReadOnlyMap(o.getMap()));
+  }
+
+  public static JsonArray readOnly(JsonArray a) {
+    if (a == null || isReadOnly(a)) return a;
+    else return new JsonArray(new ReadOnlyList(a.getList()));
+  }
+
+  /**
+   * Returns immutable deep copy of `o` sharing structure with `previous` immutable copy: JsonObjects and JsonArrays equal
+   * to the ones at the same path in `previous` are taken from `previous`, so unchanged values keep their identity
+   * and can be compared by reference. Returns `previous` if it is equal to `o`.
+   */
+  public static JsonObject immutableCopy(JsonObject o, JsonObject previous) {
+    return (JsonObject) immutableCopyValue(o, previous);
+  }
+
+  private static Object immutableCopyValue(Object value, Object previous) {
+    if (value instanceof Map) value = new JsonObject((Map<String, Object>) value);
+    else if (value instanceof List) value = new JsonArray((List) value);
+
+    if (isImmutable(value)) {
+      return value;
+    } else if (value instanceof JsonObject) {
+      JsonObject obj = (JsonObject) value;
+      JsonObject prev = previous instanceof JsonObject && isImmutable(previous) ? (JsonObject) previous : null;
+      boolean same = prev != null && prev.size() == obj.size();
+
+      Map<String, Object> copy = new LinkedHashMap<>();
+      for (Map.Entry<String, Object> entry : obj.getMap().entrySet()) {
+        Object prevValue = prev != null ? prev.getValue(entry.getKey()) : null;
+        Object copiedValue = immutableCopyValue(entry.getValue(), prevValue);
+        same = same && prev.containsKey(entry.getKey()) && sameValue(copiedValue, prevValue);
+        copy.put(entry.getKey(), copiedValue);
+      }
+      return same ? prev : new JsonObject(new PersistentMap(copy));
+    } else if (value instanceof JsonArray) {
+      JsonArray arr = (JsonArray) value;
+      JsonArray prev = previous instanceof JsonArray && isImmutable(previous) ? (JsonArray) previous : null;
+      boolean same = prev != null && prev.size() == arr.size();
+
+      List<Object> copy = new ArrayList<>(arr.size());
+      for (int i = 0; i < arr.size(); i++) {
+        Object prevValue = prev != null && i < prev.size() ? prev.getValue(i) : null;
+        Object copiedValue = immutableCopyValue(arr.getList().get(i), prevValue);
+        same = same && sameValue(copiedValue, prevValue);
+        copy.add(copiedValue);
+      }
+      return same ? prev : new JsonArray(new PersistentList(copy));
+    } else {
+      return value;
+    }
+  }
+
+  /**
+   * Returns true for immutable copy, unlike read-only view it does not reflect changes of any modifiable object.
+   */
+  public static boolean isImmutable(Object value) {
+    if (value instanceof JsonObject) return ((JsonObject) value).getMap() instanceof PersistentMap;
+    else if (value instanceof JsonArray) return ((JsonArray) value).getList() instanceof PersistentList;
+    else return false;
+  }
+
+  private static boolean sameValue(Object value, Object previous) {
+    if (value instanceof JsonObject || value instanceof JsonArray) return value == previous;
+    else return Objects.equals(value, previous);
+  }
+
+  public static boolean isReadOnly(JsonObject o) {
+    return o.getMap() instanceof ReadOnlyMap || o.getMap() instanceof PersistentMap;
+  }
+
+  public static boolean isReadOnly(JsonArray a) {
+    return a.getList() instanceof ReadOnlyList || a.getList() instanceof PersistentList;
+  }
+
+  private static Object wrap(Object value) {
+    if (value instanceof JsonObject) return readOnly((JsonObject) value);
+    else if (value instanceof Map) return readOnly(new JsonObject((Map<String, Object>) value));
+    else if (value instanceof JsonArray) return readOnly((JsonArray) value);
+    else if (value instanceof List) return readOnly(new JsonArray((List) value));
+    else return value;
+  }
+
+  /**
+   * Returns read-only view of `value` cached at `key`, so reading the same nested object or array returns the same view.
+   * The cached view is dropped if the underlying value at `key` was replaced.
+   */
+  private static <K> Object wrapCached(Map<K, Object> cache, K key, Object value) {
+    if (!(value instanceof JsonObject || value instanceof JsonArray || value instanceof Map || value instanceof List)) {
+      return value;
+    }
+
+    Object cached = cache.get(key);
+    if (cached != null && delegateOf(cached) == underlying(value)) {
+      return cached;
+    }
+
+    Object wrapped = wrap(value);
+    if (wrapped != value) cache.put(key, wrapped);
+    return wrapped;
+  }
+
+  private static Object underlying(Object value) {
+    if (value instanceof JsonObject) return ((JsonObject) value).getMap();
+    else if (value instanceof JsonArray) return ((JsonArray) value).getList();
+    else return value;
+  }
+
+  private static Object delegateOf(Object view) {
+    if (view instanceof JsonObject) return ((ReadOnlyMap) ((JsonObject) view).getMap()).delegate;
+    else return ((ReadOnlyList) ((JsonArray) view).getList()).delegate;
+  }
+
+  private static class ReadOnlyMap extends AbstractMap<String, Object> {
+    private final Map<String, Object> delegate;
+    private final Map<String, Object> children = new ConcurrentHashMap<>(); // views of nested objects and arrays, see `wrapCached`
+
+    ReadOnlyMap(Map<String, Object> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Object get(Object key) {
+      return key instanceof String ? wrapCached(children, (String) key, delegate.get(key)) : delegate.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return delegate.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return delegate.size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          Iterator<Entry<String, Object>> it = delegate.entrySet().iterator();
+          return new Iterator<Entry<String, Object>>() {
+            @Override
+            public boolean hasNext() {
+              return it.hasNext();
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              Entry<String, Object> e = it.next();
+              return new SimpleImmutableEntry<>(e.getKey(), wrapCached(children, e.getKey(), e.getValue()));
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return delegate.size();
+        }
+      };
+    }
+  }
+
+  private static class ReadOnlyList extends AbstractList<Object> {
+    private final List<Object> delegate;
+    private final Map<Integer, Object> children = new ConcurrentHashMap<>(); // views of nested objects and arrays, see `wrapCached`
+
+    ReadOnlyList(List<Object> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Object get(int index) {
+      return wrapCached(children, index, delegate.get(index));
+    }
+
+    @Override
+    public int size() {
+      return delegate.size();
+    }
+  }
+
+  /**
+   * Node of immutable copy. Copies of changed configuration share unchanged nodes, see `immutableCopy`.
+   * Keys keep insertion order. Values are immutable, so they are returned as they are.
+   */
+  private static class PersistentMap extends AbstractMap<String, Object> {
+    private static final int SCAN_SIZE = 8; // keys of smaller maps are scanned instead of indexed
+
+    private final String[] keys;
+    private final Object[] values;
+    private final Map<String, Integer> index;
+
+    PersistentMap(Map<String, Object> entries) {
+      keys = new String[entries.size()];
+      values = new Object[entries.size()];
+      index = entries.size() > SCAN_SIZE ? new HashMap<>(entries.size() * 2) : null;
+
+      int i = 0;
+      for (Entry<String, Object> e : entries.entrySet()) {
+        keys[i] = e.getKey();
+        values[i] = e.getValue();
+        if (index != null) index.put(e.getKey(), i);
+        i++;
+      }
+    }
+
+    private int indexOf(Object key) {
+      if (index != null) {
+        Integer i = index.get(key);
+        return i != null ? i : -1;
+      }
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i].equals(key)) return i;
+      }
+      return -1;
+    }
+
+    @Override
+    public Object get(Object key) {
+      int i = indexOf(key);
+      return i >= 0 ? values[i] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return keys.length;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new Iterator<Entry<String, Object>>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+              return i < keys.length;
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              if (i >= keys.length) throw new NoSuchElementException();
+              Entry<String, Object> e = new SimpleImmutableEntry<>(keys[i], values[i]);
+              i++;
+              return e;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return keys.length;
+        }
+      };
+    }
+  }
+
+  /**
+   * Array of immutable copy, see {@link PersistentMap}.
+   */
+  private static class PersistentList extends AbstractList<Object> {
+    private final Object[] values;
+
+    PersistentList(List<Object> values) {
+      this.values = values.toArray();
+    }
+
+    @Override
+    public Object get(int index) {
+      return values[index];
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+}
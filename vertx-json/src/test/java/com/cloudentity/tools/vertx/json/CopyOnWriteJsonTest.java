@@ -0,0 +1,88 @@
+package com.cloudentity.tools.vertx.json;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+
+public class CopyOnWriteJsonTest {
+  JsonObject source = ReadOnlyJson.immutableCopy(new JsonObject()
+    .put("x", "value")
+    .put("nested", new JsonObject().put("key", "value"))
+    .put("array", new JsonArray().add(new JsonObject().put("key", "value"))), null);
+
+  @Test
+  public void shouldReadSourceWithoutCopying() {
+    // when
+    JsonObject view = CopyOnWriteJson.copyOnWrite(source);
+
+    // then
+    Assert.assertEquals(source, view);
+    Assert.assertEquals(source.encode(), view.encode());
+    Assert.assertSame(view.getJsonObject("nested"), view.getJsonObject("nested"));
+    Assert.assertTrue(CopyOnWriteJson.sameContent(source, view));
+    Assert.assertTrue(CopyOnWriteJson.sameContent(source.getJsonObject("nested"), view.getJsonObject("nested")));
+    Assert.assertTrue(CopyOnWriteJson.sameContent(view, CopyOnWriteJson.copyOnWrite(source)));
+  }
+
+  @Test
+  public void shouldModifyViewWithoutModifyingSource() {
+    // given
+    JsonObject view = CopyOnWriteJson.copyOnWrite(source);
+    JsonObject nested = view.getJsonObject("nested");
+
+    // when
+    nested.put("y", "value");
+    view.getJsonArray("array").getJsonObject(0).remove("key");
+    view.put("z", 1);
+
+    // then
+    Assert.assertEquals("value", view.getJsonObject("nested").getString("y"));
+    Assert.assertSame(nested, view.getJsonObject("nested"));
+    Assert.assertTrue(view.getJsonArray("array").getJsonObject(0).isEmpty());
+    Assert.assertEquals(1, view.getInteger("z").intValue());
+
+    Assert.assertNull(source.getJsonObject("nested").getString("y"));
+    Assert.assertEquals("value", source.getJsonArray("array").getJsonObject(0).getString("key"));
+    Assert.assertFalse(source.containsKey("z"));
+    Assert.assertFalse(CopyOnWriteJson.sameContent(source, view));
+    Assert.assertFalse(CopyOnWriteJson.sameContent(source.getJsonObject("nested"), nested));
+  }
+
+  @Test
+  public void shouldModifyViewWhileIterating() {
+    // given
+    JsonObject view = CopyOnWriteJson.copyOnWrite(source);
+
+    // when
+    Iterator<Map.Entry<String, Object>> it = view.getMap().entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, Object> entry = it.next();
+      if (entry.getKey().equals("x")) entry.setValue("changed");
+      if (entry.getKey().equals("array")) it.remove();
+    }
+
+    // then
+    Assert.assertEquals(new JsonObject().put("x", "changed").put("nested", new JsonObject().put("key", "value")), view);
+    Assert.assertEquals(3, source.size());
+  }
+
+  @Test
+  public void shouldModifyViewOfArray() {
+    // given
+    JsonArray view = CopyOnWriteJson.copyOnWrite(source.getJsonArray("array"));
+
+    // when
+    view.add("value");
+    view.getJsonObject(0).put("y", "value");
+
+    // then
+    Assert.assertEquals(2, view.size());
+    Assert.assertEquals("value", view.getJsonObject(0).getString("y"));
+    Assert.assertEquals(1, source.getJsonArray("array").size());
+    Assert.assertNull(source.getJsonArray("array").getJsonObject(0).getString("y"));
+  }
+}
@@ -0,0 +1,87 @@
+package com.cloudentity.tools.vertx.json;
+
+import com.google.common.collect.Sets;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+
+public class JsonDiffTest {
+  JsonObject oldObj = new JsonObject()
+    .put("a", new JsonObject().put("x", 1).put("nested", new JsonObject().put("y", 1)))
+    .put("b", new JsonObject().put("list", new JsonArray().add(1)))
+    .put("c", new JsonObject());
+
+  @Test
+  public void shouldReturnNoPathsWhenNothingChanged() {
+    Assert.assertTrue(JsonDiff.changedObjectPaths(oldObj, oldObj.copy()).isEmpty());
+  }
+
+  @Test
+  public void shouldReturnChangedObjectAndItsAncestors() {
+    // given
+    JsonObject newObj = oldObj.copy();
+    newObj.getJsonObject("a").getJsonObject("nested").put("y", 2);
+
+    // when
+    Set<String> paths = JsonDiff.changedObjectPaths(oldObj, newObj);
+
+    // then
+    Assert.assertEquals(Sets.newHashSet("a", "a.nested"), paths);
+  }
+
+  @Test
+  public void shouldReturnObjectWithAddedOrRemovedAttribute() {
+    // given
+    JsonObject newObj = oldObj.copy();
+    newObj.getJsonObject("b").remove("list");
+    newObj.getJsonObject("c").putNull("z");
+
+    // when
+    Set<String> paths = JsonDiff.changedObjectPaths(oldObj, newObj);
+
+    // then
+    Assert.assertEquals(Sets.newHashSet("b", "c"), paths);
+  }
+
+  @Test
+  public void shouldReturnAllObjectsOfNewSubtree() {
+    // given
+    JsonObject newObj = oldObj.copy().put("key.with.dot", new JsonObject().put("d", new JsonObject()));
+
+    // when
+    Set<String> paths = JsonDiff.changedObjectPaths(oldObj, newObj);
+
+    // then
+    Assert.assertEquals(Sets.newHashSet("key\\.with\\.dot", "key\\.with\\.dot.d"), paths);
+  }
+
+  @Test
+  public void shouldReturnObjectThatReplacedOtherValue() {
+    // given
+    JsonObject newObj = oldObj.copy().put("a", "value");
+    newObj.getJsonObject("b").put("list", new JsonObject());
+
+    // when
+    Set<String> paths = JsonDiff.changedObjectPaths(oldObj, newObj);
+
+    // then
+    Assert.assertEquals(Sets.newHashSet("b", "b.list"), paths);
+  }
+
+  @Test
+  public void shouldReturnChangedPathsOfImmutableCopies() {
+    // given
+    JsonObject oldCopy = ReadOnlyJson.immutableCopy(oldObj, null);
+    JsonObject newObj = oldObj.copy();
+    newObj.getJsonObject("a").getJsonObject("nested").put("y", 2);
+
+    // when
+    Set<String> paths = JsonDiff.changedObjectPaths(oldCopy, ReadOnlyJson.immutableCopy(newObj, oldCopy));
+
+    // then
+    Assert.assertEquals(Sets.newHashSet("a", "a.nested"), paths);
+  }
+}
@@ -0,0 +1,43 @@
+package com.cloudentity.tools.vertx.json;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonPathIndexTest {
+  JsonObject root = new JsonObject()
+    .put("x", new JsonObject()
+      .put("y", new JsonObject().put("key", "value"))
+      .put("key.with.dot", new JsonObject().put("key", "dot")))
+    .put("z", "value");
+
+  @Test
+  public void shouldResolveIndexedObjects() {
+    // when
+    JsonPathIndex index = JsonPathIndex.build(root);
+
+    // then
+    Assert.assertSame(root.getJsonObject("x"), index.resolve("x").get());
+    Assert.assertEquals("value", index.resolve("x.y").get().getString("key"));
+    Assert.assertEquals("dot", index.resolve("x.key\\.with\\.dot").get().getString("key"));
+    Assert.assertFalse(index.resolve("z").isPresent());
+    Assert.assertFalse(index.resolve("x.missing").isPresent());
+  }
+
+  @Test
+  public void shouldResolveObjectAddedAfterIndexWasBuilt() {
+    // given
+    JsonPathIndex index = JsonPathIndex.build(root);
+
+    // when
+    root.getJsonObject("x").put("added", new JsonObject().put("key", "added"));
+
+    // then
+    Assert.assertEquals("added", index.resolve("x.added").get().getString("key"));
+  }
+
+  @Test
+  public void shouldResolveNothingInNullRoot() {
+    Assert.assertFalse(JsonPathIndex.build(null).resolve("x").isPresent());
+  }
+}
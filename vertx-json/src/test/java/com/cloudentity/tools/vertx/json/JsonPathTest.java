@@ -0,0 +1,69 @@
+package com.cloudentity.tools.vertx.json;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public class JsonPathTest {
+  @Test
+  public void shouldSplitPathAtNonEscapedPeriods() {
+    Assert.assertEquals(Arrays.asList("x", "key.with.dot", "y"), JsonPath.compile("x.key\\.with\\.dot.y").keys());
+    Assert.assertEquals(Arrays.asList("x", "", "y"), JsonPath.compile("x..y").keys());
+    Assert.assertEquals(Arrays.asList("x"), JsonPath.compile("x.").keys());
+    Assert.assertEquals(Arrays.asList(""), JsonPath.compile("").keys());
+  }
+
+  @Test
+  public void shouldBuildCanonicalPath() {
+    Assert.assertEquals("x.key\\.with\\.dot", JsonPath.append(JsonPath.append(null, "x"), "key.with.dot"));
+    Assert.assertEquals("x.key\\.with\\.dot", JsonPath.compile("x.key\\.with\\.dot.").canonicalPath());
+    Assert.assertEquals("x..y", JsonPath.compile("x..y").canonicalPath());
+    Assert.assertEquals("", JsonPath.compile("").canonicalPath());
+  }
+
+  @Test
+  public void shouldReturnCachedPath() {
+    Assert.assertSame(JsonPath.compile("x.y"), JsonPath.compile("x.y"));
+  }
+
+  @Test
+  public void shouldResolveNestedObject() {
+    // given
+    JsonObject object = new JsonObject().put("x", new JsonObject().put("y", new JsonObject().put("key", "value")));
+
+    // when
+    Optional<JsonObject> result = JsonPath.compile("x.y").resolve(object);
+
+    // then
+    Assert.assertEquals("value", result.get().getString("key"));
+  }
+
+  @Test
+  public void shouldNotResolveObjectUnderNonJsonObject() {
+    // given
+    JsonObject object = new JsonObject().put("x", "value");
+
+    // when
+    Optional<JsonObject> result = JsonPath.compile("x.y").resolve(object);
+
+    // then
+    Assert.assertFalse(result.isPresent());
+  }
+
+  @Test
+  public void shouldResolveNestedValue() {
+    // given
+    JsonObject object = new JsonObject().put("x", new JsonObject().put("key", 1));
+
+    // when
+    Optional<Object> result = JsonPath.compile("x.key").resolveValue(object);
+
+    // then
+    Assert.assertEquals(1, result.get());
+    Assert.assertFalse(JsonPath.compile("x.missing").resolveValue(object).isPresent());
+    Assert.assertFalse(JsonPath.compile("missing.key").resolveValue(object).isPresent());
+  }
+}
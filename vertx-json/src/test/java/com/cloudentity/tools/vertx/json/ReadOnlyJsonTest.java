@@ -0,0 +1,174 @@
+package com.cloudentity.tools.vertx.json;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReadOnlyJsonTest {
+  JsonObject object = new JsonObject()
+    .put("x", "value")
+    .put("nested", new JsonObject().put("key", "value"))
+    .put("array", new JsonArray().add(new JsonObject().put("key", "value")));
+
+  @Test
+  public void shouldReadValuesWithoutCopying() {
+    // when
+    JsonObject result = ReadOnlyJson.readOnly(object);
+
+    // then
+    Assert.assertEquals(object, result);
+    Assert.assertEquals(object.encode(), result.encode());
+    Assert.assertEquals("value", result.getJsonObject("nested").getString("key"));
+    Assert.assertEquals("value", result.getJsonArray("array").getJsonObject(0).getString("key"));
+    Assert.assertTrue(ReadOnlyJson.isReadOnly(result.getJsonObject("nested")));
+    Assert.assertTrue(ReadOnlyJson.isReadOnly(result.getJsonArray("array")));
+  }
+
+  @Test
+  public void shouldReturnSameViewOfNestedValue() {
+    // given
+    JsonObject result = ReadOnlyJson.readOnly(object.copy());
+
+    // then
+    Assert.assertSame(result.getJsonObject("nested"), result.getJsonObject("nested"));
+    Assert.assertSame(result.getJsonArray("array"), result.getJsonArray("array"));
+    Assert.assertSame(result.getJsonArray("array").getJsonObject(0), result.getJsonArray("array").getJsonObject(0));
+  }
+
+  @Test
+  public void shouldReflectReplacedNestedValue() {
+    // given
+    JsonObject underlying = object.copy();
+    JsonObject result = ReadOnlyJson.readOnly(underlying);
+    result.getJsonObject("nested");
+
+    // when
+    underlying.put("nested", new JsonObject().put("key", "other"));
+
+    // then
+    Assert.assertEquals("other", result.getJsonObject("nested").getString("key"));
+  }
+
+  @Test
+  public void shouldRejectModificationsOfNestedValues() {
+    JsonObject result = ReadOnlyJson.readOnly(object);
+
+    assertUnsupported(() -> result.put("y", "value"));
+    assertUnsupported(() -> result.remove("x"));
+    assertUnsupported(() -> result.mergeIn(new JsonObject().put("y", "value")));
+    assertUnsupported(() -> result.getJsonObject("nested").put("y", "value"));
+    assertUnsupported(() -> result.getJsonArray("array").add("value"));
+    assertUnsupported(() -> result.getJsonArray("array").getJsonObject(0).clear());
+    result.forEach(entry -> assertUnsupported(() -> entry.setValue("value")));
+  }
+
+  @Test
+  public void shouldReturnModifiableCopy() {
+    // when
+    JsonObject copy = ReadOnlyJson.readOnly(object).copy();
+    copy.getJsonObject("nested").put("y", "value");
+
+    // then
+    Assert.assertFalse(ReadOnlyJson.isReadOnly(copy));
+    Assert.assertEquals("value", copy.getJsonObject("nested").getString("y"));
+    Assert.assertNull(object.getJsonObject("nested").getString("y"));
+  }
+
+  @Test
+  public void shouldKeepKeyOrder() {
+    // given
+    JsonObject ordered = new JsonObject();
+    JsonObject nested = new JsonObject();
+    for (int i = 20; i > 0; i--) {
+      ordered.put("key" + i, i);
+      nested.put("key" + i, i);
+    }
+    ordered.put("nested", nested);
+
+    // when
+    JsonObject view = ReadOnlyJson.readOnly(ordered);
+    JsonObject immutableCopy = ReadOnlyJson.immutableCopy(ordered, null);
+
+    // then
+    Assert.assertEquals(ordered.encode(), view.encode());
+    Assert.assertEquals(ordered.encode(), immutableCopy.encode());
+    Assert.assertEquals(ordered.fieldNames(), immutableCopy.fieldNames());
+    Assert.assertEquals(20, immutableCopy.getInteger("key20").intValue());
+    Assert.assertNull(immutableCopy.getValue("missing"));
+  }
+
+  @Test
+  public void shouldRejectModificationsOfMap() {
+    // given
+    JsonObject result = ReadOnlyJson.readOnly(object);
+
+    // then
+    assertUnsupported(() -> result.getMap().putIfAbsent("y", "value"));
+    assertUnsupported(() -> result.getMap().computeIfAbsent("y", k -> "value"));
+    assertUnsupported(() -> result.getMap().merge("x", "value", (a, b) -> b));
+    assertUnsupported(() -> result.getMap().replaceAll((k, v) -> v));
+    assertUnsupported(() -> result.fieldNames().remove("x"));
+    assertUnsupported(() -> result.remove("x"));
+    Assert.assertTrue(result.getMap().containsValue("value"));
+    Assert.assertEquals(object.fieldNames(), result.fieldNames());
+    Assert.assertEquals(object.size(), result.getMap().values().size());
+  }
+
+  @Test
+  public void shouldBuildImmutableCopy() {
+    // when
+    JsonObject original = object.copy();
+    JsonObject result = ReadOnlyJson.immutableCopy(original, null);
+    original.getJsonObject("nested").put("y", "value");
+
+    // then
+    Assert.assertEquals(object, result);
+    Assert.assertSame(result.getJsonObject("nested"), result.getJsonObject("nested"));
+    Assert.assertSame(result.getJsonArray("array").getJsonObject(0), result.getJsonArray("array").getJsonObject(0));
+    assertUnsupported(() -> result.getJsonObject("nested").put("y", "value"));
+    assertUnsupported(() -> result.getJsonArray("array").getJsonObject(0).clear());
+    assertUnsupported(() -> result.getMap().remove("x"));
+    Assert.assertTrue(ReadOnlyJson.isImmutable(result));
+    Assert.assertFalse(ReadOnlyJson.isImmutable(ReadOnlyJson.readOnly(object)));
+  }
+
+  @Test
+  public void shouldShareUnchangedValuesWithPreviousImmutableCopy() {
+    // given
+    JsonObject previous = ReadOnlyJson.immutableCopy(object, null);
+    JsonObject changed = object.copy().put("x", "changed");
+
+    // when
+    JsonObject result = ReadOnlyJson.immutableCopy(changed, previous);
+
+    // then
+    Assert.assertEquals(changed, result);
+    Assert.assertNotSame(previous, result);
+    Assert.assertSame(previous.getJsonObject("nested"), result.getJsonObject("nested"));
+    Assert.assertSame(previous.getJsonArray("array"), result.getJsonArray("array"));
+    Assert.assertSame(previous, ReadOnlyJson.immutableCopy(object.copy(), previous));
+  }
+
+  @Test
+  public void shouldNotShareValuesOfReadOnlyView() {
+    // given
+    JsonObject original = object.copy();
+    JsonObject view = ReadOnlyJson.readOnly(original);
+
+    // when
+    JsonObject result = ReadOnlyJson.immutableCopy(original.copy(), view);
+    original.getJsonObject("nested").put("y", "value");
+
+    // then
+    Assert.assertEquals(object, result);
+  }
+
+  private void assertUnsupported(Runnable r) {
+    try {
+      r.run();
+      Assert.fail("modification should fail");
+    } catch (UnsupportedOperationException ex) {
+    }
+  }
+}
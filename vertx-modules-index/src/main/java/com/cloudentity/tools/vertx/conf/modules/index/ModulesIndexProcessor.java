@@ -0,0 +1,89 @@
+package com.cloudentity.tools.vertx.conf.modules.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes index of configuration modules, i.e. files in `modules` folder of class output, to `META-INF/cloudentity/modules.idx`.
+ * The index has one module name per line, e.g. `sd-provider/static` for `modules/sd-provider/static.json`.
+ *
+ * The processor is registered in `META-INF/services`, so javac runs it in every project having `vertx-modules-index` on classpath.
+ * Resources are copied to class output before compilation, so the index is written in the first round of processing.
+ * The index is not written if there are no modules or the project has no Java sources to compile.
+ */
+@SupportedAnnotationTypes("*")
+public class ModulesIndexProcessor extends AbstractProcessor {
+  public static final String MODULES_FOLDER = "modules";
+  public static final String MODULES_INDEX = "META-INF/cloudentity/modules.idx";
+
+  private boolean processed;
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (!processed) {
+      processed = true;
+      try {
+        writeIndex();
+      } catch (Exception ex) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Could not write modules index: " + ex.getMessage());
+      }
+    }
+    return false;
+  }
+
+  private void writeIndex() throws IOException {
+    // Filer does not resolve directories, so `modules` folder is located relatively to the index file (it is not written if there are no modules)
+    FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", MODULES_INDEX);
+    Path classOutput = Paths.get(index.toUri()).getParent().getParent().getParent();
+    Path modulesDir = classOutput.resolve(MODULES_FOLDER);
+    if (!Files.isDirectory(modulesDir)) {
+      return;
+    }
+
+    List<String> moduleNames;
+    try (Stream<Path> files = Files.walk(modulesDir)) {
+      moduleNames = files.filter(Files::isRegularFile)
+        .map(file -> moduleName(modulesDir.relativize(file).toString().replace(File.separatorChar, '/')))
+        .filter(name -> name != null)
+        .distinct()
+        .sorted()
+        .collect(Collectors.toList());
+    }
+
+    if (!moduleNames.isEmpty()) {
+      try (Writer writer = index.openWriter()) {
+        writer.write(String.join("\n", moduleNames));
+        writer.write("\n");
+      }
+    }
+  }
+
+  /**
+   * Returns module name, i.e. path without extension, or null if the path has no extension.
+   */
+  static String moduleName(String path) {
+    int extension = path.lastIndexOf('.');
+    return extension > 0 ? path.substring(0, extension) : null;
+  }
+}
@@ -283,7 +283,7 @@ class RegistryVerticle(_registryType: RegistryType, isConfRequired: Boolean) ext
   }
 
   def deployVerticle(verticleId: VerticleId, descriptor: VerticleDescriptor): Future[Throwable \/ Deployment] = {
-    val opts = descriptor.options.put("config", buildConfig(verticleId, descriptor))
+    val opts = descriptor.options.copy().put("config", buildConfig(verticleId, descriptor)) // descriptor comes from immutable configuration
     log.debug(s"Deploying verticle ${buildDeploymentLogObj(verticleId.value, descriptor)}")
 
     val deploymentOptions = new DeploymentOptions(opts)
@@ -312,7 +312,7 @@ class RegistryVerticle(_registryType: RegistryType, isConfRequired: Boolean) ext
   private def buildConfig(verticleId: VerticleId, descriptor: VerticleDescriptor) = {
     val opts = descriptor.options
 
-    val config = Option(opts.getJsonObject("config")).getOrElse(new JsonObject())
+    val config = Option(opts.getJsonObject("config")).map(_.copy()).getOrElse(new JsonObject())
 
     config.put("verticleId", verticleId.value)
     descriptor.configPath
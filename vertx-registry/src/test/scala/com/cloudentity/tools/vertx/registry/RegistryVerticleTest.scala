@@ -191,6 +191,26 @@ class RegistryVerticleTest() extends VertxUnitTest with FutureConversions {
       }.setHandler(context.asyncAssertSuccess())
   }
 
+  @Test
+  def shouldSucceedStartupOfVerticleWithOptionsFromImmutableConfig(context: TestContext): Unit = {
+    // given
+    val configFile = copyDescriptorsToTempFile("src/test/resources/registry/verticle-options.json")
+    val typ = RegistryType("test")
+
+    val client = VertxEndpointClient.make(vertx, classOf[RegistryService], Optional.of(typ.value))
+    // when
+    ConfVerticleDeploy.deployFileConfVerticle(vertx, configFile.getAbsolutePath)
+      .compose { _ => VertxDeploy.deploy(vertx, new RegistryVerticle(typ)) }
+      .compose { _ => client.getVerticleIds }
+      .compose { (ids: java.util.List[String]) =>
+        // then
+        context.assertEquals(1, ids.size)
+        context.assertTrue(ids.contains("verticle-with-options"))
+
+        Future.succeededFuture(())
+      }.setHandler(context.asyncAssertSuccess())
+  }
+
   @Test
   def shouldSucceedStartupOfVerticleWithAddressPrefix(context: TestContext): Unit = {
     // given
@@ -329,6 +349,13 @@ class TestVerticleWithConfig extends AbstractVerticle {
   }
 }
 
+class TestVerticleWithOptionsConfig extends AbstractVerticle {
+  override def start() = {
+    Assert.assertEquals("value", config().getString("attribute"))
+    Assert.assertEquals("verticle-with-options", config().getString("verticleId"))
+  }
+}
+
 class TestVerticleWithPrefix extends AbstractVerticle {
   override def start() = {
     Assert.assertEquals("address-prefix", config().getString("prefix"))
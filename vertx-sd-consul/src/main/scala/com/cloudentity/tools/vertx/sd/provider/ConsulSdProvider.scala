@@ -62,7 +62,7 @@ class ConsulSdProvider extends ComponentVerticle {
     for {
       consulConfOpt <- consulConfEither
       consulConf    <- consulConfOpt.orElse(defaultConsulConfOpt).toRight(missingAttr(s"$CONSUL_CONF_KEY"))
-      importerConf   = discoveryOpt.getOrElse(new VxJsonObject)
+      importerConf   = discoveryOpt.map(_.copy()).getOrElse(new VxJsonObject) // configuration is immutable
     } yield {
       importerConf.mergeIn(consulConf.toJson)
     }
@@ -0,0 +1,22 @@
+package com.cloudentity.tools.vertx.sd.provider
+
+import com.cloudentity.tools.vertx.json.ReadOnlyJson
+import io.vertx.core.json.JsonObject
+import org.junit.{Assert, Test}
+
+class ConsulSdProviderTest {
+  @Test
+  def shouldBuildConfigurationWithoutModifyingImmutableDiscoveryConfig() = {
+    // given
+    val discovery = ReadOnlyJson.immutableCopy(new JsonObject().put("scan-period", 2000), null)
+    val consul = new JsonObject().put("host", "consul").put("port", 8500)
+
+    // when
+    val result = new ConsulSdProvider().buildConfiguration(Some(discovery), Some(consul), None)
+
+    // then
+    Assert.assertEquals(Some(2000), result.toOption.map(_.getInteger("scan-period").intValue()))
+    Assert.assertEquals(Some("consul"), result.toOption.map(_.getString("host")))
+    Assert.assertEquals(new JsonObject().put("scan-period", 2000), discovery)
+  }
+}
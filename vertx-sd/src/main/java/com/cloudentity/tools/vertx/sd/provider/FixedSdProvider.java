@@ -100,7 +100,7 @@ public class FixedSdProvider extends ComponentVerticle {
     if (record.getJsonObject("metadata") == null) {
       JsonObject location = record.getJsonObject("location", new JsonObject());
       String nodeId = String.format("%s:%s:%d", record.getString("name"), location.getString("host"), location.getInteger("port"));
-      record.put("metadata", new JsonObject().put("ID", nodeId));
+      return record.copy().put("metadata", new JsonObject().put("ID", nodeId)); // configuration is immutable
     }
 
     return record;
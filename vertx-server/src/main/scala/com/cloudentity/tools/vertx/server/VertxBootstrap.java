@@ -33,7 +33,11 @@ public class VertxBootstrap extends AbstractVerticle {
 
   @Override
   public void start(Future startFuture) throws Exception {
-    VertxBus.registerPayloadCodec(vertx.eventBus());
+    if (vertx.isClustered()) {
+      VertxBus.registerClusteredPayloadCodec(vertx.eventBus());
+    } else {
+      VertxBus.registerPayloadCodec(vertx.eventBus());
+    }
     VertxJson.registerJsonObjectDeserializer();
     VertxJson.configureJsonMapper();
 
@@ -52,11 +52,11 @@ class ApiServer(serverConf: ApiServerConf) extends ScalaServiceVerticle with Htt
   }
 
   private def makeRouteServiceClient(routeId: String) = {
-    VertxEndpointClient.make(vertx, classOf[RouteService], Optional.of(routeId))
+    VertxEndpointClient.makeCached(vertx, classOf[RouteService], Optional.of(routeId))
   }
 
   private def makeFilterServiceClient(filterName: String) = {
-    VertxEndpointClient.make(vertx, classOf[RouteFilter], Optional.of(filterName))
+    VertxEndpointClient.makeCached(vertx, classOf[RouteFilter], Optional.of(filterName))
   }
 
   private def registerRouteHandler(router: Router, routeConf: RouteConf, routeClient: RouteService): Unit = {
@@ -82,8 +82,10 @@ class ApiServer(serverConf: ApiServerConf) extends ScalaServiceVerticle with Htt
     }
 
     routeConf.filters.getOrElse(Nil).map { filter =>
+      val filterClient = makeFilterServiceClient(filter.name)
+      val filterConf = filter.conf.noSpaces
       route(routeConf.urlPath).handler { ctx =>
-        makeFilterServiceClient(filter.name).applyFilter(ctx, filter.conf.noSpaces).setHandler {
+        filterClient.applyFilter(ctx, filterConf).setHandler {
           result =>
             if (result.failed()) {
               log.error(s"Filter '${filter.name}' failed for ${routeConf.method} ${routeConf.urlPath}", result.cause())